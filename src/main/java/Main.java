@@ -1,20 +1,39 @@
 import common.command.CommandRegister;
 import common.handler.DefaultCommandHandler;
 import common.handler.VoiceCommandHandler;
+import common.util.BotConfig;
 import entrysong.handler.EntrySongHandler;
+import entrysong.repository.EntrySongRegistry;
 import music.handler.MusicCommandHandler;
+import music.handler.PlaybackRestoreHandler;
+import music.service.MusicManager;
 import upload.handler.UploadHandler;
+import upload.repository.UploadIndex;
 import io.github.cdimascio.dotenv.Dotenv;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.JDABuilder;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.channel.unions.AudioChannelUnion;
 import net.dv8tion.jda.api.requests.GatewayIntent;
 
+import java.io.IOException;
+import java.time.Duration;
+
 public class Main {
 
     public static void main(String[] args) {
         Dotenv dotenv = Dotenv.load();
         String token = dotenv.get("TOKEN");
 
+        // 입장곡 조회 때 파일 시스템을 보지 않도록 uploads 목록을 미리 읽고 변경을 감시
+        try {
+            UploadIndex.get().start();
+        } catch (IOException e) {
+            System.out.println("[Main] uploads index failed to start: " + e.getMessage());
+        }
+        // 첫 입장 이벤트에서 읽지 않도록 입장곡 설정을 미리 로드
+        EntrySongRegistry.preload();
+
         JDA jda = JDABuilder.create(
                         token,
                         GatewayIntent.GUILD_MESSAGES,
@@ -31,7 +50,36 @@ public class Main {
                 )
                 .build();
 
+        // 재시작 시 서버별 대기열과 재생 위치를 이어서 재생
+        boolean warmRestart = BotConfig.getBoolean("MUSIC_WARM_RESTART", true);
+        if (warmRestart) {
+            jda.addEventListener(new PlaybackRestoreHandler());
+        }
+
         jda.updateCommands().addCommands().queue();
         CommandRegister.registerCommand(jda);
+
+        // 오래 사용하지 않은 서버의 플레이어 정리
+        MusicManager.get().startIdleReaper(
+                Duration.ofMinutes(BotConfig.getLong("MUSIC_IDLE_TIMEOUT_MIN", 30)),
+                (int) BotConfig.getLong("MUSIC_MAX_IDLE_GUILDS", 500),
+                BotConfig.getDouble("MUSIC_HEAP_PRESSURE_RATIO", 0.85),
+                Duration.ofSeconds(BotConfig.getLong("MUSIC_MIN_IDLE_SECONDS", 60))
+        );
+
+        // 재생 상태를 주기적으로 저장하고, 종료할 때 한 번 더 저장
+        if (warmRestart) {
+            MusicManager.get().startPlaybackSnapshots(
+                    Duration.ofSeconds(BotConfig.getLong("MUSIC_SNAPSHOT_SECONDS", 5)),
+                    Duration.ofSeconds(BotConfig.getLong("MUSIC_SNAPSHOT_POSITION_SECONDS", 30)),
+                    guildId -> {
+                        Guild guild = jda.getGuildById(guildId);
+                        AudioChannelUnion channel = guild == null ? null : guild.getAudioManager().getConnectedChannel();
+                        return channel == null ? 0 : channel.getIdLong();
+                    }
+            );
+            Runtime.getRuntime().addShutdownHook(new Thread(
+                    () -> MusicManager.get().stopPlaybackSnapshots(), "playback-snapshot-flush"));
+        }
     }
-}
\ No newline at end of file
+}
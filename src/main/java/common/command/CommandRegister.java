@@ -68,7 +68,14 @@ public class CommandRegister {
                 .addOption(STRING, "query", "URL 또는 검색어", true));
         commands.add(Commands.slash("skip", "다음 트랙으로"));
         commands.add(Commands.slash("stop", "정지 및 연결 해제"));
-        commands.add(Commands.slash("queue", "대기열 보기"));
+        commands.add(Commands.slash("queue", "대기열 보기")
+                .addOption(INTEGER, "page", "페이지 번호 (비우면 1페이지)", false));
+        commands.add(Commands.slash("remove", "대기열에서 곡 빼기")
+                .addOption(INTEGER, "index", "뺄 곡 번호", true));
+        commands.add(Commands.slash("move", "대기열 곡 위치 옮기기")
+                .addOption(INTEGER, "from", "옮길 곡 번호", true)
+                .addOption(INTEGER, "to", "옮길 위치", true));
+        commands.add(Commands.slash("shuffle", "대기열 섞기"));
         commands.add(Commands.slash("volume", "현재 음악 볼륨을 조절합니다.")
                 .addOption(INTEGER, "level", "0~100 사이의 볼륨 (비우면 현재 볼륨 표시)", false));
         
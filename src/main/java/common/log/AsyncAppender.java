@@ -0,0 +1,194 @@
+package common.log;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 로그를 고정 크기 링 버퍼에 넣고 전용 스레드 하나가 출력하는 appender 입니다.
+ *
+ * 여러 스레드가 동시에 넣을 수 있고(CAS 로 칸을 잡음), 넣는 쪽은 락이나 대기 없이 바로 돌아옵니다.
+ * 버퍼가 가득 차면 기다리지 않고 버린 뒤 개수만 세고, 다음 출력 때 몇 줄을 버렸는지 남깁니다.
+ * PrintStream 은 출력 스레드만 쓰므로 이벤트 스레드끼리 stdout 락을 두고 기다리지 않습니다.
+ * 버퍼가 비면 출력 스레드는 깨울 때까지 잠들고, 잠든 뒤 처음 넣는 쪽 하나만 깨웁니다.
+ * (로그가 없을 때 주기적으로 깨어나 CPU 를 쓰지 않도록)
+ */
+public class AsyncAppender {
+
+    private static final DateTimeFormatter TIME =
+            DateTimeFormatter.ofPattern("HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    private static final class Slot {
+        long timestamp;
+        LogLevel level;
+        String tag;
+        String thread;
+        String message;
+        Throwable error;
+    }
+
+    private final PrintStream out;
+    private final Slot[] slots;
+    private final int mask;
+    // 칸마다 마지막으로 다 쓴 순번 + 1 (출력 스레드가 읽어도 되는지 확인용)
+    private final AtomicLongArray published;
+
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    // 출력 스레드가 잠들었거나 잠들려는 중 (넣는 쪽이 false 로 바꾼 경우에만 unpark)
+    private final AtomicBoolean sleeping = new AtomicBoolean();
+
+    private volatile boolean running;
+    private volatile Thread worker;
+
+    /**
+     * @param capacity 버퍼 칸 수 (2의 거듭제곱으로 올림)
+     */
+    public AsyncAppender(PrintStream out, int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.out = out;
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+        }
+        this.mask = size - 1;
+        this.published = new AtomicLongArray(size);
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::drainLoop, "log-appender");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * 출력 스레드를 멈추고 남은 로그를 모두 출력합니다.
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(worker);
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drain();
+        out.flush();
+    }
+
+    /**
+     * 로그 한 줄을 버퍼에 넣습니다. 기다리지 않습니다.
+     *
+     * @return 버퍼가 가득 차 버렸으면 false
+     */
+    public boolean append(LogLevel level, String tag, String message, Throwable error) {
+        long seq;
+        do {
+            seq = tail.get();
+            if (seq - head.get() >= slots.length) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        } while (!tail.compareAndSet(seq, seq + 1));
+
+        int index = (int) (seq & mask);
+        Slot slot = slots[index];
+        slot.timestamp = System.currentTimeMillis();
+        slot.level = level;
+        slot.tag = tag;
+        slot.thread = Thread.currentThread().getName();
+        slot.message = message;
+        slot.error = error;
+        published.set(index, seq + 1);
+        if (sleeping.get() && sleeping.compareAndSet(true, false)) {
+            LockSupport.unpark(worker);
+        }
+        return true;
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * @return 버퍼에 들어와 아직 출력하지 않은 줄 수
+     */
+    public long pending() {
+        return tail.get() - head.get();
+    }
+
+    /**
+     * 지금까지 다 쓴 칸을 순서대로 출력합니다. 출력 스레드(또는 멈춘 뒤)에서만 호출합니다.
+     *
+     * @return 출력한 줄 수
+     */
+    int drain() {
+        int count = 0;
+        long lastDropped = dropped.get();
+        long h = head.get();
+        while (true) {
+            int index = (int) (h & mask);
+            if (published.get(index) != h + 1) {
+                break;
+            }
+            Slot slot = slots[index];
+            write(slot);
+            slot.message = null;
+            slot.error = null;
+            head.set(++h);
+            count++;
+        }
+        if (lastDropped > 0 && dropped.compareAndSet(lastDropped, 0)) {
+            out.println(TIME.format(Instant.now()) + " WARN  [Log] (log-appender) dropped "
+                    + lastDropped + " lines (buffer full)");
+        }
+        return count;
+    }
+
+    private void write(Slot slot) {
+        StringBuilder line = new StringBuilder(64 + slot.message.length());
+        line.append(TIME.format(Instant.ofEpochMilli(slot.timestamp)))
+                .append(' ');
+        String level = slot.level.name();
+        line.append(level);
+        for (int i = level.length(); i < 5; i++) {
+            line.append(' ');
+        }
+        line.append(" [").append(slot.tag).append("] (").append(slot.thread).append(") ")
+                .append(slot.message);
+        out.println(line);
+        if (slot.error != null) {
+            slot.error.printStackTrace(out);
+        }
+    }
+
+    private void drainLoop() {
+        while (running) {
+            if (drain() > 0) {
+                continue;
+            }
+            out.flush();
+            sleeping.set(true);
+            // 잠들겠다고 표시한 뒤 다시 확인 (그 사이 넣은 쪽은 sleeping 을 보고 깨우거나, 여기서 걸림)
+            long h = head.get();
+            if (running && published.get((int) (h & mask)) != h + 1) {
+                LockSupport.park(this);
+            }
+            sleeping.set(false);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package common.log;
+
+import common.util.BotConfig;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 로거를 만들고 전역 레벨과 AsyncAppender 를 들고 있는 클래스입니다.
+ *
+ * 설정:
+ * - LOG_LEVEL: DEBUG, INFO, WARN, ERROR, OFF (기본 INFO)
+ * - LOG_BUFFER_SIZE: 링 버퍼 칸 수 (기본 8192)
+ *
+ * 종료할 때 남은 로그를 출력하도록 shutdown hook 을 등록합니다.
+ */
+public final class Log {
+
+    private static final Log DEFAULT = createDefault();
+
+    private final AsyncAppender appender;
+    private final Map<String, Logger> loggers = new ConcurrentHashMap<>();
+    private volatile LogLevel level;
+
+    public Log(AsyncAppender appender, LogLevel level) {
+        this.appender = appender;
+        this.level = level;
+    }
+
+    private static Log createDefault() {
+        AsyncAppender appender = new AsyncAppender(System.out,
+                (int) BotConfig.getLong("LOG_BUFFER_SIZE", 8192));
+        appender.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(appender::stop, "log-flush"));
+        return new Log(appender, LogLevel.parse(BotConfig.get("LOG_LEVEL", null), LogLevel.INFO));
+    }
+
+    /**
+     * @param tag 로그 앞에 붙는 태그 (예: "EntrySong")
+     */
+    public static Logger get(String tag) {
+        return DEFAULT.logger(tag);
+    }
+
+    public static void setLevel(LogLevel level) {
+        DEFAULT.level = level;
+    }
+
+    public Logger logger(String tag) {
+        return loggers.computeIfAbsent(tag, t -> new Logger(t, this));
+    }
+
+    public LogLevel level() {
+        return level;
+    }
+
+    public void level(LogLevel level) {
+        this.level = level;
+    }
+
+    AsyncAppender appender() {
+        return appender;
+    }
+}
@@ -0,0 +1,26 @@
+package common.log;
+
+/**
+ * 로그 레벨. 설정한 레벨보다 낮은 로그는 메시지를 만들지 않고 버립니다.
+ */
+public enum LogLevel {
+    DEBUG,
+    INFO,
+    WARN,
+    ERROR,
+    OFF;
+
+    /**
+     * @return 이름이 잘못됐으면 defaultLevel
+     */
+    public static LogLevel parse(String name, LogLevel defaultLevel) {
+        if (name == null) {
+            return defaultLevel;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return defaultLevel;
+        }
+    }
+}
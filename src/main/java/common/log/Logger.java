@@ -0,0 +1,80 @@
+package common.log;
+
+import java.util.function.Supplier;
+
+/**
+ * 태그 하나("[EntrySong]" 같은)에 대한 로거입니다. Log.get(tag) 으로 얻습니다.
+ *
+ * 레벨이 꺼져 있으면 Supplier 를 호출하지 않으므로, 문자열 연결이나 getAsTag() 같은 비용이 들지 않습니다.
+ * 상수 문자열은 String 버전을, 조합하는 메시지는 Supplier 버전을 쓰면 됩니다.
+ */
+public final class Logger {
+
+    private final String tag;
+    private final Log log;
+
+    Logger(String tag, Log log) {
+        this.tag = tag;
+        this.log = log;
+    }
+
+    public String tag() {
+        return tag;
+    }
+
+    public boolean isEnabled(LogLevel level) {
+        return level.compareTo(log.level()) >= 0 && level != LogLevel.OFF;
+    }
+
+    public boolean isDebugEnabled() {
+        return isEnabled(LogLevel.DEBUG);
+    }
+
+    public void debug(String message) {
+        log(LogLevel.DEBUG, message, null);
+    }
+
+    public void debug(Supplier<String> message) {
+        log(LogLevel.DEBUG, message, null);
+    }
+
+    public void info(String message) {
+        log(LogLevel.INFO, message, null);
+    }
+
+    public void info(Supplier<String> message) {
+        log(LogLevel.INFO, message, null);
+    }
+
+    public void warn(String message) {
+        log(LogLevel.WARN, message, null);
+    }
+
+    public void warn(Supplier<String> message) {
+        log(LogLevel.WARN, message, null);
+    }
+
+    public void warn(String message, Throwable error) {
+        log(LogLevel.WARN, message, error);
+    }
+
+    public void error(String message, Throwable error) {
+        log(LogLevel.ERROR, message, error);
+    }
+
+    public void error(Supplier<String> message, Throwable error) {
+        log(LogLevel.ERROR, message, error);
+    }
+
+    private void log(LogLevel level, String message, Throwable error) {
+        if (isEnabled(level)) {
+            log.appender().append(level, tag, message, error);
+        }
+    }
+
+    private void log(LogLevel level, Supplier<String> message, Throwable error) {
+        if (isEnabled(level)) {
+            log.appender().append(level, tag, message.get(), error);
+        }
+    }
+}
@@ -0,0 +1,425 @@
+package common.storage;
+
+import common.log.Log;
+import common.log.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+/**
+ * 키마다 레코드를 파일 끝에 덧붙이고, 키 → 마지막 레코드 위치 인덱스로 한 건씩 읽는 로컬 파일 저장소입니다.
+ *
+ * put()/remove() 는 레코드 하나를 큐에 넣고 바로 돌아옵니다. 잠시 모았다가 백그라운드에서 파일 끝에 쓰고 fsync 하므로
+ * 변경 한 건의 비용이 저장된 항목 수와 상관없습니다. get() 은 인덱스의 위치에서 레코드 하나만 읽습니다.
+ * 시작할 때는 파일을 메모리 매핑해 처음부터 순서대로 읽으며 인덱스를 만듭니다. (리플렉션/JSON 파싱 없음)
+ *
+ * 덮어쓰거나 지운 레코드가 파일의 절반을 넘고 파일이 compactBytes 보다 크면, 살아 있는 레코드만 새 파일로 옮겨
+ * 원자적으로 교체합니다. 쓰다 만 마지막 레코드는 CRC 로 확인해 시작할 때 잘라냅니다.
+ *
+ * 파일 형식: MAGIC, VERSION, 레코드 반복 [길이(4), CRC32(4), 본문 (종류 1바이트, 키, SET 이면 값)]
+ */
+public class IndexedFileStore<V> implements KeyValueStore<V> {
+
+    private static final Logger LOG = Log.get("IndexedStore");
+
+    private static final int MAGIC = 0x4b564442; // "KVDB"
+    private static final byte VERSION = 1;
+    private static final int HEADER_BYTES = 5;
+    private static final byte OP_SET = 1;
+    private static final byte OP_REMOVE = 2;
+    private static final int MAX_RECORD_BYTES = 64 * 1024;
+
+    // 파일 안의 레코드 위치 (길이/CRC 포함)
+    private static final class Slot {
+        final long offset;
+        final int length;
+
+        Slot(long offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    // 아직 파일에 쓰지 않은 변경 (value 가 null 이면 삭제)
+    private static final class Pending<V> {
+        final String key;
+        final V value;
+        final byte[] record;
+
+        Pending(String key, V value, byte[] record) {
+            this.key = key;
+            this.value = value;
+            this.record = record;
+        }
+    }
+
+    private final Path path;
+    private final ValueCodec<V> codec;
+    private final ScheduledExecutorService executor;
+    private final long delayMillis;
+    private final long compactBytes;
+
+    private final Queue<Pending<V>> pending = new ConcurrentLinkedQueue<>();
+    // get() 이 아직 쓰지 않은 변경도 보도록 키마다 마지막 변경
+    private final Map<String, Pending<V>> unwritten = new ConcurrentHashMap<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    // 아래는 this 로 동기화
+    private Map<String, Slot> index = new HashMap<>();
+    private FileChannel channel;
+    private long fileBytes;
+    private long garbageBytes;
+    private long compactions;
+
+    /**
+     * @param delayMillis  레코드를 모으는 시간
+     * @param compactBytes 파일이 이 크기를 넘고 절반 이상이 지난 레코드면 압축
+     */
+    public IndexedFileStore(Path path, ValueCodec<V> codec, ScheduledExecutorService executor,
+                            long delayMillis, long compactBytes) {
+        this.path = path;
+        this.codec = codec;
+        this.executor = executor;
+        this.delayMillis = delayMillis;
+        this.compactBytes = compactBytes;
+    }
+
+    @Override
+    public synchronized int load(Map<String, V> state) throws IOException {
+        state.clear();
+        index.clear();
+        garbageBytes = 0;
+        Path dir = path.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+
+        FileChannel opened = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        int count;
+        try {
+            count = replay(opened, state);
+        } catch (IOException | RuntimeException e) {
+            opened.close();
+            throw e;
+        }
+        channel = opened;
+
+        if (shouldCompact()) {
+            schedule(0);
+        }
+        return count;
+    }
+
+    @Override
+    public V get(String key) throws IOException {
+        Pending<V> change = unwritten.get(key);
+        if (change != null) {
+            return change.value;
+        }
+        synchronized (this) {
+            Slot slot = index.get(key);
+            if (slot == null || channel == null) {
+                return null;
+            }
+            ByteBuffer record = ByteBuffer.allocate(slot.length);
+            while (record.hasRemaining()) {
+                if (channel.read(record, slot.offset + record.position()) < 0) {
+                    throw new IOException("unexpected end of " + path.getFileName());
+                }
+            }
+            record.flip().position(8);
+            try {
+                record.get(); // 종류 (인덱스에는 SET 만 있음)
+                ValueCodec.readString(record);
+                return codec.read(record);
+            } catch (BufferUnderflowException e) {
+                throw new IOException("corrupt record for " + key, e);
+            }
+        }
+    }
+
+    @Override
+    public void put(String key, V value) {
+        enqueue(new Pending<>(key, value, encode(OP_SET, key, value)));
+    }
+
+    @Override
+    public void remove(String key) {
+        enqueue(new Pending<>(key, null, encode(OP_REMOVE, key, null)));
+    }
+
+    /**
+     * 모아 둔 레코드를 파일 끝에 쓰고 fsync 합니다. 지난 레코드가 많으면 압축합니다.
+     */
+    @Override
+    public synchronized void flush() throws IOException {
+        scheduled.set(false);
+        if (channel == null) {
+            // load() 전이거나 실패했거나 닫힌 뒤 → 기존 파일을 건드리지 않음
+            pending.clear();
+            unwritten.clear();
+            return;
+        }
+        Pending<V> change;
+        boolean wrote = false;
+        while ((change = pending.peek()) != null) {
+            long offset = fileBytes;
+            ByteBuffer record = ByteBuffer.wrap(change.record);
+            while (record.hasRemaining()) {
+                channel.write(record, offset + record.position());
+            }
+            // 쓴 뒤에 꺼냄 (실패하면 다음 flush 에서 같은 위치에 다시 씀)
+            pending.poll();
+            fileBytes += change.record.length;
+            index(change.key, change.value != null, offset, change.record.length);
+            unwritten.remove(change.key, change);
+            wrote = true;
+        }
+        if (wrote) {
+            channel.force(false);
+        }
+        if (shouldCompact()) {
+            compact();
+        }
+    }
+
+    /**
+     * 살아 있는 레코드만 새 파일로 옮기고 원자적으로 교체합니다.
+     */
+    public synchronized void compact() throws IOException {
+        long started = System.nanoTime();
+        long before = fileBytes;
+        Path tmp = path.resolveSibling(path.getFileName() + ".compact");
+
+        // 이전 파일을 앞에서부터 읽도록 위치 순으로
+        List<Map.Entry<String, Slot>> live = new ArrayList<>(index.entrySet());
+        live.sort(Comparator.comparingLong(e -> e.getValue().offset));
+
+        Map<String, Slot> compacted = new HashMap<>(Math.max(16, live.size() * 2));
+        long position = HEADER_BYTES;
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeHeader(out);
+            // transferTo 는 채널 위치에 씀 (writeHeader 는 위치를 옮기지 않음)
+            out.position(HEADER_BYTES);
+            for (Map.Entry<String, Slot> entry : live) {
+                Slot slot = entry.getValue();
+                long copied = 0;
+                while (copied < slot.length) {
+                    copied += channel.transferTo(slot.offset + copied, slot.length - copied, out);
+                }
+                compacted.put(entry.getKey(), new Slot(position, slot.length));
+                position += slot.length;
+            }
+            out.force(true);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        channel.close();
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        index = compacted;
+        fileBytes = position;
+        garbageBytes = 0;
+        compactions++;
+        long after = position;
+        LOG.info(() -> "compacted " + path.getFileName() + ": " + compacted.size() + " entries, "
+                + before + " -> " + after + " bytes in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) + "ms");
+    }
+
+    /**
+     * 남은 레코드를 쓰고 파일을 닫습니다. executor 는 다른 저장소와 함께 쓸 수 있으므로 종료하지 않습니다.
+     * (닫은 뒤 실행되는 예약 저장은 파일이 없으므로 아무것도 하지 않음)
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            flush();
+        } catch (IOException e) {
+            LOG.error("final flush failed for " + path.getFileName(), e);
+        }
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException ignored) {
+        }
+        channel = null;
+    }
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    public synchronized long getFileBytes() {
+        return fileBytes;
+    }
+
+    public synchronized long getGarbageBytes() {
+        return garbageBytes;
+    }
+
+    public synchronized long getCompactions() {
+        return compactions;
+    }
+
+    private void enqueue(Pending<V> change) {
+        unwritten.put(change.key, change);
+        pending.offer(change);
+        schedule(delayMillis);
+    }
+
+    private void schedule(long delay) {
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                executor.schedule(this::flushQuietly, delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // 종료 중 → close() 에서 저장
+                scheduled.set(false);
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException | RuntimeException e) {
+            LOG.error(() -> "write failed for " + path.getFileName() + ", retry on next change", e);
+        }
+    }
+
+    private boolean shouldCompact() {
+        return fileBytes > compactBytes && garbageBytes * 2 > fileBytes;
+    }
+
+    private void index(String key, boolean set, long offset, int length) {
+        Slot previous = set ? index.put(key, new Slot(offset, length)) : index.remove(key);
+        if (previous != null) {
+            garbageBytes += previous.length;
+        }
+        if (!set) {
+            // 삭제 레코드는 압축하면 필요 없음
+            garbageBytes += length;
+        }
+    }
+
+    /**
+     * 파일을 처음부터 읽어 인덱스와 state 를 채웁니다. 끝에 쓰다 만 레코드가 있으면 그 앞까지 잘라냅니다.
+     */
+    private int replay(FileChannel file, Map<String, V> state) throws IOException {
+        long size = file.size();
+        if (size < HEADER_BYTES) {
+            // 새 파일 (또는 헤더를 쓰다 만 파일)
+            file.truncate(0);
+            writeHeader(file);
+            file.force(true);
+            fileBytes = HEADER_BYTES;
+            return 0;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException(path.getFileName() + " is too large: " + size + " bytes");
+        }
+        MappedByteBuffer mapped = file.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        if (mapped.getInt(0) != MAGIC || mapped.get(4) != VERSION) {
+            throw new IOException(path.getFileName() + " is not an indexed store (version " + VERSION + ")");
+        }
+
+        CRC32 crc = new CRC32();
+        int count = 0;
+        int position = HEADER_BYTES;
+        while (position + 8 <= size) {
+            int length = mapped.getInt(position);
+            if (length <= 0 || length > MAX_RECORD_BYTES || position + 8L + length > size) {
+                break;
+            }
+            ByteBuffer payload = mapped.slice(position + 8, length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != mapped.getInt(position + 4)) {
+                break;
+            }
+            try {
+                apply(payload, position, 8 + length, state);
+            } catch (BufferUnderflowException e) {
+                break;
+            }
+            position += 8 + length;
+            count++;
+        }
+        fileBytes = position;
+        if (position < size) {
+            LOG.warn(() -> "truncating torn tail of " + path.getFileName());
+            file.truncate(position);
+        }
+        return count;
+    }
+
+    private void apply(ByteBuffer payload, long offset, int length, Map<String, V> state) throws IOException {
+        byte op = payload.get();
+        String key = ValueCodec.readString(payload);
+        if (op == OP_SET) {
+            V value = codec.read(payload);
+            index(key, true, offset, length);
+            state.put(key, value);
+        } else if (op == OP_REMOVE) {
+            index(key, false, offset, length);
+            state.remove(key);
+        } else {
+            throw new IOException("unknown record op " + op + " in " + path.getFileName());
+        }
+    }
+
+    private static void writeHeader(FileChannel file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).put(VERSION);
+        header.flip();
+        while (header.hasRemaining()) {
+            file.write(header, header.position());
+        }
+    }
+
+    private byte[] encode(byte op, String key, V value) {
+        try {
+            ByteArrayOutputStream body = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(body);
+            out.writeByte(op);
+            ValueCodec.writeString(out, key);
+            if (op == OP_SET) {
+                codec.write(out, value);
+            }
+            byte[] payload = body.toByteArray();
+            if (payload.length > MAX_RECORD_BYTES) {
+                throw new IllegalArgumentException("record too large for " + key + ": " + payload.length + " bytes");
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            ByteBuffer record = ByteBuffer.allocate(8 + payload.length);
+            record.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+            return record.array();
+        } catch (IOException e) {
+            // 메모리 스트림이라 발생하지 않음 (너무 긴 문자열 제외)
+            throw new IllegalArgumentException("cannot encode record for " + key, e);
+        }
+    }
+}
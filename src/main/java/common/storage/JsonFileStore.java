@@ -0,0 +1,103 @@
+package common.storage;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * 맵 전체를 JSON 파일 하나로 저장하는 저장소입니다. (이전 버전의 저장 방식)
+ *
+ * 변경은 WriteBehindPersister 로 잠시 모았다가 파일 전체를 다시 씁니다.
+ * 사람이 읽고 고치기 쉽지만, 저장 비용이 항목 수에 비례하므로 항목이 적을 때 쓰세요.
+ */
+public class JsonFileStore<V> implements KeyValueStore<V> {
+
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    private final Path path;
+    private final Type mapType;
+    private final WriteBehindPersister persister;
+
+    // load() 로 받은 레지스트리의 맵 (저장할 때 읽음)
+    private volatile Map<String, V> state;
+
+    /**
+     * @param mapType Map&lt;String, V&gt; 의 Type (TypeToken 으로 만듦)
+     */
+    public JsonFileStore(Path path, Type mapType, ScheduledExecutorService executor, long delayMillis) {
+        this.path = path;
+        this.mapType = mapType;
+        this.persister = new WriteBehindPersister(path, this::write, executor, delayMillis);
+    }
+
+    @Override
+    public int load(Map<String, V> state) throws IOException {
+        state.clear();
+        int count = 0;
+        if (Files.exists(path)) {
+            try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                Map<String, V> loaded = GSON.fromJson(reader, mapType);
+                if (loaded != null) {
+                    state.putAll(loaded);
+                    count = loaded.size();
+                }
+            } catch (JsonParseException e) {
+                throw new IOException("unreadable " + path.getFileName(), e);
+            }
+        }
+        this.state = state;
+        return count;
+    }
+
+    @Override
+    public V get(String key) {
+        Map<String, V> current = state;
+        return current != null ? current.get(key) : null;
+    }
+
+    @Override
+    public void put(String key, V value) {
+        markDirty();
+    }
+
+    @Override
+    public void remove(String key) {
+        markDirty();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        persister.flush();
+    }
+
+    @Override
+    public void close() {
+        persister.close();
+    }
+
+    private void markDirty() {
+        // load() 전이거나 실패했으면 기존 파일을 덮어쓰지 않음
+        if (state != null) {
+            persister.markDirty();
+        }
+    }
+
+    private void write(OutputStream out) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        GSON.toJson(new TreeMap<>(state), mapType, writer);
+        writer.flush();
+    }
+}
@@ -0,0 +1,52 @@
+package common.storage;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * 봇 상태(입장곡 설정, 업로드 채널 등)를 파일에 저장하는 저장소 인터페이스입니다.
+ *
+ * 레지스트리는 조회할 때 메모리의 맵만 보고, 저장소에는 시작할 때 load() 로 한 번 채운 뒤 변경만 알립니다.
+ * put()/remove() 는 메모리 맵을 바꾼 순서대로 (같은 키는 같은 락 안에서) 불러야 하며, 바로 돌아와야 합니다.
+ * 파일에 쓰는 시점은 구현이 정합니다. (모았다가 백그라운드에서 쓰고, flush()/close() 에서는 바로 씀)
+ *
+ * 구현:
+ * - JsonFileStore: 맵 전체를 JSON 파일 하나로 (변경마다 파일 전체를 다시 씀)
+ * - IndexedFileStore: 키마다 레코드를 덧붙이고 키 → 위치 인덱스로 한 건씩 읽고 쓰는 로컬 파일
+ * - EntrySongStore: 입장곡 전용 저널 + 바이너리 스냅샷
+ *
+ * @param <V> 값 타입 (키는 문자열)
+ */
+public interface KeyValueStore<V> {
+
+    /**
+     * 저장된 항목으로 state 를 채웁니다.
+     *
+     * 구현에 따라 이후 스냅샷을 쓸 때 state 를 다시 읽으므로, 레지스트리의 메모리 맵(또는 그 뷰)을 넘기세요.
+     *
+     * @return 적용한 레코드 수
+     */
+    int load(Map<String, V> state) throws IOException;
+
+    /**
+     * 파일에 저장된 값을 읽습니다. (아직 쓰지 않은 변경도 반영)
+     *
+     * @return 없으면 null
+     */
+    V get(String key) throws IOException;
+
+    void put(String key, V value);
+
+    void remove(String key);
+
+    /**
+     * 아직 쓰지 않은 변경을 지금 파일에 씁니다.
+     */
+    void flush() throws IOException;
+
+    /**
+     * 남은 변경을 쓰고 닫습니다.
+     * 생성할 때 받은 executor 는 종료하지 않습니다. (여러 저장소가 함께 쓰므로 만든 쪽이 종료)
+     */
+    void close();
+}
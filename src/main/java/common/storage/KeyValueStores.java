@@ -0,0 +1,40 @@
+package common.storage;
+
+import common.log.Log;
+import common.log.Logger;
+
+import java.lang.reflect.Type;
+import java.nio.file.Path;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * 설정 값(json / indexed)에 맞는 KeyValueStore 를 만드는 클래스입니다.
+ */
+public final class KeyValueStores {
+
+    private static final Logger LOG = Log.get("KeyValueStores");
+
+    public static final String JSON = "json";
+    public static final String INDEXED = "indexed";
+
+    private KeyValueStores() {}
+
+    /**
+     * @param basePath     확장자를 뺀 파일 경로 (json → .json, indexed → .db)
+     * @param mapType      JSON 으로 읽을 Map&lt;String, V&gt; 의 Type
+     * @param compactBytes indexed 에서 압축을 고려하기 시작하는 파일 크기
+     */
+    public static <V> KeyValueStore<V> open(String backend, Path basePath, ValueCodec<V> codec, Type mapType,
+                                            ScheduledExecutorService executor, long delayMillis,
+                                            long compactBytes) {
+        String name = basePath.getFileName().toString();
+        if (JSON.equalsIgnoreCase(backend)) {
+            return new JsonFileStore<>(basePath.resolveSibling(name + ".json"), mapType, executor, delayMillis);
+        }
+        if (!INDEXED.equalsIgnoreCase(backend)) {
+            LOG.warn(() -> "unknown store backend '" + backend + "' for " + name + ", using " + INDEXED);
+        }
+        return new IndexedFileStore<>(basePath.resolveSibling(name + ".db"), codec, executor, delayMillis,
+                compactBytes);
+    }
+}
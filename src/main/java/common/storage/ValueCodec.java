@@ -0,0 +1,56 @@
+package common.storage;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * IndexedFileStore 에 값을 바이너리로 저장할 때 쓰는 변환기입니다.
+ *
+ * read() 는 write() 가 쓴 바이트를 같은 순서로 읽어야 합니다. 값이 잘려 있으면 BufferUnderflowException 이 나도 됩니다.
+ */
+public interface ValueCodec<V> {
+
+    void write(DataOutput out, V value) throws IOException;
+
+    V read(ByteBuffer in);
+
+    /**
+     * long 값 (채널/서버 ID 등)
+     */
+    ValueCodec<Long> LONG = new ValueCodec<>() {
+        @Override
+        public void write(DataOutput out, Long value) throws IOException {
+            out.writeLong(value);
+        }
+
+        @Override
+        public Long read(ByteBuffer in) {
+            return in.getLong();
+        }
+    };
+
+    /**
+     * 길이 2바이트 + UTF-8 바이트로 씁니다. (최대 65535 바이트)
+     */
+    static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xffff) {
+            throw new IOException("string too long: " + bytes.length + " bytes");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(ByteBuffer in) {
+        int length = in.getShort() & 0xffff;
+        if (length > in.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
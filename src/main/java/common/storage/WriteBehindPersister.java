@@ -0,0 +1,125 @@
+package common.storage;
+
+import common.log.Log;
+import common.log.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 변경을 바로 쓰지 않고 잠시 모았다가 백그라운드에서 파일 하나로 저장하는 클래스입니다.
+ *
+ * markDirty() 는 변경이 있었다고 표시만 하고 바로 돌아옵니다. 처음 표시된 뒤 delayMillis 가 지나면
+ * 그 사이의 변경을 한 번에 저장하므로, 연달아 바뀌어도 파일은 한 번만 씁니다.
+ * 임시 파일에 쓰고 fsync 한 뒤 원자적으로 교체하므로, 쓰는 도중 종료돼도 이전 파일이 그대로 남습니다.
+ *
+ * 종료할 때는 close() 로 남은 변경을 바로 저장합니다.
+ * 저장 스레드(executor)는 여러 저장소가 함께 쓸 수 있으므로 만든 쪽이 종료합니다.
+ */
+public class WriteBehindPersister {
+
+    private static final Logger LOG = Log.get("WriteBehind");
+
+    /**
+     * 저장할 시점의 내용을 스트림에 씁니다. (저장 스레드에서 호출)
+     */
+    public interface Writer {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private final Path target;
+    private final Writer writer;
+    private final ScheduledExecutorService executor;
+    private final long delayMillis;
+
+    // 변경될 때마다 증가, 저장이 끝나면 저장한 시점의 값을 written 에 기록
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicLong writes = new AtomicLong();
+
+    public WriteBehindPersister(Path target, Writer writer, ScheduledExecutorService executor, long delayMillis) {
+        this.target = target;
+        this.writer = writer;
+        this.executor = executor;
+        this.delayMillis = delayMillis;
+    }
+
+    /**
+     * 변경이 있었다고 표시합니다. 저장은 잠시 뒤 백그라운드에서 합니다.
+     */
+    public void markDirty() {
+        version.incrementAndGet();
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                executor.schedule(this::flushQuietly, delayMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // 종료 중 → close() 에서 저장
+                scheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * 저장하지 않은 변경이 있으면 지금 저장합니다.
+     */
+    public synchronized void flush() throws IOException {
+        // 쓰는 도중 들어온 변경은 다시 예약되도록 먼저 내림
+        scheduled.set(false);
+        long current = version.get();
+        if (current == written.get()) {
+            return;
+        }
+
+        Path dir = target.getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(tmp.toFile());
+             OutputStream out = new BufferedOutputStream(file)) {
+            writer.writeTo(out);
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        written.set(current);
+        writes.incrementAndGet();
+    }
+
+    /**
+     * 남은 변경을 바로 저장합니다. executor 는 종료하지 않습니다.
+     */
+    public void close() {
+        flushQuietly();
+    }
+
+    public boolean isDirty() {
+        return version.get() != written.get();
+    }
+
+    /**
+     * @return 지금까지 파일을 쓴 횟수
+     */
+    public long getWrites() {
+        return writes.get();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException | RuntimeException e) {
+            LOG.error(() -> "save failed for " + target.getFileName() + ", retry on next change", e);
+        }
+    }
+}
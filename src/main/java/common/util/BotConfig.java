@@ -0,0 +1,54 @@
+package common.util;
+
+import io.github.cdimascio.dotenv.Dotenv;
+
+/**
+ * .env 파일(또는 환경 변수)에서 봇 설정 값을 읽어오는 유틸리티 클래스입니다.
+ *
+ * .env 파일이 없어도 동작하며, 값이 없거나 형식이 잘못되면 기본값을 사용합니다.
+ */
+public final class BotConfig {
+
+    private static final Dotenv DOTENV = Dotenv.configure()
+            .ignoreIfMissing()
+            .load();
+
+    private BotConfig() {
+    }
+
+    public static String get(String key, String defaultValue) {
+        String value = DOTENV.get(key);
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String value = get(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            System.out.println("[BotConfig] invalid number for " + key + "=" + value + ", use default " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public static double getDouble(String key, double defaultValue) {
+        String value = get(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            System.out.println("[BotConfig] invalid number for " + key + "=" + value + ", use default " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = get(key, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+}
@@ -0,0 +1,101 @@
+package common.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 지연 시간(ms)을 기록하는 가벼운 히스토그램입니다.
+ *
+ * 1ms ~ 약 10분 구간을 약 10% 간격의 로그 스케일 구간으로 나눠 개수만 세므로
+ * 기록은 락 없이 O(1) 이고, 백분위수는 구간 상한 값으로 근사합니다.
+ */
+public class LatencyHistogram {
+
+    private static final double GROWTH = 1.1;
+    private static final long[] UPPER_BOUNDS = buildBounds(600_000L);
+
+    private final AtomicLongArray counts = new AtomicLongArray(UPPER_BOUNDS.length + 1);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    private static long[] buildBounds(long limit) {
+        long[] bounds = new long[256];
+        int n = 0;
+        double bound = 1;
+        while ((long) bound < limit) {
+            long next = Math.max(n == 0 ? 1 : bounds[n - 1] + 1, (long) bound);
+            bounds[n++] = next;
+            bound = Math.max(bound * GROWTH, next + 1);
+        }
+        bounds[n++] = limit;
+        long[] result = new long[n];
+        System.arraycopy(bounds, 0, result, 0, n);
+        return result;
+    }
+
+    public void record(long millis) {
+        long value = Math.max(0, millis);
+        counts.incrementAndGet(bucketOf(value));
+        total.incrementAndGet();
+        sum.addAndGet(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    private static int bucketOf(long value) {
+        int lo = 0;
+        int hi = UPPER_BOUNDS.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (UPPER_BOUNDS[mid] < value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * @param quantile 0.0 ~ 1.0 (예: 0.95)
+     * @return 해당 백분위수의 근사값(ms), 기록이 없으면 0
+     */
+    public long percentile(double quantile) {
+        long count = total.get();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(Math.min(1.0, Math.max(0.0, quantile)) * count);
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= Math.max(1, rank)) {
+                return i < UPPER_BOUNDS.length ? Math.min(UPPER_BOUNDS[i], max.get()) : max.get();
+            }
+        }
+        return max.get();
+    }
+
+    public long getCount() {
+        return total.get();
+    }
+
+    public double getMean() {
+        long count = total.get();
+        return count == 0 ? 0 : sum.get() / (double) count;
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + getCount() +
+                ", mean=" + String.format("%.1f", getMean()) +
+                "ms, p50=" + percentile(0.5) +
+                "ms, p95=" + percentile(0.95) +
+                "ms, p99=" + percentile(0.99) +
+                "ms, max=" + getMax() + "ms";
+    }
+}
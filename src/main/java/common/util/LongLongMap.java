@@ -0,0 +1,222 @@
+package common.util;
+
+import java.util.Arrays;
+
+/**
+ * long 키 → long 값을 박싱하지 않고 저장하는 오픈 어드레싱 해시 맵입니다. (선형 탐사)
+ *
+ * 서버 ID → 채널 ID 처럼 키와 값이 모두 snowflake/숫자일 때 Long 객체 없이 배열 두 개에 바로 넣습니다.
+ * 키 0 을 빈 칸 표시로 쓰므로, 키 0 은 배열 밖 필드에 따로 저장합니다.
+ * 삭제할 때는 뒤따르는 칸을 당겨 채웁니다. (LongObjectMap 과 같은 방식)
+ *
+ * 스레드 안전하지 않습니다. 여러 스레드에서 쓰면 바깥에서 동기화하거나, 복사본을 바꿔 volatile 로 공개하세요.
+ */
+public class LongLongMap {
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    /**
+     * forEach 에 넘기는 콜백
+     */
+    public interface EntryConsumer {
+        void accept(long key, long value);
+    }
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    private boolean hasZeroKey;
+    private long zeroValue;
+
+    public LongLongMap() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize 미리 확보할 항목 수
+     */
+    public LongLongMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * other 와 같은 항목을 가진 복사본을 만듭니다. (같은 용량이라 다시 해시하지 않음)
+     */
+    public LongLongMap(LongLongMap other) {
+        keys = other.keys.clone();
+        values = other.values.clone();
+        mask = other.mask;
+        size = other.size;
+        resizeAt = other.resizeAt;
+        hasZeroKey = other.hasZeroKey;
+        zeroValue = other.zeroValue;
+    }
+
+    /**
+     * @param missing 키가 없을 때 돌려줄 값
+     */
+    public long get(long key, long missing) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : missing;
+        }
+        int index = slot(key);
+        long existing;
+        while ((existing = keys[index]) != 0) {
+            if (existing == key) {
+                return values[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return missing;
+    }
+
+    public boolean containsKey(long key) {
+        if (key == 0) {
+            return hasZeroKey;
+        }
+        int index = slot(key);
+        long existing;
+        while ((existing = keys[index]) != 0) {
+            if (existing == key) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * @return 새로 넣었으면 true, 기존 값을 바꿨으면 false
+     */
+    public boolean put(long key, long value) {
+        if (key == 0) {
+            boolean added = !hasZeroKey;
+            hasZeroKey = true;
+            zeroValue = value;
+            if (added) {
+                size++;
+            }
+            return added;
+        }
+        int index = slot(key);
+        long existing;
+        while ((existing = keys[index]) != 0) {
+            if (existing == key) {
+                values[index] = value;
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size > resizeAt) {
+            rehash(keys.length << 1);
+        }
+        return true;
+    }
+
+    /**
+     * @return 지웠으면 true
+     */
+    public boolean remove(long key) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                return false;
+            }
+            hasZeroKey = false;
+            size--;
+            return true;
+        }
+        int index = slot(key);
+        long existing;
+        while ((existing = keys[index]) != 0) {
+            if (existing == key) {
+                shiftBack(index);
+                size--;
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        hasZeroKey = false;
+        size = 0;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        if (hasZeroKey) {
+            consumer.accept(0, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    private void shiftBack(int hole) {
+        int index = hole;
+        while (true) {
+            index = (index + 1) & mask;
+            long key = keys[index];
+            if (key == 0) {
+                break;
+            }
+            int home = slot(key);
+            // home 이 (hole, index] 구간 밖이면 hole 로 옮겨도 탐사로 찾을 수 있음
+            if (((index - home) & mask) >= ((index - hole) & mask)) {
+                keys[hole] = key;
+                values[hole] = values[index];
+                hole = index;
+            }
+        }
+        keys[hole] = 0;
+    }
+
+    private int slot(long key) {
+        return (int) LongObjectMap.mix(key) & mask;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int index = slot(oldKeys[i]);
+                while (keys[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long needed = (long) Math.ceil(Math.max(expectedSize, 4) / LOAD_FACTOR) + 1;
+        int capacity = Integer.highestOneBit((int) Math.min(needed, 1 << 30));
+        return capacity < needed ? capacity << 1 : capacity;
+    }
+}
@@ -0,0 +1,201 @@
+package common.util;
+
+import java.util.Arrays;
+
+/**
+ * long 키를 박싱하지 않고 저장하는 오픈 어드레싱 해시 맵입니다. (선형 탐사)
+ *
+ * 디스코드 유저 ID 같은 snowflake 를 키로 쓸 때 Long 객체나 Map.Entry 를 만들지 않도록 키와 값을 배열 두 개에 바로 넣습니다.
+ * 값이 null 인 칸을 빈 칸으로 보므로 null 값은 넣을 수 없습니다.
+ * 삭제할 때는 뒤따르는 칸을 당겨 채우므로(backward shift) 삭제 표시가 쌓이지 않습니다.
+ *
+ * 스레드 안전하지 않습니다. 여러 스레드에서 쓰면 바깥에서 동기화해야 합니다.
+ * (복사본을 만들어 바꾼 뒤 volatile 로 공개하는 식으로 쓰는 것은 StripedLongObjectMap 참고)
+ */
+public class LongObjectMap<V> {
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    /**
+     * forEach 에 넘기는 콜백
+     */
+    public interface EntryConsumer<V> {
+        void accept(long key, V value);
+    }
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    public LongObjectMap() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize 미리 확보할 항목 수
+     */
+    public LongObjectMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * other 와 같은 항목을 가진 복사본을 만듭니다. (같은 용량이라 다시 해시하지 않음)
+     */
+    public LongObjectMap(LongObjectMap<? extends V> other) {
+        keys = other.keys.clone();
+        values = other.values.clone();
+        mask = other.mask;
+        size = other.size;
+        resizeAt = other.resizeAt;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int index = slot(key);
+        Object value;
+        while ((value = values[index]) != null) {
+            if (keys[index] == key) {
+                return (V) value;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @return 이전 값 (없었으면 null)
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("null value");
+        }
+        int index = slot(key);
+        Object existing;
+        while ((existing = values[index]) != null) {
+            if (keys[index] == key) {
+                values[index] = value;
+                return (V) existing;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size > resizeAt) {
+            rehash(values.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * @return 지운 값 (없었으면 null)
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int index = slot(key);
+        Object existing;
+        while ((existing = values[index]) != null) {
+            if (keys[index] == key) {
+                shiftBack(index);
+                size--;
+                return (V) existing;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> consumer) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                consumer.accept(keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    /**
+     * 지운 칸 뒤에 이어진 항목 중 원래 자리가 지운 칸 이전인 것을 당겨 와서, 탐사가 끊기지 않게 합니다.
+     */
+    private void shiftBack(int hole) {
+        int index = hole;
+        while (true) {
+            index = (index + 1) & mask;
+            Object value = values[index];
+            if (value == null) {
+                break;
+            }
+            int home = slot(keys[index]);
+            // home 이 (hole, index] 구간 밖이면 hole 로 옮겨도 탐사로 찾을 수 있음
+            if (((index - home) & mask) >= ((index - hole) & mask)) {
+                keys[hole] = keys[index];
+                values[hole] = value;
+                hole = index;
+            }
+        }
+        values[hole] = null;
+    }
+
+    private int slot(long key) {
+        return (int) mix(key) & mask;
+    }
+
+    // murmur3 fmix64: snowflake 의 아래 비트(일련번호)가 몰려도 고르게 퍼지도록
+    static long mix(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int index = slot(oldKeys[i]);
+                while (values[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long needed = (long) Math.ceil(Math.max(expectedSize, 4) / LOAD_FACTOR) + 1;
+        int capacity = Integer.highestOneBit((int) Math.min(needed, 1 << 30));
+        return capacity < needed ? capacity << 1 : capacity;
+    }
+}
@@ -0,0 +1,212 @@
+package common.util;
+
+/**
+ * 읽기는 락 없이, 쓰기는 키가 속한 구간(stripe)만 잠그는 long 키 맵입니다.
+ *
+ * 키를 해시로 여러 구간으로 나누고, 구간마다 LongObjectMap 을 하나씩 둡니다.
+ * 쓸 때는 그 구간의 맵을 복사해 바꾼 뒤 volatile 필드로 통째로 바꿔 끼우므로(copy-on-write),
+ * 읽는 쪽은 락이나 재시도 없이 언제나 완성된 맵 하나를 봅니다.
+ * 쓰기마다 구간 하나(전체 / 구간 수)를 복사하므로, 읽기가 대부분이고 쓰기는 드문 경우에 맞습니다.
+ * 처음 채울 때는 putAll() 로 구간마다 한 번만 복사하세요.
+ *
+ * 서로 다른 구간의 쓰기는 동시에 진행되고, 같은 구간의 쓰기는 차례로 진행됩니다.
+ * compute() 의 함수는 구간 락 안에서 실행됩니다. 변경을 바뀐 순서대로 기록할 때는
+ * 바뀐 값이 보인 뒤 호출되는 ChangeListener 를 넘기세요. (함수 안에서 기록하면 아직 보이지 않는 값을 기록하게 됨)
+ */
+public class StripedLongObjectMap<V> {
+
+    /**
+     * compute() 에 넘기는 함수. null 을 돌려주면 키를 지웁니다.
+     */
+    public interface RemappingFunction<V> {
+        V apply(long key, V old);
+    }
+
+    /**
+     * compute() 로 값이 바뀐 뒤, 새 값을 공개하고 구간 락을 잡은 채로 호출됩니다.
+     */
+    public interface ChangeListener<V> {
+        void changed(long key, V old, V next);
+    }
+
+    private static final class Stripe<V> {
+        volatile LongObjectMap<V> map = new LongObjectMap<>();
+    }
+
+    private final Stripe<V>[] stripes;
+    private final int shift;
+
+    /**
+     * @param stripeCount 구간 수 (2의 거듭제곱으로 올림)
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public StripedLongObjectMap(int stripeCount) {
+        int count = Integer.highestOneBit(Math.max(1, Math.min(stripeCount, 1 << 16)));
+        if (count < stripeCount) {
+            count <<= 1;
+        }
+        stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe<>();
+        }
+        // 구간은 해시의 위쪽 비트로 고름 (구간 안의 LongObjectMap 은 아래쪽 비트로 칸을 고름)
+        shift = 64 - Integer.numberOfTrailingZeros(count);
+    }
+
+    /**
+     * 락 없이 조회합니다.
+     */
+    public V get(long key) {
+        return stripeOf(key).map.get(key);
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @return 이전 값 (없었으면 null)
+     */
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("null value");
+        }
+        Stripe<V> stripe = stripeOf(key);
+        synchronized (stripe) {
+            LongObjectMap<V> copy = new LongObjectMap<>(stripe.map);
+            V old = copy.put(key, value);
+            stripe.map = copy;
+            return old;
+        }
+    }
+
+    /**
+     * @return 지운 값 (없었으면 null)
+     */
+    public V remove(long key) {
+        Stripe<V> stripe = stripeOf(key);
+        synchronized (stripe) {
+            LongObjectMap<V> current = stripe.map;
+            if (!current.containsKey(key)) {
+                return null;
+            }
+            LongObjectMap<V> copy = new LongObjectMap<>(current);
+            V old = copy.remove(key);
+            stripe.map = copy;
+            return old;
+        }
+    }
+
+    /**
+     * 구간 락 안에서 새 값을 계산해 바꿉니다. 값이 그대로면 복사하지 않습니다.
+     *
+     * @return 새 값 (지웠으면 null)
+     */
+    public V compute(long key, RemappingFunction<V> function) {
+        return compute(key, function, null);
+    }
+
+    /**
+     * compute(key, function) 과 같고, 값이 바뀌었으면 새 값을 공개한 뒤 같은 구간 락 안에서 listener 를 호출합니다.
+     * listener 가 보는 순간 다른 스레드도 새 값을 읽을 수 있고, 같은 키의 다음 변경은 listener 가 끝난 뒤 시작됩니다.
+     */
+    public V compute(long key, RemappingFunction<V> function, ChangeListener<? super V> listener) {
+        Stripe<V> stripe = stripeOf(key);
+        synchronized (stripe) {
+            LongObjectMap<V> current = stripe.map;
+            V old = current.get(key);
+            V next = function.apply(key, old);
+            if (next == old) {
+                return next;
+            }
+            LongObjectMap<V> copy = new LongObjectMap<>(current);
+            if (next == null) {
+                copy.remove(key);
+            } else {
+                copy.put(key, next);
+            }
+            stripe.map = copy;
+            if (listener != null) {
+                listener.changed(key, old, next);
+            }
+            return next;
+        }
+    }
+
+    /**
+     * entries 를 모두 넣습니다. 구간마다 한 번만 복사합니다.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void putAll(LongObjectMap<? extends V> entries) {
+        LongObjectMap<V>[] buckets = new LongObjectMap[stripes.length];
+        entries.forEach((key, value) -> {
+            int index = indexOf(key);
+            if (buckets[index] == null) {
+                buckets[index] = new LongObjectMap<>();
+            }
+            buckets[index].put(key, value);
+        });
+        for (int i = 0; i < stripes.length; i++) {
+            if (buckets[i] == null) {
+                continue;
+            }
+            Stripe<V> stripe = stripes[i];
+            synchronized (stripe) {
+                LongObjectMap<V> copy = new LongObjectMap<>(stripe.map.size() + buckets[i].size());
+                stripe.map.forEach(copy::put);
+                buckets[i].forEach(copy::put);
+                stripe.map = copy;
+            }
+        }
+    }
+
+    /**
+     * 구간마다 그 순간의 맵을 읽으므로, 동시에 쓰는 중이면 전체가 한 시점의 상태는 아닐 수 있습니다.
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe<V> stripe : stripes) {
+            size += stripe.map.size();
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        for (Stripe<V> stripe : stripes) {
+            if (!stripe.map.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void clear() {
+        for (Stripe<V> stripe : stripes) {
+            synchronized (stripe) {
+                stripe.map = new LongObjectMap<>();
+            }
+        }
+    }
+
+    /**
+     * 락 없이 순회합니다. (size() 와 같이 구간마다 그 순간의 맵을 읽음)
+     */
+    public void forEach(LongObjectMap.EntryConsumer<? super V> consumer) {
+        for (Stripe<V> stripe : stripes) {
+            stripe.map.forEach(consumer);
+        }
+    }
+
+    public int stripeCount() {
+        return stripes.length;
+    }
+
+    private Stripe<V> stripeOf(long key) {
+        return stripes[indexOf(key)];
+    }
+
+    private int indexOf(long key) {
+        // 구간이 1개면 shift 가 64 라 자바에서는 0 만큼 밀리므로 따로 처리
+        return stripes.length == 1 ? 0 : (int) (LongObjectMap.mix(key) >>> shift);
+    }
+}
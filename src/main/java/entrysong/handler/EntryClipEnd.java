@@ -0,0 +1,97 @@
+package entrysong.handler;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.TrackMarker;
+import com.sedmelluq.discord.lavaplayer.track.TrackMarkerHandler;
+import common.log.Log;
+import common.log.Logger;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 입장곡 구간이 끝나는 위치에 거는 TrackMarker 핸들러입니다.
+ *
+ * 벽시계 타이머 대신 트랙 재생 위치로 끝을 정하므로, 프레임 버퍼가 차는 동안 밀린 시간만큼
+ * 구간이 짧아지지 않고 설정한 프레임(20ms 단위)에서 정확히 끝납니다.
+ *
+ * 마커 콜백은 Lavaplayer 재생 스레드에서 불리므로, 원래 곡으로 바꾸는 작업은
+ * 모든 서버가 같이 쓰는 스레드 하나로 넘깁니다. (입장할 때마다 스레드를 만들지 않음)
+ */
+class EntryClipEnd implements TrackMarkerHandler {
+
+    private static final Logger LOG = Log.get("EntrySong");
+
+    // 트랙 길이 끝에 너무 붙여 마커를 걸면 곡이 먼저 끝나 원래 곡을 되돌리지 못하므로 조금 앞에 검
+    static final long END_MARGIN_MILLIS = 200;
+
+    private static final ExecutorService SHARED = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "entry-song-clip");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final AudioPlayer player;
+    private final AudioTrack entryTrack;
+    private final AudioTrack restore;
+    private final Executor executor;
+
+    EntryClipEnd(AudioPlayer player, AudioTrack entryTrack, AudioTrack restore, Executor executor) {
+        this.player = player;
+        this.entryTrack = entryTrack;
+        this.restore = restore;
+        this.executor = executor;
+    }
+
+    /**
+     * 입장곡의 startMillis + durationMillis 위치에 끝 마커를 겁니다. (재생 시작 전에 호출)
+     *
+     * @param restore 구간이 끝난 뒤 다시 재생할 원래 곡, 없으면 null
+     */
+    static void attach(AudioPlayer player, AudioTrack entryTrack, long startMillis, long durationMillis,
+                       AudioTrack restore) {
+        attach(player, entryTrack, startMillis, durationMillis, restore, SHARED);
+    }
+
+    static void attach(AudioPlayer player, AudioTrack entryTrack, long startMillis, long durationMillis,
+                       AudioTrack restore, Executor executor) {
+        entryTrack.setMarker(new TrackMarker(
+                endPosition(entryTrack.getDuration(), startMillis, durationMillis),
+                new EntryClipEnd(player, entryTrack, restore, executor)));
+    }
+
+    /**
+     * @return 마커를 걸 위치 (ms), 트랙 길이를 넘으면 끝에서 END_MARGIN_MILLIS 앞
+     */
+    static long endPosition(long trackDuration, long startMillis, long durationMillis) {
+        long end = startMillis + durationMillis;
+        if (trackDuration > 0 && trackDuration != Long.MAX_VALUE && end > trackDuration - END_MARGIN_MILLIS) {
+            end = Math.max(startMillis, trackDuration - END_MARGIN_MILLIS);
+        }
+        return end;
+    }
+
+    @Override
+    public void handle(MarkerState state) {
+        // 다른 곡으로 바뀌었거나(STOPPED/REMOVED) 이미 끝난 경우(ENDED)는 건드리지 않음
+        if (state == MarkerState.REACHED || state == MarkerState.LATE) {
+            executor.execute(this::finish);
+        }
+    }
+
+    void finish() {
+        if (player.getPlayingTrack() != entryTrack) {
+            LOG.debug("entry track already replaced, skip restore.");
+            return;
+        }
+        if (restore != null) {
+            player.startTrack(restore, false);
+            LOG.debug("entry clip end reached, original track restored.");
+        } else {
+            player.stopTrack();
+            LOG.debug("entry clip end reached, no original track to restore.");
+        }
+    }
+}
@@ -1,13 +1,18 @@
 package entrysong.handler;
 
 import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import common.log.Log;
+import common.log.Logger;
+import entrysong.service.EntryClipRenderer;
+import music.service.OpusClip;
+import music.service.LoadPriority;
 import music.service.MusicManager;
+import music.service.OverlayMixer;
 import music.service.ServerMusicManager;
 
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
 
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.User;
@@ -16,7 +21,9 @@ import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEve
 import net.dv8tion.jda.api.managers.AudioManager;
 import entrysong.repository.EntrySongConfig;
 import entrysong.repository.EntrySongRegistry;
+import upload.repository.UploadIndex;
 import com.sedmelluq.discord.lavaplayer.player.AudioLoadResultHandler;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
 import com.sedmelluq.discord.lavaplayer.track.*;
 import net.dv8tion.jda.api.events.guild.voice.GuildVoiceUpdateEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
@@ -26,15 +33,46 @@ import net.dv8tion.jda.api.hooks.ListenerAdapter;
  * - EntrySongRegistry 에 등록된 입장곡이 있으면 그걸 사용
  *   (로컬 파일 or URL 모두 가능)
  * - 없으면 서버의 uploads/{username}#{discriminator}.mp3 파일이 있으면 그걸 사용
+ *
+ * 서버에 OverlayMixer 가 있으면 입장곡을 재생 중인 곡 위에 겹쳐 재생합니다.
+ * (원래 곡은 멈추지 않고 볼륨만 잠시 낮아짐) 없으면 원래 곡을 잠시 바꿨다가 되돌립니다.
+ * 업로드한 파일 입장곡은 미리 렌더링해 둔 Opus 클립이 있으면 디코딩 없이 그 프레임을 바로 보냅니다.
+ *
+ * uploads 파일이 있는지는 UploadIndex, 미리 렌더링한 클립은 EntryClipRenderer 가 메모리에 올려 둔 것만 확인합니다.
+ * (이벤트 스레드에서 파일 시스템에 접근하지 않음, 메모리에 없는 클립은 백그라운드에서 읽어 다음 입장부터 사용)
+ * 입장곡 설정과 미리 렌더링한 클립은 유저 ID 로 찾고, username#discriminator 문자열은
+ * 예전 설정을 옮기거나 uploads 파일로 대체할 때만 만듭니다.
  */
 public class EntrySongHandler extends ListenerAdapter {
 
+    // 음소거/이동마다 불리는 경로라 추적 로그는 DEBUG 로 남김
+    private static final Logger LOG = Log.get("EntrySong");
+
     // 레지스트리 설정이 없거나, username#discriminator.mp3 를 쓸 때 기본 재생 길이 (초)
     private static final int DEFAULT_ENTRY_DURATION_SEC = 7;
 
+    // 파일명/키에 쓸 수 없는 문자 (입장마다 정규식을 컴파일하지 않도록 미리 컴파일)
+    private static final Pattern UNSAFE_CHARS = Pattern.compile("[^0-9A-Za-z가-힣_.\\-]");
+
     // 파일명/키에 쓸 수 있도록 간단히 정제
-    private String sanitize(String s) {
-        return s.replaceAll("[^0-9A-Za-z가-힣_.\\-]", "_");
+    private static String sanitize(String s) {
+        return UNSAFE_CHARS.matcher(s).replaceAll("_");
+    }
+
+    // 예전 설정/업로드 파일 이름에 쓰는 "username#0000"
+    private static String tagOf(User user) {
+        return sanitize(user.getName()) + "#" + sanitize(user.getDiscriminator());
+    }
+
+    /**
+     * 유저 ID 로 설정을 찾고, 옮기지 않은 예전 설정이 남아 있을 때만 username#discriminator 로 한 번 더 찾습니다.
+     */
+    private static EntrySongConfig findConfig(User user) {
+        long userId = user.getIdLong();
+        if (!EntrySongRegistry.hasLegacyEntries()) {
+            return EntrySongRegistry.getSong(userId);
+        }
+        return EntrySongRegistry.getSong(userId, sanitize(user.getName()), sanitize(user.getDiscriminator()));
     }
 
     // ─────────────────────────────
@@ -61,10 +99,7 @@ public class EntrySongHandler extends ListenerAdapter {
             return;
         }
 
-        String username = sanitize(user.getName());
-        String discriminator = sanitize(user.getDiscriminator());
-
-        EntrySongRegistry.setSong(username, discriminator, url, 0, DEFAULT_ENTRY_DURATION_SEC);
+        EntrySongRegistry.setSong(user.getIdLong(), url, 0, DEFAULT_ENTRY_DURATION_SEC);
 
         event.reply("🎵 입장곡을 해당 링크로 설정했어요!\n" +
                         "URL: `" + url + "`\n" +
@@ -84,15 +119,19 @@ public class EntrySongHandler extends ListenerAdapter {
             return;
         }
 
-        String username = sanitize(user.getName());
-        String discriminator = sanitize(user.getDiscriminator());
-        String sourceValue = findSourceForTimeSetting(username, discriminator, event);
+        String sourceValue = findSourceForTimeSetting(user, event);
 
         if (sourceValue == null) {
             return; // 에러 메시지는 findSourceForTimeSetting에서 이미 전송됨
         }
 
-        EntrySongRegistry.setSong(username, discriminator, sourceValue, start, duration);
+        EntrySongRegistry.setSong(user.getIdLong(), sourceValue, start, duration);
+        if (!sourceValue.startsWith("http://") && !sourceValue.startsWith("https://")) {
+            // 바뀐 구간을 미리 렌더링 (다음 입장부터 디코딩 없이 재생)
+            EntryClipRenderer.get().invalidate(user.getId());
+            EntryClipRenderer.get().renderAsync(user.getId(),
+                    UploadIndex.get().dir().resolve(sourceValue), start, duration);
+        }
 
         event.reply("⏱️ 입장곡 재생 구간을 " +
                         start + "초 ~ " + (start + duration) + "초로 설정했습니다.\n" +
@@ -100,27 +139,25 @@ public class EntrySongHandler extends ListenerAdapter {
                 .queue();
     }
 
-    private String findSourceForTimeSetting(String username, String discriminator, 
-                                            SlashCommandInteractionEvent event) {
-        EntrySongConfig cfg = EntrySongRegistry.getSong(username, discriminator);
+    private String findSourceForTimeSetting(User user, SlashCommandInteractionEvent event) {
+        EntrySongConfig cfg = findConfig(user);
 
         if (cfg != null) {
-            System.out.println("[EntrySong] /setentrytime use registry source=" + cfg.fileName);
+            LOG.info(() -> "/setentrytime use registry source=" + cfg.fileName);
             return cfg.fileName;
         }
 
-        String fileName = username + "#" + discriminator + ".mp3";
-        Path candidatePath = Path.of("uploads", fileName);
-        System.out.println("[EntrySong] /setentrytime fallback candidate path=" + candidatePath.toAbsolutePath());
+        String fileName = tagOf(user) + ".mp3";
+        LOG.debug(() -> "/setentrytime fallback candidate=" + fileName);
 
-        if (!Files.exists(candidatePath)) {
+        if (!UploadIndex.get().exists(fileName)) {
             event.reply("❌ 설정된 입장곡이 없고, 서버에도 `" + fileName + "` 파일이 없습니다.\n" +
                             "먼저 mp3 파일을 업로드하거나 `/setentrysong` 으로 URL을 설정해주세요.")
                     .setEphemeral(true).queue();
             return null;
         }
 
-        System.out.println("[EntrySong] /setentrytime use fallback fileName=" + fileName);
+        LOG.info(() -> "/setentrytime use fallback fileName=" + fileName);
         return fileName;
     }
 
@@ -134,10 +171,8 @@ public class EntrySongHandler extends ListenerAdapter {
         }
 
         User user = event.getMember().getUser();
-        String username = sanitize(user.getName());
-        String discriminator = sanitize(user.getDiscriminator());
 
-        EntrySongSource sourceInfo = findEntrySongSource(username, discriminator);
+        EntrySongSource sourceInfo = findEntrySongSource(user);
         if (sourceInfo == null) {
             return;
         }
@@ -146,23 +181,30 @@ public class EntrySongHandler extends ListenerAdapter {
         ServerMusicManager music = MusicManager.get().of(guild);
         prepareAudioConnection(guild, music, event.getChannelJoined());
 
-        AtomicReference<AudioTrack> originalCloneRef = backupCurrentTrack(music);
+        if (playPrerenderedClip(music, user.getId(), sourceInfo)) {
+            return;
+        }
+
+        // 겹쳐 재생하면 원래 곡을 멈추지 않으므로 되돌릴 필요가 없음
+        AtomicReference<AudioTrack> originalCloneRef = music.overlay != null
+                ? new AtomicReference<>(null)
+                : backupCurrentTrack(music);
         loadAndPlayEntrySong(music, originalCloneRef, sourceInfo);
     }
 
     private boolean shouldProcessVoiceUpdate(GuildVoiceUpdateEvent event) {
-        System.out.println("[EntrySong] VoiceUpdate fired: " +
+        LOG.debug(() -> "VoiceUpdate fired: " +
                 event.getMember().getUser().getAsTag() +
                 " joined=" + event.getChannelJoined() +
                 ", left=" + event.getChannelLeft());
 
         if (event.getMember().getUser().isBot()) {
-            System.out.println("[EntrySong] skip: bot");
+            LOG.debug("skip: bot");
             return false;
         }
 
         if (event.getChannelJoined() == null) {
-            System.out.println("[EntrySong] skip: no channelJoined");
+            LOG.debug("skip: no channelJoined");
             return false;
         }
 
@@ -174,89 +216,115 @@ public class EntrySongHandler extends ListenerAdapter {
         final boolean isUrl;
         final int startSec;
         final int durationSec;
+        // 업로드 파일이면 인덱스에 기록된 크기/수정 시각 (URL 이면 null)
+        final UploadIndex.Entry file;
 
-        EntrySongSource(String source, boolean isUrl, int startSec, int durationSec) {
+        EntrySongSource(String source, boolean isUrl, int startSec, int durationSec, UploadIndex.Entry file) {
             this.source = source;
             this.isUrl = isUrl;
             this.startSec = startSec;
             this.durationSec = durationSec;
+            this.file = file;
         }
     }
 
-    private EntrySongSource findEntrySongSource(String username, String discriminator) {
-        EntrySongConfig cfg = EntrySongRegistry.getSong(username, discriminator);
+    private EntrySongSource findEntrySongSource(User user) {
+        EntrySongConfig cfg = findConfig(user);
 
         if (cfg != null) {
-            return findSourceFromRegistry(cfg, username, discriminator);
+            return findSourceFromRegistry(cfg, user);
         }
 
-        return findFallbackSource(username, discriminator);
+        return findFallbackSource(user);
     }
 
-    private EntrySongSource findSourceFromRegistry(EntrySongConfig cfg, String username, String discriminator) {
+    private EntrySongSource findSourceFromRegistry(EntrySongConfig cfg, User user) {
         String src = cfg.fileName;
-        System.out.println("[EntrySong] registry config found: " + src +
+        LOG.debug(() -> "registry config found: " + src +
                 ", startSec=" + cfg.startSec + ", durationSec=" + cfg.durationSec);
 
         if (src.startsWith("http://") || src.startsWith("https://")) {
-            System.out.println("[EntrySong] using URL entry song: " + src);
-            return new EntrySongSource(src, true, cfg.startSec, cfg.durationSec);
+            LOG.debug(() -> "using URL entry song: " + src);
+            return new EntrySongSource(src, true, cfg.startSec, cfg.durationSec, null);
         }
 
-        Path candidatePath = Path.of("uploads", src);
-        System.out.println("[EntrySong] registry file candidate = " + candidatePath.toAbsolutePath());
-
-        if (Files.exists(candidatePath)) {
-            System.out.println("[EntrySong] using registry file: " + candidatePath.toAbsolutePath());
-            return new EntrySongSource(candidatePath.toString(), false, cfg.startSec, cfg.durationSec);
+        UploadIndex index = UploadIndex.get();
+        UploadIndex.Entry file = index.find(src);
+        if (file != null) {
+            Path path = index.dir().resolve(src);
+            LOG.debug(() -> "using registry file: " + path);
+            return new EntrySongSource(path.toString(), false, cfg.startSec, cfg.durationSec, file);
         }
 
-        System.out.println("[EntrySong] registry file not found, fallback to username#disc.mp3");
-        return findFallbackSource(username, discriminator);
+        LOG.debug("registry file not found, fallback to username#disc.mp3");
+        return findFallbackSource(user);
     }
 
-    private EntrySongSource findFallbackSource(String username, String discriminator) {
-        String fileName = username + "#" + discriminator + ".mp3";
-        Path candidatePath = Path.of("uploads", fileName);
-        System.out.println("[EntrySong] fallback candidate path = " + candidatePath.toAbsolutePath());
+    private EntrySongSource findFallbackSource(User user) {
+        String tag = tagOf(user);
+        String fileName = tag + ".mp3";
+        UploadIndex index = UploadIndex.get();
+        UploadIndex.Entry file = index.find(fileName);
 
-        if (!Files.exists(candidatePath)) {
-            System.out.println("[EntrySong] no fallback file for tag=" + username + "#" + discriminator + ", stop.");
+        if (file == null) {
+            LOG.debug(() -> "no fallback file for tag=" + tag + ", stop.");
             return null;
         }
 
-        System.out.println("[EntrySong] using fallback entry song tag=" +
-                username + "#" + discriminator +
-                ", path=" + candidatePath.toAbsolutePath());
+        Path path = index.dir().resolve(fileName);
+        LOG.debug(() -> "using fallback entry song tag=" + tag + ", path=" + path);
 
-        return new EntrySongSource(candidatePath.toString(), false, 0, DEFAULT_ENTRY_DURATION_SEC);
+        return new EntrySongSource(path.toString(), false, 0, DEFAULT_ENTRY_DURATION_SEC, file);
     }
 
     private void prepareAudioConnection(Guild guild, 
                                        ServerMusicManager music,
                                        AudioChannel joinedChannel) {
         AudioManager audioManager = guild.getAudioManager();
-        System.out.println("[EntrySong] audioManager connected? " + audioManager.isConnected());
+        LOG.debug(() -> "audioManager connected? " + audioManager.isConnected());
 
-        if (audioManager.getSendingHandler() == null) {
-            System.out.println("[EntrySong] no sendingHandler, setting from ServerMusicManager.");
+        if (audioManager.getSendingHandler() != music.getSendHandler()) {
+            LOG.debug("sendingHandler missing or stale, setting from ServerMusicManager.");
             audioManager.setSendingHandler(music.getSendHandler());
         }
 
         audioManager.openAudioConnection(joinedChannel);
     }
 
+    /**
+     * 미리 렌더링한 클립이 있으면 겹쳐 재생합니다. 없으면 다음 입장을 위해 렌더링을 예약합니다.
+     *
+     * @return 클립을 재생했으면 true
+     */
+    private boolean playPrerenderedClip(ServerMusicManager music, String key, EntrySongSource sourceInfo) {
+        if (music.overlay == null || sourceInfo.isUrl) {
+            return false;
+        }
+        EntryClipRenderer renderer = EntryClipRenderer.get();
+        Path source = Path.of(sourceInfo.source);
+        OpusClip clip = renderer.find(key, sourceInfo.file.size, sourceInfo.file.lastModifiedMillis,
+                sourceInfo.startSec, sourceInfo.durationSec);
+        if (clip == null) {
+            LOG.info(() -> "no pre-rendered clip in memory for " + key + ", load or render in background.");
+            renderer.renderAsync(key, source, sourceInfo.startSec, sourceInfo.durationSec);
+            return false;
+        }
+        music.overlay.play(clip);
+        LOG.info(() -> "playing pre-rendered clip: " + clip.frameCount() + " frames.");
+        return true;
+    }
+
     private AtomicReference<AudioTrack> backupCurrentTrack(ServerMusicManager music) {
         AtomicReference<AudioTrack> originalCloneRef = new AtomicReference<>(null);
         AudioTrack original = music.player.getPlayingTrack();
 
         if (original != null) {
-            System.out.println("[EntrySong] currently playing track exists, backing up.");
+            LOG.debug("currently playing track exists, backing up.");
             AudioTrack clone = original.makeClone();
             clone.setPosition(original.getPosition());
             originalCloneRef.set(clone);
         } else {
-            System.out.println("[EntrySong] no track currently playing.");
+            LOG.debug("no track currently playing.");
         }
 
         return originalCloneRef;
@@ -275,12 +343,13 @@ public class EntrySongHandler extends ListenerAdapter {
     private void loadEntrySongFromUrl(ServerMusicManager music,
                                      AtomicReference<AudioTrack> originalCloneRef,
                                      EntrySongSource sourceInfo) {
-        System.out.println("[EntrySong] loading URL via Lavaplayer: " + sourceInfo.source +
+        LOG.debug(() -> "loading URL via Lavaplayer: " + sourceInfo.source +
                 " (start=" + sourceInfo.startSec + ", duration=" + sourceInfo.durationSec + ")");
 
-        MusicManager.get().playerManager().loadItemOrdered(
+        MusicManager.get().loader().load(
                 music,
                 sourceInfo.source,
+                LoadPriority.ENTRY_SONG,
                 createEntrySongHandler(music, originalCloneRef, sourceInfo.source, 
                         sourceInfo.startSec, sourceInfo.durationSec)
         );
@@ -289,12 +358,13 @@ public class EntrySongHandler extends ListenerAdapter {
     private void loadEntrySongFromFile(ServerMusicManager music,
                                       AtomicReference<AudioTrack> originalCloneRef,
                                       EntrySongSource sourceInfo) {
-        System.out.println("[EntrySong] loading file: " + Path.of(sourceInfo.source).toAbsolutePath() +
+        LOG.debug(() -> "loading file: " + sourceInfo.source +
                 " (start=" + sourceInfo.startSec + ", duration=" + sourceInfo.durationSec + ")");
 
-        MusicManager.get().playerManager().loadItemOrdered(
+        MusicManager.get().loader().load(
                 music,
                 sourceInfo.source,
+                LoadPriority.ENTRY_SONG,
                 createEntrySongHandler(music, originalCloneRef, sourceInfo.source,
                         sourceInfo.startSec, sourceInfo.durationSec)
         );
@@ -315,12 +385,12 @@ public class EntrySongHandler extends ListenerAdapter {
 
             @Override
             public void trackLoaded(AudioTrack entryTrack) {
-                System.out.println("[EntrySong] trackLoaded OK: " + finalPlaySource +
+                LOG.debug(() -> "trackLoaded OK: " + finalPlaySource +
                         ", trackDuration=" + entryTrack.getDuration() + "ms");
 
                 long startPosMs = finalStartSec * 1000L;
                 if (startPosMs >= entryTrack.getDuration()) {
-                    System.out.println("[EntrySong] start position is beyond track duration, skip entry song.");
+                    LOG.warn("start position is beyond track duration, skip entry song.");
                     AudioTrack restore = originalCloneRef.get();
                     if (restore != null) {
                         music.player.startTrack(restore, false);
@@ -328,12 +398,20 @@ public class EntrySongHandler extends ListenerAdapter {
                     return;
                 }
                 entryTrack.setPosition(startPosMs);
-
-                boolean started = music.player.startTrack(entryTrack, false);
-                System.out.println("[EntrySong] startTrack(entry) returned = " + started);
+                OverlayMixer overlay = music.overlay;
+                AudioPlayer target = overlay != null ? overlay.player() : music.player;
+                // 구간 끝은 재생 위치 기준 마커로 처리 (입장마다 타이머 스레드를 만들지 않음)
+                EntryClipEnd.attach(target, entryTrack, startPosMs, finalDurationSec * 1000L,
+                        originalCloneRef.get());
+
+                boolean started = overlay != null
+                        ? overlay.play(entryTrack)
+                        : music.player.startTrack(entryTrack, false);
+                LOG.debug(() -> "startTrack(entry) returned = " + started
+                        + (overlay != null ? " (overlay)" : ""));
 
                 if (!started) {
-                    System.out.println("[EntrySong] entry track did NOT start. Keep original track.");
+                    LOG.warn("entry track did NOT start. Keep original track.");
                     AudioTrack restore = originalCloneRef.get();
                     if (restore != null) {
                         music.player.startTrack(restore, false);
@@ -341,41 +419,22 @@ public class EntrySongHandler extends ListenerAdapter {
                     return;
                 }
 
-                System.out.println("[EntrySong] entry track started.");
-
-                ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
-                scheduler.schedule(() -> {
-                    try {
-                        System.out.println("[EntrySong] entry duration reached, restoring original track.");
-                        music.player.stopTrack();
-
-                        AudioTrack restore = originalCloneRef.get();
-                        if (restore != null) {
-                            music.player.startTrack(restore, false);
-                            System.out.println("[EntrySong] original track restored.");
-                        } else {
-                            System.out.println("[EntrySong] no original track to restore.");
-                        }
-                    } finally {
-                        scheduler.shutdown();
-                    }
-                }, finalDurationSec, TimeUnit.SECONDS);
+                LOG.info("entry track started.");
             }
 
             @Override
             public void playlistLoaded(AudioPlaylist playlist) {
-                System.out.println("[EntrySong] playlistLoaded(예상치X): " + playlist.getName());
+                LOG.warn(() -> "playlistLoaded(예상치X): " + playlist.getName());
             }
 
             @Override
             public void noMatches() {
-                System.out.println("[EntrySong] noMatches for source = " + finalPlaySource);
+                LOG.warn(() -> "noMatches for source = " + finalPlaySource);
             }
 
             @Override
             public void loadFailed(FriendlyException e) {
-                System.out.println("[EntrySong] loadFailed for source = " + finalPlaySource);
-                e.printStackTrace();
+                LOG.error(() -> "loadFailed for source = " + finalPlaySource, e);
             }
         };
     }
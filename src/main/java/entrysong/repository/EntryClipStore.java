@@ -0,0 +1,145 @@
+package entrysong.repository;
+
+import common.log.Log;
+import common.log.Logger;
+import music.service.OpusClip;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 업로드한 입장곡의 재생 구간을 미리 인코딩한 Opus 프레임으로 저장하는 클래스입니다.
+ *
+ * 유저마다 파일 하나(<유저 ID>.clip)에 저장하고, 원본 파일 크기/수정 시각과 구간을 같이 기록해
+ * 원본이나 구간이 바뀌면 읽을 때 없는 것으로 취급합니다. (다시 렌더링)
+ * Opus 는 이미 압축된 형식이라 따로 압축하지 않습니다.
+ *
+ * 형식: MAGIC, VERSION, 원본 크기, 원본 수정 시각(ms), startSec, durationSec,
+ *       프레임 수, 프레임마다 (길이 2바이트 + 바이트)
+ */
+public class EntryClipStore {
+
+    private static final Logger LOG = Log.get("EntryClipStore");
+
+    private static final int MAGIC = 0x45434c50; // "ECLP"
+    private static final int VERSION = 1;
+    private static final String SUFFIX = ".clip";
+    private static final int MAX_FRAMES = 30_000; // 10분
+    private static final int MAX_FRAME_BYTES = 0xffff;
+
+    private final Path dir;
+
+    public EntryClipStore(Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * 렌더링한 클립을 저장합니다. 같은 유저의 이전 클립은 덮어씁니다.
+     *
+     * @param key    유저 ID 문자열 (10진수)
+     * @param source 원본 파일 (변경 여부 확인용)
+     */
+    public void write(String key, Path source, int startSec, int durationSec, OpusClip clip) throws IOException {
+        Files.createDirectories(dir);
+        Path target = fileOf(key);
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(tmp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(Files.size(source));
+            out.writeLong(Files.getLastModifiedTime(source).toMillis());
+            out.writeInt(startSec);
+            out.writeInt(durationSec);
+            out.writeInt(clip.frameCount());
+            for (int i = 0; i < clip.frameCount(); i++) {
+                byte[] frame = clip.frame(i);
+                if (frame.length > MAX_FRAME_BYTES) {
+                    throw new IOException("frame too large: " + frame.length);
+                }
+                out.writeShort(frame.length);
+                out.write(frame);
+            }
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 저장된 클립을 읽습니다.
+     *
+     * @return 없거나, 원본/구간이 저장할 때와 다르거나, 읽을 수 없으면 null
+     */
+    public OpusClip read(String key, Path source, int startSec, int durationSec) {
+        long sourceSize;
+        long sourceModifiedMillis;
+        try {
+            sourceSize = Files.size(source);
+            sourceModifiedMillis = Files.getLastModifiedTime(source).toMillis();
+        } catch (IOException e) {
+            return null;
+        }
+        return read(key, sourceSize, sourceModifiedMillis, startSec, durationSec);
+    }
+
+    /**
+     * 원본 파일 정보를 이미 알고 있을 때 (UploadIndex) 원본을 다시 확인하지 않고 읽습니다.
+     *
+     * @return 없거나, 원본/구간이 저장할 때와 다르거나, 읽을 수 없으면 null
+     */
+    public OpusClip read(String key, long sourceSize, long sourceModifiedMillis, int startSec, int durationSec) {
+        Path file = fileOf(key);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readUnsignedByte() != VERSION) {
+                return null;
+            }
+            if (in.readLong() != sourceSize
+                    || in.readLong() != sourceModifiedMillis
+                    || in.readInt() != startSec
+                    || in.readInt() != durationSec) {
+                return null;
+            }
+            int count = in.readInt();
+            if (count < 0 || count > MAX_FRAMES) {
+                throw new IOException("invalid frame count " + count);
+            }
+            List<byte[]> frames = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                byte[] frame = new byte[in.readUnsignedShort()];
+                in.readFully(frame);
+                frames.add(frame);
+            }
+            return new OpusClip(frames);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            LOG.warn("skip unreadable " + file.getFileName(), e);
+            return null;
+        }
+    }
+
+    /**
+     * 유저의 저장된 클립을 지웁니다.
+     */
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(fileOf(key));
+    }
+
+    private Path fileOf(String key) {
+        if (key.isEmpty() || key.startsWith(".") || key.contains("/") || key.contains("\\")) {
+            throw new IllegalArgumentException("invalid clip key: " + key);
+        }
+        return dir.resolve(key + SUFFIX);
+    }
+}
@@ -0,0 +1,32 @@
+package entrysong.repository;
+
+import common.storage.ValueCodec;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * IndexedFileStore 에 입장곡 설정을 저장하는 형식 (파일명, startSec, durationSec)
+ */
+final class EntrySongCodec implements ValueCodec<EntrySongConfig> {
+
+    static final EntrySongCodec INSTANCE = new EntrySongCodec();
+
+    private EntrySongCodec() {}
+
+    @Override
+    public void write(DataOutput out, EntrySongConfig cfg) throws IOException {
+        ValueCodec.writeString(out, cfg.fileName);
+        out.writeInt(cfg.startSec);
+        out.writeInt(cfg.durationSec);
+    }
+
+    @Override
+    public EntrySongConfig read(ByteBuffer in) {
+        String fileName = ValueCodec.readString(in);
+        int start = in.getInt();
+        int duration = in.getInt();
+        return new EntrySongConfig(fileName, start, duration);
+    }
+}
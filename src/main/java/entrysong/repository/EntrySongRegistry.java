@@ -1,111 +1,337 @@
 package entrysong.repository;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import common.log.Log;
+import common.log.Logger;
+import common.storage.KeyValueStore;
+import common.storage.KeyValueStores;
+import common.util.BotConfig;
+import common.util.LongObjectMap;
+import common.util.StripedLongObjectMap;
+
 import com.google.gson.reflect.TypeToken;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.lang.reflect.Type;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
- * username#discriminator 기반으로 입장곡 설정 저장
+ * 유저 ID(snowflake) 기반으로 입장곡 설정 저장
+ *
+ * 입장할 때마다 조회하므로 ID 를 박싱하거나 문자열을 만들지 않도록 StripedLongObjectMap 에 저장합니다.
+ * 조회는 락 없이 그 순간의 맵을 읽고, 변경은 유저 ID 가 속한 구간만 잠급니다. (서버/유저가 달라도 한 락에 줄 서지 않도록)
+ * 예전에 username#discriminator 로 저장한 설정은 그대로 읽어 두었다가, 그 유저를 처음 조회할 때
+ * ID 키로 옮깁니다. (getSong(userId, username, discriminator)) 옮길 설정이 남아 있지 않으면 문자열을 만들지 않습니다.
+ *
+ * 변경은 메모리에 바로 반영하고, 파일에는 저장소(KeyValueStore)가 백그라운드에서 씁니다.
+ * (명령 응답 시간이 저장 비용과 상관없도록) 구간 락 안에서는 바뀐 값을 공개한 뒤 변경을 큐에 넣기만 하고,
+ * 종료할 때 남은 변경을 저장합니다.
+ * 저장 방식은 ENTRY_SONG_STORE 로 고릅니다.
+ * - journal (기본): 변경마다 저널 레코드 하나 + 바이너리 스냅샷 (EntrySongStore)
+ * - indexed: 키마다 레코드를 덧붙이는 인덱스 파일 (IndexedFileStore)
+ * - json: 변경마다 JSON 파일 전체를 다시 씀 (JsonFileStore)
+ *
+ * 처음 클래스를 쓸 때 스냅샷을 읽으므로, 시작할 때 preload() 로 미리 읽어 두어
+ * 첫 입장 이벤트를 처리하는 JDA 스레드가 로딩 비용을 내지 않도록 합니다.
  */
 public final class EntrySongRegistry {
 
-    private static final Path STORE_PATH = Paths.get("data", "entry-songs.json");
-    private static final Gson GSON = new GsonBuilder()
-            .setPrettyPrinting()
-            .create();
-    private static final Type MAP_TYPE =
-            new TypeToken<Map<String, EntrySongConfig>>(){}.getType();
+    private static final Logger LOG = Log.get("EntrySongRegistry");
+
+    private static final Path STORE_BASE = Paths.get("data", "entry-songs-by-id");
+    private static final Path LEGACY_STORE_PATH = Paths.get("data", "entry-songs.json");
 
-    // key = "username#0000"
-    private static final Map<String, EntrySongConfig> REGISTRY =
+    // key = 유저 ID (구간이 많을수록 변경 한 번에 복사하는 양이 줄어듦)
+    private static final StripedLongObjectMap<EntrySongConfig> BY_ID =
+            new StripedLongObjectMap<>((int) BotConfig.getLong("ENTRY_SONG_REGISTRY_STRIPES", 1024));
+
+    // key = "username#0000" (ID 로 옮기기 전의 설정, 변경은 LEGACY 로 동기화)
+    private static final Map<String, EntrySongConfig> LEGACY =
             new ConcurrentHashMap<>();
 
+    private static final ScheduledExecutorService SAVE_EXECUTOR =
+            Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "entry-song-save");
+                t.setDaemon(true);
+                return t;
+            });
+    private static final long SAVE_DELAY_MS = BotConfig.getLong("ENTRY_SONG_SAVE_DELAY_MS", 500);
+    private static final long COMPACT_BYTES = BotConfig.getLong("ENTRY_SONG_JOURNAL_COMPACT_BYTES", 1L << 20);
+
+    private static final IdKeyedView ID_VIEW = new IdKeyedView();
+    private static final KeyValueStore<EntrySongConfig> STORE =
+            openStore(BotConfig.get("ENTRY_SONG_STORE", "journal"));
+    // 옮기기 전 설정은 이전 버전이 쓰던 저널 형식 그대로
+    private static final EntrySongStore LEGACY_STORE = new EntrySongStore(
+            LEGACY_STORE_PATH, SAVE_EXECUTOR, SAVE_DELAY_MS, COMPACT_BYTES);
+
     static {
         loadFromDisk();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            STORE.close();
+            LEGACY_STORE.close();
+            // 두 저장소(와 스냅샷 저장)가 함께 쓰므로 모두 닫은 뒤 종료
+            SAVE_EXECUTOR.shutdown();
+        }, "entry-song-flush"));
     }
 
     private EntrySongRegistry() {}
 
+    private static KeyValueStore<EntrySongConfig> openStore(String backend) {
+        if ("journal".equalsIgnoreCase(backend)) {
+            return new EntrySongStore(STORE_BASE.resolveSibling(STORE_BASE.getFileName() + ".json"),
+                    SAVE_EXECUTOR, SAVE_DELAY_MS, COMPACT_BYTES);
+        }
+        return KeyValueStores.open(backend, STORE_BASE, EntrySongCodec.INSTANCE,
+                new TypeToken<Map<String, EntrySongConfig>>(){}.getType(),
+                SAVE_EXECUTOR, SAVE_DELAY_MS, COMPACT_BYTES);
+    }
+
+    /**
+     * 저장된 설정을 지금 읽어 둡니다. (클래스 초기화만 일으킴)
+     */
+    public static void preload() {
+    }
+
     // username#0000 생성 함수
     private static String keyOf(String username, String discriminator) {
         return username + "#" + discriminator;
     }
 
+    /**
+     * @param userId 디스코드 유저 ID
+     * @return 설정이 없으면 null
+     */
+    public static EntrySongConfig getSong(long userId) {
+        return BY_ID.get(userId);
+    }
+
+    /**
+     * ID 로 찾고, 없으면 예전 username#discriminator 설정을 찾아 ID 키로 옮깁니다.
+     *
+     * @param username      파일명/키용으로 정제한 유저 이름
+     * @param discriminator 파일명/키용으로 정제한 태그
+     * @return 설정이 없으면 null
+     */
+    public static EntrySongConfig getSong(long userId, String username, String discriminator) {
+        EntrySongConfig cfg = getSong(userId);
+        if (cfg != null || LEGACY.isEmpty()) {
+            return cfg;
+        }
+        return migrate(userId, keyOf(username, discriminator));
+    }
+
+    /**
+     * 예전 설정이 남아 있는지. 없으면 호출하는 쪽에서 username/discriminator 를 만들 필요가 없습니다.
+     */
+    public static boolean hasLegacyEntries() {
+        return !LEGACY.isEmpty();
+    }
+
+    public static void setSong(long userId, String fileName, int start, int duration) {
+        EntrySongConfig cfg = new EntrySongConfig(fileName, start, duration);
+        BY_ID.compute(userId, (id, old) -> cfg, EntrySongRegistry::record);
+    }
+
+    public static void removeSong(long userId) {
+        BY_ID.compute(userId, (id, old) -> null, EntrySongRegistry::record);
+    }
+
+    /**
+     * 바뀐 값이 조회에 보인 뒤, 같은 구간 락 안에서 저장소에 기록합니다.
+     *
+     * 보이기 전에 기록하면, 그 레코드를 쓴 저널을 압축이 스냅샷(아직 값이 없는)으로 대신하고 지울 수 있음
+     */
+    private static void record(long userId, EntrySongConfig old, EntrySongConfig next) {
+        if (next != null) {
+            STORE.put(Long.toUnsignedString(userId), next);
+        } else {
+            STORE.remove(Long.toUnsignedString(userId));
+        }
+    }
+
+    public static int size() {
+        return BY_ID.size() + LEGACY.size();
+    }
+
+    private static EntrySongConfig migrate(long userId, String tag) {
+        EntrySongConfig legacy = LEGACY.get(tag);
+        if (legacy == null) {
+            return null;
+        }
+        // 그 사이 ID 로 새로 설정했으면 그걸 우선
+        EntrySongConfig migrated = BY_ID.compute(userId,
+                (id, current) -> current != null ? current : legacy, EntrySongRegistry::record);
+        synchronized (LEGACY) {
+            if (LEGACY.remove(tag) != null) {
+                LEGACY_STORE.remove(tag);
+            }
+        }
+        LOG.info(() -> "migrated entry song of " + tag + " to user id " + Long.toUnsignedString(userId));
+        return migrated;
+    }
+
+    // ─────────────────────────────
+    // username#discriminator 키 (ID 로 옮기기 전 설정, 이전 호출 호환용)
+    // ─────────────────────────────
+
+    /**
+     * @deprecated 유저 ID 로 찾는 getSong(long, String, String) 을 사용하세요.
+     */
+    @Deprecated
     public static EntrySongConfig getSong(String username, String discriminator) {
-        return REGISTRY.get(keyOf(username, discriminator));
+        return LEGACY.get(keyOf(username, discriminator));
     }
 
+    /**
+     * @deprecated 유저 ID 로 찾는 getSong(long, String, String) 을 사용하세요.
+     */
+    @Deprecated
     public static EntrySongConfig getSong(String tag) { // "name#0000"
-        return REGISTRY.get(tag);
+        return LEGACY.get(tag);
     }
 
-    public static synchronized void setSong(String username, String discriminator,
-                                            String fileName, int start, int duration) {
+    /**
+     * @deprecated setSong(long, String, int, int) 을 사용하세요.
+     */
+    @Deprecated
+    public static void setSong(String username, String discriminator,
+                               String fileName, int start, int duration) {
 
         String key = keyOf(username, discriminator);
         EntrySongConfig cfg = new EntrySongConfig(fileName, start, duration);
 
-        REGISTRY.put(key, cfg);
-        saveToDisk();
+        // 값이 보인 뒤 기록하고, 저널 순서가 메모리에 반영된 순서와 같도록 같은 락 안에서 기록
+        synchronized (LEGACY) {
+            LEGACY.put(key, cfg);
+            LEGACY_STORE.put(key, cfg);
+        }
+    }
+
+    /**
+     * @deprecated removeSong(long) 을 사용하세요.
+     */
+    @Deprecated
+    public static void removeSong(String username, String discriminator) {
+        String key = keyOf(username, discriminator);
+        synchronized (LEGACY) {
+            if (LEGACY.remove(key) != null) {
+                LEGACY_STORE.remove(key);
+            }
+        }
+    }
+
+    /**
+     * 저장하지 않은 변경을 지금 파일에 씁니다.
+     */
+    public static void flush() throws IOException {
+        STORE.flush();
+        LEGACY_STORE.flush();
     }
 
-    public static synchronized void removeSong(String username, String discriminator) {
-        REGISTRY.remove(keyOf(username, discriminator));
-        saveToDisk();
+    /**
+     * 지금 설정을 이전 버전이 읽을 수 있는 JSON 으로 내보냅니다. (키는 유저 ID 문자열)
+     */
+    public static void exportJson(Path target) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            EntrySongSnapshot.writeJson(writer, new TreeMap<>(ID_VIEW));
+        }
     }
 
     private static void loadFromDisk() {
         try {
-            if (!Files.exists(STORE_PATH)) {
-                System.out.println("[EntrySongRegistry] no store file, start empty.");
-                return;
-            }
-
-            try (BufferedReader reader = Files.newBufferedReader(STORE_PATH, StandardCharsets.UTF_8)) {
-                Map<String, EntrySongConfig> loaded = GSON.fromJson(reader, MAP_TYPE);
-                if (loaded != null) {
-                    REGISTRY.clear();
-                    REGISTRY.putAll(loaded);
-                    System.out.println("[EntrySongRegistry] loaded " + REGISTRY.size() + " entries.");
-                }
+            long started = System.nanoTime();
+            int replayed;
+            try {
+                replayed = STORE.load(ID_VIEW) + LEGACY_STORE.load(LEGACY);
+            } finally {
+                ID_VIEW.publish();
             }
+            long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+            LOG.info(() -> "loaded " + BY_ID.size() + " entries, " + LEGACY.size() + " to migrate ("
+                    + replayed + " records) in " + elapsedMillis + "ms.");
         } catch (IOException e) {
-            System.out.println("[EntrySongRegistry] load failed:");
-            e.printStackTrace();
+            // 스냅샷을 덮어쓰지 않도록 저장하지 않고 메모리로만 동작
+            LOG.error("load failed, changes will not be saved", e);
         }
     }
 
-    private static void saveToDisk() {
-        try {
-            Path dir = STORE_PATH.getParent();
-            if (dir != null && !Files.exists(dir)) {
-                Files.createDirectories(dir);
+    /**
+     * 저장소(KeyValueStore)가 저장/복원할 때 쓰는 String 키 뷰 (키는 유저 ID 의 10진 문자열)
+     *
+     * 저장 스레드와 로딩에서만 쓰므로 매번 항목을 복사해도 괜찮습니다.
+     * 로딩 중에는 스냅샷/저널을 staged 에 모았다가 publish() 에서 구간마다 한 번에 넣습니다.
+     * (한 건씩 넣으면 건마다 구간을 복사하므로) 그 전에 압축이 돌면 staged 를 저장합니다.
+     */
+    private static final class IdKeyedView extends AbstractMap<String, EntrySongConfig> {
+
+        private LongObjectMap<EntrySongConfig> staged = new LongObjectMap<>();
+
+        synchronized void publish() {
+            BY_ID.putAll(staged);
+            staged = null;
+        }
+
+        @Override
+        public synchronized EntrySongConfig put(String key, EntrySongConfig value) {
+            long id = Long.parseUnsignedLong(key);
+            return staged != null ? staged.put(id, value) : BY_ID.put(id, value);
+        }
+
+        @Override
+        public synchronized EntrySongConfig remove(Object key) {
+            long id = Long.parseUnsignedLong((String) key);
+            return staged != null ? staged.remove(id) : BY_ID.remove(id);
+        }
+
+        @Override
+        public synchronized void clear() {
+            if (staged != null) {
+                staged.clear();
+            } else {
+                BY_ID.clear();
             }
+        }
 
-            try (BufferedWriter writer = Files.newBufferedWriter(
-                    STORE_PATH,
-                    StandardCharsets.UTF_8,
-                    StandardOpenOption.CREATE,
-                    StandardOpenOption.TRUNCATE_EXISTING
-            )) {
-                GSON.toJson(REGISTRY, MAP_TYPE, writer);
+        @Override
+        public synchronized int size() {
+            return staged != null ? staged.size() : BY_ID.size();
+        }
+
+        @Override
+        public Set<Entry<String, EntrySongConfig>> entrySet() {
+            List<Entry<String, EntrySongConfig>> entries = new ArrayList<>();
+            synchronized (this) {
+                LongObjectMap.EntryConsumer<EntrySongConfig> collect =
+                        (id, cfg) -> entries.add(new SimpleImmutableEntry<>(Long.toUnsignedString(id), cfg));
+                if (staged != null) {
+                    staged.forEach(collect);
+                } else {
+                    BY_ID.forEach(collect);
+                }
             }
+            return new java.util.AbstractSet<>() {
+                @Override
+                public java.util.Iterator<Entry<String, EntrySongConfig>> iterator() {
+                    return entries.iterator();
+                }
 
-            System.out.println("[EntrySongRegistry] saved.");
-        } catch (IOException e) {
-            System.out.println("[EntrySongRegistry] save failed:");
-            e.printStackTrace();
+                @Override
+                public int size() {
+                    return entries.size();
+                }
+            };
         }
     }
 }
-
-
@@ -0,0 +1,174 @@
+package entrysong.repository;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * 입장곡 설정 스냅샷의 바이너리/JSON 형식을 읽고 쓰는 클래스입니다.
+ *
+ * 바이너리 형식은 필드 이름이나 들여쓰기 없이 길이 + UTF-8 바이트만 저장해 JSON 보다 훨씬 작고,
+ * 읽을 때는 파일을 메모리 매핑해 리플렉션 없이 순서대로 디코딩합니다.
+ * JSON 은 이전 버전과 주고받기 위해 읽기(맵만 있는 형식, {"journal", "entries"} 형식)와 내보내기를 남겨 둡니다.
+ *
+ * 바이너리 형식: MAGIC, VERSION, 저널 세대, 항목 수,
+ *               항목마다 (키 길이 2바이트 + 바이트, 파일명 길이 2바이트 + 바이트, startSec, durationSec),
+ *               앞의 모든 바이트에 대한 CRC32
+ */
+public final class EntrySongSnapshot {
+
+    private static final int MAGIC = 0x45534e50; // "ESNP"
+    private static final int VERSION = 1;
+    private static final int MAX_STRING_BYTES = 0xffff;
+
+    private static final Gson GSON = new Gson();
+    private static final Type MAP_TYPE =
+            new TypeToken<Map<String, EntrySongConfig>>(){}.getType();
+
+    private EntrySongSnapshot() {}
+
+    /**
+     * 바이너리 스냅샷을 씁니다.
+     *
+     * @param journal 이 스냅샷 다음에 적용할 저널 세대
+     */
+    public static void write(OutputStream target, long journal, Map<String, EntrySongConfig> entries)
+            throws IOException {
+        CRC32 crc = new CRC32();
+        DataOutputStream out = new DataOutputStream(
+                new CheckedOutputStream(new BufferedOutputStream(target, 64 * 1024), crc));
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(journal);
+        out.writeInt(entries.size());
+        for (Map.Entry<String, EntrySongConfig> entry : entries.entrySet()) {
+            EntrySongConfig cfg = entry.getValue();
+            writeString(out, entry.getKey());
+            writeString(out, cfg.fileName);
+            out.writeInt(cfg.startSec);
+            out.writeInt(cfg.durationSec);
+        }
+        out.flush();
+        // CRC 자체는 체크섬 계산에서 빼고 씀
+        DataOutputStream trailer = new DataOutputStream(target);
+        trailer.writeInt((int) crc.getValue());
+        trailer.flush();
+    }
+
+    /**
+     * 바이너리 스냅샷을 메모리 매핑으로 읽어 항목마다 sink 에 넘깁니다.
+     *
+     * @return 스냅샷에 기록된 저널 세대
+     */
+    public static long read(Path file, BiConsumer<String, EntrySongConfig> sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 21 || size > Integer.MAX_VALUE) {
+                throw new IOException("invalid snapshot size " + size);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            ByteBuffer body = mapped.duplicate().limit((int) size - 4);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            if ((int) crc.getValue() != mapped.getInt((int) size - 4)) {
+                throw new IOException("snapshot checksum mismatch");
+            }
+
+            ByteBuffer in = mapped.duplicate().limit((int) size - 4);
+            if (in.getInt() != MAGIC) {
+                throw new IOException("not an entry song snapshot");
+            }
+            int version = in.get() & 0xff;
+            if (version != VERSION) {
+                throw new IOException("unsupported snapshot version " + version);
+            }
+            long journal = in.getLong();
+            int count = in.getInt();
+            if (count < 0) {
+                throw new IOException("invalid entry count " + count);
+            }
+            byte[] scratch = new byte[MAX_STRING_BYTES];
+            for (int i = 0; i < count; i++) {
+                String key = readString(in, scratch);
+                String fileName = readString(in, scratch);
+                int start = in.getInt();
+                int duration = in.getInt();
+                sink.accept(key, new EntrySongConfig(fileName, start, duration));
+            }
+            return journal;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("truncated snapshot", e);
+        }
+    }
+
+    /**
+     * JSON 스냅샷(이전 형식)을 읽어 항목마다 sink 에 넘깁니다.
+     *
+     * @return {"journal", "entries"} 형식이면 저널 세대, 맵만 있는 형식이면 0
+     */
+    public static long readJson(Path file, BiConsumer<String, EntrySongConfig> sink) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            JsonElement root = JsonParser.parseReader(reader);
+            if (!root.isJsonObject()) {
+                return 0;
+            }
+            JsonObject obj = root.getAsJsonObject();
+            // 키는 "name#0000" 형식이라 "entries"/"journal" 과 겹치지 않음
+            boolean wrapped = obj.has("entries") && obj.get("entries").isJsonObject() && obj.has("journal");
+            Map<String, EntrySongConfig> loaded = GSON.fromJson(wrapped ? obj.get("entries") : obj, MAP_TYPE);
+            if (loaded != null) {
+                loaded.forEach(sink);
+            }
+            return wrapped ? obj.get("journal").getAsLong() : 0;
+        } catch (RuntimeException e) {
+            throw new IOException("unreadable snapshot " + file.getFileName(), e);
+        }
+    }
+
+    /**
+     * 이전 버전이 읽을 수 있는 형식(맵만 있는 JSON)으로 내보냅니다.
+     */
+    public static void writeJson(Writer writer, Map<String, EntrySongConfig> entries) throws IOException {
+        new GsonBuilder().setPrettyPrinting().create().toJson(entries, MAP_TYPE, writer);
+        writer.flush();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IOException("string too long: " + bytes.length + " bytes");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in, byte[] scratch) {
+        int length = in.getShort() & 0xffff;
+        in.get(scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,419 @@
+package entrysong.repository;
+
+import common.log.Log;
+import common.log.Logger;
+import common.storage.KeyValueStore;
+import common.storage.WriteBehindPersister;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * 입장곡 설정을 스냅샷 + 변경 저널로 저장하는 클래스입니다.
+ *
+ * setSong/removeSong 한 번마다 저널 파일 끝에 작은 레코드 하나만 덧붙이므로, 저장 비용이 등록된 유저 수와 상관없습니다.
+ * 레코드는 잠시 모았다가 백그라운드 스레드에서 한 번에 쓰고 fsync 합니다.
+ * 저널이 compactBytes 를 넘으면 지금 내용을 새 스냅샷으로 저장하고 이전 저널을 지웁니다. (시작 시간이 저널 길이에 묶이지 않도록)
+ *
+ * 파일:
+ * - entry-songs.bin: 바이너리 스냅샷 (EntrySongSnapshot). 다음에 적용할 저널 세대 N 을 같이 기록
+ * - entry-songs.json.journal.N: N 번째 저널. 스냅샷의 세대 이상인 저널만 순서대로 다시 적용
+ * - entry-songs.json: 이전 버전의 JSON 스냅샷. 바이너리 스냅샷이 없을 때만 읽고, 시작하자마자 바이너리로 옮김
+ *
+ * 압축할 때는 먼저 새 저널로 바꾼 뒤 스냅샷을 쓰므로, 도중에 종료돼도 이전 스냅샷 + 이전 저널이나
+ * 새 스냅샷 + 새 저널 중 하나로 복원됩니다. 저널 레코드는 CRC 로 확인해, 쓰다 만 마지막 레코드는 버립니다.
+ *
+ * 레코드 형식: 길이(4), CRC32(4), 본문 (종류 1바이트, 키, SET 이면 파일명, start, duration)
+ */
+public class EntrySongStore implements KeyValueStore<EntrySongConfig> {
+
+    private static final Logger LOG = Log.get("EntrySongStore");
+
+    private static final byte OP_SET = 1;
+    private static final byte OP_REMOVE = 2;
+    private static final int MAX_RECORD_BYTES = 64 * 1024;
+
+    private final Path jsonPath;
+    private final Path binaryPath;
+    private final ScheduledExecutorService executor;
+    private final long delayMillis;
+    private final long compactBytes;
+    private final WriteBehindPersister snapshotWriter;
+
+    private final Queue<byte[]> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    // load() 로 받은 메모리의 설정 맵 (압축할 때 읽음)
+    private volatile Map<String, EntrySongConfig> registry;
+
+    // 저장 스레드(flush 를 부르는 쪽)에서만 사용
+    private long generation;
+    private long snapshotGeneration;
+    private FileOutputStream journal;
+    private long journalBytes;
+    private long compactions;
+    private boolean migrateFromJson;
+
+    /**
+     * @param jsonPath     이전 JSON 스냅샷 경로 (바이너리 스냅샷과 저널은 같은 디렉터리에 이 이름을 따라 만들어짐)
+     * @param delayMillis  레코드를 모으는 시간
+     * @param compactBytes 저널이 이 크기를 넘으면 새 스냅샷으로 압축
+     */
+    public EntrySongStore(Path jsonPath, ScheduledExecutorService executor, long delayMillis, long compactBytes) {
+        this.jsonPath = jsonPath;
+        String name = jsonPath.getFileName().toString();
+        this.binaryPath = jsonPath.resolveSibling(
+                (name.endsWith(".json") ? name.substring(0, name.length() - 5) : name) + ".bin");
+        this.executor = executor;
+        this.delayMillis = delayMillis;
+        this.compactBytes = compactBytes;
+        this.snapshotWriter = new WriteBehindPersister(binaryPath, this::writeSnapshot, executor, delayMillis);
+    }
+
+    /**
+     * 스냅샷을 읽고 그 뒤의 저널을 다시 적용해 registry 를 채웁니다.
+     *
+     * @param registry 메모리의 설정 맵 (압축할 때 읽음)
+     * @return 다시 적용한 저널 레코드 수
+     */
+    @Override
+    public synchronized int load(Map<String, EntrySongConfig> registry) throws IOException {
+        this.registry = registry;
+        registry.clear();
+        snapshotGeneration = readSnapshot();
+
+        int replayed = 0;
+        generation = snapshotGeneration;
+        for (Map.Entry<Long, Path> file : listJournals().entrySet()) {
+            long gen = file.getKey();
+            if (gen < snapshotGeneration) {
+                // 압축 뒤 지우기 전에 종료된 경우
+                Files.deleteIfExists(file.getValue());
+                continue;
+            }
+            replayed += replay(file.getValue());
+            generation = Math.max(generation, gen);
+        }
+
+        Path current = journalOf(generation);
+        journalBytes = Files.exists(current) ? Files.size(current) : 0;
+        journal = new FileOutputStream(current.toFile(), true);
+
+        if (journalBytes > compactBytes || migrateFromJson) {
+            schedule(0);
+        }
+        return replayed;
+    }
+
+    /**
+     * 메모리의 설정을 돌려줍니다. (호출하는 쪽이 put/remove 전에 registry 에 반영함)
+     */
+    @Override
+    public EntrySongConfig get(String key) {
+        Map<String, EntrySongConfig> current = registry;
+        return current != null ? current.get(key) : null;
+    }
+
+    /**
+     * 설정 변경을 기록합니다.
+     *
+     * 바뀐 값이 registry 에서 보인 뒤에 호출해야 합니다. 압축은 저널을 바꾼 뒤 registry 를 스냅샷으로 복사하므로,
+     * 이전 저널에 들어간 레코드는 스냅샷에도 반영돼 있어야 이전 저널을 지울 수 있습니다.
+     * 같은 키는 registry 를 바꾼 순서대로 호출하세요. (같은 락 안에서)
+     */
+    @Override
+    public void put(String key, EntrySongConfig cfg) {
+        append(encode(OP_SET, key, cfg));
+    }
+
+    @Override
+    public void remove(String key) {
+        append(encode(OP_REMOVE, key, null));
+    }
+
+    /**
+     * 모아 둔 레코드를 저널에 쓰고 fsync 합니다. 저널이 크면 압축합니다.
+     */
+    @Override
+    public synchronized void flush() throws IOException {
+        scheduled.set(false);
+        if (journal == null) {
+            // load() 전이거나 실패했거나 닫힌 뒤 → 기존 파일을 건드리지 않음
+            pending.clear();
+            return;
+        }
+        byte[] record;
+        boolean wrote = false;
+        while ((record = pending.peek()) != null) {
+            journal.write(record);
+            // 쓴 뒤에 꺼냄 (실패하면 다음 flush 에서 다시 씀)
+            pending.poll();
+            journalBytes += record.length;
+            wrote = true;
+        }
+        if (wrote) {
+            journal.getFD().sync();
+        }
+        if (journalBytes > compactBytes || migrateFromJson) {
+            compact();
+        }
+    }
+
+    /**
+     * 지금 registry 내용을 새 스냅샷으로 저장하고 이전 저널을 지웁니다.
+     */
+    public synchronized void compact() throws IOException {
+        long previous = generation;
+        long started = System.nanoTime();
+
+        // 1. 새 저널로 바꿈 (이후 레코드는 새 저널에)
+        journal.close();
+        generation = previous + 1;
+        journal = new FileOutputStream(journalOf(generation).toFile(), true);
+        journalBytes = 0;
+
+        // 2. 새 저널부터 적용하라고 기록한 스냅샷을 원자적으로 교체
+        snapshotGeneration = generation;
+        snapshotWriter.markDirty();
+        snapshotWriter.flush();
+
+        // 3. 스냅샷에 반영된 이전 저널 삭제
+        for (Map.Entry<Long, Path> file : listJournals().entrySet()) {
+            if (file.getKey() < generation) {
+                Files.deleteIfExists(file.getValue());
+            }
+        }
+        compactions++;
+        migrateFromJson = false;
+        LOG.info(() -> "compacted " + registry.size() + " entries into snapshot (journal "
+                + previous + " -> " + generation + ") in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) + "ms");
+    }
+
+    /**
+     * 남은 레코드를 쓰고 저널을 닫습니다. executor 는 다른 저장소와 함께 쓸 수 있으므로 종료하지 않습니다.
+     * (닫은 뒤 실행되는 예약 저장은 저널이 없으므로 아무것도 하지 않음)
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            flush();
+        } catch (IOException e) {
+            LOG.error("final flush failed", e);
+        }
+        try {
+            if (journal != null) {
+                journal.close();
+            }
+        } catch (IOException ignored) {
+        }
+        journal = null;
+    }
+
+    public synchronized long getJournalBytes() {
+        return journalBytes;
+    }
+
+    public synchronized long getCompactions() {
+        return compactions;
+    }
+
+    private void append(byte[] record) {
+        pending.offer(record);
+        schedule(delayMillis);
+    }
+
+    private void schedule(long delay) {
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                executor.schedule(this::flushQuietly, delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // 종료 중 → close() 에서 저장
+                scheduled.set(false);
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException | RuntimeException e) {
+            LOG.error("journal write failed, retry on next change", e);
+        }
+    }
+
+    // ─────────────────────────────
+    // 스냅샷
+    // ─────────────────────────────
+
+    private long readSnapshot() throws IOException {
+        BiConsumer<String, EntrySongConfig> sink = registry::put;
+        if (Files.exists(binaryPath)) {
+            return EntrySongSnapshot.read(binaryPath, sink);
+        }
+        if (Files.exists(jsonPath)) {
+            // 이전 버전의 JSON → 다음 압축 때 바이너리로 옮김
+            long journal = EntrySongSnapshot.readJson(jsonPath, sink);
+            migrateFromJson = true;
+            LOG.info(() -> "importing " + jsonPath.getFileName() + ", will convert to " + binaryPath.getFileName());
+            return journal;
+        }
+        LOG.info("no snapshot file, start empty.");
+        return 0;
+    }
+
+    private void writeSnapshot(OutputStream out) throws IOException {
+        // 직렬화하는 동안 잡고 있지 않도록 복사 (그 사이 바뀐 내용은 새 저널에도 기록됨)
+        EntrySongSnapshot.write(out, snapshotGeneration, new HashMap<>(registry));
+    }
+
+    /**
+     * 지금 내용을 이전 버전이 읽을 수 있는 JSON 으로 내보냅니다.
+     */
+    public void exportJson(Path target) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            EntrySongSnapshot.writeJson(writer, new TreeMap<>(registry));
+        }
+    }
+
+    // ─────────────────────────────
+    // 저널
+    // ─────────────────────────────
+
+    private Path journalOf(long gen) {
+        return jsonPath.resolveSibling(jsonPath.getFileName() + ".journal." + gen);
+    }
+
+    /**
+     * @return 세대 순으로 정렬된 저널 파일
+     */
+    private Map<Long, Path> listJournals() throws IOException {
+        Map<Long, Path> journals = new TreeMap<>();
+        Path dir = jsonPath.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        String prefix = jsonPath.getFileName() + ".journal.";
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, prefix + "*")) {
+            for (Path file : files) {
+                try {
+                    journals.put(Long.parseLong(file.getFileName().toString().substring(prefix.length())), file);
+                } catch (NumberFormatException ignored) {
+                }
+            }
+        }
+        return journals;
+    }
+
+    /**
+     * 저널 레코드를 순서대로 registry 에 적용합니다. 끝에 쓰다 만 레코드가 있으면 그 앞까지 잘라냅니다.
+     */
+    private int replay(Path file) throws IOException {
+        int count = 0;
+        long valid = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                if (length <= 0 || length > MAX_RECORD_BYTES) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                int crc;
+                try {
+                    crc = in.readInt();
+                    in.readFully(payload);
+                } catch (EOFException e) {
+                    break;
+                }
+                if (crc != crc32(payload)) {
+                    break;
+                }
+                apply(payload);
+                valid += 8 + length;
+                count++;
+            }
+        }
+        if (valid < Files.size(file)) {
+            LOG.warn(() -> "truncating torn tail of " + file.getFileName());
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(valid);
+            }
+        }
+        return count;
+    }
+
+    private void apply(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte op = in.readByte();
+        String key = in.readUTF();
+        if (op == OP_SET) {
+            String fileName = in.readUTF();
+            int start = in.readInt();
+            int duration = in.readInt();
+            registry.put(key, new EntrySongConfig(fileName, start, duration));
+        } else if (op == OP_REMOVE) {
+            registry.remove(key);
+        } else {
+            throw new IOException("unknown journal op " + op);
+        }
+    }
+
+    private static byte[] encode(byte op, String key, EntrySongConfig cfg) {
+        try {
+            ByteArrayOutputStream body = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(body);
+            out.writeByte(op);
+            out.writeUTF(key);
+            if (op == OP_SET) {
+                out.writeUTF(cfg.fileName);
+                out.writeInt(cfg.startSec);
+                out.writeInt(cfg.durationSec);
+            }
+            byte[] payload = body.toByteArray();
+
+            ByteArrayOutputStream record = new ByteArrayOutputStream(payload.length + 8);
+            DataOutputStream framed = new DataOutputStream(record);
+            framed.writeInt(payload.length);
+            framed.writeInt(crc32(payload));
+            framed.write(payload);
+            return record.toByteArray();
+        } catch (IOException e) {
+            // 메모리 스트림이라 발생하지 않음
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static int crc32(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+}
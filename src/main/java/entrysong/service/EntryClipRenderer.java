@@ -0,0 +1,261 @@
+package entrysong.service;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.track.AudioItem;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.playback.AudioFrame;
+import common.log.Log;
+import common.log.Logger;
+import common.util.BotConfig;
+import entrysong.repository.EntryClipStore;
+import music.service.MusicManager;
+import music.service.OpusClip;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 업로드한 입장곡의 재생 구간을 한 번만 디코딩해 Opus 프레임으로 저장해 두는 클래스입니다.
+ *
+ * 입장할 때마다 MP3 디코딩, 탐색, 리샘플링, Opus 인코딩을 반복하지 않도록
+ * 업로드하거나 구간을 바꿀 때 [start, start + duration] 구간을 렌더링해 EntryClipStore 에 저장합니다.
+ * 렌더링은 실시간이 아니라 디코딩되는 만큼 바로 프레임을 꺼내므로 몇 초 구간도 금방 끝납니다.
+ *
+ * 렌더링은 전용 스레드 하나에서 순서대로 처리하고, 이미 같은 원본/구간으로 렌더링한 클립은 건너뜁니다.
+ *
+ * 렌더링했거나 파일에서 읽은 클립은 유저별로 메모리에 들고 있고(ENTRY_CLIP_MEMORY_MB 예산, LRU),
+ * 입장 이벤트에서 부르는 find(key, size, modified, ...) 는 메모리만 봅니다. (이벤트 스레드에서 .clip 파일을 열지 않음)
+ * 메모리에 없으면 null 을 돌려주고, renderAsync() 가 렌더링 스레드에서 파일을 읽거나 새로 렌더링해 메모리에 올립니다.
+ */
+public class EntryClipRenderer {
+
+    private static final Logger LOG = Log.get("EntryClipRenderer");
+
+    private static final EntryClipRenderer INSTANCE = new EntryClipRenderer(
+            MusicManager.get().playerManager(),
+            new EntryClipStore(Paths.get("data", "entry-clips")),
+            Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "entry-clip-render");
+                t.setDaemon(true);
+                return t;
+            }),
+            BotConfig.getBoolean("ENTRY_SONG_PRERENDER", true),
+            BotConfig.getLong("ENTRY_CLIP_MEMORY_MB", 32) << 20);
+
+    // 디코더가 다음 프레임을 이 시간 안에 못 만들면 렌더링 실패로 봄
+    private static final long FRAME_TIMEOUT_MILLIS = 5_000;
+
+    private final AudioPlayerManager playerManager;
+    private final EntryClipStore store;
+    private final Executor executor;
+    private final boolean enabled;
+    private final long memoryBudgetBytes;
+
+    // 유저 ID 문자열 → 메모리에 올린 클립 (접근 순서, 맨 앞이 가장 오래 안 쓴 클립)
+    private final LinkedHashMap<String, LoadedClip> loaded = new LinkedHashMap<>(16, 0.75f, true);
+    private long loadedBytes;
+
+    /**
+     * 메모리에 올린 클립과 렌더링할 때의 원본/구간
+     */
+    private static final class LoadedClip {
+        final OpusClip clip;
+        final long sourceSize;
+        final long sourceModifiedMillis;
+        final int startSec;
+        final int durationSec;
+
+        LoadedClip(OpusClip clip, long sourceSize, long sourceModifiedMillis, int startSec, int durationSec) {
+            this.clip = clip;
+            this.sourceSize = sourceSize;
+            this.sourceModifiedMillis = sourceModifiedMillis;
+            this.startSec = startSec;
+            this.durationSec = durationSec;
+        }
+
+        boolean matches(long size, long modifiedMillis, int start, int duration) {
+            return sourceSize == size && sourceModifiedMillis == modifiedMillis
+                    && startSec == start && durationSec == duration;
+        }
+    }
+
+    /**
+     * @param memoryBudgetBytes 메모리에 들고 있을 클립 바이트 합의 최대값
+     */
+    public EntryClipRenderer(AudioPlayerManager playerManager, EntryClipStore store,
+                             Executor executor, boolean enabled, long memoryBudgetBytes) {
+        this.playerManager = playerManager;
+        this.store = store;
+        this.executor = executor;
+        this.enabled = enabled;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+    }
+
+    public static EntryClipRenderer get() {
+        return INSTANCE;
+    }
+
+    /**
+     * 렌더링해 둔 클립을 찾습니다. 메모리에 없으면 파일에서 읽어 메모리에 올립니다. (파일 시스템에 접근)
+     *
+     * @param key 유저 ID 문자열
+     * @return 없거나 원본/구간이 바뀌었으면 null
+     */
+    public OpusClip find(String key, Path source, int startSec, int durationSec) {
+        if (!enabled) {
+            return null;
+        }
+        long sourceSize;
+        long sourceModifiedMillis;
+        try {
+            sourceSize = Files.size(source);
+            sourceModifiedMillis = Files.getLastModifiedTime(source).toMillis();
+        } catch (IOException e) {
+            return null;
+        }
+        OpusClip clip = find(key, sourceSize, sourceModifiedMillis, startSec, durationSec);
+        if (clip != null) {
+            return clip;
+        }
+        clip = store.read(key, sourceSize, sourceModifiedMillis, startSec, durationSec);
+        if (clip != null) {
+            remember(key, new LoadedClip(clip, sourceSize, sourceModifiedMillis, startSec, durationSec));
+        }
+        return clip;
+    }
+
+    /**
+     * 원본 파일 크기/수정 시각을 이미 알고 있을 때 메모리에서만 클립을 찾습니다. (입장 이벤트용, 파일 시스템에 접근하지 않음)
+     *
+     * @return 메모리에 없거나 원본/구간이 바뀌었으면 null (renderAsync() 로 올려 두세요)
+     */
+    public OpusClip find(String key, long sourceSize, long sourceModifiedMillis, int startSec, int durationSec) {
+        if (!enabled) {
+            return null;
+        }
+        LoadedClip entry;
+        synchronized (loaded) {
+            entry = loaded.get(key);
+        }
+        return entry != null && entry.matches(sourceSize, sourceModifiedMillis, startSec, durationSec)
+                ? entry.clip : null;
+    }
+
+    /**
+     * 메모리에 올린 유저의 클립을 버립니다. (원본을 다시 올렸거나 구간을 바꿨을 때)
+     */
+    public void invalidate(String key) {
+        synchronized (loaded) {
+            LoadedClip removed = loaded.remove(key);
+            if (removed != null) {
+                loadedBytes -= removed.clip.sizeInBytes();
+            }
+        }
+    }
+
+    /**
+     * 백그라운드에서 구간을 렌더링해 저장합니다. 이미 같은 원본/구간의 클립이 있으면 건너뜁니다.
+     *
+     * @param key 유저 ID 문자열 (클립 파일 이름)
+     */
+    public void renderAsync(String key, Path source, int startSec, int durationSec) {
+        if (!enabled) {
+            return;
+        }
+        executor.execute(() -> {
+            // 파일에 이미 있으면 메모리에만 올림
+            if (find(key, source, startSec, durationSec) != null) {
+                return;
+            }
+            try {
+                long started = System.nanoTime();
+                OpusClip clip = render(source, startSec, durationSec);
+                store.write(key, source, startSec, durationSec, clip);
+                remember(key, new LoadedClip(clip, Files.size(source),
+                        Files.getLastModifiedTime(source).toMillis(), startSec, durationSec));
+                LOG.info(() -> "rendered " + key + ": " + clip.frameCount() + " frames, "
+                        + clip.sizeInBytes() + " bytes in "
+                        + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) + "ms");
+            } catch (IOException | RuntimeException e) {
+                LOG.warn("render failed for " + key, e);
+            }
+        });
+    }
+
+    private void remember(String key, LoadedClip entry) {
+        long bytes = entry.clip.sizeInBytes();
+        if (bytes > memoryBudgetBytes) {
+            return;
+        }
+        synchronized (loaded) {
+            LoadedClip previous = loaded.put(key, entry);
+            if (previous != null) {
+                loadedBytes -= previous.clip.sizeInBytes();
+            }
+            loadedBytes += bytes;
+            for (Iterator<Map.Entry<String, LoadedClip>> it = loaded.entrySet().iterator();
+                 loadedBytes > memoryBudgetBytes && it.hasNext(); ) {
+                Map.Entry<String, LoadedClip> eldest = it.next();
+                if (eldest.getKey().equals(key)) {
+                    continue;
+                }
+                loadedBytes -= eldest.getValue().clip.sizeInBytes();
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * 원본 파일의 [startSec, startSec + durationSec] 구간을 Opus 프레임으로 렌더링합니다. (호출한 스레드에서 실행)
+     */
+    OpusClip render(Path source, int startSec, int durationSec) throws IOException {
+        AudioItem item = playerManager.loadItemSync(source.toString());
+        if (!(item instanceof AudioTrack track)) {
+            throw new IOException("not a single track: " + source);
+        }
+        long startMillis = startSec * 1000L;
+        if (startMillis >= track.getDuration()) {
+            throw new IOException("start position is beyond track duration");
+        }
+        long maxFrames = durationSec * 1000L / OpusClip.FRAME_MILLIS;
+
+        AudioPlayer player = playerManager.createPlayer();
+        List<byte[]> frames = new ArrayList<>((int) Math.min(maxFrames, 1_000));
+        try {
+            track.setPosition(startMillis);
+            player.startTrack(track, false);
+            while (frames.size() < maxFrames) {
+                AudioFrame frame = player.provide(FRAME_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (frame == null || frame.isTerminator()) {
+                    break;
+                }
+                frames.add(frame.getData());
+            }
+        } catch (TimeoutException e) {
+            throw new IOException("decoder stalled after " + frames.size() + " frames", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("render interrupted");
+        } finally {
+            player.destroy();
+        }
+
+        if (frames.isEmpty()) {
+            throw new IOException("no frames rendered");
+        }
+        return new OpusClip(frames);
+    }
+}
@@ -0,0 +1,252 @@
+package guild.repository;
+
+import com.google.gson.reflect.TypeToken;
+import common.log.Log;
+import common.log.Logger;
+import common.storage.KeyValueStore;
+import common.storage.KeyValueStores;
+import common.storage.ValueCodec;
+import common.util.BotConfig;
+import common.util.LongLongMap;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.Paths;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * 서버별 숫자 설정(업로드 채널 ID, 기본 볼륨 등)을 저장하는 레지스트리.
+ * guildId -> long
+ *
+ * 설정마다 LongLongMap 하나를 volatile 로 공개하고, 조회는 락 없이 그 맵을 읽습니다.
+ * 서버 ID 와 값을 박싱하지 않으므로 메시지마다 확인하는 경로(업로드 채널)에서도 할당이 없습니다.
+ * 변경은 설정 맵을 복사해 바꿔 끼웁니다. (서버 수에 비례하지만 명령으로만 바뀌므로 드묾)
+ *
+ * 설정마다 KeyValueStore 하나에 저장해 재시작해도 남습니다. (GUILD_SETTINGS_STORE: indexed(기본) / json)
+ * 키는 서버 ID 의 10진 문자열입니다.
+ */
+public final class GuildSettings {
+
+    /**
+     * 서버별 설정 종류 (저장 파일 이름)
+     */
+    public enum Setting {
+        // mp3 업로드 전용 채널 ID
+        UPLOAD_CHANNEL("upload-channels"),
+        // 새로 만든 플레이어에 적용할 볼륨 (0 ~ 150)
+        DEFAULT_VOLUME("guild-default-volume");
+
+        private final String storeName;
+
+        Setting(String storeName) {
+            this.storeName = storeName;
+        }
+    }
+
+    private static final Logger LOG = Log.get("GuildSettings");
+
+    private static final Type MAP_TYPE = new TypeToken<Map<String, Long>>(){}.getType();
+
+    private static final ScheduledExecutorService SAVE_EXECUTOR =
+            Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "guild-settings-save");
+                t.setDaemon(true);
+                return t;
+            });
+
+    private static final Table[] TABLES = new Table[Setting.values().length];
+
+    static {
+        String backend = BotConfig.get("GUILD_SETTINGS_STORE", KeyValueStores.INDEXED);
+        long delayMillis = BotConfig.getLong("GUILD_SETTINGS_SAVE_DELAY_MS", 500);
+        long compactBytes = BotConfig.getLong("GUILD_SETTINGS_COMPACT_BYTES", 1L << 20);
+        for (Setting setting : Setting.values()) {
+            Table table = new Table(KeyValueStores.open(backend, Paths.get("data", setting.storeName),
+                    ValueCodec.LONG, MAP_TYPE, SAVE_EXECUTOR, delayMillis, compactBytes));
+            table.load(setting);
+            TABLES[setting.ordinal()] = table;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            for (Table table : TABLES) {
+                table.store.close();
+            }
+            // 설정마다 저장소가 따로지만 실행기는 하나를 같이 씀
+            SAVE_EXECUTOR.shutdown();
+        }, "guild-settings-flush"));
+    }
+
+    private GuildSettings() {}
+
+    /**
+     * 락/할당 없이 조회합니다.
+     *
+     * @param missing 설정이 없을 때 돌려줄 값
+     */
+    public static long get(Setting setting, long guildId, long missing) {
+        return TABLES[setting.ordinal()].map.get(guildId, missing);
+    }
+
+    public static boolean contains(Setting setting, long guildId) {
+        return TABLES[setting.ordinal()].map.containsKey(guildId);
+    }
+
+    public static void set(Setting setting, long guildId, long value) {
+        Table table = TABLES[setting.ordinal()];
+        synchronized (table) {
+            LongLongMap current = table.map;
+            if (current.containsKey(guildId) && current.get(guildId, 0) == value) {
+                return;
+            }
+            LongLongMap copy = new LongLongMap(current);
+            copy.put(guildId, value);
+            table.map = copy;
+            // 저장 순서가 메모리에 반영된 순서와 같도록 같은 락 안에서 기록
+            table.store.put(Long.toUnsignedString(guildId), value);
+        }
+    }
+
+    public static void remove(Setting setting, long guildId) {
+        Table table = TABLES[setting.ordinal()];
+        synchronized (table) {
+            LongLongMap current = table.map;
+            if (!current.containsKey(guildId)) {
+                return;
+            }
+            LongLongMap copy = new LongLongMap(current);
+            copy.remove(guildId);
+            table.map = copy;
+            table.store.remove(Long.toUnsignedString(guildId));
+        }
+    }
+
+    /**
+     * 저장하지 않은 변경을 지금 파일에 씁니다.
+     */
+    public static void flush() throws IOException {
+        for (Table table : TABLES) {
+            table.store.flush();
+        }
+    }
+
+    /**
+     * 설정 하나의 값과 저장소
+     */
+    private static final class Table {
+
+        final KeyValueStore<Long> store;
+        // 조회용으로 공개한 맵 (바꾸지 않고 통째로 교체)
+        volatile LongLongMap map = new LongLongMap();
+        // 로딩 중에만 사용 (this 로 동기화)
+        LongLongMap staged;
+
+        Table(KeyValueStore<Long> store) {
+            this.store = store;
+        }
+
+        void load(Setting setting) {
+            synchronized (this) {
+                staged = new LongLongMap();
+            }
+            try {
+                int records = store.load(new View());
+                LOG.info(() -> "loaded " + map.size() + " " + setting.storeName + " (" + records + " records).");
+            } catch (IOException e) {
+                // 기존 파일을 덮어쓰지 않도록 저장하지 않고 메모리로만 동작
+                LOG.error("load failed for " + setting.storeName + ", changes will not be saved", e);
+            } finally {
+                synchronized (this) {
+                    map = staged;
+                    staged = null;
+                }
+            }
+        }
+
+        /**
+         * 저장소가 저장/복원할 때 쓰는 String 키 뷰
+         *
+         * 로딩 중에는 staged 에 모았다가 한 번에 공개합니다. (한 건씩 넣으면 건마다 맵을 복사하므로)
+         */
+        private final class View extends AbstractMap<String, Long> {
+
+            @Override
+            public Long put(String key, Long value) {
+                synchronized (Table.this) {
+                    LongLongMap target = writable();
+                    long id = Long.parseUnsignedLong(key);
+                    Long old = target.containsKey(id) ? target.get(id, 0) : null;
+                    target.put(id, value);
+                    publish(target);
+                    return old;
+                }
+            }
+
+            @Override
+            public Long remove(Object key) {
+                synchronized (Table.this) {
+                    LongLongMap target = writable();
+                    long id = Long.parseUnsignedLong((String) key);
+                    Long old = target.containsKey(id) ? target.get(id, 0) : null;
+                    target.remove(id);
+                    publish(target);
+                    return old;
+                }
+            }
+
+            @Override
+            public void clear() {
+                synchronized (Table.this) {
+                    if (staged != null) {
+                        staged.clear();
+                    } else {
+                        map = new LongLongMap();
+                    }
+                }
+            }
+
+            @Override
+            public int size() {
+                synchronized (Table.this) {
+                    return staged != null ? staged.size() : map.size();
+                }
+            }
+
+            @Override
+            public Set<Entry<String, Long>> entrySet() {
+                List<Entry<String, Long>> entries = new ArrayList<>();
+                synchronized (Table.this) {
+                    (staged != null ? staged : map).forEach((guild, value) ->
+                            entries.add(new SimpleImmutableEntry<>(Long.toUnsignedString(guild), value)));
+                }
+                return new AbstractSet<>() {
+                    @Override
+                    public Iterator<Entry<String, Long>> iterator() {
+                        return entries.iterator();
+                    }
+
+                    @Override
+                    public int size() {
+                        return entries.size();
+                    }
+                };
+            }
+
+            private LongLongMap writable() {
+                return staged != null ? staged : new LongLongMap(map);
+            }
+
+            private void publish(LongLongMap target) {
+                if (target != staged) {
+                    map = target;
+                }
+            }
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package music.handler;
 
+import com.sedmelluq.discord.lavaplayer.format.StandardAudioDataFormats;
 import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
-import com.sedmelluq.discord.lavaplayer.track.playback.AudioFrame;
+import com.sedmelluq.discord.lavaplayer.track.playback.MutableAudioFrame;
+import music.service.OverlayMixer;
 import net.dv8tion.jda.api.audio.AudioSendHandler;
 import java.nio.ByteBuffer;
 
@@ -9,31 +11,45 @@ import java.nio.ByteBuffer;
 /**
  * Lavaplayer의 AudioPlayer가 출력한 Opus 형식의 오디오를
  * Discord 음성 채널로 전달해주는 클래스 입니다.
+ *
+ * 프레임마다 새 배열을 만들지 않도록 Opus 최대 패킷 크기만큼의 버퍼 하나를
+ * MutableAudioFrame 에 연결해두고, AudioPlayer가 그 버퍼에 직접 쓰게 합니다.
+ * 입장곡 같은 클립이 겹쳐 재생되는 동안에는 OverlayMixer 가 섞은 프레임을 같은 버퍼에 씁니다.
  */
 public class AudioPlayerHandler implements AudioSendHandler {
     private final AudioPlayer player;
-    private final ByteBuffer buffer = ByteBuffer.allocate(1024 * 1024);
+    private final ByteBuffer buffer =
+            ByteBuffer.allocate(StandardAudioDataFormats.DISCORD_OPUS.maximumChunkSize());
+    private final MutableAudioFrame frame = new MutableAudioFrame();
+    private final OverlayMixer mixer;
 
     public AudioPlayerHandler(AudioPlayer player) {
+        this(player, null);
+    }
+
+    /**
+     * @param mixer 클립을 겹쳐 재생할 믹서, 사용하지 않으면 null
+     */
+    public AudioPlayerHandler(AudioPlayer player, OverlayMixer mixer) {
         this.player = player;
+        this.mixer = mixer;
+        this.frame.setBuffer(buffer);
     }
 
     /**
      * JDA로 보낼 오디오 확인 메소드 입니다.
      *
+     * 프레임이 있으면 AudioPlayer가 내부 버퍼에 바로 채워 넣습니다.
+     * 클립이 재생 중이면 메인 프레임과 클립을 섞은 결과를 채웁니다.
+     *
      * @return 프레임이 존재하면 true, 없으면 false
      */
     @Override
     public boolean canProvide() {
-        AudioFrame frame = player.provide();
-        if (frame == null) {
-            return false;
+        if (mixer != null && mixer.isActive()) {
+            return mixer.provide(player, buffer);
         }
-        byte[] bytes = frame.getData();
-        buffer.clear();
-        buffer.put(bytes);
-        buffer.flip();
-        return true;
+        return player.provide(frame);
     }
 
     /**
@@ -43,7 +59,7 @@ public class AudioPlayerHandler implements AudioSendHandler {
      */
     @Override
     public ByteBuffer provide20MsAudio() {
-        return buffer;
+        return buffer.flip();
     }
 
     /**
@@ -56,5 +72,3 @@ public class AudioPlayerHandler implements AudioSendHandler {
         return true;
     }
 }
-
-
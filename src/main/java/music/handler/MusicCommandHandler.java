@@ -6,7 +6,6 @@ import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
 import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
 import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
-import java.util.Queue;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.channel.middleman.AudioChannel;
@@ -16,10 +15,19 @@ import net.dv8tion.jda.api.interactions.commands.OptionMapping;
 import net.dv8tion.jda.api.managers.AudioManager;
 import music.service.MusicManager;
 import music.service.ServerMusicManager;
+import music.service.TrackScheduler;
+import common.log.Log;
+import common.log.Logger;
 import common.util.CommandUtils;
+import guild.repository.GuildSettings;
+import guild.repository.GuildSettings.Setting;
 
 public class MusicCommandHandler extends ListenerAdapter {
 
+    private static final Logger LOG = Log.get("Music");
+
+    private static final int QUEUE_PAGE_SIZE = 10;
+
     @Override
     public void onSlashCommandInteraction(SlashCommandInteractionEvent event) {
         switch (event.getName()) {
@@ -27,6 +35,9 @@ public class MusicCommandHandler extends ListenerAdapter {
             case "skip" -> handleSkip(event);
             case "stop" -> handleStop(event);
             case "queue" -> handleQueue(event);
+            case "remove" -> handleRemove(event);
+            case "move" -> handleMove(event);
+            case "shuffle" -> handleShuffle(event);
             case "volume" -> handleVolume(event);
             default -> {}
         }
@@ -64,16 +75,19 @@ public class MusicCommandHandler extends ListenerAdapter {
 
     private void ensureAudioConnection(Guild guild, ServerMusicManager music, AudioChannel channel) {
         AudioManager audioManager = guild.getAudioManager();
+        // 유휴 정리 후 새로 만들어진 ServerMusicManager일 수 있으므로 항상 현재 핸들러로 맞춤
+        if (audioManager.getSendingHandler() != music.sendHandler) {
+            audioManager.setSendingHandler(music.sendHandler);
+        }
         if (!audioManager.isConnected()) {
             audioManager.setSelfDeafened(true);
-            audioManager.setSendingHandler(music.sendHandler);
             audioManager.openAudioConnection(channel);
         }
     }
 
     private void loadAndPlayTrack(ServerMusicManager music, String query, SlashCommandInteractionEvent event) {
-        // 모든 URL/검색어를 Lavaplayer에 직접 전달 (youtube-source가 처리)
-        MusicManager.get().playerManager().loadItemOrdered(
+        // 캐시에 없으면 Lavaplayer에 전달 (youtube-source가 처리)
+        MusicManager.get().loader().load(
                 music,
                 query,
                 createAudioLoadResultHandler(music, event, null)
@@ -103,7 +117,7 @@ public class MusicCommandHandler extends ListenerAdapter {
 
             @Override
             public void loadFailed(FriendlyException e) {
-                e.printStackTrace();
+                LOG.error(() -> "load failed: " + e.getMessage(), e);
                 event.getHook().sendMessage("로드 실패: " + e.getMessage()).queue();
             }
         };
@@ -116,12 +130,8 @@ public class MusicCommandHandler extends ListenerAdapter {
             return;
         }
 
-        // 모든 트랙을 큐에 추가
-        int addedCount = 0;
-        for (AudioTrack track : playlist.getTracks()) {
-            music.scheduler.queue(track);
-            addedCount++;
-        }
+        // 모든 트랙을 한 번에 큐에 추가
+        int addedCount = music.scheduler.queueAll(playlist.getTracks());
 
         String playlistName = playlist.getName() != null ? playlist.getName() : "재생목록";
         event.getHook().sendMessage("▶️ 재생목록 추가: **" + playlistName + "** (" + addedCount + "곡)").queue();
@@ -144,8 +154,7 @@ public class MusicCommandHandler extends ListenerAdapter {
 
         Guild guild = event.getGuild();
         ServerMusicManager music = MusicManager.get().of(guild);
-        music.player.stopTrack();
-        music.scheduler.getQueue().clear();
+        music.scheduler.stop();
         AudioManager audioManager = guild.getAudioManager();
         if (audioManager.isConnected()) audioManager.closeAudioConnection();
         event.reply("⏹ 정지하고 연결을 종료했어요.").queue();
@@ -153,21 +162,81 @@ public class MusicCommandHandler extends ListenerAdapter {
 
     private void handleQueue(SlashCommandInteractionEvent event) {
         if (!CommandUtils.requireGuild(event)) return;
-        Queue<AudioTrack> queue = MusicManager.get().of(event.getGuild()).scheduler.getQueue();
-        if (queue.isEmpty()) {
+        TrackScheduler scheduler = MusicManager.get().of(event.getGuild()).scheduler;
+        int size = scheduler.size();
+        if (size == 0) {
             event.reply("대기열이 비었어요.").setEphemeral(true).queue();
             return;
         }
-        StringBuilder sb = new StringBuilder("**대기열**\n");
-        int i = 1;
-        for (AudioTrack t : queue) {
+
+        int pages = (size + QUEUE_PAGE_SIZE - 1) / QUEUE_PAGE_SIZE;
+        OptionMapping pageOpt = event.getOption("page");
+        int page = pageOpt == null ? 1 : Math.max(1, Math.min(pages, pageOpt.getAsInt()));
+        int offset = (page - 1) * QUEUE_PAGE_SIZE;
+
+        StringBuilder sb = new StringBuilder("**대기열** (")
+                .append(size).append("곡, ")
+                .append(formatDuration(scheduler.getTotalDuration())).append(")\n");
+        int i = offset + 1;
+        for (AudioTrack t : scheduler.slice(offset, QUEUE_PAGE_SIZE)) {
             sb.append(i++).append(". ").append(t.getInfo().title).append("\n");
-            if (i > 10) {
-                sb.append("..."); break; } // 너무 길면 생략
         }
+        sb.append("페이지 ").append(page).append("/").append(pages);
         event.reply(sb.toString()).queue();
     }
 
+    private void handleRemove(SlashCommandInteractionEvent event) {
+        if (!CommandUtils.requireGuild(event)) return;
+        TrackScheduler scheduler = MusicManager.get().of(event.getGuild()).scheduler;
+
+        int index = event.getOption("index").getAsInt();
+        AudioTrack removed = scheduler.remove(index - 1);
+        if (removed == null) {
+            event.reply("⚠️ 1 ~ " + scheduler.size() + " 사이의 번호를 입력하세요.").setEphemeral(true).queue();
+            return;
+        }
+        event.reply("🗑 대기열에서 뺐어요: **" + removed.getInfo().title + "**").queue();
+    }
+
+    private void handleMove(SlashCommandInteractionEvent event) {
+        if (!CommandUtils.requireGuild(event)) return;
+        TrackScheduler scheduler = MusicManager.get().of(event.getGuild()).scheduler;
+
+        int from = event.getOption("from").getAsInt();
+        int to = event.getOption("to").getAsInt();
+        if (!scheduler.move(from - 1, to - 1)) {
+            event.reply("⚠️ 1 ~ " + scheduler.size() + " 사이의 번호를 입력하세요.").setEphemeral(true).queue();
+            return;
+        }
+        event.reply("↕️ " + from + "번 곡을 " + to + "번으로 옮겼어요.").queue();
+    }
+
+    private void handleShuffle(SlashCommandInteractionEvent event) {
+        if (!CommandUtils.requireGuild(event)) return;
+        TrackScheduler scheduler = MusicManager.get().of(event.getGuild()).scheduler;
+
+        if (scheduler.size() < 2) {
+            event.reply("섞을 곡이 부족해요.").setEphemeral(true).queue();
+            return;
+        }
+        scheduler.shuffle();
+        event.reply("🔀 대기열 " + scheduler.size() + "곡을 섞었어요.").queue();
+    }
+
+    /**
+     * 재생 시간(ms)을 h:mm:ss 또는 m:ss 형식으로 바꿉니다.
+     */
+    static String formatDuration(long millis) {
+        long seconds = millis / 1000;
+        long hours = seconds / 3600;
+        long minutes = (seconds % 3600) / 60;
+        long secs = seconds % 60;
+        if (hours > 0) {
+            return String.format("%d:%02d:%02d", hours, minutes, secs);
+        }
+        return String.format("%d:%02d", minutes, secs);
+    }
+
     private void handleVolume(SlashCommandInteractionEvent event) {
         if (!CommandUtils.requireGuild(event)) {
             return;
@@ -189,6 +258,8 @@ public class MusicCommandHandler extends ListenerAdapter {
         }
 
         player.setVolume(vol);
+        // 다음에 플레이어를 새로 만들 때(재시작, 유휴 정리 후)도 유지
+        GuildSettings.set(Setting.DEFAULT_VOLUME, event.getGuild().getIdLong(), vol);
         event.reply("✅ 볼륨을 **" + vol + "%** 로 설정했습니다.").queue();
     }
 }
@@ -0,0 +1,72 @@
+package music.handler;
+
+import common.log.Log;
+import common.log.Logger;
+import music.service.MusicManager;
+import music.service.PlaybackSnapshotter;
+import music.service.PlaybackState;
+import music.service.PlaybackStateStore;
+import music.service.ServerMusicManager;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.channel.middleman.AudioChannel;
+import net.dv8tion.jda.api.events.session.ReadyEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.api.managers.AudioManager;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 봇이 다시 시작되면 저장해 둔 재생 상태를 복원하는 클래스입니다. (warm restart)
+ *
+ * 로그인 후 한 번만, 서버마다 저장된 보이스 채널에 다시 접속하고
+ * 재생 중이던 곡을 저장된 위치부터 이어서 재생한 뒤 대기열을 그대로 되돌립니다.
+ * 서버나 채널이 없어졌으면 저장된 상태를 지웁니다.
+ */
+public class PlaybackRestoreHandler extends ListenerAdapter {
+
+    private static final Logger LOG = Log.get("PlaybackRestore");
+
+    private final AtomicBoolean restored = new AtomicBoolean();
+
+    @Override
+    public void onReady(ReadyEvent event) {
+        if (!restored.compareAndSet(false, true)) {
+            return;
+        }
+        JDA jda = event.getJDA();
+        MusicManager manager = MusicManager.get();
+        PlaybackStateStore store = manager.playbackStore();
+
+        for (PlaybackState state : store.readAll()) {
+            Guild guild = jda.getGuildById(state.guildId);
+            AudioChannel channel = guild == null || state.voiceChannelId == 0
+                    ? null
+                    : guild.getChannelById(AudioChannel.class, state.voiceChannelId);
+            if (channel == null || state.isEmpty()) {
+                LOG.info("skip guild " + state.guildId + " (guild or channel gone)");
+                delete(store, state.guildId);
+                continue;
+            }
+
+            ServerMusicManager music = manager.of(guild);
+            AudioManager audioManager = guild.getAudioManager();
+            audioManager.setSendingHandler(music.sendHandler);
+            audioManager.setSelfDeafened(true);
+            audioManager.openAudioConnection(channel);
+
+            int count = PlaybackSnapshotter.restore(manager.playerManager(), music, state);
+            LOG.info("guild " + state.guildId + ": restored " + count
+                    + " track(s) at " + state.position + "ms in " + channel.getName());
+        }
+    }
+
+    private static void delete(PlaybackStateStore store, long guildId) {
+        try {
+            store.delete(guildId);
+        } catch (IOException e) {
+            LOG.error("delete failed for guild " + guildId, e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package music.service;
+
+import com.sedmelluq.discord.lavaplayer.container.common.OpusPacketRouter;
+import com.sedmelluq.discord.lavaplayer.source.AudioSourceManager;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.BaseAudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.playback.LocalAudioTrackExecutor;
+
+import java.nio.ByteBuffer;
+
+/**
+ * OpusFrameCache 에 저장해 둔 Opus 프레임으로 재생하는 트랙입니다.
+ *
+ * 원본 스트림을 열거나 디코딩하지 않고 프레임을 그대로 Lavaplayer 프레임 버퍼에 넣습니다.
+ * 필터나 볼륨이 걸려 있으면 OpusPacketRouter 가 알아서 디코딩 후 다시 인코딩합니다.
+ *
+ * 트랙 정보와 소스 매니저는 원래 트랙 것을 그대로 쓰므로, 인코딩해 저장하면 원래 트랙으로 복원됩니다.
+ */
+public class CachedOpusAudioTrack extends BaseAudioTrack {
+
+    private static final int SAMPLE_RATE = 48_000;
+    private static final int CHANNELS = 2;
+
+    private final OpusClip frames;
+    private final AudioTrack source;
+
+    // 재생 스레드에서만 사용
+    private int nextFrame;
+
+    /**
+     * @param frames 트랙 처음부터 끝까지의 20ms Opus 프레임
+     * @param source 프레임을 녹음한 원래 트랙 (정보, 소스 매니저용)
+     */
+    public CachedOpusAudioTrack(OpusClip frames, AudioTrack source) {
+        super(source.getInfo());
+        this.frames = frames;
+        this.source = source;
+    }
+
+    @Override
+    public void process(LocalAudioTrackExecutor executor) throws Exception {
+        OpusPacketRouter router = new OpusPacketRouter(executor.getProcessingContext(), SAMPLE_RATE, CHANNELS);
+        try {
+            executor.executeProcessingLoop(() -> {
+                while (nextFrame < frames.frameCount()) {
+                    router.process(ByteBuffer.wrap(frames.frame(nextFrame)));
+                    nextFrame++;
+                }
+            }, position -> {
+                nextFrame = (int) Math.min(frames.frameCount(), Math.max(0, position / OpusClip.FRAME_MILLIS));
+                router.seekPerformed(position, nextFrame * OpusClip.FRAME_MILLIS);
+            });
+        } finally {
+            router.close();
+        }
+    }
+
+    @Override
+    public boolean isSeekable() {
+        return true;
+    }
+
+    @Override
+    public AudioSourceManager getSourceManager() {
+        return source.getSourceManager();
+    }
+
+    @Override
+    protected AudioTrack makeShallowClone() {
+        return new CachedOpusAudioTrack(frames, source);
+    }
+}
@@ -0,0 +1,65 @@
+package music.service;
+
+import java.util.List;
+
+/**
+ * 검색어/URL 하나를 Lavaplayer로 해석한 결과를 캐시에 저장하기 위한 데이터 클래스입니다.
+ *
+ * 트랙은 AudioPlayerManager.encodeTrack 으로 인코딩한 Base64 문자열로 보관하므로
+ * 디스크에 그대로 저장했다가 재시작 후에도 decodeTrack 으로 복원할 수 있습니다.
+ */
+public class CachedResolution {
+
+    public enum Kind {
+        TRACK,
+        PLAYLIST,
+        NO_MATCHES,
+        FAILED
+    }
+
+    public final Kind kind;
+    public final List<String> encodedTracks;  // TRACK 이면 1개, PLAYLIST 면 여러 개
+    public final String playlistName;
+    public final int selectedIndex;           // 선택된 트랙이 없으면 -1
+    public final boolean searchResult;
+    public final String failureMessage;       // FAILED 일 때만 사용
+    public final long expiresAt;              // epoch ms
+
+    public CachedResolution(Kind kind, List<String> encodedTracks, String playlistName,
+                            int selectedIndex, boolean searchResult,
+                            String failureMessage, long expiresAt) {
+        this.kind = kind;
+        this.encodedTracks = encodedTracks == null ? List.of() : List.copyOf(encodedTracks);
+        this.playlistName = playlistName;
+        this.selectedIndex = selectedIndex;
+        this.searchResult = searchResult;
+        this.failureMessage = failureMessage;
+        this.expiresAt = expiresAt;
+    }
+
+    public static CachedResolution noMatches(long expiresAt) {
+        return new CachedResolution(Kind.NO_MATCHES, List.of(), null, -1, false, null, expiresAt);
+    }
+
+    public static CachedResolution failed(String message, long expiresAt) {
+        return new CachedResolution(Kind.FAILED, List.of(), null, -1, false, message, expiresAt);
+    }
+
+    public boolean isNegative() {
+        return kind == Kind.NO_MATCHES || kind == Kind.FAILED;
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAt;
+    }
+
+    @Override
+    public String toString() {
+        return "CachedResolution{" +
+                "kind=" + kind +
+                ", tracks=" + encodedTracks.size() +
+                ", playlistName='" + playlistName + '\'' +
+                ", expiresAt=" + expiresAt +
+                '}';
+    }
+}
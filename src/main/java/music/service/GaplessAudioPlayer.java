@@ -0,0 +1,368 @@
+package music.service;
+
+import com.sedmelluq.discord.lavaplayer.filter.PcmFilterFactory;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
+import com.sedmelluq.discord.lavaplayer.player.event.AudioEvent;
+import com.sedmelluq.discord.lavaplayer.player.event.AudioEventListener;
+import com.sedmelluq.discord.lavaplayer.player.event.TrackEndEvent;
+import com.sedmelluq.discord.lavaplayer.player.event.TrackExceptionEvent;
+import com.sedmelluq.discord.lavaplayer.player.event.TrackStartEvent;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackEndReason;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.playback.AudioFrame;
+import com.sedmelluq.discord.lavaplayer.track.playback.MutableAudioFrame;
+import common.util.LatencyHistogram;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 다음 곡을 미리 불러와 두었다가 곡 전환 시 바로 재생하는 AudioPlayer 입니다.
+ *
+ * 내부에 AudioPlayer 두 개를 두고,
+ * - active: 실제로 소리를 내보내는 플레이어
+ * - standby: 일시정지 상태로 다음 곡의 스트림을 열고 앞부분 프레임을 버퍼에 채워두는 플레이어
+ * prefetch() 한 트랙으로 startTrack() 하면 두 플레이어를 맞바꿔 연결/디코더 준비 시간 없이 재생합니다.
+ *
+ * 이벤트는 active 플레이어의 것만 리스너에게 전달하고,
+ * 곡이 끝난 뒤 다음 곡의 첫 프레임이 나가기까지의 시간(전환 공백)을 기록합니다.
+ *
+ * OpusFrameCache 를 주면 끝까지 재생한 곡의 프레임을 캐시에 모으고,
+ * 대기열 곡(startQueued, prefetch)은 캐시에 있으면 저장된 프레임으로 재생합니다.
+ */
+public class GaplessAudioPlayer implements AudioPlayer {
+
+    private final List<AudioEventListener> listeners = new CopyOnWriteArrayList<>();
+    private final LatencyHistogram transitionGaps = new LatencyHistogram();
+    private final AtomicLong prefetchHits = new AtomicLong();
+    private final AtomicLong prefetchMisses = new AtomicLong();
+
+    private volatile AudioPlayer active;
+    private volatile AudioPlayer standby;
+    private volatile boolean paused;
+    private volatile boolean filtered;
+
+    // 사용하지 않으면 null
+    private final OpusFrameCache frameCache;
+    private final OpusFrameCache.Recorder recorder;
+
+    // 미리 불러온 대기열 트랙과, standby 에서 실제로 재생 중인 복제본
+    private AudioTrack prefetchSource;
+    private volatile AudioTrack prefetchClone;
+
+    // 곡이 끝난 시각 (다음 곡 첫 프레임이 나가면 전환 공백으로 기록)
+    private volatile long gapStartedAt;
+
+    public GaplessAudioPlayer(AudioPlayer first, AudioPlayer second) {
+        this(first, second, null);
+    }
+
+    /**
+     * @param frameCache 곡 프레임 캐시, 사용하지 않으면 null
+     */
+    public GaplessAudioPlayer(AudioPlayer first, AudioPlayer second, OpusFrameCache frameCache) {
+        this.frameCache = frameCache;
+        this.recorder = frameCache == null ? null : frameCache.newRecorder();
+        this.active = first;
+        this.standby = second;
+        this.standby.setPaused(true);
+
+        AudioEventListener forwarder = this::onUnderlyingEvent;
+        first.addListener(forwarder);
+        second.addListener(forwarder);
+    }
+
+    /**
+     * 다음에 재생할 트랙을 standby 플레이어에서 미리 열어 버퍼를 채웁니다.
+     *
+     * 대기열의 트랙 인스턴스는 그대로 두고 복제본을 재생하므로,
+     * 미리 불러오기가 취소되거나 정리돼도 원래 트랙은 평소처럼 재생할 수 있습니다.
+     *
+     * @param track 대기열 맨 앞 트랙
+     */
+    public synchronized void prefetch(AudioTrack track) {
+        if (track == null || track == prefetchSource) {
+            return;
+        }
+        cancelPrefetch();
+
+        AudioTrack clone = fromCache(track);
+        if (clone == null) {
+            clone = track.makeClone();
+            if (track.getPosition() > 0 && track.isSeekable()) {
+                clone.setPosition(track.getPosition());
+            }
+        }
+        prefetchSource = track;
+        prefetchClone = clone;
+        standby.setPaused(true);
+        standby.playTrack(clone);
+    }
+
+    /**
+     * 미리 불러온 트랙이 있으면 정리합니다.
+     */
+    public synchronized void cancelPrefetch() {
+        prefetchSource = null;
+        if (prefetchClone != null) {
+            prefetchClone = null;
+            standby.stopTrack();
+        }
+    }
+
+    @Override
+    public synchronized boolean startTrack(AudioTrack track, boolean noInterrupt) {
+        if (track == null) {
+            gapStartedAt = 0;
+            cancelPrefetch();
+            return active.startTrack(null, noInterrupt);
+        }
+        if (noInterrupt && active.getPlayingTrack() != null) {
+            return false;
+        }
+
+        AudioTrack clone = prefetchClone;
+        if (track == prefetchSource && clone != null && standby.getPlayingTrack() == clone) {
+            swapToStandby(clone);
+            prefetchHits.incrementAndGet();
+            return true;
+        }
+
+        prefetchMisses.incrementAndGet();
+        cancelPrefetch();
+        return active.startTrack(track, noInterrupt);
+    }
+
+    /**
+     * 대기열 곡을 재생합니다. startTrack() 과 같지만, 미리 불러오지 않은 곡이 캐시에 있으면
+     * 저장된 프레임으로 재생합니다. (TrackScheduler 에서 사용)
+     */
+    public synchronized boolean startQueued(AudioTrack track, boolean noInterrupt) {
+        if (track == null || track == prefetchSource || (noInterrupt && active.getPlayingTrack() != null)) {
+            return startTrack(track, noInterrupt);
+        }
+        AudioTrack cached = fromCache(track);
+        return startTrack(cached != null ? cached : track, noInterrupt);
+    }
+
+    private AudioTrack fromCache(AudioTrack track) {
+        return frameCache == null ? null : frameCache.wrap(track);
+    }
+
+    @Override
+    public void playTrack(AudioTrack track) {
+        startTrack(track, false);
+    }
+
+    /**
+     * 미리 불러온 standby 플레이어를 active 로 바꿉니다.
+     */
+    private void swapToStandby(AudioTrack clone) {
+        AudioPlayer previous = active;
+        AudioPlayer next = standby;
+
+        // 이전 곡이 아직 재생 중이면(스킵 등) 끊고 standby 로 돌림
+        previous.stopTrack();
+        previous.setPaused(true);
+
+        prefetchSource = null;
+        prefetchClone = null;
+        active = next;
+        standby = previous;
+        next.setPaused(paused);
+
+        dispatch(new TrackStartEvent(this, clone));
+    }
+
+    @Override
+    public AudioTrack getPlayingTrack() {
+        return active.getPlayingTrack();
+    }
+
+    @Override
+    public synchronized void stopTrack() {
+        gapStartedAt = 0;
+        cancelPrefetch();
+        active.stopTrack();
+    }
+
+    @Override
+    public int getVolume() {
+        return active.getVolume();
+    }
+
+    @Override
+    public synchronized void setVolume(int volume) {
+        active.setVolume(volume);
+        standby.setVolume(volume);
+    }
+
+    @Override
+    public synchronized void setFilterFactory(PcmFilterFactory factory) {
+        filtered = factory != null;
+        active.setFilterFactory(factory);
+        standby.setFilterFactory(factory);
+    }
+
+    @Override
+    public synchronized void setFrameBufferDuration(Integer duration) {
+        active.setFrameBufferDuration(duration);
+        standby.setFrameBufferDuration(duration);
+    }
+
+    @Override
+    public boolean isPaused() {
+        return paused;
+    }
+
+    @Override
+    public synchronized void setPaused(boolean value) {
+        paused = value;
+        active.setPaused(value);
+    }
+
+    @Override
+    public synchronized void destroy() {
+        prefetchSource = null;
+        prefetchClone = null;
+        active.destroy();
+        standby.destroy();
+    }
+
+    @Override
+    public void addListener(AudioEventListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(AudioEventListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public void checkCleanup(long threshold) {
+        active.checkCleanup(threshold);
+        standby.checkCleanup(threshold);
+    }
+
+    @Override
+    public AudioFrame provide() {
+        keepStandbyAlive();
+        return recordGap(active.provide());
+    }
+
+    @Override
+    public AudioFrame provide(long timeout, TimeUnit unit) throws TimeoutException, InterruptedException {
+        keepStandbyAlive();
+        return recordGap(active.provide(timeout, unit));
+    }
+
+    @Override
+    public boolean provide(MutableAudioFrame targetFrame) {
+        keepStandbyAlive();
+        AudioPlayer current = active;
+        boolean provided = recordGap(current.provide(targetFrame));
+        if (provided && recorder != null) {
+            recorder.onFrame(current.getPlayingTrack(), targetFrame, !filtered && current.getVolume() == 100);
+        }
+        return provided;
+    }
+
+    @Override
+    public boolean provide(MutableAudioFrame targetFrame, long timeout, TimeUnit unit)
+            throws TimeoutException, InterruptedException {
+        keepStandbyAlive();
+        return recordGap(active.provide(targetFrame, timeout, unit));
+    }
+
+    /**
+     * 일시정지된 standby 도 프레임 요청 시각을 갱신해, 오래 일시정지해도 Lavaplayer 정리 대상이 되지 않게 합니다.
+     * (일시정지 상태라 버퍼의 프레임은 꺼내지 않음)
+     */
+    private void keepStandbyAlive() {
+        if (prefetchClone != null) {
+            standby.provide();
+        }
+    }
+
+    private AudioFrame recordGap(AudioFrame frame) {
+        if (frame != null) {
+            recordGap(true);
+        }
+        return frame;
+    }
+
+    private boolean recordGap(boolean provided) {
+        long startedAt = gapStartedAt;
+        if (provided && startedAt != 0) {
+            gapStartedAt = 0;
+            transitionGaps.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        }
+        return provided;
+    }
+
+    private void onUnderlyingEvent(AudioEvent event) {
+        if (event.player != active) {
+            // standby 의 미리 불러오기가 실패하거나 정리되면 평소처럼 다시 불러오도록 비움
+            if ((event instanceof TrackEndEvent end && end.track == prefetchClone)
+                    || (event instanceof TrackExceptionEvent ex && ex.track == prefetchClone)) {
+                synchronized (this) {
+                    if (prefetchClone != null && standby.getPlayingTrack() != prefetchClone) {
+                        prefetchSource = null;
+                        prefetchClone = null;
+                    }
+                }
+            }
+            return;
+        }
+
+        if (event instanceof TrackEndEvent end) {
+            if (end.endReason.mayStartNext) {
+                gapStartedAt = System.nanoTime();
+            }
+            if (recorder != null) {
+                recorder.onEnd(end.track, end.endReason == AudioTrackEndReason.FINISHED);
+            }
+        }
+        dispatch(event);
+    }
+
+    private void dispatch(AudioEvent event) {
+        for (AudioEventListener listener : listeners) {
+            try {
+                listener.onEvent(event);
+            } catch (RuntimeException e) {
+                System.out.println("[GaplessAudioPlayer] listener failed on " + event.getClass().getSimpleName() + ":");
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * 곡 전환 공백(이전 곡 종료 → 다음 곡 첫 프레임, ms) 히스토그램을 반환합니다.
+     */
+    public LatencyHistogram getTransitionGaps() {
+        return transitionGaps;
+    }
+
+    public long getPrefetchHits() {
+        return prefetchHits.get();
+    }
+
+    /**
+     * 미리 불러온 트랙 없이 곡을 시작한 횟수를 반환합니다.
+     */
+    public long getPrefetchMisses() {
+        return prefetchMisses.get();
+    }
+
+    /**
+     * 미리 불러온 트랙이 있으면 그 대기열 트랙을 반환합니다.
+     */
+    synchronized AudioTrack getPrefetchedTrack() {
+        return prefetchSource;
+    }
+}
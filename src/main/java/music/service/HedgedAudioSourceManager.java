@@ -0,0 +1,403 @@
+package music.service;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.source.AudioSourceManager;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.track.AudioItem;
+import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
+import com.sedmelluq.discord.lavaplayer.track.AudioReference;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
+import com.sedmelluq.discord.lavaplayer.track.BasicAudioPlaylist;
+import common.util.LatencyHistogram;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * 여러 클라이언트(소스 매니저)에 헤징(hedging) 방식으로 로드를 요청하는 소스 매니저입니다.
+ *
+ * - 첫 번째 클라이언트에 먼저 요청합니다.
+ * - 그 클라이언트의 지연 시간 백분위수(예: p95) 안에 답이 없거나 실패하면 다음 클라이언트를 동시에 요청합니다.
+ * - 먼저 답한 결과를 사용하고 나머지 요청은 취소합니다.
+ * - 전체 요청에는 마감 시간이 있어, 넘으면 일시적 실패(SUSPICIOUS)로 처리합니다.
+ *
+ * 클라이언트 하나만 가진 소스 매니저로 불러온 트랙은 재생할 때도 그 클라이언트만 쓰므로,
+ * 이긴 결과의 트랙은 재생용 소스 매니저(playback, 여러 클라이언트)로 다시 묶어 돌려줍니다.
+ * 트랙 인코딩/디코딩(저장한 큐 복원 등)도 playback 에 맡기므로, 같은 종류의 소스(예: YouTube)끼리만 묶어야 합니다.
+ *
+ * 요청은 maxThreads 개로 제한한 스레드에서 실행하고, 넘치는 요청은 대기열에서 기다립니다. (기다린 시간도 지연 시간에 포함)
+ *
+ * 다른 소스의 식별자(로컬 파일, 다른 사이트 URL)는 accepts 에서 걸러 클라이언트에 요청하지 않고,
+ * 클라이언트가 null(자기 소스가 아님)을 돌려준 경우도 지연 시간이나 승리로 기록하지 않습니다.
+ * 이런 요청이 기록되면 백분위수가 0 에 가까워져 거의 모든 로드가 헤지되기 때문입니다.
+ */
+public class HedgedAudioSourceManager implements AudioSourceManager {
+
+    private final List<Candidate> candidates;
+    private final Predicate<String> accepts;
+    private final AudioSourceManager playback;
+    private final long deadlineMillis;
+    private final double hedgeQuantile;
+    private final long defaultHedgeDelayMillis;
+    private final long minHedgeDelayMillis;
+    private final int minSamples;
+    private final ExecutorService executor;
+    private final AtomicLong timeouts = new AtomicLong();
+
+    /**
+     * @param candidates              요청 순서대로의 클라이언트 (이름 → 소스 매니저)
+     * @param accepts                 클라이언트에 요청할 식별자인지 판단하는 함수 (false 면 바로 null)
+     * @param playback                불러온 트랙을 재생하고 디코딩할 소스 매니저 (null 이면 첫 번째 클라이언트)
+     * @param deadlineMillis          한 번의 로드에 허용하는 최대 시간
+     * @param hedgeQuantile           다음 클라이언트를 요청하기 전 기다릴 지연 시간 백분위수 (예: 0.95)
+     * @param defaultHedgeDelayMillis 기록이 충분하지 않을 때 기다릴 시간
+     * @param minHedgeDelayMillis     백분위수가 아무리 작아도 최소한 기다릴 시간
+     * @param minSamples              백분위수를 사용하기 위한 최소 기록 수
+     * @param maxThreads              동시에 실행할 클라이언트 요청 수
+     */
+    public HedgedAudioSourceManager(Map<String, AudioSourceManager> candidates, Predicate<String> accepts,
+                                    AudioSourceManager playback,
+                                    long deadlineMillis, double hedgeQuantile, long defaultHedgeDelayMillis,
+                                    long minHedgeDelayMillis, int minSamples, int maxThreads) {
+        if (candidates.isEmpty()) {
+            throw new IllegalArgumentException("candidates must not be empty");
+        }
+        List<Candidate> list = new ArrayList<>();
+        candidates.forEach((name, manager) -> list.add(new Candidate(name, manager)));
+        this.candidates = List.copyOf(list);
+        this.accepts = accepts;
+        this.playback = playback != null ? playback : this.candidates.get(0).manager;
+        this.deadlineMillis = deadlineMillis;
+        this.hedgeQuantile = hedgeQuantile;
+        this.defaultHedgeDelayMillis = defaultHedgeDelayMillis;
+        this.minHedgeDelayMillis = minHedgeDelayMillis;
+        this.minSamples = minSamples;
+
+        AtomicInteger index = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(maxThreads, maxThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread t = new Thread(r, "hedged-loader-" + index.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        this.executor = pool;
+    }
+
+    @Override
+    public String getSourceName() {
+        return playback.getSourceName();
+    }
+
+    @Override
+    public AudioItem loadItem(AudioPlayerManager manager, AudioReference reference) {
+        if (reference.identifier == null || !accepts.test(reference.identifier)) {
+            return null;
+        }
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+
+        LinkedBlockingQueue<Attempt> finished = new LinkedBlockingQueue<>();
+        List<Attempt> attempts = new ArrayList<>();
+        Attempt firstFailure = null;
+        int running = 0;
+
+        try {
+            while (true) {
+                long now = System.nanoTime();
+                if (now >= deadline) {
+                    break;
+                }
+
+                // 아직 요청하지 않은 클라이언트가 있으면 바로 시작 (처음 / 헤지 시간 경과 / 실패 후)
+                if (attempts.size() < candidates.size() && (running == 0 || now >= nextHedgeAt(attempts))) {
+                    Candidate candidate = candidates.get(attempts.size());
+                    if (!attempts.isEmpty()) {
+                        candidate.hedged.incrementAndGet();
+                    }
+                    attempts.add(start(candidate, manager, reference, finished));
+                    running++;
+                    continue;
+                }
+                if (running == 0) {
+                    break;
+                }
+
+                long waitUntil = attempts.size() < candidates.size()
+                        ? Math.min(deadline, nextHedgeAt(attempts))
+                        : deadline;
+                Attempt done = finished.poll(Math.max(0, waitUntil - now), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    continue;
+                }
+                running--;
+                if (done.error == null && done.result == null) {
+                    // 이 소스의 식별자가 아님 (다른 클라이언트도 같은 소스이므로 더 기다리지 않음)
+                    return null;
+                }
+                if (done.error == null) {
+                    done.candidate.wins.incrementAndGet();
+                    return rebind(done.candidate.manager, done.result);
+                }
+                done.candidate.failures.incrementAndGet();
+                if (firstFailure == null) {
+                    firstFailure = done;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FriendlyException("Loading was interrupted.", FriendlyException.Severity.SUSPICIOUS, e);
+        } finally {
+            // 진 요청은 취소하고, 취소 시점까지 걸린 시간도 기록해 느린 클라이언트의 백분위수가 올라가게 함
+            for (Attempt attempt : attempts) {
+                attempt.cancelled = true;
+                if (!attempt.done && attempt.future.cancel(true)) {
+                    attempt.candidate.cancelled.incrementAndGet();
+                    attempt.candidate.latency.record(
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - attempt.startedAt));
+                }
+            }
+        }
+
+        if (firstFailure != null && attempts.size() == candidates.size() && System.nanoTime() < deadline) {
+            throw rethrow(firstFailure.error);
+        }
+        timeouts.incrementAndGet();
+        throw new FriendlyException("Loading timed out.", FriendlyException.Severity.SUSPICIOUS,
+                firstFailure != null ? firstFailure.error : null);
+    }
+
+    /**
+     * 마지막으로 시작한 요청이 헤지 시간을 넘기는 시각을 반환합니다.
+     */
+    private long nextHedgeAt(List<Attempt> attempts) {
+        Attempt last = attempts.get(attempts.size() - 1);
+        return last.startedAt + TimeUnit.MILLISECONDS.toNanos(hedgeDelayMillis(last.candidate));
+    }
+
+    long hedgeDelayMillis(Candidate candidate) {
+        if (candidate.latency.getCount() < minSamples) {
+            return defaultHedgeDelayMillis;
+        }
+        long budget = candidate.latency.percentile(hedgeQuantile);
+        return Math.min(deadlineMillis, Math.max(minHedgeDelayMillis, budget));
+    }
+
+    private Attempt start(Candidate candidate, AudioPlayerManager manager, AudioReference reference,
+                          LinkedBlockingQueue<Attempt> finished) {
+        Attempt attempt = new Attempt(candidate, System.nanoTime());
+        candidate.requests.incrementAndGet();
+        attempt.future = executor.submit(() -> {
+            try {
+                attempt.result = candidate.manager.loadItem(manager, reference);
+                if (!attempt.cancelled && attempt.result != null) {
+                    candidate.latency.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - attempt.startedAt));
+                }
+            } catch (Throwable t) {
+                attempt.error = t;
+            }
+            attempt.done = true;
+            finished.add(attempt);
+        });
+        return attempt;
+    }
+
+    private static RuntimeException rethrow(Throwable error) {
+        if (error instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        return new FriendlyException("Something went wrong when loading the track.",
+                FriendlyException.Severity.FAULT, error);
+    }
+
+    /**
+     * 이긴 클라이언트의 트랙을 playback 의 트랙으로 바꿉니다. (재생할 때 모든 클라이언트를 쓰도록)
+     */
+    AudioItem rebind(AudioSourceManager winner, AudioItem item) {
+        if (winner == playback) {
+            return item;
+        }
+        if (item instanceof AudioTrack track) {
+            return rebindTrack(winner, track);
+        }
+        if (item instanceof AudioPlaylist playlist) {
+            List<AudioTrack> tracks = new ArrayList<>(playlist.getTracks().size());
+            AudioTrack selected = null;
+            for (AudioTrack track : playlist.getTracks()) {
+                AudioTrack bound = rebindTrack(winner, track);
+                if (track == playlist.getSelectedTrack()) {
+                    selected = bound;
+                }
+                tracks.add(bound);
+            }
+            return new BasicAudioPlaylist(playlist.getName(), tracks, selected, playlist.isSearchResult());
+        }
+        return item;
+    }
+
+    private AudioTrack rebindTrack(AudioSourceManager winner, AudioTrack track) {
+        if (track.getSourceManager() != winner) {
+            return track;
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            if (winner.isTrackEncodable(track)) {
+                winner.encodeTrack(track, new DataOutputStream(bytes));
+            }
+            AudioTrack bound = playback.decodeTrack(track.getInfo(),
+                    new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+            if (bound == null) {
+                return track;
+            }
+            bound.setUserData(track.getUserData());
+            return bound;
+        } catch (IOException e) {
+            // 다시 묶지 못하면 이긴 클라이언트로라도 재생
+            return track;
+        }
+    }
+
+    @Override
+    public boolean isTrackEncodable(AudioTrack track) {
+        return playback.isTrackEncodable(track);
+    }
+
+    @Override
+    public void encodeTrack(AudioTrack track, DataOutput output) throws IOException {
+        playback.encodeTrack(track, output);
+    }
+
+    @Override
+    public AudioTrack decodeTrack(AudioTrackInfo trackInfo, DataInput input) throws IOException {
+        return playback.decodeTrack(trackInfo, input);
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdownNow();
+        for (Candidate candidate : candidates) {
+            candidate.manager.shutdown();
+        }
+        if (candidates.stream().noneMatch(candidate -> candidate.manager == playback)) {
+            playback.shutdown();
+        }
+    }
+
+    /**
+     * 클라이언트 이름별 통계를 요청 순서대로 반환합니다.
+     */
+    public Map<String, ClientStats> stats() {
+        Map<String, ClientStats> stats = new LinkedHashMap<>();
+        for (Candidate candidate : candidates) {
+            stats.put(candidate.name, candidate);
+        }
+        return stats;
+    }
+
+    /**
+     * 마감 시간을 넘겨 실패한 로드 수를 반환합니다.
+     */
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+
+    /**
+     * 클라이언트 하나의 요청/승리/헤지/취소 횟수와 지연 시간 히스토그램입니다.
+     */
+    public interface ClientStats {
+        long getRequests();
+
+        long getWins();
+
+        long getHedged();
+
+        long getCancelled();
+
+        long getFailures();
+
+        LatencyHistogram getLatency();
+    }
+
+    static class Candidate implements ClientStats {
+        final String name;
+        final AudioSourceManager manager;
+        final LatencyHistogram latency = new LatencyHistogram();
+        final AtomicLong requests = new AtomicLong();
+        final AtomicLong wins = new AtomicLong();
+        final AtomicLong hedged = new AtomicLong();
+        final AtomicLong cancelled = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+
+        Candidate(String name, AudioSourceManager manager) {
+            this.name = name;
+            this.manager = manager;
+        }
+
+        public long getRequests() {
+            return requests.get();
+        }
+
+        public long getWins() {
+            return wins.get();
+        }
+
+        public long getHedged() {
+            return hedged.get();
+        }
+
+        public long getCancelled() {
+            return cancelled.get();
+        }
+
+        public long getFailures() {
+            return failures.get();
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        @Override
+        public String toString() {
+            return name + "{requests=" + getRequests() +
+                    ", wins=" + getWins() +
+                    ", hedged=" + getHedged() +
+                    ", cancelled=" + getCancelled() +
+                    ", failures=" + getFailures() +
+                    ", latency=[" + latency + "]}";
+        }
+    }
+
+    private static class Attempt {
+        final Candidate candidate;
+        final long startedAt;
+        volatile Future<?> future;
+        volatile AudioItem result;
+        volatile Throwable error;
+        volatile boolean done;
+        volatile boolean cancelled;
+
+        Attempt(Candidate candidate, long startedAt) {
+            this.candidate = candidate;
+            this.startedAt = startedAt;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package music.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 오랫동안 사용하지 않은 서버의 ServerMusicManager를 정리하는 클래스입니다.
+ *
+ * 재생 중이거나 대기열이 남은 서버는 건드리지 않고,
+ * - 마지막 사용 후 idleTimeout 이 지난 서버는 AudioPlayer를 정리하고 맵에서 제거합니다.
+ * - 남은 유휴 서버 수가 maxIdleGuilds 를 넘거나 힙 사용률이 heapPressureRatio 를 넘으면
+ *   가장 오래 쓰지 않은 서버부터(LRU) 추가로 정리합니다.
+ *   이때도 마지막 사용 후 minIdleMillis 가 지나지 않은 서버는 정리하지 않습니다.
+ *   (방금 명령을 받아 곡을 불러오는 중인 서버의 플레이어를 없애지 않도록)
+ *
+ * 정리된 서버는 다음 MusicManager.of() 호출 때 새로 만들어집니다.
+ */
+public class IdleGuildReaper {
+
+    private final ConcurrentMap<Long, ServerMusicManager> musicByGuild;
+    private final long idleTimeoutMillis;
+    private final int maxIdleGuilds;
+    private final double heapPressureRatio;
+    private final long minIdleMillis;
+
+    private ScheduledExecutorService executor;
+
+    public IdleGuildReaper(ConcurrentMap<Long, ServerMusicManager> musicByGuild,
+                           long idleTimeoutMillis,
+                           int maxIdleGuilds,
+                           double heapPressureRatio,
+                           long minIdleMillis) {
+        this.musicByGuild = musicByGuild;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.maxIdleGuilds = maxIdleGuilds;
+        this.heapPressureRatio = heapPressureRatio;
+        this.minIdleMillis = minIdleMillis;
+    }
+
+    /**
+     * 주기적으로 reap() 을 실행하는 데몬 스레드를 시작합니다.
+     *
+     * @param periodMillis 실행 주기 (ms)
+     */
+    public synchronized void start(long periodMillis) {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "music-idle-reaper");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                int removed = reap(System.currentTimeMillis());
+                if (removed > 0) {
+                    System.out.println("[IdleGuildReaper] removed " + removed +
+                            " idle guild(s), remaining=" + musicByGuild.size());
+                }
+            } catch (Exception e) {
+                System.out.println("[IdleGuildReaper] reap failed:");
+                e.printStackTrace();
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * 유휴 서버를 정리합니다.
+     *
+     * @param nowMillis 기준 시각
+     * @return 정리한 서버 수
+     */
+    public int reap(long nowMillis) {
+        int removed = 0;
+        List<IdleCandidate> idle = new ArrayList<>();
+
+        for (Map.Entry<Long, ServerMusicManager> entry : musicByGuild.entrySet()) {
+            ServerMusicManager music = entry.getValue();
+            if (music.isBusy()) {
+                // 재생이 끝난 시점부터 유휴 시간을 계산하도록 갱신
+                music.touch(nowMillis);
+                continue;
+            }
+            IdleCandidate candidate = new IdleCandidate(entry.getKey(), music, music.getLastActiveAt());
+            if (nowMillis - candidate.lastActiveAt >= idleTimeoutMillis) {
+                if (evict(candidate)) {
+                    removed++;
+                }
+            } else {
+                idle.add(candidate);
+            }
+        }
+
+        int limit = isUnderHeapPressure() ? 0 : maxIdleGuilds;
+        if (idle.size() > limit) {
+            idle.sort(Comparator.comparingLong(c -> c.lastActiveAt));
+            int excess = idle.size() - limit;
+            for (int i = 0; i < excess; i++) {
+                IdleCandidate candidate = idle.get(i);
+                if (nowMillis - candidate.lastActiveAt < minIdleMillis) {
+                    // 오래된 순으로 정렬했으므로 나머지도 모두 최근에 사용한 서버
+                    break;
+                }
+                if (evict(candidate)) {
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    private static class IdleCandidate {
+        final long guildId;
+        final ServerMusicManager music;
+        final long lastActiveAt;
+
+        IdleCandidate(long guildId, ServerMusicManager music, long lastActiveAt) {
+            this.guildId = guildId;
+            this.music = music;
+            this.lastActiveAt = lastActiveAt;
+        }
+    }
+
+    /**
+     * 조건을 다시 확인한 뒤 맵에서 제거하고 AudioPlayer를 정리합니다.
+     *
+     * MusicManager.of() 도 같은 키에 대해 compute 로 사용 시각을 갱신하므로,
+     * 후보로 고른 뒤에 한 번이라도 사용된 서버는 여기서 걸러집니다.
+     */
+    private boolean evict(IdleCandidate candidate) {
+        boolean[] evicted = {false};
+        musicByGuild.computeIfPresent(candidate.guildId, (id, current) -> {
+            if (current != candidate.music || current.isBusy()
+                    || current.getLastActiveAt() != candidate.lastActiveAt) {
+                return current;
+            }
+            evicted[0] = true;
+            return null;
+        });
+        if (evicted[0]) {
+            candidate.music.destroy();
+        }
+        return evicted[0];
+    }
+
+    private boolean isUnderHeapPressure() {
+        if (heapPressureRatio <= 0) {
+            return false;
+        }
+        Runtime rt = Runtime.getRuntime();
+        long used = rt.totalMemory() - rt.freeMemory();
+        return (double) used / rt.maxMemory() >= heapPressureRatio;
+    }
+}
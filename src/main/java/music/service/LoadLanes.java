@@ -0,0 +1,215 @@
+package music.service;
+
+import common.log.Log;
+import common.log.Logger;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 트랙 로드 작업을 우선순위 레인별로 실행하는 클래스입니다.
+ *
+ * - 레인(LoadPriority)마다 별도의 실행기를 사용해 레인끼리 서로 막지 않습니다.
+ * - 같은 레인 안에서는 서버별로 한 번에 하나씩만 실행합니다(bulkhead).
+ *   한 서버의 느린 로드가 레인의 스레드를 모두 차지하지 못하고, 같은 서버의 요청은 순서대로 처리됩니다.
+ * - 요청부터 실행 시작까지 기다린 시간을 레인별로 기록합니다.
+ */
+public class LoadLanes {
+
+    private static final Logger LOG = Log.get("LoadLanes");
+
+    private final Map<LoadPriority, Lane> lanes = new EnumMap<>(LoadPriority.class);
+
+    /**
+     * @param executorFactory 레인별 실행기를 만드는 함수
+     */
+    public LoadLanes(Function<LoadPriority, Executor> executorFactory) {
+        for (LoadPriority priority : LoadPriority.values()) {
+            lanes.put(priority, new Lane(priority, executorFactory.apply(priority)));
+        }
+    }
+
+    /**
+     * 레인마다 고정 크기 데몬 스레드 풀을 사용하는 LoadLanes 를 만듭니다.
+     */
+    public static LoadLanes withThreadPools(Map<LoadPriority, Integer> threadsByLane) {
+        return new LoadLanes(priority -> {
+            AtomicInteger index = new AtomicInteger();
+            String prefix = "track-loader-" + priority.name().toLowerCase(Locale.ROOT).replace('_', '-') + "-";
+            ExecutorService executor = Executors.newFixedThreadPool(
+                    Math.max(1, threadsByLane.getOrDefault(priority, 1)),
+                    r -> {
+                        Thread t = new Thread(r, prefix + index.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    });
+            return executor;
+        });
+    }
+
+    /**
+     * 작업을 레인에 넣습니다.
+     *
+     * @param guildKey 서버 구분 키 (같은 키, 같은 레인끼리는 순서대로 하나씩 실행)
+     * @param priority 레인
+     * @param task     실행할 로드 작업
+     */
+    public void submit(Object guildKey, LoadPriority priority, Runnable task) {
+        lanes.get(priority).submit(guildKey, task);
+    }
+
+    /**
+     * 서버의 작업이 레인에서 실행 중이거나 기다리고 있지 않은지 확인합니다.
+     *
+     * @return 실행 중인 작업도, 기다리는 작업도 없으면 true
+     */
+    public boolean isIdle(Object guildKey, LoadPriority priority) {
+        return !lanes.get(priority).guildQueues.containsKey(guildKey);
+    }
+
+    public LaneStats stats(LoadPriority priority) {
+        return lanes.get(priority).stats;
+    }
+
+    /**
+     * 레인 하나의 대기 시간 통계입니다.
+     */
+    public static class LaneStats {
+        private final AtomicLong submitted = new AtomicLong();
+        private final AtomicLong started = new AtomicLong();
+        private final AtomicLong totalWaitNanos = new AtomicLong();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+
+        void recordStart(long waitNanos) {
+            started.incrementAndGet();
+            totalWaitNanos.addAndGet(waitNanos);
+            maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        }
+
+        public long getSubmitted() {
+            return submitted.get();
+        }
+
+        public long getStarted() {
+            return started.get();
+        }
+
+        /**
+         * @return 아직 실행되지 않고 기다리는 작업 수
+         */
+        public long getWaiting() {
+            return submitted.get() - started.get();
+        }
+
+        public double getAverageWaitMillis() {
+            long count = started.get();
+            return count == 0 ? 0 : totalWaitNanos.get() / (double) count / 1_000_000.0;
+        }
+
+        public long getMaxWaitMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+        }
+
+        @Override
+        public String toString() {
+            return "LaneStats{" +
+                    "submitted=" + getSubmitted() +
+                    ", waiting=" + getWaiting() +
+                    ", avgWaitMs=" + String.format("%.1f", getAverageWaitMillis()) +
+                    ", maxWaitMs=" + getMaxWaitMillis() +
+                    '}';
+        }
+    }
+
+    private static class Lane {
+        private final LoadPriority priority;
+        private final Executor executor;
+        private final ConcurrentMap<Object, GuildQueue> guildQueues = new ConcurrentHashMap<>();
+        private final LaneStats stats = new LaneStats();
+
+        Lane(LoadPriority priority, Executor executor) {
+            this.priority = priority;
+            this.executor = executor;
+        }
+
+        void submit(Object guildKey, Runnable task) {
+            stats.submitted.incrementAndGet();
+            PendingTask pending = new PendingTask(task, System.nanoTime());
+
+            boolean[] startNow = {false};
+            guildQueues.compute(guildKey, (key, queue) -> {
+                if (queue == null) {
+                    queue = new GuildQueue();
+                }
+                if (queue.running) {
+                    queue.pending.add(pending);
+                } else {
+                    queue.running = true;
+                    startNow[0] = true;
+                }
+                return queue;
+            });
+
+            if (startNow[0]) {
+                execute(guildKey, pending);
+            }
+        }
+
+        private void execute(Object guildKey, PendingTask pending) {
+            executor.execute(() -> {
+                stats.recordStart(System.nanoTime() - pending.submittedAt);
+                try {
+                    pending.task.run();
+                } catch (Throwable e) {
+                    LOG.error(() -> priority + " task failed", e);
+                } finally {
+                    next(guildKey);
+                }
+            });
+        }
+
+        /**
+         * 서버의 다음 작업을 실행하고, 남은 작업이 없으면 서버 큐를 정리합니다.
+         */
+        private void next(Object guildKey) {
+            PendingTask[] next = {null};
+            guildQueues.computeIfPresent(guildKey, (key, queue) -> {
+                next[0] = queue.pending.poll();
+                if (next[0] == null) {
+                    return null;
+                }
+                return queue;
+            });
+            if (next[0] != null) {
+                execute(guildKey, next[0]);
+            }
+        }
+    }
+
+    private static class GuildQueue {
+        final Queue<PendingTask> pending = new ArrayDeque<>();
+        boolean running;
+    }
+
+    private static class PendingTask {
+        final Runnable task;
+        final long submittedAt;
+
+        PendingTask(Runnable task, long submittedAt) {
+            this.task = task;
+            this.submittedAt = submittedAt;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package music.service;
+
+import java.util.Locale;
+
+/**
+ * 트랙 로드 요청의 우선순위(레인) 입니다.
+ *
+ * 레인마다 별도의 로더 스레드를 사용하므로, 느린 재생목록 로드가
+ * 단일 트랙이나 입장곡 로드를 막지 않습니다.
+ */
+public enum LoadPriority {
+    ENTRY_SONG,  // 유저 입장 직후 몇 초 안에 재생돼야 하는 입장곡
+    TRACK,       // /play 단일 트랙, 검색어
+    PLAYLIST;    // /play 재생목록 (수백 곡 해석이 느릴 수 있음)
+
+    /**
+     * /play 검색어를 보고 재생목록인지 단일 트랙인지 추정합니다.
+     */
+    public static LoadPriority forQuery(String query) {
+        String q = query.toLowerCase(Locale.ROOT);
+        if (q.contains("list=") || q.contains("/playlist") || q.contains("/sets/") || q.contains("/album/")) {
+            return PLAYLIST;
+        }
+        return TRACK;
+    }
+}
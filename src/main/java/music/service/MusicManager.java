@@ -1,15 +1,27 @@
 package music.service;
 
+import com.sedmelluq.discord.lavaplayer.format.StandardAudioDataFormats;
 import com.sedmelluq.discord.lavaplayer.player.*;
 import com.sedmelluq.discord.lavaplayer.source.*;
 import dev.lavalink.youtube.YoutubeAudioSourceManager;
 import dev.lavalink.youtube.clients.Web;
 import dev.lavalink.youtube.clients.Android;
 import dev.lavalink.youtube.clients.WebEmbedded;
+import common.util.BotConfig;
+import guild.repository.GuildSettings;
+import guild.repository.GuildSettings.Setting;
 import net.dv8tion.jda.api.entities.Guild;
 
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongUnaryOperator;
 
 /**
  * 모든 ServerMusicManager 관리하는 클래스입니다.
@@ -18,7 +30,16 @@ import java.util.concurrent.ConcurrentHashMap;
 public class MusicManager {
     private static final MusicManager INSTANCE = new MusicManager();
     private final AudioPlayerManager playerManager;
-    private final Map<Long, ServerMusicManager> musicByGuild = new ConcurrentHashMap<>();
+    // 입장곡 겹쳐 재생용 (PCM 출력, 소스 없이 playerManager 가 불러온 트랙만 재생)
+    private final AudioPlayerManager overlayPlayerManager;
+    // 여러 서버에서 다시 재생되는 곡의 Opus 프레임 캐시 (MUSIC_FRAME_CACHE_MB=0 이면 null)
+    private final OpusFrameCache frameCache;
+    private final TrackLoader loader;
+    private final HedgedAudioSourceManager hedgedYoutube;
+    private final ConcurrentMap<Long, ServerMusicManager> musicByGuild = new ConcurrentHashMap<>();
+    private final PlaybackStateStore playbackStore = new PlaybackStateStore(Paths.get("data", "playback"));
+    private IdleGuildReaper reaper;
+    private PlaybackSnapshotter snapshotter;
 
     private MusicManager() {
         this.playerManager = new DefaultAudioPlayerManager();
@@ -30,14 +51,55 @@ public class MusicManager {
         conf.setOpusEncodingQuality(10);
         conf.setFilterHotSwapEnabled(true);
 
+        // 입장곡은 메인 곡에 섞을 수 있도록 PCM 으로 출력하는 별도 매니저에서 재생
+        if (BotConfig.getBoolean("ENTRY_SONG_OVERLAY", true)) {
+            this.overlayPlayerManager = new DefaultAudioPlayerManager();
+            AudioConfiguration overlayConf = overlayPlayerManager.getConfiguration();
+            overlayConf.setResamplingQuality(AudioConfiguration.ResamplingQuality.HIGH);
+            overlayConf.setOutputFormat(StandardAudioDataFormats.DISCORD_PCM_S16_BE);
+        } else {
+            this.overlayPlayerManager = null;
+        }
+
+        long frameCacheMb = BotConfig.getLong("MUSIC_FRAME_CACHE_MB", 0);
+        this.frameCache = frameCacheMb <= 0 ? null : new OpusFrameCache(
+                frameCacheMb * 1024 * 1024,
+                Duration.ofMinutes(BotConfig.getLong("MUSIC_FRAME_CACHE_MAX_TRACK_MIN", 15)).toMillis());
 
         // youtube-source 등록 (여러 클라이언트 사용으로 안정성 향상)
-        YoutubeAudioSourceManager ytSourceManager = new YoutubeAudioSourceManager(
-                new Web(),
-                new Android(),
-                new WebEmbedded()
-        );
-        playerManager.registerSourceManager(ytSourceManager);
+        if (BotConfig.getBoolean("YOUTUBE_HEDGED_LOADING", true)) {
+            // 검색/로드는 클라이언트별로 따로 두고, 느리거나 실패한 클라이언트는 다음 클라이언트와 경쟁시킴
+            Map<String, AudioSourceManager> clients = new LinkedHashMap<>();
+            clients.put("web", new YoutubeAudioSourceManager(new Web()));
+            clients.put("android", new YoutubeAudioSourceManager(new Android()));
+            clients.put("web-embedded", new YoutubeAudioSourceManager(new WebEmbedded()));
+            // 재생(스트림 URL 해석)과 트랙 복원은 모든 클라이언트를 차례로 시도하는 매니저로
+            YoutubeAudioSourceManager playback = new YoutubeAudioSourceManager(
+                    new Web(),
+                    new Android(),
+                    new WebEmbedded()
+            );
+            this.hedgedYoutube = new HedgedAudioSourceManager(
+                    clients,
+                    MusicManager::isYoutubeIdentifier,
+                    playback,
+                    BotConfig.getLong("YOUTUBE_LOAD_DEADLINE_MS", 10_000),
+                    BotConfig.getDouble("YOUTUBE_HEDGE_PERCENTILE", 0.95),
+                    BotConfig.getLong("YOUTUBE_HEDGE_DEFAULT_DELAY_MS", 1_500),
+                    BotConfig.getLong("YOUTUBE_HEDGE_MIN_DELAY_MS", 200),
+                    20,
+                    (int) BotConfig.getLong("YOUTUBE_HEDGE_THREADS", 16)
+            );
+            playerManager.registerSourceManager(hedgedYoutube);
+        } else {
+            this.hedgedYoutube = null;
+            YoutubeAudioSourceManager ytSourceManager = new YoutubeAudioSourceManager(
+                    new Web(),
+                    new Android(),
+                    new WebEmbedded()
+            );
+            playerManager.registerSourceManager(ytSourceManager);
+        }
 
         // 다른 원격 소스들을 개별적으로 등록 (deprecated YouTube source는 제외)
         // SoundCloud, Twitch, Bandcamp, Vimeo 등은 registerRemoteSources에서 자동 등록되지만
@@ -48,21 +110,150 @@ public class MusicManager {
         // 현재는 registerRemoteSources를 사용하지 않고 로컬 소스만 등록
         // (원격 소스는 필요시 개별적으로 추가 가능)
         AudioSourceManagers.registerLocalSource(playerManager);
+
+        // 같은 URL/검색어를 매번 다시 해석하지 않도록 결과 캐시 사용
+        TrackResolutionCache cache = new TrackResolutionCache(
+                Paths.get("data", "track-cache"),
+                (int) BotConfig.getLong("TRACK_CACHE_MEMORY_ENTRIES", 2000),
+                Duration.ofHours(BotConfig.getLong("TRACK_CACHE_TTL_HOURS", 24)).toMillis(),
+                Duration.ofMinutes(BotConfig.getLong("TRACK_CACHE_NEGATIVE_TTL_MIN", 5)).toMillis(),
+                (int) BotConfig.getLong("TRACK_CACHE_DISK_MAX_ENTRIES", 20_000),
+                BotConfig.getLong("TRACK_CACHE_DISK_MAX_MB", 256) * 1024 * 1024
+        );
+        // 입장곡 > 단일 트랙 > 재생목록 레인별로 로더 스레드를 분리
+        LoadLanes lanes = LoadLanes.withThreadPools(Map.of(
+                LoadPriority.ENTRY_SONG, (int) BotConfig.getLong("TRACK_LOADER_ENTRY_THREADS", 2),
+                LoadPriority.TRACK, (int) BotConfig.getLong("TRACK_LOADER_TRACK_THREADS", 4),
+                LoadPriority.PLAYLIST, (int) BotConfig.getLong("TRACK_LOADER_PLAYLIST_THREADS", 2)
+        ));
+        this.loader = new TrackLoader(playerManager, cache, lanes);
     }
 
     public static MusicManager get() {
         return INSTANCE;
     }
+
+    /**
+     * 서버의 ServerMusicManager를 반환합니다. 없거나 정리된 상태면 새로 만듭니다.
+     *
+     * 사용 시각 갱신을 compute 안에서 하므로 IdleGuildReaper 의 제거와 겹치지 않습니다.
+     *
+     * @param guild 대상 서버
+     * @return 서버의 ServerMusicManager
+     */
     public ServerMusicManager of(Guild guild) {
-        return musicByGuild.computeIfAbsent(
-                guild.getIdLong(),
-                id -> new ServerMusicManager(playerManager)
-        );
+        return musicByGuild.compute(guild.getIdLong(), (id, music) -> {
+            if (music == null) {
+                music = new ServerMusicManager(playerManager, overlayPlayerManager, frameCache);
+                long volume = GuildSettings.get(Setting.DEFAULT_VOLUME, id, -1);
+                if (volume >= 0) {
+                    music.player.setVolume((int) volume);
+                }
+            }
+            music.touch();
+            return music;
+        });
+    }
+
+    /**
+     * 유휴 서버 정리를 시작합니다. 이미 시작했다면 무시합니다.
+     *
+     * @param idleTimeout       마지막 사용 후 정리까지 기다릴 시간
+     * @param maxIdleGuilds     정리 시간이 지나지 않았어도 유지할 최대 유휴 서버 수 (LRU 순으로 정리)
+     * @param heapPressureRatio 이 힙 사용률을 넘으면 유휴 서버를 모두 정리 (0 이하면 사용 안 함)
+     * @param minIdle           한도/힙 사용률 때문에 정리하더라도 마지막 사용 후 이만큼은 유지
+     */
+    public synchronized void startIdleReaper(Duration idleTimeout, int maxIdleGuilds, double heapPressureRatio,
+                                             Duration minIdle) {
+        if (reaper != null) {
+            return;
+        }
+        reaper = new IdleGuildReaper(musicByGuild, idleTimeout.toMillis(), maxIdleGuilds, heapPressureRatio,
+                minIdle.toMillis());
+        reaper.start(Math.max(1_000L, Math.min(idleTimeout.toMillis() / 2, 60_000L)));
+    }
+
+    /**
+     * 서버별 재생 상태 저장을 시작합니다. 이미 시작했다면 무시합니다.
+     *
+     * @param period         저장 주기
+     * @param positionStep   재생 위치만 바뀌었을 때 다시 저장하는 간격 (마지막으로 저장한 위치 기준)
+     * @param voiceChannelOf 서버 ID 로 현재 연결된 보이스 채널 ID 를 반환 (연결 안 됐으면 0)
+     */
+    public synchronized void startPlaybackSnapshots(Duration period, Duration positionStep,
+                                                    LongUnaryOperator voiceChannelOf) {
+        if (snapshotter != null) {
+            return;
+        }
+        snapshotter = new PlaybackSnapshotter(musicByGuild, playerManager, playbackStore, voiceChannelOf,
+                positionStep.toMillis());
+        snapshotter.start(Math.max(1_000L, period.toMillis()));
+    }
+
+    /**
+     * 재생 상태 저장을 멈추고 마지막 상태를 저장합니다. (종료 시 호출)
+     */
+    public synchronized void stopPlaybackSnapshots() {
+        if (snapshotter != null) {
+            snapshotter.stop();
+            snapshotter = null;
+        }
+    }
+
+    /**
+     * 재시작 후 복원할 재생 상태 저장소를 반환합니다.
+     */
+    public PlaybackStateStore playbackStore() {
+        return playbackStore;
     }
 
     public AudioPlayerManager playerManager() {
         return playerManager;
     }
-}
 
+    /**
+     * 캐시를 거쳐 트랙을 불러오는 로더를 반환합니다.
+     * /play, 입장곡 등 트랙을 불러오는 곳에서는 playerManager() 대신 이걸 사용합니다.
+     */
+    public TrackLoader loader() {
+        return loader;
+    }
 
+    /**
+     * 곡 프레임 캐시(적중률, 사용량 등)를 반환합니다.
+     *
+     * @return MUSIC_FRAME_CACHE_MB 가 0 이면 null
+     */
+    public OpusFrameCache frameCache() {
+        return frameCache;
+    }
+
+    /**
+     * YouTube 헤지 로드 통계(클라이언트별 지연 시간 등)를 위한 소스 매니저를 반환합니다.
+     *
+     * @return YOUTUBE_HEDGED_LOADING=false 면 null
+     */
+    public HedgedAudioSourceManager hedgedYoutube() {
+        return hedgedYoutube;
+    }
+
+    /**
+     * YouTube 클라이언트에 맡길 식별자인지 확인합니다. (검색 접두사 또는 YouTube 주소)
+     */
+    static boolean isYoutubeIdentifier(String identifier) {
+        String lower = identifier.trim().toLowerCase(Locale.ROOT);
+        if (lower.startsWith("ytsearch:") || lower.startsWith("ytmsearch:")) {
+            return true;
+        }
+        if (!lower.startsWith("http://") && !lower.startsWith("https://")) {
+            return false;
+        }
+        try {
+            String host = new URI(lower).getHost();
+            return host != null && (host.equals("youtu.be") || host.equals("youtube.com")
+                    || host.endsWith(".youtube.com"));
+        } catch (URISyntaxException e) {
+            return false;
+        }
+    }
+}
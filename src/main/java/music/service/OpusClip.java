@@ -0,0 +1,69 @@
+package music.service;
+
+import java.util.List;
+
+/**
+ * 미리 인코딩해 둔 20ms Opus 프레임 묶음입니다. (입장곡 구간 등 짧은 클립)
+ *
+ * 만든 뒤에는 바뀌지 않으므로 여러 서버에서 같이 재생해도 됩니다.
+ * 재생 위치는 cursor() 로 만든 Cursor 가 따로 가집니다.
+ */
+public final class OpusClip {
+
+    // Opus 한 프레임은 20ms
+    public static final long FRAME_MILLIS = 20;
+
+    private final byte[][] frames;
+    private final long sizeInBytes;
+
+    public OpusClip(List<byte[]> frames) {
+        this.frames = frames.toArray(new byte[0][]);
+        long size = 0;
+        for (byte[] frame : this.frames) {
+            size += frame.length;
+        }
+        this.sizeInBytes = size;
+    }
+
+    public int frameCount() {
+        return frames.length;
+    }
+
+    public byte[] frame(int index) {
+        return frames[index];
+    }
+
+    /**
+     * @return 프레임 데이터 크기 합 (byte)
+     */
+    public long sizeInBytes() {
+        return sizeInBytes;
+    }
+
+    public long durationMillis() {
+        return frames.length * FRAME_MILLIS;
+    }
+
+    public Cursor cursor() {
+        return new Cursor(this);
+    }
+
+    /**
+     * 클립을 처음부터 한 프레임씩 꺼내는 재생 위치입니다. (한 스레드에서만 사용)
+     */
+    public static final class Cursor {
+        private final OpusClip clip;
+        private int next;
+
+        private Cursor(OpusClip clip) {
+            this.clip = clip;
+        }
+
+        /**
+         * @return 다음 프레임, 끝났으면 null
+         */
+        public byte[] next() {
+            return next < clip.frames.length ? clip.frames[next++] : null;
+        }
+    }
+}
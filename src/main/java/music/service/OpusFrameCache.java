@@ -0,0 +1,221 @@
+package music.service;
+
+import com.sedmelluq.discord.lavaplayer.format.StandardAudioDataFormats;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
+import com.sedmelluq.discord.lavaplayer.track.playback.MutableAudioFrame;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 여러 서버에서 자주 재생되는 곡의 Opus 프레임을 메모리에 저장해 두는 캐시입니다.
+ *
+ * 곡을 처음부터 끝까지 끊김 없이(탐색, 필터, 볼륨 변경 없이) 재생하면 Recorder 가 내보낸 프레임을 모아
+ * 트랙 식별자로 저장하고, 다음에 같은 곡을 재생할 때는 CachedOpusAudioTrack 으로 바꿔
+ * 스트림을 열거나 디코딩/인코딩하지 않고 저장된 프레임을 그대로 보냅니다.
+ *
+ * 프레임 바이트 합으로 크기를 계산해 예산을 넘으면 가장 오래 안 쓴 곡부터(LRU) 지웁니다.
+ * 한 곡이 예산의 1/8 을 넘으면 저장하지 않습니다.
+ */
+public class OpusFrameCache {
+
+    private final long budgetBytes;
+    private final long maxEntryBytes;
+    private final long maxTrackMillis;
+
+    // 접근 순서 (맨 앞이 가장 오래 안 쓴 곡)
+    private final LinkedHashMap<String, OpusClip> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong stored = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param budgetBytes    저장할 프레임 바이트 합의 최대값
+     * @param maxTrackMillis 이보다 긴 곡은 저장하지 않음
+     */
+    public OpusFrameCache(long budgetBytes, long maxTrackMillis) {
+        this.budgetBytes = budgetBytes;
+        this.maxEntryBytes = budgetBytes / 8;
+        this.maxTrackMillis = maxTrackMillis;
+    }
+
+    /**
+     * 저장된 프레임이 있으면 그걸로 재생하는 트랙을 만듭니다.
+     *
+     * @return 캐시에 없으면 null
+     */
+    public AudioTrack wrap(AudioTrack track) {
+        if (track instanceof CachedOpusAudioTrack || !isCacheable(track)) {
+            return null;
+        }
+        OpusClip frames = get(track.getIdentifier());
+        if (frames == null) {
+            return null;
+        }
+        CachedOpusAudioTrack cached = new CachedOpusAudioTrack(frames, track);
+        cached.setUserData(track.getUserData());
+        if (track.getPosition() > 0) {
+            cached.setPosition(track.getPosition());
+        }
+        return cached;
+    }
+
+    synchronized OpusClip get(String identifier) {
+        OpusClip frames = entries.get(identifier);
+        (frames != null ? hits : misses).incrementAndGet();
+        return frames;
+    }
+
+    synchronized boolean contains(String identifier) {
+        return entries.containsKey(identifier);
+    }
+
+    synchronized void put(String identifier, OpusClip frames) {
+        if (frames.sizeInBytes() > maxEntryBytes) {
+            return;
+        }
+        OpusClip previous = entries.put(identifier, frames);
+        if (previous != null) {
+            usedBytes -= previous.sizeInBytes();
+        }
+        usedBytes += frames.sizeInBytes();
+        stored.incrementAndGet();
+
+        for (Iterator<Map.Entry<String, OpusClip>> it = entries.entrySet().iterator();
+             usedBytes > budgetBytes && it.hasNext(); ) {
+            Map.Entry<String, OpusClip> eldest = it.next();
+            if (eldest.getKey().equals(identifier)) {
+                continue;
+            }
+            usedBytes -= eldest.getValue().sizeInBytes();
+            it.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private boolean isCacheable(AudioTrack track) {
+        AudioTrackInfo info = track.getInfo();
+        return track.getIdentifier() != null
+                && !info.isStream
+                && info.length > 0
+                && info.length <= maxTrackMillis;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return 곡을 시작할 때 캐시에서 찾은 비율 (조회가 없었으면 0)
+     */
+    public double hitRate() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    public long getStored() {
+        return stored.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public Recorder newRecorder() {
+        return new Recorder();
+    }
+
+    /**
+     * 플레이어 하나가 내보내는 프레임을 모아, 곡이 끝까지 재생되면 캐시에 저장합니다.
+     *
+     * 프레임 타임코드가 처음(0)부터 20ms 씩 이어질 때만 모으고,
+     * 탐색하거나 필터/볼륨이 바뀌거나 크기 제한을 넘으면 그 곡은 포기합니다.
+     */
+    public class Recorder {
+        private AudioTrack track;
+        private List<byte[]> frames;
+        private long bytes;
+        private long expectedTimecode;
+
+        /**
+         * 플레이어가 프레임을 내보낼 때마다 호출합니다.
+         *
+         * @param track    프레임을 만든 트랙
+         * @param frame    내보낸 프레임
+         * @param pristine 필터 없이 기본 볼륨으로 재생 중이면 true
+         */
+        public synchronized void onFrame(AudioTrack track, MutableAudioFrame frame, boolean pristine) {
+            if (track == null) {
+                return;
+            }
+            if (track != this.track) {
+                this.track = track;
+                this.frames = null;
+                if (pristine && frame.getTimecode() < OpusClip.FRAME_MILLIS && isCacheable(track)
+                        && !(track instanceof CachedOpusAudioTrack) && !contains(track.getIdentifier())) {
+                    frames = new ArrayList<>((int) (track.getInfo().length / OpusClip.FRAME_MILLIS) + 1);
+                    bytes = 0;
+                    expectedTimecode = frame.getTimecode();
+                }
+            }
+            if (frames == null) {
+                return;
+            }
+            if (!pristine
+                    || !StandardAudioDataFormats.DISCORD_OPUS.equals(frame.getFormat())
+                    || Math.abs(frame.getTimecode() - expectedTimecode) >= OpusClip.FRAME_MILLIS / 2) {
+                frames = null;
+                return;
+            }
+            bytes += frame.getDataLength();
+            if (bytes > maxEntryBytes) {
+                frames = null;
+                return;
+            }
+            frames.add(frame.getData());
+            expectedTimecode = frame.getTimecode() + OpusClip.FRAME_MILLIS;
+        }
+
+        /**
+         * 곡이 끝나면 호출합니다. 끝까지 재생됐고 모은 프레임이 곡 전체면 저장합니다.
+         *
+         * @param finished 끝까지 재생됐으면 true (스킵, 정지 등은 false)
+         */
+        public synchronized void onEnd(AudioTrack track, boolean finished) {
+            if (track != this.track || frames == null) {
+                return;
+            }
+            long recorded = frames.size() * OpusClip.FRAME_MILLIS;
+            // 마지막 몇 프레임이 빠지는 정도만 허용
+            if (finished && Math.abs(recorded - track.getInfo().length) <= 1_000) {
+                put(track.getIdentifier(), new OpusClip(frames));
+            }
+            frames = null;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package music.service;
+
+import com.sedmelluq.discord.lavaplayer.format.AudioDataFormat;
+import com.sedmelluq.discord.lavaplayer.format.OpusAudioDataFormat;
+import com.sedmelluq.discord.lavaplayer.format.transcoder.AudioChunkDecoder;
+import com.sedmelluq.discord.lavaplayer.format.transcoder.AudioChunkEncoder;
+import com.sedmelluq.discord.lavaplayer.natives.opus.OpusDecoder;
+import com.sedmelluq.discord.lavaplayer.player.AudioConfiguration;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.playback.MutableAudioFrame;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 입장곡 같은 짧은 클립을 메인 곡 위에 겹쳐 내보내는 믹서입니다.
+ *
+ * 클립은 PCM 으로 출력하는 별도 플레이어(overlay)에서 디코딩하거나, 미리 인코딩해 둔 OpusClip 을 그대로 씁니다.
+ * 메인 곡이 없을 때 OpusClip 프레임은 디코딩 없이 그대로 내보냅니다.
+ * 클립이 재생되는 동안에만 메인 프레임을 PCM 으로 풀어 볼륨을 낮춘(ducking) 뒤 클립과 더해 다시 인코딩합니다.
+ * 메인 곡은 멈추거나 다시 탐색(seek)하지 않고, 클립이 끝나면 볼륨을 서서히 되돌린 뒤
+ * 메인 프레임을 그대로 통과시키는 상태로 돌아갑니다.
+ *
+ * 통과시키는 동안에는 메인 프레임 버퍼 하나만 씁니다. 클립 PCM/섞기용 버퍼와 코덱은
+ * 클립이 처음 나올 때 만들고, 이후 프레임마다 새로 할당하지 않습니다.
+ *
+ * provide() 는 오디오 전송 스레드에서만 호출합니다.
+ */
+public class OverlayMixer {
+
+    private final AudioPlayer overlay;
+    private final AudioDataFormat mainFormat;
+    private final AudioDataFormat overlayFormat;
+    private final AudioConfiguration configuration;
+    private final float duckGain;
+    private final float gainStep;
+
+    private final ByteBuffer mainBuffer;
+    private final MutableAudioFrame mainFrame = new MutableAudioFrame();
+    private final MutableAudioFrame overlayFrame = new MutableAudioFrame();
+
+    // 클립이 처음 나올 때 만듦 (Opus 코덱이 direct 버퍼만 받으므로 PCM 버퍼는 direct)
+    private ByteBuffer overlayBuffer;
+    private ShortBuffer mainPcm;
+    private ShortBuffer clipPcm;
+    private ShortBuffer mixPcm;
+
+    // 재생 중인 미리 인코딩된 클립 (없으면 null)
+    private final AtomicReference<OpusClip.Cursor> clip = new AtomicReference<>();
+
+    // 섞기 시작할 때 만듦 (Opus 네이티브는 실제로 섞을 때만 불러옴)
+    // 메인이 Opus 면 프레임 버퍼에서 바로 디코딩 (AudioChunkDecoder 는 byte[] 만 받아 프레임마다 복사본이 필요)
+    private OpusDecoder opusDecoder;
+    private ByteBuffer opusInput;
+    private AudioChunkDecoder decoder;
+    private byte[] mainData;
+    private AudioChunkDecoder clipDecoder;
+    private AudioChunkEncoder encoder;
+    private boolean closed;
+
+    // 현재 메인 곡에 곱하는 볼륨 (1 이면 원래 볼륨)
+    private volatile float gain = 1f;
+
+    /**
+     * @param overlay       클립을 재생할 플레이어, overlayFormat 으로 출력해야 함
+     * @param mainFormat    메인 플레이어의 출력 형식 (보통 Opus), 섞은 결과도 이 형식으로 인코딩
+     * @param overlayFormat overlay 플레이어의 출력 형식, 빅엔디언 16bit PCM
+     * @param configuration 인코더 설정 (Opus 품질 등)
+     * @param duckGain      클립이 나오는 동안 메인 곡 볼륨 (0 ~ 1)
+     * @param rampMillis    볼륨을 낮추고 되돌리는 데 걸리는 시간 (ms)
+     */
+    public OverlayMixer(AudioPlayer overlay,
+                        AudioDataFormat mainFormat,
+                        AudioDataFormat overlayFormat,
+                        AudioConfiguration configuration,
+                        double duckGain,
+                        long rampMillis) {
+        if (mainFormat.sampleRate != overlayFormat.sampleRate
+                || mainFormat.channelCount != overlayFormat.channelCount
+                || mainFormat.chunkSampleCount != overlayFormat.chunkSampleCount) {
+            throw new IllegalArgumentException("overlay format must match main format: "
+                    + overlayFormat.codecName() + " vs " + mainFormat.codecName());
+        }
+        this.overlay = overlay;
+        this.mainFormat = mainFormat;
+        this.overlayFormat = overlayFormat;
+        this.configuration = configuration;
+        this.duckGain = (float) Math.max(0.0, Math.min(1.0, duckGain));
+        long rampFrames = Math.max(1, rampMillis / mainFormat.frameDuration());
+        this.gainStep = (1f - this.duckGain) / rampFrames;
+
+        this.mainBuffer = ByteBuffer.allocate(mainFormat.maximumChunkSize());
+        this.mainFrame.setBuffer(mainBuffer);
+    }
+
+    /**
+     * 클립을 재생합니다. 이미 재생 중인 클립이 있으면 바꿉니다.
+     *
+     * @return 재생을 시작했으면 true
+     */
+    public boolean play(AudioTrack clip) {
+        this.clip.set(null);
+        return overlay.startTrack(clip, false);
+    }
+
+    /**
+     * 미리 인코딩해 둔 클립을 처음부터 재생합니다. 재생 중인 클립이 있으면 바꿉니다.
+     * 클립 프레임은 메인 플레이어와 같은 형식이어야 합니다.
+     */
+    public void play(OpusClip clip) {
+        overlay.stopTrack();
+        this.clip.set(clip.cursor());
+    }
+
+    /**
+     * @return 클립을 재생하는 플레이어 (끝 마커 처리용)
+     */
+    public AudioPlayer player() {
+        return overlay;
+    }
+
+    /**
+     * 클립이 재생 중이거나, 끝난 뒤 메인 곡 볼륨을 되돌리는 중인지 확인합니다.
+     *
+     * @return false 면 메인 프레임을 그대로 보내면 됨
+     */
+    public boolean isActive() {
+        return clip.get() != null || overlay.getPlayingTrack() != null || gain < 1f;
+    }
+
+    /**
+     * 메인 플레이어와 클립의 20ms 프레임을 섞어 out 에 씁니다.
+     *
+     * out 에는 MutableAudioFrame 과 같은 방식으로 0 부터 채우고 position 을 끝에 둡니다.
+     * (호출하는 쪽에서 flip 해서 보냄)
+     *
+     * @return 보낼 프레임이 있으면 true
+     */
+    public synchronized boolean provide(AudioPlayer main, ByteBuffer out) {
+        if (closed) {
+            return false;
+        }
+        byte[] clipFrame = nextClipFrame();
+        boolean hasMain = main.provide(mainFrame);
+        boolean overlayPlaying = overlay.getPlayingTrack() != null;
+        boolean hasOverlay = false;
+        if (clipFrame == null && overlayPlaying) {
+            ensureBuffers();
+            hasOverlay = overlay.provide(overlayFrame);
+        }
+        float target = clip.get() != null || overlayPlaying ? duckGain : 1f;
+
+        if (clipFrame != null && !hasMain) {
+            // 메인 곡이 없으면 클립 프레임을 디코딩 없이 그대로 전달
+            gain = target;
+            out.clear();
+            out.put(clipFrame);
+            return true;
+        }
+        if (clipFrame == null && !hasOverlay && gain == target) {
+            // 섞을 게 없으면 메인 프레임을 그대로 전달
+            if (!hasMain) {
+                return false;
+            }
+            out.clear();
+            out.put(mainBuffer.array(), 0, mainFrame.getDataLength());
+            return true;
+        }
+        if (!hasMain && !hasOverlay) {
+            gain = target;
+            return false;
+        }
+
+        ensureBuffers();
+        ensureCodec();
+        if (hasMain) {
+            decodeMain();
+        } else {
+            mainPcm.clear();
+            while (mainPcm.hasRemaining()) {
+                mainPcm.put((short) 0);
+            }
+        }
+        int overlaySamples = 0;
+        if (clipFrame != null) {
+            clipDecoder.decode(clipFrame, clipPcm);
+            overlaySamples = clipPcm.remaining();
+        } else if (hasOverlay) {
+            overlaySamples = overlayFrame.getDataLength() / 2;
+        }
+
+        int samples = mixPcm.capacity();
+        int channels = mainFormat.channelCount;
+        float from = gain;
+        float to = from < target ? Math.min(target, from + gainStep) : Math.max(target, from - gainStep);
+        float delta = (to - from) / (samples / channels);
+
+        mixPcm.clear();
+        for (int i = 0; i < samples; i++) {
+            float g = from + delta * (i / channels);
+            int mixed = Math.round(mainPcm.get(i) * g);
+            if (i < overlaySamples) {
+                mixed += clipFrame != null ? clipPcm.get(i) : overlayBuffer.getShort(i * 2);
+            }
+            mixPcm.put((short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mixed)));
+        }
+        mixPcm.flip();
+        gain = to;
+
+        out.clear();
+        encoder.encode(mixPcm, out);
+        out.position(out.limit());
+        return true;
+    }
+
+    private byte[] nextClipFrame() {
+        OpusClip.Cursor cursor = clip.get();
+        if (cursor == null) {
+            return null;
+        }
+        byte[] frame = cursor.next();
+        if (frame == null) {
+            // 다른 클립으로 바뀌지 않았을 때만 비움
+            clip.compareAndSet(cursor, null);
+        }
+        return frame;
+    }
+
+    /**
+     * 받은 메인 프레임을 mainPcm 에 디코딩합니다.
+     */
+    private void decodeMain() {
+        int length = mainFrame.getDataLength();
+        if (opusDecoder != null) {
+            opusInput.clear();
+            opusInput.put(mainBuffer.array(), 0, length).flip();
+            opusDecoder.decode(opusInput, mainPcm);
+            return;
+        }
+        // PCM 은 프레임 길이가 일정하므로 배열 하나를 계속 씀
+        if (mainData == null || mainData.length != length) {
+            mainData = new byte[length];
+        }
+        System.arraycopy(mainBuffer.array(), 0, mainData, 0, length);
+        decoder.decode(mainData, mainPcm);
+    }
+
+    private void ensureBuffers() {
+        if (overlayBuffer == null) {
+            overlayBuffer = ByteBuffer.allocate(overlayFormat.maximumChunkSize());
+            overlayFrame.setBuffer(overlayBuffer);
+            mainPcm = directShorts(mainFormat.totalSampleCount());
+            clipPcm = directShorts(mainFormat.totalSampleCount());
+            mixPcm = directShorts(mainFormat.totalSampleCount());
+        }
+    }
+
+    private static ShortBuffer directShorts(int count) {
+        return ByteBuffer.allocateDirect(count * 2).order(ByteOrder.nativeOrder()).asShortBuffer();
+    }
+
+    private void ensureCodec() {
+        if (encoder == null) {
+            if (mainFormat instanceof OpusAudioDataFormat) {
+                opusDecoder = new OpusDecoder(mainFormat.sampleRate, mainFormat.channelCount);
+                opusInput = ByteBuffer.allocateDirect(mainFormat.maximumChunkSize());
+            } else {
+                decoder = mainFormat.createDecoder();
+            }
+            clipDecoder = mainFormat.createDecoder();
+            encoder = mainFormat.createEncoder(configuration);
+        }
+    }
+
+    float currentGain() {
+        return gain;
+    }
+
+    /**
+     * 클립 플레이어와 코덱을 정리합니다. 정리 후에는 다시 사용할 수 없습니다.
+     */
+    public synchronized void destroy() {
+        closed = true;
+        overlay.destroy();
+        if (encoder != null) {
+            if (opusDecoder != null) {
+                opusDecoder.close();
+            } else {
+                decoder.close();
+            }
+            clipDecoder.close();
+            encoder.close();
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package music.service;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import common.log.Log;
+import common.log.Logger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * 서버별 재생 상태(재생 중인 곡, 위치, 대기열)를 주기적으로 저장하고, 재시작 후 복원하는 클래스입니다.
+ *
+ * 별도 데몬 스레드에서 동작하며, 대기열은 TrackScheduler 의 스냅샷을 읽으므로 재생 스레드를 막지 않습니다.
+ * 저장은 증분으로 처리합니다.
+ * - 대기열 파일은 대기열 버전, 재생 중인 곡, 채널 중 하나가 바뀌었을 때만 다시 씀
+ * - 위치만 바뀐 서버는 마지막으로 저장한 위치에서 positionStepMillis 이상 움직였을 때만 위치 파일에 씀
+ * - 대기열이 바뀌었어도 이미 인코딩한 곡은 다시 인코딩하지 않음
+ * - 재생도 대기열도 없어진 서버는 저장 파일을 지움
+ */
+public class PlaybackSnapshotter {
+
+    private static final Logger LOG = Log.get("PlaybackSnapshotter");
+
+    private final Map<Long, ServerMusicManager> musicByGuild;
+    private final AudioPlayerManager playerManager;
+    private final PlaybackStateStore store;
+    private final LongUnaryOperator voiceChannelOf;
+    private final long positionStepMillis;
+
+    // 스냅샷 스레드에서만 사용 (snapshot() 이 synchronized)
+    private final Map<Long, Saved> saved = new HashMap<>();
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * @param voiceChannelOf     서버 ID 로 현재 연결된 보이스 채널 ID 를 반환 (연결 안 됐으면 0)
+     * @param positionStepMillis 위치만 바뀌었을 때, 마지막으로 저장한 위치에서 이만큼 움직여야 다시 저장 (ms)
+     */
+    public PlaybackSnapshotter(Map<Long, ServerMusicManager> musicByGuild,
+                               AudioPlayerManager playerManager,
+                               PlaybackStateStore store,
+                               LongUnaryOperator voiceChannelOf,
+                               long positionStepMillis) {
+        this.musicByGuild = musicByGuild;
+        this.playerManager = playerManager;
+        this.store = store;
+        this.voiceChannelOf = voiceChannelOf;
+        this.positionStepMillis = positionStepMillis;
+    }
+
+    /**
+     * 마지막으로 저장한 서버의 상태입니다.
+     */
+    private static class Saved {
+        final long version;
+        final AudioTrack playing;
+        final long voiceChannelId;
+        final Map<AudioTrack, byte[]> encoded;
+        // 대기열 파일의 savedAt
+        final long savedAt;
+        // 마지막으로 저장한 위치 (위치 파일에만 쓰면 바뀜)
+        long position;
+
+        Saved(long version, AudioTrack playing, long voiceChannelId, Map<AudioTrack, byte[]> encoded,
+              long savedAt, long position) {
+            this.version = version;
+            this.playing = playing;
+            this.voiceChannelId = voiceChannelId;
+            this.encoded = encoded;
+            this.savedAt = savedAt;
+            this.position = position;
+        }
+    }
+
+    /**
+     * 주기적으로 snapshot() 을 실행하는 데몬 스레드를 시작합니다.
+     *
+     * @param periodMillis 실행 주기 (ms)
+     */
+    public synchronized void start(long periodMillis) {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "playback-snapshot");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot(System.currentTimeMillis());
+            } catch (Exception e) {
+                LOG.error("snapshot failed", e);
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 주기 실행을 멈추고 마지막으로 한 번 더 저장합니다. (종료 시 호출)
+     */
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        snapshot(System.currentTimeMillis());
+    }
+
+    /**
+     * 바뀐 서버의 재생 상태를 저장합니다.
+     *
+     * @param nowMillis 기준 시각
+     * @return 새로 저장한 서버 수 (위치만 저장한 서버 포함)
+     */
+    public synchronized int snapshot(long nowMillis) {
+        int written = 0;
+        for (Map.Entry<Long, ServerMusicManager> entry : musicByGuild.entrySet()) {
+            long guildId = entry.getKey();
+            ServerMusicManager music = entry.getValue();
+
+            // 버전을 먼저 읽어야, 그 사이 바뀐 대기열은 다음 주기에 다시 저장됨
+            long version = music.scheduler.getVersion();
+            Queue<AudioTrack> queued = music.scheduler.getQueue();
+            AudioTrack playing = music.player.getPlayingTrack();
+
+            if (playing == null && queued.isEmpty()) {
+                forget(guildId);
+                continue;
+            }
+
+            Saved last = saved.get(guildId);
+            long voiceChannelId = voiceChannelOf.applyAsLong(guildId);
+            if (voiceChannelId == 0) {
+                if (last == null) {
+                    // 아직 연결 중이면 채널을 알 때까지 기존 파일을 그대로 둠
+                    continue;
+                }
+                voiceChannelId = last.voiceChannelId;
+            }
+            long position = playing == null ? 0 : playing.getPosition();
+
+            if (last != null && last.version == version && last.playing == playing
+                    && last.voiceChannelId == voiceChannelId) {
+                if (Math.abs(position - last.position) < positionStepMillis) {
+                    continue;
+                }
+                try {
+                    store.writePosition(guildId, last.savedAt, position);
+                    last.position = position;
+                    written++;
+                } catch (IOException e) {
+                    LOG.error("position write failed for guild " + guildId, e);
+                }
+                continue;
+            }
+
+            byte[] playingBytes = null;
+            if (playing != null) {
+                playingBytes = last != null && last.playing == playing
+                        ? last.encoded.get(playing)
+                        : TrackCodec.encodeBytes(playerManager, playing);
+            }
+
+            List<byte[]> queuedBytes = new ArrayList<>(queued.size());
+            Map<AudioTrack, byte[]> encoded = new IdentityHashMap<>(queued.size() + 1);
+            if (playingBytes != null) {
+                encoded.put(playing, playingBytes);
+            }
+            for (AudioTrack track : queued) {
+                byte[] bytes = last == null ? null : last.encoded.get(track);
+                if (bytes == null) {
+                    bytes = TrackCodec.encodeBytes(playerManager, track);
+                }
+                if (bytes != null) {
+                    queuedBytes.add(bytes);
+                    encoded.put(track, bytes);
+                }
+            }
+
+            try {
+                store.write(new PlaybackState(guildId, voiceChannelId, playingBytes, position, queuedBytes, nowMillis));
+                saved.put(guildId, new Saved(version, playing, voiceChannelId, encoded, nowMillis, position));
+                written++;
+            } catch (IOException e) {
+                LOG.error("write failed for guild " + guildId, e);
+            }
+        }
+
+        // 정리되어 맵에서 빠진 서버
+        for (Iterator<Long> it = saved.keySet().iterator(); it.hasNext(); ) {
+            long guildId = it.next();
+            if (!musicByGuild.containsKey(guildId)) {
+                it.remove();
+                delete(guildId);
+            }
+        }
+        return written;
+    }
+
+    private void forget(long guildId) {
+        if (saved.remove(guildId) != null) {
+            delete(guildId);
+        }
+    }
+
+    private void delete(long guildId) {
+        try {
+            store.delete(guildId);
+        } catch (IOException e) {
+            LOG.error("delete failed for guild " + guildId, e);
+        }
+    }
+
+    /**
+     * 저장된 상태로 서버의 재생을 복원합니다. 트랙은 다시 해석하지 않고 인코딩된 값으로 바로 만듭니다.
+     *
+     * 재생 중이던 곡은 저장된 위치부터 재생하고, 대기열은 그 뒤에 그대로 붙입니다.
+     * (보이스 채널 연결은 호출하는 쪽에서 처리)
+     *
+     * @return 복원한 트랙 수 (재생 중인 곡 포함)
+     */
+    public static int restore(AudioPlayerManager playerManager, ServerMusicManager music, PlaybackState state) {
+        List<AudioTrack> tracks = new ArrayList<>(state.queuedTracks.size() + 1);
+        if (state.playingTrack != null) {
+            AudioTrack playing = TrackCodec.decodeBytes(playerManager, state.playingTrack);
+            if (playing != null) {
+                if (state.position > 0 && playing.isSeekable()) {
+                    playing.setPosition(state.position);
+                }
+                tracks.add(playing);
+            }
+        }
+        for (byte[] bytes : state.queuedTracks) {
+            AudioTrack track = TrackCodec.decodeBytes(playerManager, bytes);
+            if (track != null) {
+                tracks.add(track);
+            }
+        }
+        return music.scheduler.queueAll(tracks);
+    }
+}
@@ -0,0 +1,45 @@
+package music.service;
+
+import java.util.List;
+
+/**
+ * 서버 하나의 재생 상태(재생 중인 곡, 위치, 대기열)를 저장하기 위한 데이터 클래스입니다.
+ *
+ * 트랙은 TrackCodec.encodeBytes 로 인코딩한 바이트로 보관하므로
+ * 재시작 후 URL 을 다시 해석하지 않고 decodeBytes 로 바로 복원할 수 있습니다.
+ */
+public class PlaybackState {
+
+    public final long guildId;
+    public final long voiceChannelId;        // 연결된 보이스 채널이 없으면 0
+    public final byte[] playingTrack;        // 재생 중인 곡이 없으면 null
+    public final long position;              // 재생 중인 곡의 위치 (ms)
+    public final List<byte[]> queuedTracks;
+    public final long savedAt;               // epoch ms
+
+    public PlaybackState(long guildId, long voiceChannelId, byte[] playingTrack, long position,
+                         List<byte[]> queuedTracks, long savedAt) {
+        this.guildId = guildId;
+        this.voiceChannelId = voiceChannelId;
+        this.playingTrack = playingTrack;
+        this.position = position;
+        this.queuedTracks = queuedTracks == null ? List.of() : List.copyOf(queuedTracks);
+        this.savedAt = savedAt;
+    }
+
+    public boolean isEmpty() {
+        return playingTrack == null && queuedTracks.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "PlaybackState{" +
+                "guildId=" + guildId +
+                ", voiceChannelId=" + voiceChannelId +
+                ", playing=" + (playingTrack != null) +
+                ", position=" + position +
+                ", queued=" + queuedTracks.size() +
+                ", savedAt=" + savedAt +
+                '}';
+    }
+}
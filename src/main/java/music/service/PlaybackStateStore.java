@@ -0,0 +1,236 @@
+package music.service;
+
+import common.log.Log;
+import common.log.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 서버별 재생 상태를 디스크에 저장하는 클래스입니다.
+ *
+ * 서버마다 파일 하나(<guildId>.bin)에 gzip 으로 압축한 바이너리 형식으로 저장합니다.
+ * 임시 파일에 쓴 뒤 원자적으로 교체하므로 쓰는 도중 종료돼도 이전 파일이 남고,
+ * gzip 의 CRC 로 깨진 파일은 읽을 때 걸러집니다.
+ *
+ * 형식: MAGIC, VERSION, guildId, voiceChannelId, savedAt, position,
+ *       재생 중인 곡 (길이 + 바이트, 없으면 길이 -1), 대기열 곡 수, 곡마다 (길이 + 바이트)
+ *
+ * 재생 위치는 매 주기 바뀌므로 대기열 파일과 따로 <guildId>.pos 에 저장합니다.
+ * (위치만 바뀌었을 때 대기열 전체를 다시 압축하고 fsync 하지 않도록)
+ * 위치 파일은 고정 크기 레코드를 제자리에 덮어쓰고 fsync 하지 않습니다. 잃어버려도 대기열 파일의 위치로 복원되고,
+ * 어느 대기열 파일에 대한 위치인지(savedAt)와 CRC 를 함께 저장해 맞지 않거나 깨진 레코드는 무시합니다.
+ *
+ * 위치 형식: POSITION_MAGIC, guildId, 대기열 파일의 savedAt, position, CRC32 (앞의 28바이트)
+ */
+public class PlaybackStateStore {
+
+    private static final Logger LOG = Log.get("PlaybackStateStore");
+
+    private static final int MAGIC = 0x50425354; // "PBST"
+    private static final int VERSION = 1;
+    private static final String SUFFIX = ".bin";
+    private static final int POSITION_MAGIC = 0x50425053; // "PBPS"
+    private static final String POSITION_SUFFIX = ".pos";
+    private static final int POSITION_BYTES = 32;
+    private static final int MAX_TRACK_BYTES = 1 << 20;
+
+    private final Path dir;
+
+    public PlaybackStateStore(Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * 상태를 저장합니다. 같은 서버의 이전 상태는 덮어씁니다.
+     */
+    public void write(PlaybackState state) throws IOException {
+        Files.createDirectories(dir);
+        Path target = fileOf(state.guildId);
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(tmp.toFile());
+             GZIPOutputStream gzip = new GZIPOutputStream(file);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(gzip))) {
+            writeTo(state, out);
+            out.flush();
+            gzip.finish();
+            // 교체하기 전에 내용이 디스크에 기록됐는지 확인 (전원이 꺼져도 빈 파일로 바뀌지 않도록)
+            file.getFD().sync();
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 재생 위치만 저장합니다. 대기열 파일은 건드리지 않습니다.
+     *
+     * @param queueSavedAt 이 위치가 속한 대기열 파일의 savedAt (다른 대기열 파일과 함께 읽히지 않도록)
+     */
+    public void writePosition(long guildId, long queueSavedAt, long position) throws IOException {
+        Files.createDirectories(dir);
+        ByteBuffer record = ByteBuffer.allocate(POSITION_BYTES);
+        record.putInt(POSITION_MAGIC).putLong(guildId).putLong(queueSavedAt).putLong(position);
+        record.putInt(crcOf(record.array()));
+        record.flip();
+        try (FileChannel channel = FileChannel.open(positionFileOf(guildId),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            while (record.hasRemaining()) {
+                channel.write(record, record.position());
+            }
+        }
+    }
+
+    /**
+     * 서버의 저장된 상태를 지웁니다.
+     */
+    public void delete(long guildId) throws IOException {
+        Files.deleteIfExists(fileOf(guildId));
+        Files.deleteIfExists(positionFileOf(guildId));
+    }
+
+    /**
+     * 저장된 모든 서버의 상태를 읽습니다. 읽을 수 없는 파일은 건너뜁니다.
+     */
+    public List<PlaybackState> readAll() {
+        List<PlaybackState> states = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return states;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+            for (Path file : files) {
+                try (InputStream in = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                    states.add(withSavedPosition(readFrom(new DataInputStream(in))));
+                } catch (IOException | RuntimeException e) {
+                    LOG.error("skip unreadable " + file.getFileName(), e);
+                }
+            }
+        } catch (IOException e) {
+            LOG.error("list failed", e);
+        }
+        return states;
+    }
+
+    private Path fileOf(long guildId) {
+        return dir.resolve(Long.toUnsignedString(guildId) + SUFFIX);
+    }
+
+    private Path positionFileOf(long guildId) {
+        return dir.resolve(Long.toUnsignedString(guildId) + POSITION_SUFFIX);
+    }
+
+    /**
+     * 같은 대기열 파일에 대한 위치 레코드가 있으면 그 위치로 바꾼 상태를 반환합니다.
+     */
+    private PlaybackState withSavedPosition(PlaybackState state) {
+        Path file = positionFileOf(state.guildId);
+        if (!Files.exists(file)) {
+            return state;
+        }
+        try {
+            byte[] bytes = Files.readAllBytes(file);
+            if (bytes.length != POSITION_BYTES) {
+                return state;
+            }
+            ByteBuffer record = ByteBuffer.wrap(bytes);
+            if (record.getInt() != POSITION_MAGIC || record.getLong() != state.guildId
+                    || record.getLong() != state.savedAt) {
+                return state;
+            }
+            long position = record.getLong();
+            if (record.getInt() != crcOf(bytes)) {
+                return state;
+            }
+            return new PlaybackState(state.guildId, state.voiceChannelId, state.playingTrack, position,
+                    state.queuedTracks, state.savedAt);
+        } catch (IOException e) {
+            LOG.error("skip unreadable " + file.getFileName(), e);
+            return state;
+        }
+    }
+
+    private static int crcOf(byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record, 0, POSITION_BYTES - Integer.BYTES);
+        return (int) crc.getValue();
+    }
+
+    static void writeTo(PlaybackState state, DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(state.guildId);
+        out.writeLong(state.voiceChannelId);
+        out.writeLong(state.savedAt);
+        out.writeLong(state.position);
+        writeBytes(out, state.playingTrack);
+        out.writeInt(state.queuedTracks.size());
+        for (byte[] track : state.queuedTracks) {
+            writeBytes(out, track);
+        }
+    }
+
+    static PlaybackState readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("not a playback state file");
+        }
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("unsupported version " + version);
+        }
+        long guildId = in.readLong();
+        long voiceChannelId = in.readLong();
+        long savedAt = in.readLong();
+        long position = in.readLong();
+        byte[] playing = readBytes(in);
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("invalid queue size " + count);
+        }
+        List<byte[]> queued = new ArrayList<>(Math.min(count, 10_000));
+        for (int i = 0; i < count; i++) {
+            byte[] track = readBytes(in);
+            if (track == null) {
+                throw new IOException("missing queued track " + i);
+            }
+            queued.add(track);
+        }
+        return new PlaybackState(guildId, voiceChannelId, playing, position, queued, savedAt);
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length == -1) {
+            return null;
+        }
+        if (length < 0 || length > MAX_TRACK_BYTES) {
+            throw new IOException("invalid track length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
@@ -1,6 +1,8 @@
 package music.service;
 
+import com.sedmelluq.discord.lavaplayer.format.StandardAudioDataFormats;
 import com.sedmelluq.discord.lavaplayer.player.*;
+import common.util.BotConfig;
 import net.dv8tion.jda.api.audio.AudioSendHandler;
 import music.handler.AudioPlayerHandler;
 
@@ -8,22 +10,89 @@ import music.handler.AudioPlayerHandler;
  * 서버의 음악 재생에 필요한 구성 요소를 모아놓은 클래스입니다.
  *
  * 서버당 하나씩 생성되며, 서로 다른 서버에서 독립적으로 음악을 재생할 수 있습니다.
+ * 마지막 사용 시각을 기록해 두어 오래 쓰지 않은 서버는 IdleGuildReaper가 정리합니다.
  */
 public class ServerMusicManager {
     public final AudioPlayer player;
     public final TrackScheduler scheduler;
     public final AudioPlayerHandler sendHandler;
+    // 입장곡을 메인 곡 위에 겹쳐 재생하는 믹서 (사용하지 않으면 null)
+    public final OverlayMixer overlay;
+
+    private volatile long lastActiveAt = System.currentTimeMillis();
+
+    // 곡이 이만큼 남으면 다음 곡을 미리 불러와 곡 사이 공백을 줄임
+    private static final long PREFETCH_MILLIS = BotConfig.getLong("MUSIC_PREFETCH_SECONDS", 10) * 1000L;
+
+    // 입장곡이 나오는 동안 메인 곡 볼륨과, 볼륨을 낮추고 되돌리는 시간
+    private static final double DUCK_GAIN = BotConfig.getDouble("ENTRY_SONG_DUCK_GAIN", 0.3);
+    private static final long DUCK_RAMP_MILLIS = BotConfig.getLong("ENTRY_SONG_DUCK_RAMP_MS", 200);
 
     public ServerMusicManager(AudioPlayerManager manager) {
-        this.player = manager.createPlayer();
-        this.scheduler = new TrackScheduler(player);
+        this(manager, null);
+    }
+
+    /**
+     * @param overlayManager 입장곡을 재생할 PCM 출력 플레이어 매니저, null 이면 겹쳐 재생하지 않음
+     */
+    public ServerMusicManager(AudioPlayerManager manager, AudioPlayerManager overlayManager) {
+        this(manager, overlayManager, null);
+    }
+
+    /**
+     * @param overlayManager 입장곡을 재생할 PCM 출력 플레이어 매니저, null 이면 겹쳐 재생하지 않음
+     * @param frameCache     서버끼리 같이 쓰는 곡 프레임 캐시, null 이면 사용하지 않음
+     */
+    public ServerMusicManager(AudioPlayerManager manager, AudioPlayerManager overlayManager,
+                              OpusFrameCache frameCache) {
+        this.player = new GaplessAudioPlayer(manager.createPlayer(), manager.createPlayer(), frameCache);
+        this.scheduler = new TrackScheduler(player, PREFETCH_MILLIS);
         this.player.addListener(scheduler);
-        this.sendHandler = new AudioPlayerHandler(player);
+        this.overlay = overlayManager == null ? null : new OverlayMixer(
+                overlayManager.createPlayer(),
+                StandardAudioDataFormats.DISCORD_OPUS,
+                overlayManager.getConfiguration().getOutputFormat(),
+                manager.getConfiguration(),
+                DUCK_GAIN,
+                DUCK_RAMP_MILLIS);
+        this.sendHandler = new AudioPlayerHandler(player, overlay);
     }
 
     public AudioSendHandler getSendHandler() {
         return sendHandler;
     }
-}
 
+    /**
+     * 마지막 사용 시각을 현재 시각으로 갱신합니다.
+     */
+    public void touch() {
+        touch(System.currentTimeMillis());
+    }
 
+    void touch(long nowMillis) {
+        lastActiveAt = nowMillis;
+    }
+
+    public long getLastActiveAt() {
+        return lastActiveAt;
+    }
+
+    /**
+     * 재생 중인 트랙이나 대기열이 남아있는지 확인합니다.
+     *
+     * @return 재생 중이거나 대기열이 있으면 true
+     */
+    public boolean isBusy() {
+        return player.getPlayingTrack() != null || !scheduler.getQueue().isEmpty();
+    }
+
+    /**
+     * AudioPlayer를 정리합니다. 정리 후에는 다시 사용할 수 없습니다.
+     */
+    public void destroy() {
+        player.destroy();
+        if (overlay != null) {
+            overlay.destroy();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package music.service;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.tools.io.MessageInput;
+import com.sedmelluq.discord.lavaplayer.tools.io.MessageOutput;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.DecodedTrackHolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+
+/**
+ * AudioTrack 을 Lavaplayer 인코딩 형식(Base64)으로 변환하는 유틸리티 클래스입니다.
+ *
+ * 인코딩된 트랙은 URL 을 다시 해석하지 않고도 decode() 로 바로 재생 가능한 트랙이 됩니다.
+ */
+public final class TrackCodec {
+
+    private TrackCodec() {
+    }
+
+    /**
+     * @return 인코딩 결과, 인코딩할 수 없는 트랙이면 null
+     */
+    public static String encode(AudioPlayerManager playerManager, AudioTrack track) {
+        byte[] bytes = encodeBytes(playerManager, track);
+        return bytes == null ? null : Base64.getEncoder().encodeToString(bytes);
+    }
+
+    /**
+     * Base64 로 바꾸지 않은 인코딩 결과를 반환합니다. (바이너리 파일 저장용)
+     *
+     * @return 인코딩 결과, 인코딩할 수 없는 트랙이면 null
+     */
+    public static byte[] encodeBytes(AudioPlayerManager playerManager, AudioTrack track) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+            playerManager.encodeTrack(new MessageOutput(out), track);
+            return out.toByteArray();
+        } catch (IOException | RuntimeException e) {
+            System.out.println("[TrackCodec] encode failed for " + track.getIdentifier() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return 복원된 트랙, 복원할 수 없으면 null
+     */
+    public static AudioTrack decode(AudioPlayerManager playerManager, String encoded) {
+        try {
+            return decodeBytes(playerManager, Base64.getDecoder().decode(encoded));
+        } catch (IllegalArgumentException e) {
+            System.out.println("[TrackCodec] decode failed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return encodeBytes() 결과로 복원된 트랙, 복원할 수 없으면 null
+     */
+    public static AudioTrack decodeBytes(AudioPlayerManager playerManager, byte[] bytes) {
+        try {
+            DecodedTrackHolder holder = playerManager.decodeTrack(
+                    new MessageInput(new ByteArrayInputStream(bytes)));
+            return holder == null ? null : holder.decodedTrack;
+        } catch (IOException | RuntimeException e) {
+            System.out.println("[TrackCodec] decode failed: " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package music.service;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioLoadResultHandler;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.BasicAudioPlaylist;
+import common.log.Log;
+import common.log.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * /play 와 입장곡이 트랙을 불러올 때 거치는 로더입니다.
+ *
+ * 캐시할 수 있는 검색어(원격 URL, 검색 접두사)는 TrackResolutionCache 를 먼저 확인하고,
+ * 캐시에 없을 때만 Lavaplayer 에 해석을 맡긴 뒤 결과를 캐시에 저장합니다.
+ *
+ * 같은 검색어를 동시에 여러 서버가 요청하면 해석은 한 번만 하고(single-flight),
+ * 기다리던 요청들은 각자 복제된 AudioTrack 을 받습니다. 합류는 레인 안에서 일어나므로
+ * 각 서버의 요청은 자기 레인의 순서를 지키고, 다른 서버의 밀린 요청을 기다리지 않습니다.
+ *
+ * 실제 해석은 LoadLanes 의 우선순위 레인(입장곡 > 단일 트랙 > 재생목록)에서 실행합니다.
+ */
+public class TrackLoader {
+
+    private static final Logger LOG = Log.get("TrackLoader");
+
+    private final AudioPlayerManager playerManager;
+    private final TrackResolutionCache cache;
+    private final LoadLanes lanes;
+    private final ConcurrentMap<String, Resolution> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong coalescedLoads = new AtomicLong();
+
+    public TrackLoader(AudioPlayerManager playerManager, TrackResolutionCache cache, LoadLanes lanes) {
+        this.playerManager = playerManager;
+        this.cache = cache;
+        this.lanes = lanes;
+    }
+
+    /**
+     * 검색어를 보고 레인을 정해 불러옵니다. (재생목록 URL 이면 PLAYLIST, 아니면 TRACK)
+     *
+     * @see #load(Object, String, LoadPriority, AudioLoadResultHandler)
+     */
+    public void load(Object orderingKey, String query, AudioLoadResultHandler handler) {
+        load(orderingKey, query, LoadPriority.forQuery(query), handler);
+    }
+
+    /**
+     * 검색어/URL/파일 경로를 불러와 handler 로 결과를 전달합니다.
+     *
+     * 캐시에 있고 같은 서버의 앞선 로드가 레인에 남아 있지 않으면 호출한 스레드에서 바로 handler 가 호출됩니다.
+     * 앞선 로드가 있으면 캐시된 결과도 같은 레인에서 그 뒤에 전달해 요청 순서를 지킵니다.
+     *
+     * @param orderingKey 같은 키, 같은 레인끼리는 요청 순서대로 처리 (보통 ServerMusicManager)
+     * @param query       검색어, URL 또는 파일 경로
+     * @param priority    실행할 레인
+     * @param handler     결과를 받을 핸들러
+     */
+    public void load(Object orderingKey, String query, LoadPriority priority, AudioLoadResultHandler handler) {
+        String key = TrackResolutionCache.normalize(query);
+        String flightKey = key != null ? key : query.trim();
+        if (key != null) {
+            CachedResolution cached = cache.get(key, System.currentTimeMillis());
+            if (cached != null) {
+                if (lanes.isIdle(orderingKey, priority)) {
+                    if (deliverCached(cached, handler)) {
+                        return;
+                    }
+                } else {
+                    // 같은 서버의 앞선 로드가 남아 있으면 그 뒤에서 전달 (요청 순서 유지)
+                    lanes.submit(orderingKey, priority, () -> {
+                        if (!deliverCached(cached, handler)) {
+                            resolve(flightKey, query, key, handler);
+                        }
+                    });
+                    return;
+                }
+            }
+        }
+
+        lanes.submit(orderingKey, priority, () -> resolve(flightKey, query, key, handler));
+    }
+
+    /**
+     * 레인 스레드에서 검색어를 해석해 handler 로 전달합니다.
+     *
+     * 다른 서버의 레인에서 같은 검색어를 이미 해석하고 있으면 그 결과를 기다려 복제본을 받습니다.
+     * 해석은 실행이 시작된 뒤에만 맵에 올라가므로, 다른 서버의 레인에서 아직 기다리는 요청에 묶이지 않습니다.
+     */
+    private void resolve(String flightKey, String query, String cacheKey, AudioLoadResultHandler handler) {
+        Resolution resolution = new Resolution(flightKey);
+        Resolution existing = inFlight.putIfAbsent(flightKey, resolution);
+        if (existing != null) {
+            coalescedLoads.incrementAndGet();
+            existing.awaitAndDeliverCopy(handler);
+            return;
+        }
+
+        try {
+            playerManager.loadItemSync(query,
+                    cacheKey != null ? new CachingResultHandler(cacheKey, resolution) : resolution);
+        } catch (RuntimeException e) {
+            LOG.error(() -> "load failed for " + flightKey, e);
+        } finally {
+            resolution.finish();
+        }
+        resolution.deliver(handler, false);
+    }
+
+    public TrackResolutionCache cache() {
+        return cache;
+    }
+
+    public LoadLanes lanes() {
+        return lanes;
+    }
+
+    /**
+     * 다른 요청의 진행 중인 해석에 합류한 횟수를 반환합니다.
+     */
+    public long getCoalescedLoads() {
+        return coalescedLoads.get();
+    }
+
+    /**
+     * 캐시된 결과를 트랙으로 복원해 전달합니다.
+     *
+     * @return 전달했으면 true, 복원에 실패해 다시 불러와야 하면 false
+     */
+    private boolean deliverCached(CachedResolution cached, AudioLoadResultHandler handler) {
+        switch (cached.kind) {
+            case NO_MATCHES -> {
+                handler.noMatches();
+                return true;
+            }
+            case FAILED -> {
+                handler.loadFailed(new FriendlyException(
+                        cached.failureMessage, FriendlyException.Severity.COMMON, null));
+                return true;
+            }
+            default -> {
+            }
+        }
+
+        List<AudioTrack> tracks = new ArrayList<>(cached.encodedTracks.size());
+        for (String encoded : cached.encodedTracks) {
+            AudioTrack track = TrackCodec.decode(playerManager, encoded);
+            if (track == null) {
+                return false;
+            }
+            tracks.add(track);
+        }
+
+        if (cached.kind == CachedResolution.Kind.TRACK) {
+            if (tracks.isEmpty()) {
+                return false;
+            }
+            handler.trackLoaded(tracks.get(0));
+        } else {
+            AudioTrack selected = cached.selectedIndex >= 0 && cached.selectedIndex < tracks.size()
+                    ? tracks.get(cached.selectedIndex)
+                    : null;
+            handler.playlistLoaded(new BasicAudioPlaylist(
+                    cached.playlistName, tracks, selected, cached.searchResult));
+        }
+        return true;
+    }
+
+    /**
+     * 결과를 캐시에 저장한 뒤 원래 핸들러로 넘겨주는 핸들러입니다.
+     *
+     * 원래 핸들러가 트랙 위치 등을 바꾸기 전에 인코딩해야 하므로 저장을 먼저 합니다.
+     */
+    private class CachingResultHandler implements AudioLoadResultHandler {
+        private final String key;
+        private final AudioLoadResultHandler delegate;
+
+        CachingResultHandler(String key, AudioLoadResultHandler delegate) {
+            this.key = key;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void trackLoaded(AudioTrack track) {
+            String encoded = TrackCodec.encode(playerManager, track);
+            if (encoded != null) {
+                long now = System.currentTimeMillis();
+                cache.put(key, new CachedResolution(CachedResolution.Kind.TRACK, List.of(encoded),
+                        null, -1, false, null, cache.trackExpiry(now)));
+            }
+            delegate.trackLoaded(track);
+        }
+
+        @Override
+        public void playlistLoaded(AudioPlaylist playlist) {
+            List<String> encodedTracks = new ArrayList<>(playlist.getTracks().size());
+            for (AudioTrack track : playlist.getTracks()) {
+                String encoded = TrackCodec.encode(playerManager, track);
+                if (encoded == null) {
+                    encodedTracks = null;
+                    break;
+                }
+                encodedTracks.add(encoded);
+            }
+            if (encodedTracks != null) {
+                long now = System.currentTimeMillis();
+                int selectedIndex = playlist.getSelectedTrack() == null
+                        ? -1
+                        : playlist.getTracks().indexOf(playlist.getSelectedTrack());
+                cache.put(key, new CachedResolution(CachedResolution.Kind.PLAYLIST, encodedTracks,
+                        playlist.getName(), selectedIndex, playlist.isSearchResult(),
+                        null, cache.trackExpiry(now)));
+            }
+            delegate.playlistLoaded(playlist);
+        }
+
+        @Override
+        public void noMatches() {
+            cache.put(key, CachedResolution.noMatches(cache.negativeExpiry(System.currentTimeMillis())));
+            delegate.noMatches();
+        }
+
+        @Override
+        public void loadFailed(FriendlyException e) {
+            // 네트워크 오류 등 일시적인 실패(SUSPICIOUS/FAULT)는 캐시하지 않음
+            if (e.severity == FriendlyException.Severity.COMMON) {
+                cache.put(key, CachedResolution.failed(e.getMessage(),
+                        cache.negativeExpiry(System.currentTimeMillis())));
+            }
+            delegate.loadFailed(e);
+        }
+    }
+
+    /**
+     * 진행 중인 해석 하나의 결과를 담아두는 클래스입니다.
+     *
+     * 해석을 시작한 요청이 finish() 를 부르면 맵에서 빠지고, 기다리던 다른 서버의 레인 작업들이
+     * 각자 makeClone() 한 트랙을 받아 자기 핸들러로 전달합니다.
+     */
+    private class Resolution implements AudioLoadResultHandler {
+        private final String flightKey;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private AudioTrack track;
+        private AudioPlaylist playlist;
+        private boolean noMatches;
+        private FriendlyException failure;
+
+        Resolution(String flightKey) {
+            this.flightKey = flightKey;
+        }
+
+        @Override
+        public void trackLoaded(AudioTrack track) {
+            this.track = track;
+        }
+
+        @Override
+        public void playlistLoaded(AudioPlaylist playlist) {
+            this.playlist = playlist;
+        }
+
+        @Override
+        public void noMatches() {
+            this.noMatches = true;
+        }
+
+        @Override
+        public void loadFailed(FriendlyException e) {
+            this.failure = e;
+        }
+
+        /**
+         * 해석이 끝났음을 알립니다. 결과가 없으면 실패로 채웁니다.
+         */
+        void finish() {
+            inFlight.remove(flightKey, this);
+            if (track == null && playlist == null && !noMatches && failure == null) {
+                failure = new FriendlyException("No result for " + flightKey, FriendlyException.Severity.FAULT, null);
+            }
+            done.countDown();
+        }
+
+        void awaitAndDeliverCopy(AudioLoadResultHandler handler) {
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                handler.loadFailed(new FriendlyException("Interrupted", FriendlyException.Severity.FAULT, e));
+                return;
+            }
+            deliver(handler, true);
+        }
+
+        void deliver(AudioLoadResultHandler handler, boolean copy) {
+            if (track != null) {
+                handler.trackLoaded(copy ? track.makeClone() : track);
+            } else if (playlist != null) {
+                handler.playlistLoaded(copy ? clonePlaylist(playlist) : playlist);
+            } else if (noMatches) {
+                handler.noMatches();
+            } else {
+                handler.loadFailed(failure);
+            }
+        }
+    }
+
+    private static AudioPlaylist clonePlaylist(AudioPlaylist playlist) {
+        List<AudioTrack> tracks = new ArrayList<>(playlist.getTracks().size());
+        AudioTrack selected = null;
+        for (AudioTrack track : playlist.getTracks()) {
+            AudioTrack copy = track.makeClone();
+            if (track == playlist.getSelectedTrack()) {
+                selected = copy;
+            }
+            tracks.add(copy);
+        }
+        return new BasicAudioPlaylist(playlist.getName(), tracks, selected, playlist.isSearchResult());
+    }
+}
@@ -0,0 +1,392 @@
+package music.service;
+
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 위치(인덱스)로 접근할 수 있는 음악 대기열입니다.
+ *
+ * 암시적 키 트립(implicit treap)으로 구현해 수천 곡이 쌓여 있어도
+ * - 맨 뒤 추가 / 맨 앞 꺼내기 / n번째 조회, 삭제, 이동: O(log n)
+ * - 여러 곡 한 번에 추가: O(k + log n)
+ * - 페이지 조회: O(log n + 페이지 크기)
+ * 로 처리하고, 곡 수와 전체 재생 시간은 노드마다 부분합으로 유지해 O(1) 로 반환합니다.
+ *
+ * 노드는 한 번 만들면 바꾸지 않고(변경 시 경로만 복사), snapshot() 은 O(1) 로
+ * 읽기 전용 복사본을 만듭니다. 변경 메소드는 한 스레드(TrackScheduler 의 명령 루프)에서만 호출합니다.
+ */
+public class TrackQueue extends AbstractQueue<AudioTrack> {
+
+    private static final class Node {
+        final AudioTrack track;
+        final int priority;
+        final long duration;
+        final Node left;
+        final Node right;
+        final int size;
+        final long totalDuration;
+
+        Node(AudioTrack track, int priority, long duration, Node left, Node right) {
+            this.track = track;
+            this.priority = priority;
+            this.duration = duration;
+            this.left = left;
+            this.right = right;
+            this.size = 1 + size(left) + size(right);
+            this.totalDuration = duration + totalDuration(left) + totalDuration(right);
+        }
+
+        Node(AudioTrack track) {
+            this(track, ThreadLocalRandom.current().nextInt(), durationOf(track), null, null);
+        }
+
+        Node with(Node newLeft, Node newRight) {
+            return new Node(track, priority, duration, newLeft, newRight);
+        }
+    }
+
+    private Node root;
+    private final boolean readOnly;
+
+    public TrackQueue() {
+        this(null, false);
+    }
+
+    private TrackQueue(Node root, boolean readOnly) {
+        this.root = root;
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * 현재 상태의 읽기 전용 복사본을 O(1) 로 만듭니다.
+     * 이후 이 대기열을 바꿔도 복사본은 바뀌지 않습니다.
+     */
+    public TrackQueue snapshot() {
+        return readOnly ? this : new TrackQueue(root, true);
+    }
+
+    private void checkWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException("read-only queue snapshot");
+        }
+    }
+
+    /**
+     * 재생 시간 합계에 넣을 트랙 길이 (라이브 스트림 등 길이를 모르면 0)
+     */
+    static long durationOf(AudioTrack track) {
+        long duration = track.getDuration();
+        return duration <= 0 || duration == Long.MAX_VALUE ? 0 : duration;
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static long totalDuration(Node node) {
+        return node == null ? 0 : node.totalDuration;
+    }
+
+    private static Node merge(Node a, Node b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.priority > b.priority) {
+            return a.with(a.left, merge(a.right, b));
+        }
+        return b.with(merge(a, b.left), b.right);
+    }
+
+    /**
+     * node 를 앞쪽 count 개와 나머지로 나눕니다. result[0] 앞쪽, result[1] 뒤쪽
+     */
+    private static void split(Node node, int count, Node[] result) {
+        if (node == null) {
+            result[0] = null;
+            result[1] = null;
+            return;
+        }
+        if (size(node.left) >= count) {
+            split(node.left, count, result);
+            result[1] = node.with(result[1], node.right);
+        } else {
+            split(node.right, count - size(node.left) - 1, result);
+            result[0] = node.with(node.left, result[0]);
+        }
+    }
+
+    /**
+     * 트랙 목록으로 트립을 O(n) 에 만듭니다.
+     * (오른쪽 경로 스택으로 카테시안 트리 모양을 정한 뒤 아래에서부터 노드를 만듦)
+     */
+    private static Node build(List<? extends AudioTrack> tracks) {
+        int n = tracks.size();
+        if (n == 0) {
+            return null;
+        }
+        int[] priorities = new int[n];
+        int[] lefts = new int[n];
+        int[] rights = new int[n];
+        int[] stack = new int[n];
+        int top = 0;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < n; i++) {
+            priorities[i] = random.nextInt();
+            lefts[i] = -1;
+            rights[i] = -1;
+            int last = -1;
+            while (top > 0 && priorities[stack[top - 1]] < priorities[i]) {
+                last = stack[--top];
+            }
+            lefts[i] = last;
+            if (top > 0) {
+                rights[stack[top - 1]] = i;
+            }
+            stack[top++] = i;
+        }
+        return buildNode(tracks, stack[0], priorities, lefts, rights);
+    }
+
+    private static Node buildNode(List<? extends AudioTrack> tracks, int index,
+                                  int[] priorities, int[] lefts, int[] rights) {
+        Node left = lefts[index] < 0 ? null : buildNode(tracks, lefts[index], priorities, lefts, rights);
+        Node right = rights[index] < 0 ? null : buildNode(tracks, rights[index], priorities, lefts, rights);
+        AudioTrack track = tracks.get(index);
+        return new Node(track, priorities[index], durationOf(track), left, right);
+    }
+
+    private void checkIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+    }
+
+    @Override
+    public boolean offer(AudioTrack track) {
+        checkWritable();
+        if (track == null) {
+            throw new NullPointerException();
+        }
+        root = merge(root, new Node(track));
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends AudioTrack> tracks) {
+        checkWritable();
+        if (tracks.isEmpty()) {
+            return false;
+        }
+        List<? extends AudioTrack> list = tracks instanceof List<? extends AudioTrack> l ? l : new ArrayList<>(tracks);
+        for (AudioTrack track : list) {
+            if (track == null) {
+                throw new NullPointerException();
+            }
+        }
+        root = merge(root, build(list));
+        return true;
+    }
+
+    @Override
+    public AudioTrack poll() {
+        checkWritable();
+        return root == null ? null : remove(0);
+    }
+
+    @Override
+    public AudioTrack peek() {
+        return root == null ? null : get(0);
+    }
+
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    @Override
+    public void clear() {
+        checkWritable();
+        root = null;
+    }
+
+    /**
+     * @return 대기열 전체 재생 시간(ms), 길이를 모르는 트랙은 0으로 계산
+     */
+    public long getTotalDuration() {
+        return totalDuration(root);
+    }
+
+    /**
+     * @param index 0부터 시작하는 위치
+     * @return 해당 위치의 트랙
+     */
+    public AudioTrack get(int index) {
+        checkIndex(index, size());
+        Node node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node.track;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * 해당 위치의 트랙을 빼냅니다.
+     *
+     * @param index 0부터 시작하는 위치
+     * @return 빼낸 트랙
+     */
+    public AudioTrack remove(int index) {
+        checkWritable();
+        checkIndex(index, size());
+        Node[] parts = new Node[2];
+        split(root, index, parts);
+        Node before = parts[0];
+        split(parts[1], 1, parts);
+        Node removed = parts[0];
+        root = merge(before, parts[1]);
+        return removed.track;
+    }
+
+    /**
+     * 트랙을 해당 위치에 끼워 넣습니다.
+     *
+     * @param index 0부터 size() 까지
+     * @param track 넣을 트랙
+     */
+    public void add(int index, AudioTrack track) {
+        checkWritable();
+        if (track == null) {
+            throw new NullPointerException();
+        }
+        checkIndex(index, size() + 1);
+        Node[] parts = new Node[2];
+        split(root, index, parts);
+        root = merge(merge(parts[0], new Node(track)), parts[1]);
+    }
+
+    /**
+     * from 위치의 트랙을 to 위치로 옮깁니다. (옮긴 뒤 그 트랙의 위치가 to)
+     */
+    public void move(int from, int to) {
+        checkWritable();
+        int size = size();
+        checkIndex(from, size);
+        checkIndex(to, size);
+        if (from == to) {
+            return;
+        }
+        add(to, remove(from));
+    }
+
+    /**
+     * 대기열 순서를 무작위로 섞습니다. (O(n): 배열로 섞은 뒤 트립을 다시 만듦)
+     */
+    public void shuffle(Random random) {
+        checkWritable();
+        List<AudioTrack> tracks = new ArrayList<>(this);
+        Collections.shuffle(tracks, random);
+        root = build(tracks);
+    }
+
+    /**
+     * offset 위치부터 최대 limit 개의 트랙을 반환합니다.
+     */
+    public List<AudioTrack> slice(int offset, int limit) {
+        List<AudioTrack> result = new ArrayList<>(Math.max(0, Math.min(limit, size() - offset)));
+        Iterator<AudioTrack> it = iteratorFrom(offset);
+        while (result.size() < limit && it.hasNext()) {
+            result.add(it.next());
+        }
+        return result;
+    }
+
+    @Override
+    public Iterator<AudioTrack> iterator() {
+        return iteratorFrom(0);
+    }
+
+    private Iterator<AudioTrack> iteratorFrom(int start) {
+        return new Itr(Math.max(0, start));
+    }
+
+    /**
+     * 중위 순회 반복자입니다. 시작 위치까지는 O(log n) 으로 바로 내려갑니다.
+     */
+    private final class Itr implements Iterator<AudioTrack> {
+        private final Deque<Node> stack = new ArrayDeque<>();
+        private int nextIndex;
+        private int lastIndex = -1;
+
+        Itr(int start) {
+            seek(start);
+        }
+
+        private void seek(int index) {
+            stack.clear();
+            nextIndex = index;
+            Node node = root;
+            while (node != null) {
+                int leftSize = size(node.left);
+                if (index < leftSize) {
+                    stack.push(node);
+                    node = node.left;
+                } else if (index == leftSize) {
+                    stack.push(node);
+                    return;
+                } else {
+                    index -= leftSize + 1;
+                    node = node.right;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        @Override
+        public AudioTrack next() {
+            if (stack.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            Node node = stack.pop();
+            for (Node n = node.right; n != null; n = n.left) {
+                stack.push(n);
+            }
+            lastIndex = nextIndex++;
+            return node.track;
+        }
+
+        @Override
+        public void remove() {
+            if (lastIndex < 0) {
+                throw new IllegalStateException();
+            }
+            TrackQueue.this.remove(lastIndex);
+            seek(lastIndex);
+            lastIndex = -1;
+        }
+    }
+}
@@ -0,0 +1,481 @@
+package music.service;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import common.log.Log;
+import common.log.Logger;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 검색어/URL 해석 결과를 저장하는 2단계 캐시입니다.
+ *
+ * - 1단계: 메모리 LRU (최대 memoryCapacity 개)
+ * - 2단계: 디스크 (키마다 JSON 파일 하나, 재시작 후에도 유지)
+ *
+ * 디스크에 있는 키와 만료 시각은 메모리 색인에 들고 있어, 디스크에 없는 키를 조회할 때는
+ * 해시 계산이나 파일 확인 없이 바로 실패로 처리합니다. 색인은 시작할 때 디렉터리를 읽어 만들고,
+ * 기록 스레드가 주기적으로 만료된 파일을 지우며 항목 수/용량 상한을 넘으면 먼저 만료될 항목부터 지웁니다.
+ *
+ * 성공 결과와 실패 결과(noMatches / loadFailed)는 서로 다른 TTL 을 가지며,
+ * 키는 normalize() 로 정규화한 문자열입니다.
+ */
+public class TrackResolutionCache {
+
+    private static final Logger LOG = Log.get("TrackResolutionCache");
+    private static final Gson GSON = new Gson();
+    private static final long SWEEP_INTERVAL_MINUTES = 10;
+    private static final String[] SEARCH_PREFIXES = {"ytsearch:", "ytmsearch:", "scsearch:"};
+
+    private final Path dir;
+    private final long trackTtlMillis;
+    private final long negativeTtlMillis;
+    private final int maxDiskEntries;
+    private final long maxDiskBytes;
+    private final Map<String, CachedResolution> memory;
+    private final ConcurrentMap<String, DiskSlot> diskIndex = new ConcurrentHashMap<>();
+    private long diskBytes;                   // 기록 스레드에서만 변경
+    private final ScheduledExecutorService diskWriter;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong negativeHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param dir               디스크 캐시 디렉터리
+     * @param memoryCapacity    메모리에 둘 최대 항목 수
+     * @param trackTtlMillis    성공 결과 TTL
+     * @param negativeTtlMillis 실패 결과 TTL
+     * @param maxDiskEntries    디스크에 둘 최대 항목 수
+     * @param maxDiskBytes      디스크에 둘 최대 용량
+     */
+    public TrackResolutionCache(Path dir, int memoryCapacity, long trackTtlMillis, long negativeTtlMillis,
+                                int maxDiskEntries, long maxDiskBytes) {
+        this.dir = dir;
+        this.trackTtlMillis = trackTtlMillis;
+        this.negativeTtlMillis = negativeTtlMillis;
+        this.maxDiskEntries = maxDiskEntries;
+        this.maxDiskBytes = maxDiskBytes;
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResolution> eldest) {
+                return size() > memoryCapacity;
+            }
+        };
+        this.diskWriter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "track-cache-writer");
+            t.setDaemon(true);
+            return t;
+        });
+        loadDiskIndex();
+        diskWriter.scheduleWithFixedDelay(() -> sweepDisk(System.currentTimeMillis()),
+                SWEEP_INTERVAL_MINUTES, SWEEP_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    // ─────────────────────────────
+    // 키 정규화
+    // ─────────────────────────────
+
+    /**
+     * 캐시할 수 있는 검색어인지 확인합니다.
+     *
+     * 원격 URL 과 검색 접두사만 캐시하고, 로컬 파일 경로는 내용이 바뀔 수 있으므로 제외합니다.
+     */
+    public static boolean isCacheable(String query) {
+        return normalize(query) != null;
+    }
+
+    /**
+     * 같은 곡을 가리키는 검색어가 같은 키가 되도록 정규화합니다.
+     *
+     * - 검색어: 접두사/검색어 소문자화, 공백 정리
+     * - YouTube URL: youtu.be, music.youtube.com 등을 www.youtube.com/watch?v= 형식으로 통일하고
+     *   v, list 외의 파라미터(si, feature 등)는 제거
+     * - 그 외 http(s) URL: 호스트 소문자화, fragment 제거
+     *
+     * @return 정규화된 키, 캐시 대상이 아니면 null
+     */
+    public static String normalize(String query) {
+        if (query == null) {
+            return null;
+        }
+        String q = query.trim();
+        String lower = q.toLowerCase(Locale.ROOT);
+
+        for (String prefix : SEARCH_PREFIXES) {
+            if (lower.startsWith(prefix)) {
+                String term = lower.substring(prefix.length()).trim().replaceAll("\\s+", " ");
+                return term.isEmpty() ? null : prefix + term;
+            }
+        }
+
+        if (!lower.startsWith("http://") && !lower.startsWith("https://")) {
+            return null;
+        }
+
+        try {
+            URI uri = new URI(q);
+            String host = uri.getHost() == null ? "" : uri.getHost().toLowerCase(Locale.ROOT);
+            String youtube = normalizeYoutube(host, uri);
+            if (youtube != null) {
+                return youtube;
+            }
+            String path = uri.getRawPath() == null ? "" : uri.getRawPath();
+            String rawQuery = uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery();
+            return "https://" + host + path + rawQuery;
+        } catch (URISyntaxException e) {
+            return q;
+        }
+    }
+
+    private static String normalizeYoutube(String host, URI uri) {
+        String videoId = null;
+        String listId = null;
+        Map<String, String> params = parseQuery(uri.getRawQuery());
+
+        if (host.equals("youtu.be")) {
+            String path = uri.getPath() == null ? "" : uri.getPath();
+            videoId = path.startsWith("/") ? path.substring(1) : path;
+            listId = params.get("list");
+        } else if (host.equals("youtube.com") || host.endsWith(".youtube.com")) {
+            String path = uri.getPath() == null ? "" : uri.getPath();
+            if (path.startsWith("/shorts/")) {
+                videoId = path.substring("/shorts/".length());
+            } else if (path.equals("/watch") || path.equals("/playlist")) {
+                videoId = params.get("v");
+                listId = params.get("list");
+            } else {
+                return null;
+            }
+        } else {
+            return null;
+        }
+
+        if (videoId != null && videoId.isEmpty()) {
+            videoId = null;
+        }
+        if (videoId == null && listId == null) {
+            return null;
+        }
+        if (videoId == null) {
+            return "https://www.youtube.com/playlist?list=" + listId;
+        }
+        return "https://www.youtube.com/watch?v=" + videoId + (listId != null ? "&list=" + listId : "");
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new LinkedHashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.putIfAbsent(pair.substring(0, eq), pair.substring(eq + 1));
+            }
+        }
+        return params;
+    }
+
+    // ─────────────────────────────
+    // 조회 / 저장
+    // ─────────────────────────────
+
+    /**
+     * 캐시에서 결과를 찾습니다. 메모리에 없고 디스크 색인에 있으면 디스크에서 읽어 메모리로 올립니다.
+     *
+     * @param key       normalize() 로 만든 키
+     * @param nowMillis 기준 시각
+     * @return 만료되지 않은 결과, 없으면 null
+     */
+    public CachedResolution get(String key, long nowMillis) {
+        CachedResolution cached;
+        synchronized (memory) {
+            cached = memory.get(key);
+            if (cached != null && cached.isExpired(nowMillis)) {
+                memory.remove(key);
+                cached = null;
+            }
+        }
+        if (cached != null) {
+            memoryHits.incrementAndGet();
+            countNegative(cached);
+            return cached;
+        }
+
+        DiskSlot slot = diskIndex.get(key);
+        cached = slot != null && !slot.isExpired(nowMillis) ? readFromDisk(key, slot.file, nowMillis) : null;
+        if (cached != null) {
+            synchronized (memory) {
+                memory.put(key, cached);
+            }
+            diskHits.incrementAndGet();
+            countNegative(cached);
+            return cached;
+        }
+
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * 결과를 메모리에 저장하고, 디스크에는 별도 스레드에서 기록합니다.
+     */
+    public void put(String key, CachedResolution resolution) {
+        synchronized (memory) {
+            memory.put(key, resolution);
+        }
+        diskWriter.execute(() -> writeToDisk(key, resolution));
+    }
+
+    /**
+     * 남은 디스크 기록을 마치고 기록 스레드를 종료합니다.
+     */
+    void close() throws InterruptedException {
+        diskWriter.shutdown();
+        diskWriter.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    public long trackExpiry(long nowMillis) {
+        return nowMillis + trackTtlMillis;
+    }
+
+    public long negativeExpiry(long nowMillis) {
+        return nowMillis + negativeTtlMillis;
+    }
+
+    private void countNegative(CachedResolution cached) {
+        if (cached.isNegative()) {
+            negativeHits.incrementAndGet();
+        }
+    }
+
+    private Path fileOf(String key) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(key.getBytes(StandardCharsets.UTF_8));
+            return dir.resolve(HexFormat.of().formatHex(hash) + ".json");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private CachedResolution readFromDisk(String key, Path file, long nowMillis) {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            DiskEntry entry = GSON.fromJson(reader, DiskEntry.class);
+            // 해시 충돌 방지용으로 원래 키도 확인
+            if (entry == null || entry.resolution == null || !key.equals(entry.key)
+                    || entry.resolution.isExpired(nowMillis)) {
+                return null;
+            }
+            return entry.resolution;
+        } catch (NoSuchFileException e) {
+            // 조회하는 사이 정리 작업이 지운 경우
+            return null;
+        } catch (IOException | JsonParseException e) {
+            LOG.warn(() -> "disk read failed for " + key + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, CachedResolution resolution) {
+        try {
+            Files.createDirectories(dir);
+            Path file = fileOf(key);
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                GSON.toJson(new DiskEntry(key, resolution), writer);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            index(key, new DiskSlot(file, resolution.expiresAt, Files.size(file)));
+            enforceDiskLimits();
+        } catch (IOException e) {
+            LOG.warn(() -> "disk write failed for " + key + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * 시작할 때 디스크의 항목들로 색인을 만듭니다. 읽을 수 없는 파일은 지우고, 만료된 파일은 첫 정리 때 지웁니다.
+     */
+    private void loadDiskIndex() {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+                if (!name.endsWith(".json")) {
+                    continue;
+                }
+                DiskEntry entry = readEntry(file);
+                if (entry == null || entry.key == null || entry.resolution == null) {
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+                index(entry.key, new DiskSlot(file, entry.resolution.expiresAt, Files.size(file)));
+            }
+        } catch (IOException e) {
+            LOG.warn(() -> "disk index load failed: " + e.getMessage());
+        }
+        enforceDiskLimits();
+    }
+
+    private static DiskEntry readEntry(Path file) {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return GSON.fromJson(reader, DiskEntry.class);
+        } catch (IOException | JsonParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 만료된 파일을 지우고 상한을 맞춥니다. (기록 스레드에서 주기적으로 실행)
+     */
+    void sweepDisk(long nowMillis) {
+        for (Map.Entry<String, DiskSlot> entry : diskIndex.entrySet()) {
+            if (entry.getValue().isExpired(nowMillis)) {
+                removeFromDisk(entry.getKey(), entry.getValue());
+            }
+        }
+        enforceDiskLimits();
+    }
+
+    /**
+     * 항목 수나 용량이 상한을 넘으면 먼저 만료될 항목부터 지워 상한의 90% 까지 줄입니다.
+     * (쓸 때마다 정렬하지 않도록 여유를 둠)
+     */
+    private void enforceDiskLimits() {
+        if (diskIndex.size() <= maxDiskEntries && diskBytes <= maxDiskBytes) {
+            return;
+        }
+        long targetEntries = maxDiskEntries * 9L / 10;
+        long targetBytes = maxDiskBytes / 10 * 9;
+        List<Map.Entry<String, DiskSlot>> entries = new ArrayList<>(diskIndex.entrySet());
+        entries.sort(Comparator.comparingLong(entry -> entry.getValue().expiresAt));
+        int evicted = 0;
+        for (Map.Entry<String, DiskSlot> entry : entries) {
+            if (diskIndex.size() <= targetEntries && diskBytes <= targetBytes) {
+                break;
+            }
+            removeFromDisk(entry.getKey(), entry.getValue());
+            evicted++;
+        }
+        int count = evicted;
+        LOG.debug(() -> "evicted " + count + " disk entries (entries=" + diskIndex.size()
+                + ", bytes=" + diskBytes + ")");
+    }
+
+    private void index(String key, DiskSlot slot) {
+        DiskSlot previous = diskIndex.put(key, slot);
+        diskBytes += slot.bytes - (previous != null ? previous.bytes : 0);
+    }
+
+    private void removeFromDisk(String key, DiskSlot slot) {
+        if (!diskIndex.remove(key, slot)) {
+            return;
+        }
+        diskBytes -= slot.bytes;
+        try {
+            Files.deleteIfExists(slot.file);
+        } catch (IOException e) {
+            LOG.warn(() -> "disk delete failed for " + key + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * 디스크 항목 하나의 위치와 만료 시각, 크기입니다.
+     */
+    private static class DiskSlot {
+        final Path file;
+        final long expiresAt;
+        final long bytes;
+
+        DiskSlot(Path file, long expiresAt, long bytes) {
+            this.file = file;
+            this.expiresAt = expiresAt;
+            this.bytes = bytes;
+        }
+
+        boolean isExpired(long nowMillis) {
+            return nowMillis >= expiresAt;
+        }
+    }
+
+    private static class DiskEntry {
+        final String key;
+        final CachedResolution resolution;
+
+        DiskEntry(String key, CachedResolution resolution) {
+            this.key = key;
+            this.resolution = resolution;
+        }
+    }
+
+    // ─────────────────────────────
+    // 통계
+    // ─────────────────────────────
+
+    public long getMemoryHits() {
+        return memoryHits.get();
+    }
+
+    public long getDiskHits() {
+        return diskHits.get();
+    }
+
+    public long getNegativeHits() {
+        return negativeHits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return 디스크 색인에 있는 항목 수
+     */
+    public int getDiskEntries() {
+        return diskIndex.size();
+    }
+
+    @Override
+    public String toString() {
+        return "TrackResolutionCache{" +
+                "memoryHits=" + memoryHits.get() +
+                ", diskHits=" + diskHits.get() +
+                ", negativeHits=" + negativeHits.get() +
+                ", misses=" + misses.get() +
+                ", diskEntries=" + diskIndex.size() +
+                '}';
+    }
+}
@@ -4,8 +4,18 @@ import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
 import com.sedmelluq.discord.lavaplayer.player.event.AudioEventAdapter;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrackEndReason;
-import java.util.LinkedList;
+import com.sedmelluq.discord.lavaplayer.track.TrackMarker;
+import com.sedmelluq.discord.lavaplayer.track.TrackMarkerHandler;
+import common.log.Log;
+import common.log.Logger;
+
+import java.util.List;
 import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 /**
  * 음악 대기열을 관리하는 클래스 입니다.
@@ -13,27 +23,135 @@ import java.util.Queue;
  * 유저가 /play 한 트랙에 대해
  * 아무것도 재생 중이지 않으면 바로 재생,
  * 이미 재생 중일시 큐에 쌓아두고 차례대로 곡을 재생합니다.
+ *
+ * 대기열을 바꾸는 요청(추가/스킵/정지/곡 종료 등)은 모두 메일박스에 명령으로 넣고,
+ * 한 번에 한 스레드만 명령을 꺼내 차례대로 실행합니다. (서버마다 작성자 하나)
+ * 다른 스레드가 이미 실행 중이면 명령만 넣고 바로 돌아가므로 락을 기다리는 일이 없습니다.
+ *
+ * 조회(getQueue/size/slice 등)는 명령이 끝날 때마다 게시하는 읽기 전용 스냅샷을 읽습니다.
  */
 public class TrackScheduler extends AudioEventAdapter {
+    private static final Logger LOG = Log.get("TrackScheduler");
+
     private final AudioPlayer player;
-    private final Queue<AudioTrack> queue = new LinkedList<>();
+    private final long prefetchMillis;
+
+    // 명령 실행 중에만 바꾸는 대기열과, 조회용으로 게시한 스냅샷
+    private final TrackQueue queue = new TrackQueue();
+    private volatile TrackQueue snapshot = queue.snapshot();
+    private volatile long version;
+
+    private final ConcurrentLinkedQueue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicReference<Thread> drainer = new AtomicReference<>();
+    private final Random random = new Random();
 
     public TrackScheduler(AudioPlayer player) {
+        this(player, 0);
+    }
+
+    /**
+     * @param player         재생할 플레이어
+     * @param prefetchMillis 곡이 이만큼 남았을 때 다음 곡을 미리 불러옴 (player 가 GaplessAudioPlayer 일 때만, 0 이하면 사용 안 함)
+     */
+    public TrackScheduler(AudioPlayer player, long prefetchMillis) {
         this.player = player;
+        this.prefetchMillis = prefetchMillis;
+    }
+
+    /**
+     * 명령을 메일박스에 넣고, 실행 중인 스레드가 없으면 이 스레드에서 바로 실행합니다.
+     */
+    private void tell(Runnable command) {
+        mailbox.add(command);
+        drain();
+    }
+
+    /**
+     * 결과가 필요한 명령을 넣고 실행이 끝날 때까지 기다립니다.
+     *
+     * 명령 실행 중(예: 플레이어 이벤트 리스너)에 다시 호출되면 기다리지 않고 바로 실행합니다.
+     */
+    private <T> T ask(Supplier<T> command) {
+        if (drainer.get() == Thread.currentThread()) {
+            T result = command.get();
+            publish();
+            return result;
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        tell(() -> {
+            try {
+                result.complete(command.get());
+            } catch (Throwable e) {
+                // Error 도 넘겨야 기다리는 스레드가 영원히 멈추지 않음
+                result.completeExceptionally(e);
+            }
+        });
+        return result.join();
+    }
+
+    private void drain() {
+        Thread current = Thread.currentThread();
+        // 실행하던 스레드가 빠져나가는 사이에 들어온 명령도 놓치지 않도록 다시 확인
+        while (!mailbox.isEmpty() && drainer.compareAndSet(null, current)) {
+            try {
+                Runnable command;
+                while ((command = mailbox.poll()) != null) {
+                    try {
+                        command.run();
+                    } catch (Throwable e) {
+                        // 빠져나가면 남은 명령(과 그 결과를 기다리는 스레드)이 다음 명령이 올 때까지 멈춤
+                        LOG.error("command failed", e);
+                    }
+                    publish();
+                }
+            } finally {
+                drainer.set(null);
+            }
+        }
+    }
+
+    private void publish() {
+        snapshot = queue.snapshot();
+        version++;
     }
 
     /**
      * 새로운 트랙을 넣는 메소드 입니다.
      *
-     * 동시에 큐를 접근할 수 없게 synchronized 사용
      * 이미 재생 중이면 큐에 삽입, 재생 안하고 있을시 바로 재생
      *
      * @param track 재생 또는 큐에 추가할 오디오 트랙
      */
-    public synchronized void queue(AudioTrack track) {
-        if (!player.startTrack(track, true)) {
-            queue.offer(track);
+    public void queue(AudioTrack track) {
+        tell(() -> {
+            if (!start(track, true)) {
+                queue.offer(track);
+            }
+        });
+    }
+
+    /**
+     * 여러 트랙을 한 번에 넣는 메소드 입니다. (재생목록용)
+     *
+     * 명령 하나로 처리해, 재생 중이 아니면 첫 트랙만 재생을 시도한 뒤
+     * 나머지는 한 번에 큐 뒤에 붙입니다.
+     *
+     * @param tracks 재생 또는 큐에 추가할 오디오 트랙 목록
+     * @return 재생 또는 큐에 추가한 트랙 수
+     */
+    public int queueAll(List<AudioTrack> tracks) {
+        if (tracks.isEmpty()) {
+            return 0;
         }
+        List<AudioTrack> copy = List.copyOf(tracks);
+        tell(() -> {
+            List<AudioTrack> rest = copy;
+            if (start(copy.get(0), true)) {
+                rest = copy.subList(1, copy.size());
+            }
+            queue.addAll(rest);
+        });
+        return copy.size();
     }
 
     /**
@@ -42,23 +160,177 @@ public class TrackScheduler extends AudioEventAdapter {
      * queue.poll() 이 null 이면 재생 멈춤
      *
      */
-    public synchronized void nextTrack() {
-        player.startTrack(queue.poll(), false);
+    public void nextTrack() {
+        tell(() -> start(queue.poll(), false));
+    }
+
+    /**
+     * 대기열 곡을 재생합니다. GaplessAudioPlayer 면 미리 불러온 곡이나 캐시된 프레임을 사용합니다.
+     */
+    private boolean start(AudioTrack track, boolean noInterrupt) {
+        if (player instanceof GaplessAudioPlayer gapless) {
+            return gapless.startQueued(track, noInterrupt);
+        }
+        return player.startTrack(track, noInterrupt);
+    }
+
+    /**
+     * 대기열을 비우고 재생을 멈추는 메소드 입니다.
+     */
+    public void stop() {
+        tell(() -> {
+            queue.clear();
+            player.stopTrack();
+        });
     }
 
     /**
      * 트랙 대기열 목록 반환하는 메소드 입니다.
      *
-     * @return 내부 큐
+     * @return 마지막 명령이 끝난 시점의 읽기 전용 스냅샷 (바꾸려면 remove/move/stop 사용)
+     */
+    public Queue<AudioTrack> getQueue() {
+        return snapshot;
+    }
+
+    /**
+     * 대기열의 n번째 트랙을 빼는 메소드 입니다.
+     *
+     * @param index 0부터 시작하는 위치
+     * @return 뺀 트랙, 범위를 벗어나면 null
+     */
+    public AudioTrack remove(int index) {
+        return ask(() -> {
+            if (index < 0 || index >= queue.size()) {
+                return null;
+            }
+            AudioTrack removed = queue.remove(index);
+            refreshPrefetch();
+            return removed;
+        });
+    }
+
+    /**
+     * 대기열의 트랙 위치를 옮기는 메소드 입니다.
+     *
+     * @param from 옮길 트랙의 위치 (0부터)
+     * @param to   옮긴 뒤의 위치 (0부터)
+     * @return 옮겼으면 true, 범위를 벗어나면 false
+     */
+    public boolean move(int from, int to) {
+        return ask(() -> {
+            int size = queue.size();
+            if (from < 0 || from >= size || to < 0 || to >= size) {
+                return false;
+            }
+            queue.move(from, to);
+            refreshPrefetch();
+            return true;
+        });
+    }
+
+    /**
+     * 대기열 순서를 무작위로 섞는 메소드 입니다.
+     */
+    public void shuffle() {
+        tell(() -> {
+            queue.shuffle(random);
+            refreshPrefetch();
+        });
+    }
+
+    /**
+     * 대기열의 한 페이지를 반환하는 메소드 입니다.
+     *
+     * @param offset 시작 위치 (0부터)
+     * @param limit  최대 개수
+     * @return 해당 범위의 트랙 목록 (복사본)
+     */
+    public List<AudioTrack> slice(int offset, int limit) {
+        return snapshot.slice(offset, limit);
+    }
+
+    /**
+     * 명령이 실행될 때마다 1씩 늘어나는 값입니다.
+     * 값이 그대로면 마지막으로 읽은 뒤 대기열이 바뀌지 않은 것입니다.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return 대기열 곡 수
+     */
+    public int size() {
+        return snapshot.size();
+    }
+
+    /**
+     * @return 대기열 전체 재생 시간(ms), 길이를 모르는 트랙(라이브 등)은 제외
+     */
+    public long getTotalDuration() {
+        return snapshot.getTotalDuration();
+    }
+
+    /**
+     * 대기열 맨 앞이 바뀌었으면 미리 불러온 곡도 새 맨 앞 곡으로 바꿉니다.
+     */
+    private void refreshPrefetch() {
+        if (player instanceof GaplessAudioPlayer gapless) {
+            AudioTrack prefetched = gapless.getPrefetchedTrack();
+            if (prefetched != null && prefetched != queue.peek()) {
+                if (queue.isEmpty()) {
+                    gapless.cancelPrefetch();
+                } else {
+                    gapless.prefetch(queue.peek());
+                }
+            }
+        }
+    }
+
+    /**
+     * 대기열 맨 앞 트랙을 미리 불러옵니다.
+     *
+     * 재생 중인 곡이 끝나기 prefetchMillis 전에 TrackMarker 로 호출됩니다.
      */
-    public synchronized Queue<AudioTrack> getQueue() {
-        return queue;
+    public void prefetchNext() {
+        tell(() -> {
+            if (player instanceof GaplessAudioPlayer gapless) {
+                gapless.prefetch(queue.peek());
+            }
+        });
+    }
+
+    /**
+     * 트랙이 시작될 때 호출되는 메서드 입니다.
+     *
+     * 길이를 아는 트랙이면 끝나기 prefetchMillis 전에 다음 곡을 미리 불러오도록 마커를 겁니다.
+     * (라이브 스트림처럼 길이를 모르는 트랙은 제외)
+     *
+     * @param p     트랙을 시작한 AudioPlayer
+     * @param track 시작된 오디오 트랙
+     */
+    @Override
+    public void onTrackStart(AudioPlayer p, AudioTrack track) {
+        if (prefetchMillis <= 0 || !(player instanceof GaplessAudioPlayer)) {
+            return;
+        }
+        long duration = track.getDuration();
+        if (duration <= 0 || duration == Long.MAX_VALUE || track.getInfo().isStream) {
+            return;
+        }
+        track.addMarker(new TrackMarker(Math.max(0, duration - prefetchMillis), state -> {
+            if (state == TrackMarkerHandler.MarkerState.REACHED || state == TrackMarkerHandler.MarkerState.LATE) {
+                prefetchNext();
+            }
+        }));
     }
 
     /**
      * 트랙이 종료될때 호출되는 메서드 입니다.
      *
      * endReason에 따라 대기열에서 다음 트랙을 꺼내 재생합니다.
+     * 다른 스레드가 명령을 실행 중이면 명령만 넣고 바로 돌아가 재생 스레드를 붙잡지 않습니다.
      *
      * @param p         종료가 발생한 AudioPlayer
      * @param t         재생이 끝난 오디오 트랙
@@ -71,5 +343,3 @@ public class TrackScheduler extends AudioEventAdapter {
         }
     }
 }
-
-
@@ -11,18 +11,24 @@ import net.dv8tion.jda.api.interactions.commands.OptionMapping;
 
 import java.util.List;
 import entrysong.repository.EntrySongRegistry;
+import entrysong.service.EntryClipRenderer;
 import upload.repository.UploadChannelRegistry;
+import upload.repository.UploadIndex;
+import upload.service.UploadIngestor;
 
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.util.concurrent.CompletionException;
+import java.util.regex.Pattern;
 
 /**
  * 서버별로 설정된 업로드 채널에서 .mp3 파일이 올라오면
  * 서버 로컬에 저장하고 해당 유저의 입장곡으로 등록하는 핸들러.
- * (username#0000 기반 저장)
+ * (파일은 username#0000.mp3 로 저장하고, 입장곡 설정은 유저 ID 로 등록)
+ * 받기/확인/저장은 UploadIngestor 가 하고, 저장이 끝난 뒤에만 입장곡을 등록합니다.
  */
 public class UploadHandler extends ListenerAdapter {
 
+    private static final Pattern UNSAFE_CHARS = Pattern.compile("[^a-zA-Z0-9._-가-힣]");
+
     @Override
     public void onSlashCommandInteraction(SlashCommandInteractionEvent event) {
         switch (event.getName()) {
@@ -57,11 +63,8 @@ public class UploadHandler extends ListenerAdapter {
         if (event.getAuthor().isBot()) return;
         if (!event.isFromGuild()) return;
 
-        long guildId = event.getGuild().getIdLong();
-        Long uploadChannelId = UploadChannelRegistry.getUploadChannel(guildId);
-
-        if (uploadChannelId == null) return;
-        if (event.getChannel().getIdLong() != uploadChannelId) return;
+        // 모든 메시지가 지나가는 경로라 박싱 없이 비교
+        if (!UploadChannelRegistry.isUploadChannel(event.getGuild().getIdLong(), event.getChannel().getIdLong())) return;
 
         List<Message.Attachment> attachments = event.getMessage().getAttachments();
         if (attachments.isEmpty()) return;
@@ -73,41 +76,40 @@ public class UploadHandler extends ListenerAdapter {
 
     private void saveMp3File(MessageReceivedEvent event,
                              Message.Attachment file) {
-        try {
-            Path baseDir = Path.of("uploads");
-            Files.createDirectories(baseDir);
-
-            User user = event.getAuthor();
-
-            String username = sanitize(user.getName());
-            String discriminator = sanitize(user.getDiscriminator());
+        User user = event.getAuthor();
 
-            // "username#0000.mp3"
-            String fileName = username + "#" + discriminator + ".mp3";
+        String username = sanitize(user.getName());
+        String discriminator = sanitize(user.getDiscriminator());
+        long userId = user.getIdLong();
 
-            Path savePath = baseDir.resolve(fileName);
+        // "username#0000.mp3"
+        String fileName = username + "#" + discriminator + ".mp3";
 
-            file.getProxy().downloadToPath(savePath).whenComplete((v, err) -> {
-                if (err != null) {
-                    event.getChannel().sendMessage("❌ 파일 저장 실패: " + err.getMessage()).queue();
-                    return;
-                }
+        // 임시 파일에 받아 확인한 뒤 교체하므로, 받는 동안 기존 입장곡은 그대로 재생됨
+        UploadIngestor.get().submit(fileName, file.getSize(), file.getProxy()::download).whenComplete((savePath, err) -> {
+            if (err != null) {
+                Throwable cause = err instanceof CompletionException && err.getCause() != null ? err.getCause() : err;
+                event.getChannel().sendMessage("❌ 파일 저장 실패: " + cause.getMessage()).queue();
+                return;
+            }
 
-                // 기본 재생 구간을 설정: 0~10초
-                EntrySongRegistry.setSong(username, discriminator, fileName, 0, 10);
+            // 감시 이벤트를 기다리지 않고 바로 입장곡 조회에 보이도록
+            UploadIndex.get().refresh(fileName);
 
-                event.getChannel().sendMessage(
-                        "🎵 `" + fileName + "` 를 입장곡으로 설정했어요! (0초 ~ 10초)"
-                ).queue();
-            });
+            // 기본 재생 구간을 설정: 0~10초
+            EntrySongRegistry.setSong(userId, fileName, 0, 10);
+            // 입장할 때 디코딩하지 않도록 재생 구간을 미리 Opus 프레임으로 렌더링 (이전 파일의 클립은 버림)
+            EntryClipRenderer.get().invalidate(Long.toUnsignedString(userId));
+            EntryClipRenderer.get().renderAsync(Long.toUnsignedString(userId), savePath, 0, 10);
 
-        } catch (Exception e) {
-            event.getChannel().sendMessage("❌ 오류: " + e.getMessage()).queue();
-        }
+            event.getChannel().sendMessage(
+                    "🎵 `" + fileName + "` 를 입장곡으로 설정했어요! (0초 ~ 10초)"
+            ).queue();
+        });
     }
 
     private String sanitize(String s) {
         // 파일명에 사용할 수 없는 문자 제거
-        return s.replaceAll("[^a-zA-Z0-9._-가-힣]", "_");
+        return UNSAFE_CHARS.matcher(s).replaceAll("_");
     }
 }
\ No newline at end of file
@@ -1,27 +1,48 @@
 package upload.repository;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import guild.repository.GuildSettings;
+import guild.repository.GuildSettings.Setting;
 
 /**
  * 서버별 mp3 업로드 전용 채널을 저장하는 레지스트리.
  * guildId -> channelId
+ *
+ * GuildSettings 의 UPLOAD_CHANNEL 설정에 저장합니다. (data/upload-channels.*)
+ * 메시지마다 확인하는 경로는 isUploadChannel() 로 박싱 없이 조회하세요.
  */
 public class UploadChannelRegistry {
 
-    private static final Map<Long, Long> UPLOAD_CHANNEL_BY_GUILD = new ConcurrentHashMap<>();
+    // 채널 ID 는 snowflake 라 0 이 될 수 없으므로 "없음" 으로 사용
+    public static final long NONE = 0L;
 
     public static void setUploadChannel(long guildId, long channelId) {
-        UPLOAD_CHANNEL_BY_GUILD.put(guildId, channelId);
+        GuildSettings.set(Setting.UPLOAD_CHANNEL, guildId, channelId);
     }
 
+    /**
+     * @return 업로드 채널 ID, 없으면 NONE
+     */
+    public static long getUploadChannelId(long guildId) {
+        return GuildSettings.get(Setting.UPLOAD_CHANNEL, guildId, NONE);
+    }
+
+    /**
+     * 메시지 필터용 (락/할당 없음)
+     */
+    public static boolean isUploadChannel(long guildId, long channelId) {
+        long uploadChannelId = getUploadChannelId(guildId);
+        return uploadChannelId != NONE && uploadChannelId == channelId;
+    }
+
+    /**
+     * @return 업로드 채널 ID, 없으면 null
+     */
     public static Long getUploadChannel(long guildId) {
-        return UPLOAD_CHANNEL_BY_GUILD.get(guildId);
+        long channelId = getUploadChannelId(guildId);
+        return channelId == NONE ? null : channelId;
     }
 
     public static void removeUploadChannel(long guildId) {
-        UPLOAD_CHANNEL_BY_GUILD.remove(guildId);
+        GuildSettings.remove(Setting.UPLOAD_CHANNEL, guildId);
     }
 }
-
-
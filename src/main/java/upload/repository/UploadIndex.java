@@ -0,0 +1,208 @@
+package upload.repository;
+
+import common.log.Log;
+import common.log.Logger;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * uploads 디렉터리에 있는 파일 목록을 메모리에 들고 있는 인덱스입니다.
+ *
+ * 입장곡을 찾을 때마다 JDA 이벤트 스레드에서 Files.exists 를 부르지 않도록
+ * 시작할 때 한 번 디렉터리를 읽고, 이후 변경은 WatchService 와 UploadHandler 의 저장 알림으로 반영합니다.
+ * 조회(find, exists)는 메모리만 보고 파일 시스템에 접근하지 않습니다.
+ *
+ * 하위 디렉터리는 보지 않습니다. (업로드 파일은 모두 uploads 바로 아래에 저장됨)
+ * 이벤트가 너무 많아 OVERFLOW 가 오거나 디렉터리가 다시 만들어지면 전체를 다시 읽습니다.
+ */
+public class UploadIndex {
+
+    private static final Logger LOG = Log.get("UploadIndex");
+
+    private static final UploadIndex INSTANCE = new UploadIndex(Path.of("uploads"));
+
+    /**
+     * 인덱스에 기록된 파일 정보
+     */
+    public static final class Entry {
+        public final long size;
+        public final long lastModifiedMillis;
+
+        Entry(long size, long lastModifiedMillis) {
+            this.size = size;
+            this.lastModifiedMillis = lastModifiedMillis;
+        }
+    }
+
+    private final Path dir;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private WatchService watcher;
+    private Thread watchThread;
+
+    public UploadIndex(Path dir) {
+        this.dir = dir;
+    }
+
+    public static UploadIndex get() {
+        return INSTANCE;
+    }
+
+    public Path dir() {
+        return dir;
+    }
+
+    /**
+     * 디렉터리를 읽어 인덱스를 만들고, 변경 감시 스레드를 시작합니다. 두 번 호출해도 한 번만 시작합니다.
+     */
+    public synchronized void start() throws IOException {
+        if (watcher != null) {
+            return;
+        }
+        Files.createDirectories(dir);
+        watcher = FileSystems.getDefault().newWatchService();
+        // 스캔 전에 등록해야 스캔 도중 생긴 파일도 놓치지 않음
+        register();
+        rescan();
+
+        watchThread = new Thread(this::watchLoop, "uploads-watch");
+        watchThread.setDaemon(true);
+        watchThread.start();
+        LOG.info(() -> "indexed " + entries.size() + " files in " + dir);
+    }
+
+    /**
+     * 감시 스레드를 멈춥니다. 인덱스 내용은 그대로 둡니다.
+     */
+    public synchronized void stop() {
+        if (watcher == null) {
+            return;
+        }
+        try {
+            watcher.close();
+        } catch (IOException ignored) {
+        }
+        watchThread.interrupt();
+        watcher = null;
+        watchThread = null;
+    }
+
+    /**
+     * @param fileName uploads 바로 아래의 파일 이름 (예: "username#0000.mp3")
+     * @return 인덱스에 없으면 null
+     */
+    public Entry find(String fileName) {
+        return entries.get(fileName);
+    }
+
+    public boolean exists(String fileName) {
+        return entries.containsKey(fileName);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 파일을 저장한 쪽에서 바로 반영할 때 호출합니다. (감시 이벤트보다 먼저 조회될 수 있으므로)
+     */
+    public void refresh(String fileName) {
+        Path file = dir.resolve(fileName);
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            if (attrs.isRegularFile()) {
+                entries.put(fileName, new Entry(attrs.size(), attrs.lastModifiedTime().toMillis()));
+            } else {
+                entries.remove(fileName);
+            }
+        } catch (NoSuchFileException e) {
+            entries.remove(fileName);
+        } catch (IOException e) {
+            LOG.warn("stat failed for " + fileName, e);
+        }
+    }
+
+    /**
+     * 디렉터리를 다시 읽어 인덱스를 통째로 맞춥니다.
+     */
+    void rescan() throws IOException {
+        Map<String, Entry> scanned = new HashMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path file : stream) {
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                if (attrs.isRegularFile()) {
+                    scanned.put(file.getFileName().toString(),
+                            new Entry(attrs.size(), attrs.lastModifiedTime().toMillis()));
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // 디렉터리가 지워짐 → 빈 인덱스
+        }
+        entries.keySet().retainAll(scanned.keySet());
+        entries.putAll(scanned);
+    }
+
+    private void register() throws IOException {
+        dir.register(watcher,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+    }
+
+    private void watchLoop() {
+        WatchService service = watcher;
+        while (!Thread.currentThread().isInterrupted()) {
+            WatchKey key;
+            try {
+                key = service.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            boolean overflow = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    overflow = true;
+                    continue;
+                }
+                Path name = (Path) event.context();
+                if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                    entries.remove(name.toString());
+                } else {
+                    refresh(name.toString());
+                }
+            }
+
+            boolean valid = key.reset();
+            try {
+                if (!valid) {
+                    // 디렉터리가 지워졌거나 옮겨짐 → 다시 만들고 처음부터
+                    Files.createDirectories(dir);
+                    register();
+                    overflow = true;
+                }
+                if (overflow) {
+                    rescan();
+                }
+            } catch (ClosedWatchServiceException e) {
+                return;
+            } catch (IOException e) {
+                LOG.warn("rescan failed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package upload.service;
+
+/**
+ * 받는 중인 바이트를 앞에서부터 넣어 MP3 파일인지 확인하는 클래스입니다.
+ *
+ * 파일 전체를 받기 전에 판단할 수 있도록, 바이트가 들어오는 대로 다음을 확인합니다.
+ * - 앞에 ID3v2 태그가 있으면 태그 크기만큼 건너뜀 (앨범 아트로 수백 KB 일 수 있음)
+ * - 그 뒤 MAX_SYNC_SEARCH 바이트 안에 MPEG Layer III 프레임 헤더가 나와야 함
+ *
+ * 디코딩할 수 있는지까지는 보지 않습니다. (헤더만 맞는 파일은 렌더링/재생할 때 실패)
+ * 스레드 안전하지 않습니다. 파일 하나에 하나씩 만들어 씁니다.
+ */
+final class Mp3Probe {
+
+    enum Result {
+        NEED_MORE, VALID, INVALID
+    }
+
+    private static final int ID3_HEADER_BYTES = 10;
+    // 태그 뒤 패딩/쓰레기 바이트를 얼마나 허용할지
+    static final int MAX_SYNC_SEARCH = 64 * 1024;
+
+    private final byte[] id3 = new byte[ID3_HEADER_BYTES];
+    private long position;
+    // 프레임 헤더를 찾기 시작할 위치 (ID3 헤더를 다 읽기 전에는 -1)
+    private long searchStart = -1;
+    private int window;
+    private Result result = Result.NEED_MORE;
+
+    /**
+     * @return VALID / INVALID 가 한 번 나오면 이후에는 같은 값을 돌려줌
+     */
+    Result feed(byte[] buffer, int offset, int length) {
+        for (int i = offset; i < offset + length && result == Result.NEED_MORE; i++) {
+            accept(buffer[i]);
+        }
+        return result;
+    }
+
+    /**
+     * 스트림이 끝났을 때 호출합니다. 그때까지 프레임 헤더를 못 찾았으면 INVALID 입니다.
+     */
+    Result finish() {
+        if (result == Result.NEED_MORE) {
+            result = Result.INVALID;
+        }
+        return result;
+    }
+
+    private void accept(byte b) {
+        long at = position++;
+        if (searchStart < 0) {
+            id3[(int) at] = b;
+            if (at == ID3_HEADER_BYTES - 1) {
+                startSearch();
+            }
+            return;
+        }
+        search(at, b);
+    }
+
+    private void startSearch() {
+        if (id3[0] == 'I' && id3[1] == 'D' && id3[2] == '3') {
+            // 크기는 바이트마다 7비트씩 (synchsafe), 헤더와 푸터는 포함하지 않음
+            long size = (id3[6] & 0x7f) << 21 | (id3[7] & 0x7f) << 14 | (id3[8] & 0x7f) << 7 | (id3[9] & 0x7f);
+            boolean footer = (id3[5] & 0x10) != 0;
+            searchStart = ID3_HEADER_BYTES + size + (footer ? ID3_HEADER_BYTES : 0);
+            return;
+        }
+        // 태그 없음 → 이미 받은 10바이트부터 프레임 헤더를 찾음
+        searchStart = 0;
+        for (int i = 0; i < ID3_HEADER_BYTES && result == Result.NEED_MORE; i++) {
+            search(i, id3[i]);
+        }
+    }
+
+    private void search(long at, byte b) {
+        if (at < searchStart) {
+            return;
+        }
+        window = window << 8 | (b & 0xff);
+        long scanned = at - searchStart;
+        if (scanned >= 3 && isFrameHeader(window)) {
+            result = Result.VALID;
+        } else if (scanned >= MAX_SYNC_SEARCH) {
+            result = Result.INVALID;
+        }
+    }
+
+    static boolean isFrameHeader(int header) {
+        return (header >>> 21) == 0x7ff          // 프레임 동기 11비트
+                && ((header >>> 19) & 3) != 1    // MPEG 버전 (01 은 예약)
+                && ((header >>> 17) & 3) == 1    // Layer III
+                && ((header >>> 12) & 0xf) != 0xf // 비트레이트 (1111 은 잘못된 값)
+                && ((header >>> 10) & 3) != 3;   // 샘플레이트 (11 은 예약)
+    }
+}
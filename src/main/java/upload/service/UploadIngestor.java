@@ -0,0 +1,196 @@
+package upload.service;
+
+import common.log.Log;
+import common.log.Logger;
+import common.util.BotConfig;
+import upload.repository.UploadIndex;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 업로드 채널에 올라온 mp3 를 받아 uploads 에 저장하는 클래스입니다.
+ *
+ * 한 파일은 다음 순서로 처리합니다.
+ * 1. 제한된 수의 스레드/대기열에서 실행 (업로드가 몰려도 디스크/네트워크를 다 쓰지 않도록, 넘치면 거절)
+ * 2. uploads 안의 임시 파일로 스트리밍하며 크기 제한과 MP3 헤더(Mp3Probe)를 확인, 어긋나면 바로 중단
+ * 3. fsync 한 뒤 원래 이름으로 원자적으로 교체
+ *
+ * 교체 전까지 기존 파일은 그대로라, 받는 도중에 입장곡을 재생해도 반쯤 쓴 파일을 읽지 않습니다.
+ * 입장곡 등록은 돌려준 future 가 완료된 뒤(교체가 끝난 뒤) 호출한 쪽에서 합니다.
+ */
+public class UploadIngestor {
+
+    private static final Logger LOG = Log.get("UploadIngestor");
+
+    private static final UploadIngestor INSTANCE = new UploadIngestor(
+            UploadIndex.get().dir(),
+            BotConfig.getLong("UPLOAD_MAX_BYTES", 20L << 20),
+            BotConfig.getLong("UPLOAD_DOWNLOAD_TIMEOUT_MS", 30_000),
+            newExecutor((int) BotConfig.getLong("UPLOAD_INGEST_THREADS", 2),
+                    (int) BotConfig.getLong("UPLOAD_INGEST_QUEUE", 16)));
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    /**
+     * 사용자에게 그대로 보여 줄 이유와 함께 업로드를 거절할 때 쓰는 예외
+     */
+    public static final class RejectedUploadException extends IOException {
+        public RejectedUploadException(String message) {
+            super(message);
+        }
+    }
+
+    private final Path dir;
+    private final long maxBytes;
+    private final long downloadTimeoutMillis;
+    private final ExecutorService executor;
+
+    public UploadIngestor(Path dir, long maxBytes, long downloadTimeoutMillis, ExecutorService executor) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        this.downloadTimeoutMillis = downloadTimeoutMillis;
+        this.executor = executor;
+    }
+
+    public static UploadIngestor get() {
+        return INSTANCE;
+    }
+
+    /**
+     * 스레드 threads 개, 대기열 queueSize 개인 실행기를 만듭니다. 둘 다 차면 execute 가 거절됩니다.
+     */
+    static ExecutorService newExecutor(int threads, int queueSize) {
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), r -> {
+                    Thread t = new Thread(r, "upload-ingest-" + count.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * 파일을 받아 dir/fileName 으로 저장하도록 예약합니다.
+     *
+     * @param declaredSize 첨부 파일에 표시된 크기 (모르면 음수). 제한을 넘으면 받지 않고 바로 거절
+     * @param download     받기 시작하는 함수 (실행 스레드에서 호출)
+     * @return 교체가 끝나면 저장한 경로로 완료. 거절되면 RejectedUploadException, 그 밖의 실패는 IOException
+     */
+    public CompletableFuture<Path> submit(String fileName, long declaredSize,
+                                          Supplier<CompletableFuture<InputStream>> download) {
+        CompletableFuture<Path> result = new CompletableFuture<>();
+        if (declaredSize > maxBytes) {
+            result.completeExceptionally(tooLarge());
+            return result;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    result.complete(ingest(fileName, open(download)));
+                } catch (IOException | RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(new RejectedUploadException("업로드가 몰려 있어요. 잠시 뒤 다시 올려 주세요."));
+        }
+        return result;
+    }
+
+    /**
+     * in 을 끝까지 읽어 dir/fileName 으로 저장합니다. (호출한 스레드에서 실행, in 은 닫음)
+     */
+    Path ingest(String fileName, InputStream in) throws IOException {
+        long started = System.nanoTime();
+        Files.createDirectories(dir);
+        Path target = dir.resolve(fileName);
+        // 원자적 교체를 위해 같은 디렉터리에 만듦
+        Path tmp = Files.createTempFile(dir, ".upload-", ".part");
+        try {
+            long total = copy(in, tmp);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            LOG.info(() -> "saved " + fileName + ": " + total + " bytes in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) + "ms");
+            return target;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private long copy(InputStream source, Path tmp) throws IOException {
+        Mp3Probe probe = new Mp3Probe();
+        byte[] buffer = new byte[BUFFER_BYTES];
+        long total = 0;
+        try (InputStream in = source;
+             FileOutputStream out = new FileOutputStream(tmp.toFile())) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                total += read;
+                if (total > maxBytes) {
+                    throw tooLarge();
+                }
+                if (probe.feed(buffer, 0, read) == Mp3Probe.Result.INVALID) {
+                    throw notMp3();
+                }
+                out.write(buffer, 0, read);
+            }
+            if (probe.finish() != Mp3Probe.Result.VALID) {
+                throw notMp3();
+            }
+            out.getFD().sync();
+        }
+        return total;
+    }
+
+    private InputStream open(Supplier<CompletableFuture<InputStream>> download) throws IOException {
+        CompletableFuture<InputStream> response = download.get();
+        try {
+            return response.get(downloadTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new IOException("다운로드 실패: " + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            // 늦게 도착한 스트림은 닫음
+            response.thenAccept(UploadIngestor::closeQuietly);
+            throw new IOException("다운로드 시간 초과", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("다운로드 중단", e);
+        }
+    }
+
+    private static void closeQuietly(InputStream in) {
+        try {
+            in.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private RejectedUploadException tooLarge() {
+        return new RejectedUploadException("파일이 너무 커요. (최대 " + (maxBytes >> 20) + "MB)");
+    }
+
+    private static RejectedUploadException notMp3() {
+        return new RejectedUploadException("MP3 파일이 아니에요.");
+    }
+}
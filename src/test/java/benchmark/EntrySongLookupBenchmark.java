@@ -0,0 +1,82 @@
+package benchmark;
+
+import common.util.LongObjectMap;
+import entrysong.repository.EntrySongConfig;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * 입장할 때 입장곡 설정을 찾는 비용을 비교합니다.
+ *
+ * - tag: 이전 방식. 이름/태그를 정제하고 "username#0000" 을 만들어 ConcurrentHashMap 에서 찾음
+ * - id:  유저 ID 로 LongObjectMap 에서 바로 찾음 (문자열/박싱 없음)
+ *
+ * JMH 없이 main 으로 실행합니다. 워밍업 뒤 여러 번 돌려 가장 빠른 값을 씁니다.
+ *   java -cp <test classpath> benchmark.EntrySongLookupBenchmark [등록 유저 수, 기본 100000]
+ */
+public class EntrySongLookupBenchmark {
+
+    private static final int ROUNDS = 10;
+    private static final int LOOKUPS = 2_000_000;
+    private static final long BASE_ID = 1_100_000_000_000_000_000L;
+    private static final Pattern UNSAFE_CHARS = Pattern.compile("[^0-9A-Za-z가-힣_.\\-]");
+
+    interface Lookup {
+        EntrySongConfig find(int user);
+    }
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+
+        String[] names = new String[count];
+        String[] discriminators = new String[count];
+        long[] ids = new long[count];
+        Map<String, EntrySongConfig> byTag = new ConcurrentHashMap<>();
+        LongObjectMap<EntrySongConfig> byId = new LongObjectMap<>(count);
+        for (int i = 0; i < count; i++) {
+            names[i] = "user " + i;
+            discriminators[i] = String.format("%04d", i % 10_000);
+            ids[i] = BASE_ID + (long) i * 4_194_304L + (i & 0xfff); // snowflake 처럼 아래 비트는 일련번호
+            EntrySongConfig cfg = new EntrySongConfig(i + ".mp3", 0, 7);
+            byTag.put(sanitize(names[i]) + "#" + sanitize(discriminators[i]), cfg);
+            byId.put(ids[i], cfg);
+        }
+
+        System.out.printf("users: %,d, lookups per round: %,d%n", count, LOOKUPS);
+        System.out.printf("%-24s %12s%n", "lookup", "ns/op");
+        run("tag (sanitize+concat)", count,
+                user -> byTag.get(sanitize(names[user]) + "#" + sanitize(discriminators[user])));
+        run("id (LongObjectMap)", count, user -> {
+            synchronized (byId) {
+                return byId.get(ids[user]);
+            }
+        });
+    }
+
+    private static String sanitize(String s) {
+        return UNSAFE_CHARS.matcher(s).replaceAll("_");
+    }
+
+    private static void run(String name, int count, Lookup lookup) {
+        long best = Long.MAX_VALUE;
+        int found = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            int user = 0;
+            long started = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++) {
+                if (lookup.find(user) != null) {
+                    found++;
+                }
+                // 캐시에 유리하지 않도록 건너뛰며 조회
+                user = (user + 7919) % count;
+            }
+            best = Math.min(best, System.nanoTime() - started);
+        }
+        if (found != ROUNDS * LOOKUPS) {
+            throw new IllegalStateException("missing entries: " + found);
+        }
+        System.out.printf("%-24s %,12.1f%n", name, (double) best / LOOKUPS);
+    }
+}
@@ -0,0 +1,128 @@
+package benchmark;
+
+import common.util.LongObjectMap;
+import common.util.StripedLongObjectMap;
+import entrysong.repository.EntrySongConfig;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 입장곡 설정을 읽고 쓰는 처리량을 스레드 수(1~32)에 따라 비교합니다.
+ *
+ * - locked:  LongObjectMap 하나를 락 하나로 감쌈 (이전 방식, 읽기도 락을 잡음)
+ * - striped: StripedLongObjectMap (읽기는 락 없음, 쓰기는 구간 락)
+ *
+ * 조회와 변경을 섞어서 실행합니다. (입장 이벤트가 명령/업로드보다 훨씬 많음)
+ * JMH 없이 main 으로 실행합니다.
+ *   java -cp <test classpath> benchmark.EntrySongRegistryConcurrencyBenchmark
+ *        [등록 유저 수, 기본 100000] [조회 비율(%), 기본 99] [구간 수, 기본 1024]
+ */
+public class EntrySongRegistryConcurrencyBenchmark {
+
+    private static final long WARMUP_MILLIS = 500;
+    private static final long MEASURE_MILLIS = 1_000;
+    private static final int[] THREADS = {1, 2, 4, 8, 16, 32};
+    private static final long BASE_ID = 1_100_000_000_000_000_000L;
+
+    interface Registry {
+        EntrySongConfig get(long id);
+
+        void set(long id, EntrySongConfig cfg);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        double readPercent = args.length > 1 ? Double.parseDouble(args[1]) : 99;
+        int stripes = args.length > 2 ? Integer.parseInt(args[2]) : 1024;
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = BASE_ID + (long) i * 4_194_304L + (i & 0xfff);
+        }
+        EntrySongConfig cfg = new EntrySongConfig("a.mp3", 0, 7);
+
+        LongObjectMap<EntrySongConfig> locked = new LongObjectMap<>(count);
+        StripedLongObjectMap<EntrySongConfig> striped = new StripedLongObjectMap<>(stripes);
+        for (long id : ids) {
+            locked.put(id, cfg);
+        }
+        striped.putAll(locked);
+
+        Registry lockedRegistry = new Registry() {
+            @Override
+            public EntrySongConfig get(long id) {
+                synchronized (locked) {
+                    return locked.get(id);
+                }
+            }
+
+            @Override
+            public void set(long id, EntrySongConfig value) {
+                synchronized (locked) {
+                    locked.put(id, value);
+                }
+            }
+        };
+        Registry stripedRegistry = new Registry() {
+            @Override
+            public EntrySongConfig get(long id) {
+                return striped.get(id);
+            }
+
+            @Override
+            public void set(long id, EntrySongConfig value) {
+                striped.compute(id, (key, old) -> value);
+            }
+        };
+
+        System.out.printf("users: %,d, reads: %.1f%%, stripes: %d, cpus: %d%n",
+                count, readPercent, stripes, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%8s %16s %16s%n", "threads", "locked (ops/ms)", "striped (ops/ms)");
+        for (int threads : THREADS) {
+            System.out.printf("%8d %,16d %,16d%n", threads,
+                    run(lockedRegistry, ids, threads, readPercent), run(stripedRegistry, ids, threads, readPercent));
+        }
+    }
+
+    private static long run(Registry registry, long[] ids, int threads, double readPercent)
+            throws InterruptedException {
+        double readFraction = readPercent / 100;
+        AtomicBoolean measuring = new AtomicBoolean();
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder ops = new LongAdder();
+        CountDownLatch done = new CountDownLatch(threads);
+        EntrySongConfig updated = new EntrySongConfig("b.mp3", 1, 5);
+
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long local = 0;
+                while (running.get()) {
+                    long id = ids[random.nextInt(ids.length)];
+                    if (random.nextDouble() < readFraction) {
+                        if (registry.get(id) == null) {
+                            throw new IllegalStateException("missing " + id);
+                        }
+                    } else {
+                        registry.set(id, updated);
+                    }
+                    if (measuring.get()) {
+                        local++;
+                    }
+                }
+                ops.add(local);
+                done.countDown();
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+        Thread.sleep(WARMUP_MILLIS);
+        measuring.set(true);
+        Thread.sleep(MEASURE_MILLIS);
+        running.set(false);
+        done.await();
+        return ops.sum() / MEASURE_MILLIS;
+    }
+}
@@ -0,0 +1,105 @@
+package benchmark;
+
+import entrysong.repository.EntrySongConfig;
+import entrysong.repository.EntrySongSnapshot;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 입장곡 설정 스냅샷을 읽는 시간, 읽은 뒤 힙 사용량, 파일 크기를 JSON(Gson) 과 바이너리(mmap) 로 비교합니다.
+ *
+ * JMH 없이 main 으로 실행합니다. 힙 측정이 흔들리지 않도록 힙을 넉넉히 주고 실행하세요.
+ *   java -Xmx2g -cp <test classpath> benchmark.EntrySongSnapshotBenchmark [항목 수, 기본 1000000]
+ */
+public class EntrySongSnapshotBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    interface Loader {
+        Map<String, EntrySongConfig> load() throws IOException;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path dir = Files.createTempDirectory("entry-song-bench");
+        try {
+            Map<String, EntrySongConfig> entries = generate(count);
+
+            Path json = dir.resolve("entry-songs.json");
+            try (Writer writer = Files.newBufferedWriter(json)) {
+                EntrySongSnapshot.writeJson(writer, entries);
+            }
+            Path binary = dir.resolve("entry-songs.bin");
+            try (OutputStream out = Files.newOutputStream(binary)) {
+                EntrySongSnapshot.write(out, 0, entries);
+            }
+            entries = null;
+
+            System.out.printf("entries: %,d%n", count);
+            System.out.printf("%-12s %12s %12s %12s%n", "format", "file (KB)", "load (ms)", "heap (MB)");
+            run("json/gson", Files.size(json), () -> {
+                Map<String, EntrySongConfig> loaded = new HashMap<>();
+                EntrySongSnapshot.readJson(json, loaded::put);
+                return loaded;
+            });
+            run("binary/mmap", Files.size(binary), () -> {
+                Map<String, EntrySongConfig> loaded = new HashMap<>();
+                EntrySongSnapshot.read(binary, loaded::put);
+                return loaded;
+            });
+        } finally {
+            try (var files = Files.list(dir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    private static Map<String, EntrySongConfig> generate(int count) {
+        Map<String, EntrySongConfig> entries = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            String key = "user" + i + "#" + String.format("%04d", i % 10_000);
+            // 대부분은 업로드 파일, 일부는 URL
+            String source = i % 10 == 0
+                    ? "https://www.youtube.com/watch?v=" + Integer.toHexString(i * 31 + 7)
+                    : key + ".mp3";
+            entries.put(key, new EntrySongConfig(source, i % 60, 5 + i % 10));
+        }
+        return entries;
+    }
+
+    private static void run(String name, long fileBytes, Loader loader) throws IOException {
+        long best = Long.MAX_VALUE;
+        long heap = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long before = usedHeap();
+            long started = System.nanoTime();
+            Map<String, EntrySongConfig> loaded = loader.load();
+            long elapsed = System.nanoTime() - started;
+            long after = usedHeap();
+            best = Math.min(best, elapsed);
+            heap = after - before;
+            if (loaded.isEmpty()) {
+                throw new IllegalStateException("nothing loaded");
+            }
+        }
+        System.out.printf("%-12s %,12d %,12d %,12.1f%n",
+                name, fileBytes / 1024, best / 1_000_000, heap / (1024.0 * 1024.0));
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
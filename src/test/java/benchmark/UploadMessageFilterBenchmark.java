@@ -0,0 +1,89 @@
+package benchmark;
+
+import common.util.LongLongMap;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 메시지마다 "업로드 채널에서 온 메시지인가" 를 확인하는 비용을 비교합니다.
+ *
+ * - boxed:     이전 방식. ConcurrentHashMap&lt;Long, Long&gt; 에서 서버 ID 를 박싱해 찾고 채널 ID 와 비교
+ * - primitive: volatile 로 공개한 LongLongMap 에서 박싱 없이 찾고 비교 (GuildSettings 방식)
+ *
+ * 시간(ns/op)과 함께 스레드가 할당한 바이트(bytes/op)를 잽니다.
+ * 서버 ID 는 Long 캐시(-128~127) 밖이라 boxed 는 조회마다 Long 을 만듭니다. (JIT 가 없애지 못한 만큼)
+ *
+ * JMH 없이 main 으로 실행합니다. 워밍업 뒤 여러 번 돌려 가장 빠른 값을 씁니다.
+ *   java -cp <test classpath> benchmark.UploadMessageFilterBenchmark [업로드 채널을 둔 서버 수, 기본 10000]
+ */
+public class UploadMessageFilterBenchmark {
+
+    private static final int ROUNDS = 10;
+    private static final int MESSAGES = 5_000_000;
+    private static final long BASE_ID = 1_100_000_000_000_000_000L;
+
+    interface Filter {
+        boolean accept(long guildId, long channelId);
+    }
+
+    private static volatile LongLongMap primitive;
+
+    public static void main(String[] args) {
+        int guilds = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+
+        // 설정이 없는 서버에서도 메시지가 오도록 두 배 범위의 서버 ID 를 만듦
+        long[] guildIds = new long[guilds * 2];
+        long[] channelIds = new long[guilds * 2];
+        Map<Long, Long> boxed = new ConcurrentHashMap<>();
+        LongLongMap map = new LongLongMap(guilds);
+        for (int i = 0; i < guildIds.length; i++) {
+            guildIds[i] = BASE_ID + (long) i * 4_194_304L + (i & 0xfff);
+            channelIds[i] = guildIds[i] + 1 + (i & 1); // 절반은 업로드 채널, 절반은 다른 채널
+            if (i < guilds) {
+                boxed.put(guildIds[i], guildIds[i] + 1);
+                map.put(guildIds[i], guildIds[i] + 1);
+            }
+        }
+        primitive = map;
+
+        System.out.printf("guilds with upload channel: %,d, messages per round: %,d%n", guilds, MESSAGES);
+        System.out.printf("%-24s %10s %10s%n", "filter", "ns/op", "bytes/op");
+        run("boxed (CHM<Long,Long>)", guildIds, channelIds, (guild, channel) -> {
+            Long uploadChannelId = boxed.get(guild);
+            return uploadChannelId != null && uploadChannelId == channel;
+        });
+        run("primitive (LongLongMap)", guildIds, channelIds, (guild, channel) -> {
+            long uploadChannelId = primitive.get(guild, 0);
+            return uploadChannelId != 0 && uploadChannelId == channel;
+        });
+    }
+
+    private static void run(String name, long[] guildIds, long[] channelIds, Filter filter) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long bestNanos = Long.MAX_VALUE;
+        long bestBytes = Long.MAX_VALUE;
+        int accepted = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            int message = 0;
+            long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+            long started = System.nanoTime();
+            for (int i = 0; i < MESSAGES; i++) {
+                if (filter.accept(guildIds[message], channelIds[message])) {
+                    accepted++;
+                }
+                // 캐시에 유리하지 않도록 건너뛰며 조회
+                message = (message + 7919) % guildIds.length;
+            }
+            bestNanos = Math.min(bestNanos, System.nanoTime() - started);
+            bestBytes = Math.min(bestBytes, threads.getThreadAllocatedBytes(thread) - allocatedBefore);
+        }
+        if (accepted == 0) {
+            throw new IllegalStateException("no message accepted");
+        }
+        System.out.printf("%-24s %10.1f %10.1f%n", name, (double) bestNanos / MESSAGES, (double) bestBytes / MESSAGES);
+    }
+}
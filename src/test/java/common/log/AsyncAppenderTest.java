@@ -0,0 +1,158 @@
+package common.log;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AsyncAppender 테스트 클래스
+ *
+ * 테스트 대상:
+ * - append()/drain(): 넣은 순서대로 태그, 레벨, 스레드와 함께 출력
+ * - append(): 버퍼가 가득 차면 기다리지 않고 버림
+ * - 여러 스레드가 동시에 넣어도 한 줄도 잃지 않음
+ * - 비어서 잠든 출력 스레드를 넣는 쪽이 깨움
+ */
+class AsyncAppenderTest {
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+
+    private List<String> lines() {
+        List<String> lines = new ArrayList<>();
+        for (String line : bytes.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isEmpty()) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    @Test
+    @DisplayName("넣은 순서대로 레벨, 태그, 스레드 이름과 함께 출력한다")
+    void shouldWriteInOrder() {
+        // given
+        AsyncAppender appender = new AsyncAppender(out, 8);
+
+        // when
+        appender.append(LogLevel.INFO, "EntrySong", "first", null);
+        appender.append(LogLevel.WARN, "EntrySong", "second", null);
+        int written = appender.drain();
+
+        // then
+        assertEquals(2, written);
+        List<String> lines = lines();
+        assertTrue(lines.get(0).endsWith("INFO  [EntrySong] (" + Thread.currentThread().getName() + ") first"));
+        assertTrue(lines.get(1).contains("WARN  [EntrySong]"));
+        assertEquals(0, appender.pending());
+    }
+
+    @Test
+    @DisplayName("예외가 있으면 스택 트레이스도 출력한다")
+    void shouldWriteStackTrace() {
+        // given
+        AsyncAppender appender = new AsyncAppender(out, 8);
+
+        // when
+        appender.append(LogLevel.ERROR, "Music", "load failed", new IllegalStateException("boom"));
+        appender.drain();
+
+        // then
+        assertTrue(bytes.toString(StandardCharsets.UTF_8).contains("java.lang.IllegalStateException: boom"));
+    }
+
+    @Test
+    @DisplayName("버퍼가 가득 차면 버리고, 다음 출력 때 버린 줄 수를 남긴다")
+    void shouldDropWhenFull() {
+        // given
+        AsyncAppender appender = new AsyncAppender(out, 4);
+
+        // when
+        for (int i = 0; i < 6; i++) {
+            appender.append(LogLevel.INFO, "T", "line " + i, null);
+        }
+        assertFalse(appender.append(LogLevel.INFO, "T", "overflow", null));
+        appender.drain();
+
+        // then
+        List<String> lines = lines();
+        assertEquals(5, lines.size());
+        assertTrue(lines.get(3).endsWith("line 3"));
+        assertTrue(lines.get(4).contains("dropped 3 lines"));
+        assertEquals(0, appender.getDropped());
+        assertTrue(appender.append(LogLevel.INFO, "T", "again", null));
+    }
+
+    @Test
+    @DisplayName("여러 스레드가 동시에 넣어도 출력 스레드가 모두 출력한다")
+    void shouldNotLoseConcurrentLines() throws Exception {
+        // given
+        int threads = 4;
+        int perThread = 500;
+        AsyncAppender appender = new AsyncAppender(out, threads * perThread);
+        appender.start();
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread producer = new Thread(() -> {
+                try {
+                    startLatch.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    appender.append(LogLevel.INFO, "T", "x", null);
+                }
+            });
+            producer.start();
+            producers.add(producer);
+        }
+
+        // when
+        startLatch.countDown();
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        appender.stop();
+
+        // then
+        assertEquals(threads * perThread, lines().size());
+        assertEquals(0, appender.getDropped());
+    }
+
+    @Test
+    @DisplayName("버퍼가 비어 잠든 출력 스레드는 새 줄이 들어오면 깨어나 출력한다")
+    void shouldWakeIdleWorkerOnAppend() throws Exception {
+        // given: 출력 스레드가 비어 있는 버퍼를 보고 잠들 때까지 기다림
+        AsyncAppender appender = new AsyncAppender(out, 16);
+        appender.start();
+        Thread.sleep(50);
+
+        try {
+            // when
+            for (int i = 0; i < 3; i++) {
+                appender.append(LogLevel.INFO, "T", "line" + i, null);
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (appender.pending() > 0 && System.nanoTime() < deadline) {
+                    Thread.sleep(1);
+                }
+
+                // then: stop() 없이도 출력됨
+                assertEquals(0, appender.pending());
+                Thread.sleep(20);
+            }
+            assertEquals(3, lines().size());
+        } finally {
+            appender.stop();
+        }
+    }
+}
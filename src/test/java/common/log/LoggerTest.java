@@ -0,0 +1,84 @@
+package common.log;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Logger 테스트 클래스
+ *
+ * 테스트 대상:
+ * - 레벨보다 낮은 로그는 Supplier 를 호출하지 않음
+ * - 레벨을 바꾸면 바로 반영
+ * - LogLevel.parse(): 잘못된 이름은 기본값
+ */
+class LoggerTest {
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private AsyncAppender appender;
+    private Log log;
+
+    @BeforeEach
+    void setUp() {
+        appender = new AsyncAppender(new PrintStream(bytes, true, StandardCharsets.UTF_8), 16);
+        log = new Log(appender, LogLevel.INFO);
+    }
+
+    @Test
+    @DisplayName("꺼진 레벨의 메시지는 만들지 않는다")
+    void shouldNotBuildDisabledMessage() {
+        // given
+        Logger logger = log.logger("EntrySong");
+        AtomicInteger built = new AtomicInteger();
+
+        // when
+        logger.debug(() -> {
+            built.incrementAndGet();
+            return "debug";
+        });
+        logger.info(() -> {
+            built.incrementAndGet();
+            return "info";
+        });
+
+        // then
+        assertEquals(1, built.get());
+        assertEquals(1, appender.pending());
+        assertFalse(logger.isDebugEnabled());
+    }
+
+    @Test
+    @DisplayName("레벨을 바꾸면 같은 로거에 바로 반영된다")
+    void shouldFollowLevelChange() {
+        // given
+        Logger logger = log.logger("EntrySong");
+
+        // when
+        log.level(LogLevel.DEBUG);
+        logger.debug("visible");
+        log.level(LogLevel.OFF);
+        logger.error("hidden", null);
+        appender.drain();
+
+        // then
+        String written = bytes.toString(StandardCharsets.UTF_8);
+        assertTrue(written.contains("DEBUG [EntrySong]"));
+        assertFalse(written.contains("hidden"));
+        assertSame(logger, log.logger("EntrySong"));
+    }
+
+    @Test
+    @DisplayName("잘못된 레벨 이름은 기본값을 쓴다")
+    void shouldParseLevel() {
+        assertEquals(LogLevel.WARN, LogLevel.parse(" warn ", LogLevel.INFO));
+        assertEquals(LogLevel.INFO, LogLevel.parse("verbose", LogLevel.INFO));
+        assertEquals(LogLevel.INFO, LogLevel.parse(null, LogLevel.INFO));
+    }
+}
@@ -0,0 +1,177 @@
+package common.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * IndexedFileStore 테스트 클래스
+ *
+ * 테스트 대상:
+ * - put()/remove() + flush(): 파일 끝에 덧붙이고 load() 로 복원
+ * - get(): 쓰기 전 변경과 파일에 쓴 레코드를 한 건씩 읽음
+ * - flush(): 변경 한 건마다 파일이 전체 크기와 상관없이 조금씩만 늘어남
+ * - compact(): 지난 레코드를 버리고 살아 있는 레코드만 남김
+ * - load(): 쓰다 만 마지막 레코드는 버림
+ */
+class IndexedFileStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path file;
+    private ScheduledExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        file = tempDir.resolve("state.db");
+        executor = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private IndexedFileStore<Long> open(Map<String, Long> state, long compactBytes) throws IOException {
+        IndexedFileStore<Long> store = new IndexedFileStore<>(file, ValueCodec.LONG, executor, 60_000, compactBytes);
+        store.load(state);
+        return store;
+    }
+
+    private Map<String, Long> reload() throws IOException {
+        Map<String, Long> state = new HashMap<>();
+        IndexedFileStore<Long> store = new IndexedFileStore<>(
+                file, ValueCodec.LONG, Executors.newSingleThreadScheduledExecutor(), 60_000, 1L << 20);
+        store.load(state);
+        store.close();
+        return state;
+    }
+
+    @Test
+    @DisplayName("변경을 덧붙이고 다시 열면 마지막 상태로 복원한다")
+    void shouldReplayChanges() throws IOException {
+        // given
+        IndexedFileStore<Long> store = open(new HashMap<>(), 1L << 20);
+
+        // when
+        store.put("a", 1L);
+        store.put("b", 2L);
+        store.put("a", 3L);
+        store.remove("b");
+        store.flush();
+        store.close();
+
+        // then
+        assertEquals(Map.of("a", 3L), reload());
+    }
+
+    @Test
+    @DisplayName("get 은 아직 쓰지 않은 변경과 파일의 레코드를 읽는다")
+    void shouldGetPendingAndWrittenValues() throws IOException {
+        // given
+        IndexedFileStore<Long> store = open(new HashMap<>(), 1L << 20);
+        store.put("a", 1L);
+        store.put("b", 2L);
+
+        // when & then: 쓰기 전
+        assertEquals(1L, store.get("a"));
+
+        // when & then: 쓴 뒤 (파일에서 읽음)
+        store.flush();
+        store.remove("b");
+        assertEquals(1L, store.get("a"));
+        assertNull(store.get("b"));
+        assertNull(store.get("missing"));
+        store.close();
+    }
+
+    @Test
+    @DisplayName("변경 한 건마다 파일은 레코드 하나만큼만 늘어난다")
+    void shouldAppendOneRecordPerChange() throws IOException {
+        // given
+        IndexedFileStore<Long> store = open(new HashMap<>(), Long.MAX_VALUE);
+        for (int i = 0; i < 10_000; i++) {
+            store.put("guild" + i, (long) i);
+        }
+        store.flush();
+        long before = store.getFileBytes();
+
+        // when
+        store.put("guild5", 50L);
+        store.flush();
+
+        // then
+        long grown = store.getFileBytes() - before;
+        assertTrue(grown < 64, "grew by " + grown + " bytes");
+        assertEquals(10_000, store.size());
+        assertEquals(50L, store.get("guild5"));
+        store.close();
+    }
+
+    @Test
+    @DisplayName("지난 레코드가 절반을 넘으면 살아 있는 레코드만 남기고 압축한다")
+    void shouldCompactWhenMostlyGarbage() throws IOException {
+        // given
+        IndexedFileStore<Long> store = open(new HashMap<>(), 1_000);
+
+        // when: 같은 키를 계속 덮어씀
+        for (int i = 0; i < 500; i++) {
+            store.put("a", (long) i);
+            store.put("b", (long) -i);
+            store.flush();
+        }
+
+        // then
+        assertTrue(store.getCompactions() > 0);
+        assertTrue(store.getFileBytes() < 2_000, "file is " + store.getFileBytes() + " bytes");
+        assertEquals(499L, store.get("a"));
+        store.close();
+        assertEquals(Map.of("a", 499L, "b", -499L), reload());
+    }
+
+    @Test
+    @DisplayName("쓰다 만 마지막 레코드는 버리고 그 앞까지 복원한다")
+    void shouldDropTornTail() throws IOException {
+        // given
+        IndexedFileStore<Long> store = open(new HashMap<>(), 1L << 20);
+        store.put("a", 1L);
+        store.put("b", 2L);
+        store.close();
+        long size = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 3);
+        }
+
+        // when
+        Map<String, Long> state = reload();
+
+        // then
+        assertEquals(Map.of("a", 1L), state);
+        assertTrue(Files.size(file) < size - 3);
+    }
+
+    @Test
+    @DisplayName("다른 형식의 파일은 읽지 않는다")
+    void shouldRejectForeignFile() throws IOException {
+        // given
+        Files.writeString(file, "{\"a\": 1}");
+
+        // when & then
+        assertThrows(IOException.class, () -> open(new HashMap<>(), 1L << 20));
+    }
+}
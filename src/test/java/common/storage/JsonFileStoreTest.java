@@ -0,0 +1,89 @@
+package common.storage;
+
+import com.google.gson.reflect.TypeToken;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JsonFileStore 테스트 클래스
+ *
+ * 테스트 대상:
+ * - load(): JSON 파일을 state 로 읽음
+ * - put()/remove() + flush(): state 전체를 JSON 파일로 다시 씀
+ * - load() 전에는 기존 파일을 덮어쓰지 않음
+ */
+class JsonFileStoreTest {
+
+    private static final Type MAP_TYPE = new TypeToken<Map<String, Long>>(){}.getType();
+
+    @TempDir
+    Path tempDir;
+
+    private Path file;
+    private ScheduledExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        file = tempDir.resolve("state.json");
+        executor = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("변경한 state 를 JSON 으로 저장하고 다시 읽는다")
+    void shouldSaveAndLoadState() throws IOException {
+        // given
+        JsonFileStore<Long> store = new JsonFileStore<>(file, MAP_TYPE, executor, 60_000);
+        Map<String, Long> state = new HashMap<>();
+        assertEquals(0, store.load(state));
+
+        // when
+        state.put("a", 1L);
+        store.put("a", 1L);
+        state.put("b", 2L);
+        store.put("b", 2L);
+        state.remove("a");
+        store.remove("a");
+        store.flush();
+
+        // then
+        assertTrue(Files.readString(file).contains("\"b\": 2"));
+        Map<String, Long> loaded = new HashMap<>();
+        assertEquals(1, new JsonFileStore<Long>(file, MAP_TYPE, executor, 60_000).load(loaded));
+        assertEquals(Map.of("b", 2L), loaded);
+        assertEquals(2L, store.get("b"));
+    }
+
+    @Test
+    @DisplayName("load 전의 변경으로는 기존 파일을 덮어쓰지 않는다")
+    void shouldNotOverwriteBeforeLoad() throws IOException {
+        // given
+        Files.writeString(file, "{\"a\": 1}");
+        JsonFileStore<Long> store = new JsonFileStore<>(file, MAP_TYPE, executor, 60_000);
+
+        // when
+        store.put("b", 2L);
+        store.flush();
+
+        // then
+        assertEquals("{\"a\": 1}", Files.readString(file));
+    }
+}
@@ -0,0 +1,150 @@
+package common.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * WriteBehindPersister 테스트 클래스
+ *
+ * 테스트 대상:
+ * - markDirty(): 짧은 시간 안의 변경을 한 번의 저장으로 모음
+ * - flush(): 임시 파일에 쓰고 교체, 변경이 없으면 쓰지 않음
+ * - flush(): 쓰기에 실패하면 이전 파일을 그대로 두고 변경을 유지
+ * - close(): 남은 변경 저장, 함께 쓰는 executor 는 종료하지 않음
+ */
+class WriteBehindPersisterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path target;
+    private ScheduledExecutorService executor;
+    private final AtomicReference<String> content = new AtomicReference<>("v1");
+    private final AtomicInteger serialized = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        target = tempDir.resolve("data").resolve("store.json");
+        executor = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private WriteBehindPersister persister(long delayMillis) {
+        return new WriteBehindPersister(target, out -> {
+            serialized.incrementAndGet();
+            String value = content.get();
+            if (value == null) {
+                throw new IOException("boom");
+            }
+            out.write(value.getBytes(StandardCharsets.UTF_8));
+        }, executor, delayMillis);
+    }
+
+    private String read() throws IOException {
+        return Files.readString(target, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("연달아 바뀌어도 한 번만 저장한다")
+    void shouldCoalesceChanges() throws Exception {
+        // given
+        WriteBehindPersister persister = persister(100);
+
+        // when
+        for (int i = 0; i < 50; i++) {
+            content.set("v" + i);
+            persister.markDirty();
+        }
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (persister.isDirty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // then
+        assertFalse(persister.isDirty());
+        assertEquals(1, persister.getWrites());
+        assertEquals("v49", read());
+        assertFalse(Files.exists(target.resolveSibling("store.json.tmp")));
+    }
+
+    @Test
+    @DisplayName("변경이 없으면 flush() 해도 쓰지 않는다")
+    void shouldSkipCleanFlush() throws Exception {
+        // given
+        WriteBehindPersister persister = persister(60_000);
+
+        // when
+        persister.flush();
+        persister.markDirty();
+        persister.flush();
+        persister.flush();
+
+        // then
+        assertEquals(1, persister.getWrites());
+        assertEquals(1, serialized.get());
+        assertEquals("v1", read());
+    }
+
+    @Test
+    @DisplayName("쓰기에 실패하면 이전 파일을 그대로 두고 변경을 유지한다")
+    void shouldKeepPreviousFileOnFailure() throws Exception {
+        // given
+        WriteBehindPersister persister = persister(60_000);
+        persister.markDirty();
+        persister.flush();
+
+        // when
+        content.set(null);
+        persister.markDirty();
+
+        // then
+        assertThrows(IOException.class, persister::flush);
+        assertEquals("v1", read());
+        assertTrue(persister.isDirty());
+
+        content.set("v2");
+        persister.flush();
+        assertEquals("v2", read());
+    }
+
+    @Test
+    @DisplayName("close() 는 예약을 기다리지 않고 남은 변경을 저장하고, 함께 쓰는 executor 는 그대로 둔다")
+    void shouldFlushOnCloseWithoutStoppingSharedExecutor() throws Exception {
+        // given: 같은 executor 를 쓰는 다른 저장
+        WriteBehindPersister persister = persister(60_000);
+        Path otherTarget = tempDir.resolve("other.json");
+        WriteBehindPersister other = new WriteBehindPersister(otherTarget,
+                out -> out.write("other".getBytes(StandardCharsets.UTF_8)), executor, 10);
+        persister.markDirty();
+
+        // when
+        persister.close();
+        other.markDirty();
+
+        // then
+        assertEquals("v1", read());
+        assertFalse(executor.isShutdown());
+        for (int i = 0; i < 100 && other.isDirty(); i++) {
+            Thread.sleep(20);
+        }
+        assertEquals("other", Files.readString(otherTarget, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,53 @@
+package common.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LatencyHistogram 테스트 클래스
+ *
+ * 테스트 대상:
+ * - record()/percentile(): 로그 구간 근사 백분위수
+ * - getCount()/getMean()/getMax()
+ */
+class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("기록이 없으면 0을 반환한다")
+    void shouldReturnZeroWhenEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.percentile(0.95));
+        assertEquals(0, histogram.getCount());
+    }
+
+    @Test
+    @DisplayName("백분위수를 10% 오차 안에서 근사한다")
+    void shouldApproximatePercentiles() {
+        // given
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+
+        // then
+        assertEquals(500, histogram.percentile(0.5), 50);
+        assertEquals(950, histogram.percentile(0.95), 95);
+        assertEquals(1000, histogram.percentile(1.0));
+        assertEquals(1000, histogram.getMax());
+        assertEquals(500.5, histogram.getMean(), 0.01);
+    }
+
+    @Test
+    @DisplayName("백분위수는 최댓값을 넘지 않는다")
+    void shouldNotExceedMax() {
+        // given
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(37);
+
+        // then
+        assertEquals(37, histogram.percentile(0.99));
+    }
+}
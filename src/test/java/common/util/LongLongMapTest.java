@@ -0,0 +1,129 @@
+package common.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LongLongMap 테스트 클래스
+ *
+ * 테스트 대상:
+ * - put()/get()/containsKey(): 저장, 덮어쓰기, 없을 때 missing 반환
+ * - 키 0 (빈 칸 표시와 겹치는 키) 처리
+ * - remove(): 삭제 후에도 같은 탐사 구간의 다른 키를 찾을 수 있는지 (backward shift)
+ * - 용량을 넘겼을 때 rehash, 복사 생성자
+ */
+class LongLongMapTest {
+
+    @Test
+    @DisplayName("값을 저장하고 덮어쓰며, 없는 키는 missing 을 돌려준다")
+    void shouldPutAndOverwrite() {
+        // given
+        LongLongMap map = new LongLongMap();
+
+        // when
+        assertTrue(map.put(42L, 1L));
+        assertFalse(map.put(42L, 2L));
+
+        // then
+        assertEquals(2L, map.get(42L, -1L));
+        assertEquals(-1L, map.get(43L, -1L));
+        assertTrue(map.containsKey(42L));
+        assertFalse(map.containsKey(43L));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    @DisplayName("키 0 도 다른 키처럼 저장하고 지운다")
+    void shouldStoreZeroKey() {
+        // given
+        LongLongMap map = new LongLongMap();
+
+        // when
+        map.put(0L, 7L);
+        map.put(-1L, 8L);
+
+        // then
+        assertEquals(7L, map.get(0L, -1L));
+        assertEquals(8L, map.get(-1L, -1L));
+        assertEquals(2, map.size());
+        assertTrue(map.remove(0L));
+        assertFalse(map.remove(0L));
+        assertEquals(-1L, map.get(0L, -1L));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    @DisplayName("많이 지우고 넣어도 HashMap 과 같은 결과를 낸다")
+    void shouldMatchHashMapUnderRandomOperations() {
+        // given: 작은 키 범위로 충돌과 삭제가 자주 일어나도록
+        LongLongMap map = new LongLongMap(4);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(7);
+
+        // when
+        for (int i = 0; i < 50_000; i++) {
+            long key = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key) != null, map.remove(key));
+            } else {
+                long value = random.nextLong();
+                assertEquals(expected.put(key, value) == null, map.put(key, value));
+            }
+        }
+
+        // then
+        assertEquals(expected.size(), map.size());
+        for (long key = 0; key < 2_000; key++) {
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+            if (expected.containsKey(key)) {
+                assertEquals(expected.get(key), map.get(key, 0));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("용량을 넘기면 늘리고 모든 항목을 유지한다")
+    void shouldGrowAndKeepEntries() {
+        // given
+        LongLongMap map = new LongLongMap(2);
+
+        // when
+        for (int i = 0; i < 10_000; i++) {
+            map.put(1_100_000_000_000_000_000L + i, i);
+        }
+
+        // then
+        assertEquals(10_000, map.size());
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i, map.get(1_100_000_000_000_000_000L + i, -1L));
+        }
+    }
+
+    @Test
+    @DisplayName("복사본을 바꿔도 원본은 그대로다")
+    void shouldCopyIndependently() {
+        // given
+        LongLongMap original = new LongLongMap();
+        original.put(0L, 1L);
+        original.put(2L, 3L);
+
+        // when
+        LongLongMap copy = new LongLongMap(original);
+        copy.put(2L, 4L);
+        copy.remove(0L);
+        copy.put(5L, 6L);
+
+        // then
+        Map<Long, Long> seen = new HashMap<>();
+        original.forEach(seen::put);
+        assertEquals(Map.of(0L, 1L, 2L, 3L), seen);
+        assertEquals(4L, copy.get(2L, -1L));
+        assertEquals(2, copy.size());
+    }
+}
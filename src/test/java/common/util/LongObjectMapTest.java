@@ -0,0 +1,124 @@
+package common.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LongObjectMap 테스트 클래스
+ *
+ * 테스트 대상:
+ * - put()/get()/containsKey(): 저장, 덮어쓰기, 조회
+ * - remove(): 삭제 후에도 같은 탐사 구간의 다른 키를 찾을 수 있는지 (backward shift)
+ * - 용량을 넘겼을 때 rehash
+ * - forEach()/clear()
+ */
+class LongObjectMapTest {
+
+    @Test
+    @DisplayName("값을 저장하고 덮어쓴다")
+    void shouldPutAndOverwrite() {
+        // given
+        LongObjectMap<String> map = new LongObjectMap<>();
+
+        // when
+        assertNull(map.put(42L, "a"));
+        String previous = map.put(42L, "b");
+
+        // then
+        assertEquals("a", previous);
+        assertEquals("b", map.get(42L));
+        assertTrue(map.containsKey(42L));
+        assertFalse(map.containsKey(43L));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    @DisplayName("0 과 음수 키도 저장한다")
+    void shouldStoreZeroAndNegativeKeys() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+
+        map.put(0L, "zero");
+        map.put(-1L, "minus");
+
+        assertEquals("zero", map.get(0L));
+        assertEquals("minus", map.get(-1L));
+    }
+
+    @Test
+    @DisplayName("null 값은 넣을 수 없다")
+    void shouldRejectNullValue() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+
+        assertThrows(IllegalArgumentException.class, () -> map.put(1L, null));
+    }
+
+    @Test
+    @DisplayName("많이 지우고 넣어도 HashMap 과 같은 결과를 낸다")
+    void shouldMatchHashMapUnderRandomOperations() {
+        // given: 작은 키 범위로 충돌과 삭제가 자주 일어나도록
+        LongObjectMap<Long> map = new LongObjectMap<>(4);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(7);
+
+        // when
+        for (int i = 0; i < 50_000; i++) {
+            long key = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                long value = random.nextLong();
+                assertEquals(expected.put(key, value), map.put(key, value));
+            }
+        }
+
+        // then
+        assertEquals(expected.size(), map.size());
+        for (long key = 0; key < 2_000; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+    }
+
+    @Test
+    @DisplayName("용량을 넘기면 늘리고 모든 항목을 유지한다")
+    void shouldGrowAndKeepEntries() {
+        // given
+        LongObjectMap<Integer> map = new LongObjectMap<>(2);
+
+        // when
+        for (int i = 0; i < 10_000; i++) {
+            map.put(1_100_000_000_000_000_000L + i, i);
+        }
+
+        // then
+        assertEquals(10_000, map.size());
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i, map.get(1_100_000_000_000_000_000L + i));
+        }
+    }
+
+    @Test
+    @DisplayName("forEach 는 모든 항목을 한 번씩 넘기고, clear 후에는 비어 있다")
+    void shouldIterateAndClear() {
+        // given
+        LongObjectMap<String> map = new LongObjectMap<>();
+        map.put(1L, "a");
+        map.put(2L, "b");
+        map.put(3L, "c");
+
+        // when
+        Map<Long, String> seen = new HashMap<>();
+        map.forEach(seen::put);
+        map.clear();
+
+        // then
+        assertEquals(Map.of(1L, "a", 2L, "b", 3L, "c"), seen);
+        assertTrue(map.isEmpty());
+        assertNull(map.get(1L));
+    }
+}
@@ -0,0 +1,154 @@
+package common.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * StripedLongObjectMap 테스트 클래스
+ *
+ * 테스트 대상:
+ * - put()/get()/remove(): 구간에 나눠 저장하고 조회
+ * - compute(): 새 값/그대로/지우기
+ * - compute() 의 ChangeListener: 새 값이 보인 뒤 호출, 바뀌지 않으면 호출하지 않음
+ * - putAll(): 한 번에 채우기
+ * - 쓰는 동안 락 없이 읽어도 항상 완성된 값을 보는지
+ */
+class StripedLongObjectMapTest {
+
+    @Test
+    @DisplayName("여러 구간에 저장하고 조회/삭제한다")
+    void shouldPutGetAndRemoveAcrossStripes() {
+        // given
+        StripedLongObjectMap<Integer> map = new StripedLongObjectMap<>(8);
+
+        // when
+        for (int i = 0; i < 1_000; i++) {
+            map.put(i, i);
+        }
+        for (int i = 0; i < 1_000; i += 2) {
+            assertEquals(i, map.remove(i));
+        }
+
+        // then
+        assertEquals(500, map.size());
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(i % 2 == 0 ? null : i, map.get(i));
+        }
+        assertNull(map.remove(0));
+    }
+
+    @Test
+    @DisplayName("구간 수는 2의 거듭제곱으로 올린다")
+    void shouldRoundStripeCountToPowerOfTwo() {
+        assertEquals(1, new StripedLongObjectMap<>(1).stripeCount());
+        assertEquals(8, new StripedLongObjectMap<>(5).stripeCount());
+        assertEquals(64, new StripedLongObjectMap<>(64).stripeCount());
+    }
+
+    @Test
+    @DisplayName("compute 는 반환값에 따라 넣거나 지우고, 같은 값이면 그대로 둔다")
+    void shouldComputeValues() {
+        // given
+        StripedLongObjectMap<String> map = new StripedLongObjectMap<>(4);
+
+        // when & then
+        assertEquals("a", map.compute(1L, (key, old) -> old == null ? "a" : old + "!"));
+        assertEquals("a!", map.compute(1L, (key, old) -> old == null ? "a" : old + "!"));
+        assertEquals("a!", map.compute(1L, (key, old) -> old));
+        assertNull(map.compute(1L, (key, old) -> null));
+        assertNull(map.get(1L));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    @DisplayName("compute 의 listener 는 새 값이 보인 뒤 호출되고, 값이 그대로면 호출되지 않는다")
+    void shouldNotifyAfterPublish() {
+        // given
+        StripedLongObjectMap<String> map = new StripedLongObjectMap<>(4);
+        List<String> seen = new ArrayList<>();
+        StripedLongObjectMap.ChangeListener<String> listener =
+                (key, old, next) -> seen.add(old + "->" + next + ":" + map.get(key));
+
+        // when
+        map.compute(1L, (key, old) -> "a", listener);
+        map.compute(1L, (key, old) -> old, listener);
+        map.compute(1L, (key, old) -> null, listener);
+
+        // then
+        assertEquals(List.of("null->a:a", "a->null:null"), seen);
+    }
+
+    @Test
+    @DisplayName("putAll 은 기존 항목을 유지하며 모든 항목을 넣는다")
+    void shouldPutAll() {
+        // given
+        StripedLongObjectMap<Integer> map = new StripedLongObjectMap<>(16);
+        map.put(-1L, -1);
+        LongObjectMap<Integer> entries = new LongObjectMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            entries.put(i, i);
+        }
+
+        // when
+        map.putAll(entries);
+
+        // then
+        assertEquals(5_001, map.size());
+        assertEquals(-1, map.get(-1L));
+        for (int i = 0; i < 5_000; i++) {
+            assertEquals(i, map.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("쓰는 동안 읽어도 지우지 않은 키는 항상 보인다")
+    void shouldReadWhileWriting() throws Exception {
+        // given: 0~999 는 고정, 1000 이상은 계속 넣고 지움
+        StripedLongObjectMap<Long> map = new StripedLongObjectMap<>(4);
+        for (long i = 0; i < 1_000; i++) {
+            map.put(i, i);
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger misses = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < 2; w++) {
+            long base = 1_000 + w * 100_000L;
+            threads.add(new Thread(() -> {
+                for (long i = 0; running.get(); i++) {
+                    map.put(base + i % 5_000, i);
+                    map.remove(base + (i + 2_500) % 5_000);
+                }
+            }));
+        }
+        for (int r = 0; r < 2; r++) {
+            threads.add(new Thread(() -> {
+                while (running.get()) {
+                    for (long i = 0; i < 1_000; i++) {
+                        Long value = map.get(i);
+                        if (value == null || value != i) {
+                            misses.incrementAndGet();
+                        }
+                    }
+                }
+            }));
+        }
+
+        // when
+        threads.forEach(Thread::start);
+        Thread.sleep(300);
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // then
+        assertEquals(0, misses.get());
+    }
+}
@@ -0,0 +1,115 @@
+package entrysong.handler;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.TrackMarker;
+import com.sedmelluq.discord.lavaplayer.track.TrackMarkerHandler.MarkerState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.*;
+
+/**
+ * EntryClipEnd 테스트 클래스
+ *
+ * 테스트 대상:
+ * - attach(): start + duration 위치에 마커 설정
+ * - endPosition(): 트랙 길이를 넘는 구간 처리
+ * - handle(): 마커에 도달하면 원래 곡 복원, 다른 곡으로 바뀌었으면 무시
+ */
+@ExtendWith(MockitoExtension.class)
+class EntryClipEndTest {
+
+    @Mock
+    private AudioPlayer player;
+
+    @Mock
+    private AudioTrack entryTrack;
+
+    @Mock
+    private AudioTrack original;
+
+    private TrackMarker attach(long start, long duration, AudioTrack restore) {
+        EntryClipEnd.attach(player, entryTrack, start, duration, restore, Runnable::run);
+        ArgumentCaptor<TrackMarker> captor = ArgumentCaptor.forClass(TrackMarker.class);
+        verify(entryTrack).setMarker(captor.capture());
+        return captor.getValue();
+    }
+
+    @Test
+    @DisplayName("구간 끝 위치에 마커를 건다")
+    void shouldPlaceMarkerAtClipEnd() {
+        // given
+        when(entryTrack.getDuration()).thenReturn(180_000L);
+
+        // when
+        TrackMarker marker = attach(30_000L, 7_000L, original);
+
+        // then
+        assertEquals(37_000L, marker.timecode);
+    }
+
+    @Test
+    @DisplayName("구간이 트랙 길이를 넘으면 끝나기 조금 전에 마커를 건다")
+    void shouldClampMarkerBeforeTrackEnd() {
+        assertEquals(10_000L - EntryClipEnd.END_MARGIN_MILLIS, EntryClipEnd.endPosition(10_000L, 5_000L, 7_000L));
+        assertEquals(9_950L, EntryClipEnd.endPosition(10_000L, 9_950L, 7_000L));
+        // 길이를 모르는 스트림은 그대로
+        assertEquals(12_000L, EntryClipEnd.endPosition(Long.MAX_VALUE, 5_000L, 7_000L));
+    }
+
+    @Test
+    @DisplayName("마커에 도달하면 원래 곡을 다시 재생한다")
+    void shouldRestoreOriginalWhenReached() {
+        // given
+        when(entryTrack.getDuration()).thenReturn(180_000L);
+        TrackMarker marker = attach(0L, 7_000L, original);
+        when(player.getPlayingTrack()).thenReturn(entryTrack);
+
+        // when
+        marker.handler.handle(MarkerState.REACHED);
+
+        // then
+        verify(player).startTrack(original, false);
+    }
+
+    @Test
+    @DisplayName("원래 곡이 없으면 입장곡만 멈춘다")
+    void shouldStopWhenNothingToRestore() {
+        // given
+        when(entryTrack.getDuration()).thenReturn(180_000L);
+        TrackMarker marker = attach(0L, 7_000L, null);
+        when(player.getPlayingTrack()).thenReturn(entryTrack);
+
+        // when
+        marker.handler.handle(MarkerState.LATE);
+
+        // then
+        verify(player).stopTrack();
+        verify(player, never()).startTrack(any(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("입장곡이 이미 다른 곡으로 바뀌었으면 아무것도 하지 않는다")
+    void shouldIgnoreWhenReplaced() {
+        // given
+        when(entryTrack.getDuration()).thenReturn(180_000L);
+        TrackMarker marker = attach(0L, 7_000L, original);
+
+        // when
+        marker.handler.handle(MarkerState.STOPPED);
+        when(player.getPlayingTrack()).thenReturn(mock(AudioTrack.class));
+        marker.handler.handle(MarkerState.REACHED);
+
+        // then
+        verify(player, never()).startTrack(any(), anyBoolean());
+        verify(player, never()).stopTrack();
+    }
+}
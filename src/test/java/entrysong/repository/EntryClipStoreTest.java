@@ -0,0 +1,131 @@
+package entrysong.repository;
+
+import music.service.OpusClip;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * EntryClipStore 테스트 클래스
+ *
+ * 테스트 대상:
+ * - write()/read(): 프레임 저장과 복원
+ * - read(): 원본 파일이나 구간이 바뀌면 null
+ * - read(): 원본 크기/수정 시각을 직접 넘겨 읽기
+ * - read(): 깨진 파일, 잘못된 키 처리
+ */
+class EntryClipStoreTest {
+
+    private static final String KEY = "user#0001";
+
+    @TempDir
+    Path tempDir;
+
+    private EntryClipStore store;
+    private Path source;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        store = new EntryClipStore(tempDir.resolve("clips"));
+        source = tempDir.resolve("user#0001.mp3");
+        Files.write(source, new byte[]{1, 2, 3, 4});
+    }
+
+    private static OpusClip clip(byte[]... frames) {
+        return new OpusClip(List.of(frames));
+    }
+
+    @Test
+    @DisplayName("저장한 프레임을 그대로 읽어온다")
+    void shouldRoundTrip() throws Exception {
+        // given
+        store.write(KEY, source, 3, 7, clip(new byte[]{1}, new byte[]{2, 3}, new byte[0]));
+
+        // when
+        OpusClip loaded = store.read(KEY, source, 3, 7);
+
+        // then
+        assertNotNull(loaded);
+        assertEquals(3, loaded.frameCount());
+        assertArrayEquals(new byte[]{2, 3}, loaded.frame(1));
+        assertEquals(0, loaded.frame(2).length);
+        assertEquals(60L, loaded.durationMillis());
+    }
+
+    @Test
+    @DisplayName("구간이 다르면 없는 것으로 본다")
+    void shouldIgnoreDifferentSegment() throws Exception {
+        // given
+        store.write(KEY, source, 0, 10, clip(new byte[]{1}));
+
+        // when & then
+        assertNull(store.read(KEY, source, 5, 10));
+        assertNull(store.read(KEY, source, 0, 7));
+    }
+
+    @Test
+    @DisplayName("원본 파일이 바뀌면 없는 것으로 본다")
+    void shouldIgnoreChangedSource() throws Exception {
+        // given
+        store.write(KEY, source, 0, 10, clip(new byte[]{1}));
+
+        // when
+        Files.write(source, new byte[]{9, 9, 9, 9, 9});
+        Files.setLastModifiedTime(source, FileTime.fromMillis(1_000L));
+
+        // then
+        assertNull(store.read(KEY, source, 0, 10));
+    }
+
+    @Test
+    @DisplayName("저장된 클립이 없거나 원본이 없으면 null")
+    void shouldReturnNullWhenMissing() throws Exception {
+        assertNull(store.read(KEY, source, 0, 10));
+
+        store.write(KEY, source, 0, 10, clip(new byte[]{1}));
+        Files.delete(source);
+        assertNull(store.read(KEY, source, 0, 10));
+    }
+
+    @Test
+    @DisplayName("알고 있는 원본 크기/수정 시각으로 원본을 확인하지 않고 읽는다")
+    void shouldReadWithKnownSourceMetadata() throws Exception {
+        // given
+        Files.setLastModifiedTime(source, FileTime.fromMillis(5_000));
+        store.write(KEY, source, 0, 10, clip(new byte[]{1}));
+        Files.delete(source);
+
+        // when & then
+        assertNotNull(store.read(KEY, 4, 5_000, 0, 10));
+        assertNull(store.read(KEY, 4, 6_000, 0, 10));
+    }
+
+    @Test
+    @DisplayName("깨진 파일은 null 을 반환한다")
+    void shouldReturnNullForCorruptFile() throws Exception {
+        // given
+        store.write(KEY, source, 0, 10, clip(new byte[]{1, 2, 3}, new byte[]{4, 5, 6}));
+        Path file = tempDir.resolve("clips").resolve(KEY + ".clip");
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 2));
+
+        // when & then
+        assertNull(store.read(KEY, source, 0, 10));
+    }
+
+    @Test
+    @DisplayName("경로를 벗어나는 키는 거부한다")
+    void shouldRejectPathLikeKeys() {
+        assertThrows(IllegalArgumentException.class, () -> store.read("../x", source, 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> store.delete("a/b"));
+    }
+}
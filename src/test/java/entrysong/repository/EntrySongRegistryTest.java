@@ -16,11 +16,14 @@ import static org.junit.jupiter.api.Assertions.*;
  * - setSong(): 입장곡 설정 및 JSON 저장
  * - getSong(): 입장곡 조회
  * - removeSong(): 입장곡 제거
+ * - setSong(long)/getSong(long)/removeSong(long): 유저 ID 기반 설정
+ * - getSong(long, String, String): username#discriminator 설정을 유저 ID 로 옮기기
  * - JSON 파일 저장/로드
  * 
  * 주의: EntrySongRegistry는 static 필드와 static 블록을 사용하므로,
  * 실제 파일 시스템을 사용하는 통합 테스트로 작성합니다.
  */
+@SuppressWarnings("deprecation") // username#discriminator API 호환 확인
 class EntrySongRegistryTest {
 
     @TempDir
@@ -174,5 +177,72 @@ class EntrySongRegistryTest {
         assertNotNull(result);
         assertEquals(fileName, result.fileName);
     }
-}
 
+    @Test
+    @DisplayName("유저 ID 로 입장곡을 설정하고 조회한다")
+    void shouldSetAndGetSongByUserId() {
+        // given
+        long userId = 210_000_000_000_000_001L;
+
+        // when
+        EntrySongRegistry.setSong(userId, "id.mp3", 3, 9);
+        EntrySongConfig result = EntrySongRegistry.getSong(userId);
+
+        // then
+        assertNotNull(result);
+        assertEquals("id.mp3", result.fileName);
+        assertEquals(3, result.startSec);
+        assertEquals(9, result.durationSec);
+    }
+
+    @Test
+    @DisplayName("유저 ID 로 설정한 입장곡을 제거한다")
+    void shouldRemoveSongByUserId() {
+        // given
+        long userId = 210_000_000_000_000_002L;
+        EntrySongRegistry.setSong(userId, "id.mp3", 0, 10);
+
+        // when
+        EntrySongRegistry.removeSong(userId);
+
+        // then
+        assertNull(EntrySongRegistry.getSong(userId));
+    }
+
+    @Test
+    @DisplayName("username#discriminator 설정은 처음 조회할 때 유저 ID 로 옮겨진다")
+    void shouldMigrateLegacySongToUserId() {
+        // given
+        long userId = 210_000_000_000_000_003L;
+        EntrySongRegistry.removeSong(userId); // 이전 실행에서 저장된 설정 제거
+        EntrySongRegistry.setSong("migrating", "0001", "legacy.mp3", 2, 6);
+        assertNull(EntrySongRegistry.getSong(userId));
+
+        // when
+        EntrySongConfig migrated = EntrySongRegistry.getSong(userId, "migrating", "0001");
+
+        // then
+        assertNotNull(migrated);
+        assertEquals("legacy.mp3", migrated.fileName);
+        assertEquals(2, migrated.startSec);
+        assertSame(migrated, EntrySongRegistry.getSong(userId));
+        assertNull(EntrySongRegistry.getSong("migrating", "0001"));
+    }
+
+    @Test
+    @DisplayName("유저 ID 설정이 있으면 username#discriminator 설정보다 우선한다")
+    void shouldPreferUserIdSongOverLegacy() {
+        // given
+        long userId = 210_000_000_000_000_004L;
+        EntrySongRegistry.setSong("renamed", "0002", "old.mp3", 0, 10);
+        EntrySongRegistry.setSong(userId, "new.mp3", 0, 10);
+
+        // when
+        EntrySongConfig result = EntrySongRegistry.getSong(userId, "renamed", "0002");
+
+        // then
+        assertEquals("new.mp3", result.fileName);
+        // 옮기지 않았으므로 예전 설정은 그대로 남음
+        assertNotNull(EntrySongRegistry.getSong("renamed", "0002"));
+    }
+}
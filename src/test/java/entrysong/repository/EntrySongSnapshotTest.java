@@ -0,0 +1,98 @@
+package entrysong.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * EntrySongSnapshot 테스트 클래스
+ *
+ * 테스트 대상:
+ * - write()/read(): 바이너리 스냅샷 저장과 복원 (한글, 긴 URL 포함)
+ * - read(): 체크섬이 맞지 않거나 잘린 파일 거부
+ * - 같은 내용의 JSON 보다 작음
+ */
+class EntrySongSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path write(long journal, Map<String, EntrySongConfig> entries) throws IOException {
+        Path file = tempDir.resolve("entry-songs.bin");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            EntrySongSnapshot.write(out, journal, entries);
+        }
+        return file;
+    }
+
+    @Test
+    @DisplayName("저장한 항목과 저널 세대를 그대로 읽어온다")
+    void shouldRoundTrip() throws Exception {
+        // given
+        Map<String, EntrySongConfig> entries = new LinkedHashMap<>();
+        entries.put("세현#2221", new EntrySongConfig("세현#2221.mp3", 3, 7));
+        entries.put("url#0001", new EntrySongConfig("https://example.com/" + "a".repeat(2_000), 0, 10));
+        Path file = write(42, entries);
+
+        // when
+        Map<String, EntrySongConfig> loaded = new HashMap<>();
+        long journal = EntrySongSnapshot.read(file, loaded::put);
+
+        // then
+        assertEquals(42, journal);
+        assertEquals(2, loaded.size());
+        assertEquals("세현#2221.mp3", loaded.get("세현#2221").fileName);
+        assertEquals(7, loaded.get("세현#2221").durationSec);
+        assertEquals(entries.get("url#0001").fileName, loaded.get("url#0001").fileName);
+    }
+
+    @Test
+    @DisplayName("내용이 바뀌었거나 잘린 파일은 읽지 않는다")
+    void shouldRejectCorruptFile() throws Exception {
+        // given
+        Path file = write(1, Map.of("a#0001", new EntrySongConfig("a.mp3", 0, 10)));
+        byte[] bytes = Files.readAllBytes(file);
+
+        // when & then: 한 바이트 변경
+        byte[] flipped = bytes.clone();
+        flipped[20] ^= 1;
+        Files.write(file, flipped);
+        assertThrows(IOException.class, () -> EntrySongSnapshot.read(file, (k, v) -> {}));
+
+        // when & then: 끝이 잘림
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 6));
+        assertThrows(IOException.class, () -> EntrySongSnapshot.read(file, (k, v) -> {}));
+    }
+
+    @Test
+    @DisplayName("같은 내용의 JSON 보다 작다")
+    void shouldBeSmallerThanJson() throws Exception {
+        // given
+        Map<String, EntrySongConfig> entries = new HashMap<>();
+        for (int i = 0; i < 1_000; i++) {
+            entries.put("user" + i + "#0000", new EntrySongConfig("user" + i + "#0000.mp3", 0, 10));
+        }
+        Path json = tempDir.resolve("entry-songs.json");
+
+        // when
+        Path binary = write(0, entries);
+        try (var writer = Files.newBufferedWriter(json)) {
+            EntrySongSnapshot.writeJson(writer, entries);
+        }
+
+        // then
+        assertTrue(Files.size(binary) * 2 < Files.size(json),
+                "binary=" + Files.size(binary) + ", json=" + Files.size(json));
+    }
+}
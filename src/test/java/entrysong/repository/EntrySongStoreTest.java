@@ -0,0 +1,311 @@
+package entrysong.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * EntrySongStore 테스트 클래스
+ *
+ * 테스트 대상:
+ * - put()/remove() + flush(): 저널에 덧붙이고 load() 로 복원
+ * - flush(): 변경 한 건마다 저널이 전체 크기와 상관없이 조금씩만 늘어남
+ * - compact(): 새 스냅샷으로 합치고 이전 저널 삭제
+ * - compact(): 변경과 동시에 압축해도 변경을 잃지 않음
+ * - load(): 쓰다 만 마지막 레코드는 버리고, 압축 도중 종료된 상태도 복원
+ * - load(): 이전 JSON 스냅샷을 읽어 바이너리 스냅샷으로 옮김
+ * - exportJson(): 이전 버전이 읽을 수 있는 JSON 으로 내보내기
+ */
+class EntrySongStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path snapshot;
+    private ScheduledExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        snapshot = tempDir.resolve("entry-songs.json");
+        executor = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private EntrySongStore open(Map<String, EntrySongConfig> registry, long compactBytes) throws IOException {
+        EntrySongStore store = new EntrySongStore(snapshot, executor, 60_000, compactBytes);
+        store.load(registry);
+        return store;
+    }
+
+    private Map<String, EntrySongConfig> reload() throws IOException {
+        Map<String, EntrySongConfig> registry = new ConcurrentHashMap<>();
+        EntrySongStore store = new EntrySongStore(
+                snapshot, Executors.newSingleThreadScheduledExecutor(), 60_000, 1L << 20);
+        store.load(registry);
+        // 예약된 압축(JSON 옮기기)을 백그라운드에 남기지 않도록 바로 닫음
+        store.close();
+        return registry;
+    }
+
+    private List<Path> journals() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.filter(f -> f.getFileName().toString().contains(".journal."))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static void set(Map<String, EntrySongConfig> registry, EntrySongStore store,
+                            String key, String fileName, int start) {
+        EntrySongConfig cfg = new EntrySongConfig(fileName, start, 10);
+        registry.put(key, cfg);
+        store.put(key, cfg);
+    }
+
+    @Test
+    @DisplayName("저널에 기록한 변경을 다시 읽어 복원한다")
+    void shouldReplayJournal() throws Exception {
+        // given
+        Map<String, EntrySongConfig> registry = new ConcurrentHashMap<>();
+        EntrySongStore store = open(registry, 1L << 20);
+
+        // when
+        set(registry, store, "a#0001", "a.mp3", 0);
+        set(registry, store, "b#0002", "b.mp3", 3);
+        set(registry, store, "a#0001", "a2.mp3", 5);
+        registry.remove("b#0002");
+        store.remove("b#0002");
+        store.flush();
+
+        // then
+        Map<String, EntrySongConfig> loaded = reload();
+        assertEquals(1, loaded.size());
+        assertEquals("a2.mp3", loaded.get("a#0001").fileName);
+        assertEquals(5, loaded.get("a#0001").startSec);
+        assertFalse(Files.exists(snapshot));
+    }
+
+    @Test
+    @DisplayName("한 건 바꾸면 등록된 수와 상관없이 레코드 하나만 덧붙인다")
+    void shouldAppendConstantSizeRecord() throws Exception {
+        // given
+        Map<String, EntrySongConfig> registry = new ConcurrentHashMap<>();
+        EntrySongStore store = open(registry, 1L << 30);
+        for (int i = 0; i < 1_000; i++) {
+            set(registry, store, "user" + i + "#0000", "user" + i + ".mp3", 0);
+        }
+        store.flush();
+        long before = store.getJournalBytes();
+
+        // when
+        set(registry, store, "user1#0000", "user1.mp3", 7);
+        store.flush();
+
+        // then
+        long appended = store.getJournalBytes() - before;
+        assertTrue(appended > 0 && appended < 64, "appended " + appended);
+    }
+
+    @Test
+    @DisplayName("저널이 크기를 넘으면 스냅샷으로 합치고 이전 저널을 지운다")
+    void shouldCompactIntoSnapshot() throws Exception {
+        // given
+        Map<String, EntrySongConfig> registry = new ConcurrentHashMap<>();
+        EntrySongStore store = open(registry, 200);
+
+        // when
+        for (int i = 0; i < 20; i++) {
+            set(registry, store, "user" + i + "#0000", "user" + i + ".mp3", i);
+        }
+        store.flush();
+        set(registry, store, "late#0000", "late.mp3", 1);
+        store.flush();
+
+        // then
+        assertEquals(1, store.getCompactions());
+        assertTrue(Files.exists(tempDir.resolve("entry-songs.bin")));
+        assertFalse(Files.exists(snapshot));
+        assertEquals(1, journals().size());
+        Map<String, EntrySongConfig> loaded = reload();
+        assertEquals(21, loaded.size());
+        assertEquals(19, loaded.get("user19#0000").startSec);
+        assertEquals("late.mp3", loaded.get("late#0000").fileName);
+    }
+
+    @Test
+    @DisplayName("쓰다 만 마지막 레코드는 버리고 잘라낸 뒤 이어서 쓴다")
+    void shouldDropTornTail() throws Exception {
+        // given
+        Map<String, EntrySongConfig> registry = new ConcurrentHashMap<>();
+        EntrySongStore store = open(registry, 1L << 20);
+        set(registry, store, "a#0001", "a.mp3", 0);
+        store.flush();
+        store.close();
+        Path journal = journals().get(0);
+        Files.write(journal, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        // when
+        Map<String, EntrySongConfig> reopened = new ConcurrentHashMap<>();
+        EntrySongStore again = open(reopened, 1L << 20);
+        set(reopened, again, "b#0002", "b.mp3", 0);
+        again.flush();
+
+        // then
+        Map<String, EntrySongConfig> loaded = reload();
+        assertEquals(2, loaded.size());
+        assertNotNull(loaded.get("b#0002"));
+    }
+
+    /**
+     * 다른 디렉터리에서 key=fileName 레코드 하나만 담은 0번 저널을 만들어 돌려줍니다.
+     */
+    private Path journalWith(String name, String key, String fileName) throws IOException {
+        Path dir = Files.createDirectories(tempDir.resolve(name));
+        Map<String, EntrySongConfig> registry = new ConcurrentHashMap<>();
+        EntrySongStore store = new EntrySongStore(dir.resolve("entry-songs.json"),
+                Executors.newSingleThreadScheduledExecutor(), 60_000, 1L << 20);
+        store.load(registry);
+        set(registry, store, key, fileName, 0);
+        store.close();
+        return dir.resolve("entry-songs.json.journal.0");
+    }
+
+    @Test
+    @DisplayName("압축하다 스냅샷 교체 전에 종료되면 두 저널을 순서대로 적용한다")
+    void shouldReplayJournalsInOrderAfterInterruptedCompaction() throws Exception {
+        // given: 새 저널(1)로 바꿨지만 스냅샷은 아직 쓰지 않은 상태
+        Files.copy(journalWith("j0", "a#0001", "a1.mp3"), tempDir.resolve("entry-songs.json.journal.0"));
+        Files.copy(journalWith("j1", "a#0001", "a2.mp3"), tempDir.resolve("entry-songs.json.journal.1"));
+
+        // when & then
+        assertEquals("a2.mp3", reload().get("a#0001").fileName);
+    }
+
+    @Test
+    @DisplayName("스냅샷에 이미 반영된 이전 저널은 적용하지 않고 지운다")
+    void shouldSkipJournalsBeforeSnapshot() throws Exception {
+        // given: 스냅샷은 1번 저널부터 적용하라고 기록, 0번 저널은 지우기 전에 종료
+        Files.writeString(snapshot,
+                "{\"journal\":1,\"entries\":{\"a#0001\":{\"fileName\":\"a2.mp3\",\"startSec\":0,\"durationSec\":10}}}",
+                StandardCharsets.UTF_8);
+        Files.copy(journalWith("j0", "a#0001", "a1.mp3"), tempDir.resolve("entry-songs.json.journal.0"));
+
+        // when
+        Map<String, EntrySongConfig> loaded = reload();
+
+        // then
+        assertEquals("a2.mp3", loaded.get("a#0001").fileName);
+        assertFalse(Files.exists(tempDir.resolve("entry-songs.json.journal.0")));
+    }
+
+    @Test
+    @DisplayName("이전 JSON 스냅샷을 읽고 바이너리 스냅샷으로 옮긴다")
+    void shouldMigrateLegacyJson() throws Exception {
+        // given
+        Files.writeString(snapshot,
+                "{\"old#0001\":{\"fileName\":\"old.mp3\",\"startSec\":2,\"durationSec\":7}}",
+                StandardCharsets.UTF_8);
+
+        // when
+        Map<String, EntrySongConfig> registry = reload();
+
+        // then
+        assertEquals(7, registry.get("old#0001").durationSec);
+        assertTrue(Files.exists(tempDir.resolve("entry-songs.bin")));
+
+        // 바이너리가 생긴 뒤에는 JSON 을 바꿔도 바이너리를 읽음
+        Files.writeString(snapshot, "{}", StandardCharsets.UTF_8);
+        assertEquals("old.mp3", reload().get("old#0001").fileName);
+    }
+
+    @Test
+    @DisplayName("이전 버전이 읽을 수 있는 맵 형식 JSON 으로 내보낸다")
+    void shouldExportLegacyJson() throws Exception {
+        // given
+        Map<String, EntrySongConfig> registry = new ConcurrentHashMap<>();
+        EntrySongStore store = open(registry, 1L << 20);
+        set(registry, store, "a#0001", "a.mp3", 3);
+        Path exported = tempDir.resolve("export.json");
+
+        // when
+        store.exportJson(exported);
+
+        // then
+        Map<String, EntrySongConfig> imported = new HashMap<>();
+        assertEquals(0, EntrySongSnapshot.readJson(exported, imported::put));
+        assertEquals(3, imported.get("a#0001").startSec);
+    }
+
+    @Test
+    @DisplayName("변경하는 동안 압축을 반복해도 다시 읽으면 마지막 상태와 같다")
+    void shouldNotLoseChangesWhileCompacting() throws Exception {
+        // given
+        Map<String, EntrySongConfig> registry = new ConcurrentHashMap<>();
+        EntrySongStore store = open(registry, 1L << 30);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread compactor = new Thread(() -> {
+            try {
+                while (writing.get()) {
+                    store.flush();
+                    store.compact();
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+
+        // when: 레지스트리처럼 값을 먼저 보이게 한 뒤 기록
+        compactor.start();
+        Thread[] writers = new Thread[2];
+        for (int w = 0; w < writers.length; w++) {
+            int writer = w;
+            writers[w] = new Thread(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    set(registry, store, "user" + writer + "-" + (i % 50) + "#0000", "song" + i + ".mp3", i);
+                }
+            });
+            writers[w].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        writing.set(false);
+        compactor.join();
+        store.close();
+
+        // then
+        assertNull(failure.get());
+        assertTrue(store.getCompactions() > 0);
+        Map<String, EntrySongConfig> loaded = reload();
+        assertEquals(registry.size(), loaded.size());
+        registry.forEach((key, cfg) -> {
+            assertEquals(cfg.fileName, loaded.get(key).fileName, key);
+            assertEquals(cfg.startSec, loaded.get(key).startSec, key);
+        });
+    }
+}
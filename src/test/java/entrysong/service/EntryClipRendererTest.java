@@ -0,0 +1,158 @@
+package entrysong.service;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.playback.AudioFrame;
+import entrysong.repository.EntryClipStore;
+import music.service.OpusClip;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * EntryClipRenderer 테스트 클래스
+ *
+ * 테스트 대상:
+ * - render(): 시작 위치로 이동 후 구간 길이만큼 프레임 수집, 트랙이 먼저 끝나면 거기까지
+ * - render(): 디코더가 멈추면 실패
+ * - renderAsync(): 렌더링 결과 저장, 이미 있으면 건너뜀
+ * - find()/invalidate(): 입장용 조회는 메모리만 봄
+ */
+class EntryClipRendererTest {
+
+    @TempDir
+    Path tempDir;
+
+    private AudioPlayerManager manager;
+    private AudioPlayer player;
+    private AudioTrack track;
+    private EntryClipStore store;
+    private EntryClipRenderer renderer;
+    private Path source;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        manager = mock(AudioPlayerManager.class);
+        player = mock(AudioPlayer.class);
+        track = mock(AudioTrack.class);
+        when(manager.loadItemSync(anyString())).thenReturn(track);
+        when(manager.createPlayer()).thenReturn(player);
+        when(track.getDuration()).thenReturn(60_000L);
+
+        store = new EntryClipStore(tempDir.resolve("clips"));
+        renderer = new EntryClipRenderer(manager, store, Runnable::run, true, 1L << 20);
+        source = tempDir.resolve("a#0001.mp3");
+        Files.write(source, new byte[]{1});
+    }
+
+    private static AudioFrame frame(int value) {
+        AudioFrame frame = mock(AudioFrame.class);
+        when(frame.getData()).thenReturn(new byte[]{(byte) value});
+        return frame;
+    }
+
+    @Test
+    @DisplayName("시작 위치부터 구간 길이만큼의 프레임만 모은다")
+    void shouldRenderSegmentFrames() throws Exception {
+        // given: 1초 구간 = 50 프레임
+        when(player.provide(anyLong(), eq(TimeUnit.MILLISECONDS))).thenAnswer(invocation -> frame(7));
+
+        // when
+        OpusClip clip = renderer.render(source, 2, 1);
+
+        // then
+        assertEquals(50, clip.frameCount());
+        verify(track).setPosition(2_000L);
+        verify(player).startTrack(track, false);
+        verify(player).destroy();
+    }
+
+    @Test
+    @DisplayName("트랙이 구간보다 먼저 끝나면 거기까지만 렌더링한다")
+    void shouldStopAtTrackEnd() throws Exception {
+        // given
+        AudioFrame first = frame(1);
+        AudioFrame second = frame(2);
+        when(player.provide(anyLong(), eq(TimeUnit.MILLISECONDS))).thenReturn(first, second, null);
+
+        // when
+        OpusClip clip = renderer.render(source, 0, 10);
+
+        // then
+        assertEquals(2, clip.frameCount());
+        assertArrayEquals(new byte[]{2}, clip.frame(1));
+    }
+
+    @Test
+    @DisplayName("디코더가 멈추거나 시작 위치가 트랙 밖이면 실패한다")
+    void shouldFailWhenDecoderStallsOrStartBeyondEnd() throws Exception {
+        when(player.provide(anyLong(), eq(TimeUnit.MILLISECONDS))).thenThrow(new TimeoutException());
+        assertThrows(IOException.class, () -> renderer.render(source, 0, 10));
+        verify(player).destroy();
+
+        assertThrows(IOException.class, () -> renderer.render(source, 60, 10));
+    }
+
+    @Test
+    @DisplayName("렌더링한 클립을 저장하고, 같은 구간은 다시 렌더링하지 않는다")
+    void shouldStoreAndSkipExisting() throws Exception {
+        // given
+        when(player.provide(anyLong(), eq(TimeUnit.MILLISECONDS))).thenAnswer(invocation -> frame(3));
+
+        // when
+        renderer.renderAsync("a#0001", source, 0, 1);
+        renderer.renderAsync("a#0001", source, 0, 1);
+
+        // then
+        OpusClip stored = renderer.find("a#0001", source, 0, 1);
+        assertNotNull(stored);
+        assertEquals(50, stored.frameCount());
+        verify(manager, times(1)).createPlayer();
+    }
+
+    @Test
+    @DisplayName("꺼져 있으면 렌더링하지도 찾지도 않는다")
+    void shouldDoNothingWhenDisabled() {
+        EntryClipRenderer disabled = new EntryClipRenderer(manager, store, Runnable::run, false, 1L << 20);
+
+        disabled.renderAsync("a#0001", source, 0, 1);
+
+        assertNull(disabled.find("a#0001", source, 0, 1));
+        verifyNoInteractions(player);
+    }
+
+    @Test
+    @DisplayName("입장용 find 는 메모리만 보고, 파일에 있는 클립은 renderAsync 가 렌더링 없이 메모리에 올린다")
+    void shouldServeJoinLookupsFromMemory() throws Exception {
+        // given: 다른 인스턴스가 렌더링해 파일에만 있는 상태 (재시작 뒤)
+        when(player.provide(anyLong(), eq(TimeUnit.MILLISECONDS))).thenAnswer(invocation -> frame(3));
+        renderer.renderAsync("a#0001", source, 0, 1);
+        EntryClipRenderer restarted = new EntryClipRenderer(manager, store, Runnable::run, true, 1L << 20);
+        long size = Files.size(source);
+        long modified = Files.getLastModifiedTime(source).toMillis();
+
+        // when & then
+        assertNull(restarted.find("a#0001", size, modified, 0, 1));
+        restarted.renderAsync("a#0001", source, 0, 1);
+        assertNotNull(restarted.find("a#0001", size, modified, 0, 1));
+        assertNull(restarted.find("a#0001", size, modified, 0, 2));
+        verify(manager, times(1)).createPlayer();
+
+        restarted.invalidate("a#0001");
+        assertNull(restarted.find("a#0001", size, modified, 0, 1));
+    }
+}
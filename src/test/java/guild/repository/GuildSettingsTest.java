@@ -0,0 +1,91 @@
+package guild.repository;
+
+import common.storage.IndexedFileStore;
+import common.storage.ValueCodec;
+import guild.repository.GuildSettings.Setting;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * GuildSettings 테스트 클래스
+ *
+ * 테스트 대상:
+ * - set()/get()/remove(): 설정별로 따로 저장하고 없으면 missing 반환
+ * - flush(): 변경을 data/&lt;설정 이름&gt;.db 에 기록
+ */
+class GuildSettingsTest {
+
+    private static final long GUILD_ID = 1_100_000_000_000_000_123L;
+
+    @BeforeEach
+    void setUp() {
+        // 파일에 남은 이전 실행의 값 제거
+        for (Setting setting : Setting.values()) {
+            GuildSettings.remove(setting, GUILD_ID);
+        }
+    }
+
+    @Test
+    @DisplayName("설정별로 값을 저장하고 조회한다")
+    void shouldKeepSettingsSeparate() {
+        // when
+        GuildSettings.set(Setting.DEFAULT_VOLUME, GUILD_ID, 80);
+
+        // then
+        assertEquals(80, GuildSettings.get(Setting.DEFAULT_VOLUME, GUILD_ID, -1));
+        assertTrue(GuildSettings.contains(Setting.DEFAULT_VOLUME, GUILD_ID));
+        assertEquals(-1, GuildSettings.get(Setting.UPLOAD_CHANNEL, GUILD_ID, -1));
+        assertFalse(GuildSettings.contains(Setting.UPLOAD_CHANNEL, GUILD_ID));
+    }
+
+    @Test
+    @DisplayName("0 도 값으로 저장하고, 지우면 missing 을 돌려준다")
+    void shouldStoreZeroAndRemove() {
+        // given
+        GuildSettings.set(Setting.DEFAULT_VOLUME, GUILD_ID, 0);
+        assertEquals(0, GuildSettings.get(Setting.DEFAULT_VOLUME, GUILD_ID, -1));
+
+        // when
+        GuildSettings.remove(Setting.DEFAULT_VOLUME, GUILD_ID);
+
+        // then
+        assertEquals(-1, GuildSettings.get(Setting.DEFAULT_VOLUME, GUILD_ID, -1));
+    }
+
+    @Test
+    @DisplayName("flush 하면 설정 파일에 기록된다")
+    void shouldPersistOnFlush() throws IOException {
+        // given
+        GuildSettings.set(Setting.DEFAULT_VOLUME, GUILD_ID, 42);
+
+        // when
+        GuildSettings.flush();
+
+        // then: 같은 파일을 새로 열어 읽음 (기본 저장소가 indexed 일 때)
+        Path file = Path.of("data", "guild-default-volume.db");
+        if (!Files.exists(file)) {
+            return;
+        }
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        IndexedFileStore<Long> store = new IndexedFileStore<>(file, ValueCodec.LONG, executor, 60_000, Long.MAX_VALUE);
+        try {
+            Map<String, Long> state = new HashMap<>();
+            store.load(state);
+            assertEquals(42L, state.get(Long.toUnsignedString(GUILD_ID)));
+        } finally {
+            store.close();
+            executor.shutdownNow();
+        }
+    }
+}
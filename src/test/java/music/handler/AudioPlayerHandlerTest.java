@@ -0,0 +1,133 @@
+package music.handler;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
+import com.sedmelluq.discord.lavaplayer.track.playback.MutableAudioFrame;
+import music.service.OverlayMixer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * AudioPlayerHandler 테스트 클래스
+ *
+ * 테스트 대상:
+ * - canProvide(): AudioPlayer 프레임을 내부 버퍼에 채우기
+ * - provide20MsAudio(): 채워진 프레임 반환 (버퍼 재사용)
+ * - canProvide(): 클립이 재생 중이면 믹서가 섞은 프레임 사용
+ * - isOpus(): Opus 여부
+ */
+@ExtendWith(MockitoExtension.class)
+class AudioPlayerHandlerTest {
+
+    @Mock
+    private AudioPlayer player;
+
+    private AudioPlayerHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        handler = new AudioPlayerHandler(player);
+    }
+
+    private void stubFrame(byte[] data) {
+        when(player.provide(any(MutableAudioFrame.class))).thenAnswer(invocation -> {
+            MutableAudioFrame frame = invocation.getArgument(0);
+            frame.store(data, 0, data.length);
+            return true;
+        });
+    }
+
+    private static byte[] drain(ByteBuffer buffer) {
+        byte[] out = new byte[buffer.remaining()];
+        buffer.get(out);
+        return out;
+    }
+
+    @Test
+    @DisplayName("프레임이 없으면 false를 반환한다")
+    void shouldReturnFalseWhenNoFrame() {
+        // given
+        when(player.provide(any(MutableAudioFrame.class))).thenReturn(false);
+
+        // when & then
+        assertFalse(handler.canProvide());
+    }
+
+    @Test
+    @DisplayName("프레임 데이터를 그대로 전달한다")
+    void shouldProvideFrameData() {
+        // given
+        byte[] data = {1, 2, 3, 4, 5};
+        stubFrame(data);
+
+        // when
+        boolean provided = handler.canProvide();
+        ByteBuffer buffer = handler.provide20MsAudio();
+
+        // then
+        assertTrue(provided);
+        assertArrayEquals(data, drain(buffer));
+    }
+
+    @Test
+    @DisplayName("매 프레임마다 같은 버퍼를 재사용한다")
+    void shouldReuseSameBufferAcrossFrames() {
+        // given
+        stubFrame(new byte[]{9, 9, 9});
+        handler.canProvide();
+        ByteBuffer first = handler.provide20MsAudio();
+        drain(first);
+
+        byte[] second = {7, 7};
+        stubFrame(second);
+
+        // when
+        handler.canProvide();
+        ByteBuffer next = handler.provide20MsAudio();
+
+        // then
+        assertSame(first, next);
+        assertArrayEquals(second, drain(next));
+    }
+
+    @Test
+    @DisplayName("클립이 재생 중이면 믹서가 섞은 프레임을 전달한다")
+    void shouldUseMixerWhileClipPlays() {
+        // given
+        OverlayMixer mixer = mock(OverlayMixer.class);
+        AudioPlayerHandler mixing = new AudioPlayerHandler(player, mixer);
+        when(mixer.isActive()).thenReturn(true);
+        when(mixer.provide(any(AudioPlayer.class), any(ByteBuffer.class))).thenAnswer(invocation -> {
+            ByteBuffer out = invocation.getArgument(1);
+            out.clear();
+            out.put(new byte[]{4, 2});
+            return true;
+        });
+
+        // when
+        boolean provided = mixing.canProvide();
+
+        // then
+        assertTrue(provided);
+        assertArrayEquals(new byte[]{4, 2}, drain(mixing.provide20MsAudio()));
+        verify(player, never()).provide(any(MutableAudioFrame.class));
+    }
+
+    @Test
+    @DisplayName("Opus 형식으로 전달한다")
+    void shouldBeOpus() {
+        assertTrue(handler.isOpus());
+    }
+}
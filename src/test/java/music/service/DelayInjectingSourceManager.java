@@ -0,0 +1,82 @@
+package music.service;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.source.AudioSourceManager;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.track.AudioItem;
+import com.sedmelluq.discord.lavaplayer.track.AudioReference;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 네트워크 없이 지연과 실패를 흉내 내는 테스트용 소스 매니저입니다.
+ *
+ * 설정한 시간만큼 기다린 뒤 정해진 결과를 반환하거나 예외를 던지고,
+ * 중간에 취소(인터럽트)되면 그 횟수를 셉니다.
+ */
+class DelayInjectingSourceManager implements AudioSourceManager {
+
+    private final String sourceName;
+    private final AudioItem result;
+    private volatile long delayMillis;
+    private volatile RuntimeException failure;
+    final AtomicInteger calls = new AtomicInteger();
+    final AtomicInteger interrupted = new AtomicInteger();
+
+    DelayInjectingSourceManager(String sourceName, long delayMillis, AudioItem result) {
+        this.sourceName = sourceName;
+        this.delayMillis = delayMillis;
+        this.result = result;
+    }
+
+    DelayInjectingSourceManager failingWith(RuntimeException failure) {
+        this.failure = failure;
+        return this;
+    }
+
+    void setDelayMillis(long delayMillis) {
+        this.delayMillis = delayMillis;
+    }
+
+    @Override
+    public String getSourceName() {
+        return sourceName;
+    }
+
+    @Override
+    public AudioItem loadItem(AudioPlayerManager manager, AudioReference reference) {
+        calls.incrementAndGet();
+        try {
+            Thread.sleep(delayMillis);
+        } catch (InterruptedException e) {
+            interrupted.incrementAndGet();
+            throw new FriendlyException("cancelled", FriendlyException.Severity.SUSPICIOUS, e);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isTrackEncodable(AudioTrack track) {
+        return false;
+    }
+
+    @Override
+    public void encodeTrack(AudioTrack track, DataOutput output) {
+    }
+
+    @Override
+    public AudioTrack decodeTrack(AudioTrackInfo trackInfo, DataInput input) {
+        return null;
+    }
+
+    @Override
+    public void shutdown() {
+    }
+}
@@ -0,0 +1,206 @@
+package music.service;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
+import com.sedmelluq.discord.lavaplayer.player.event.AudioEvent;
+import com.sedmelluq.discord.lavaplayer.player.event.AudioEventListener;
+import com.sedmelluq.discord.lavaplayer.player.event.TrackEndEvent;
+import com.sedmelluq.discord.lavaplayer.player.event.TrackStartEvent;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackEndReason;
+import com.sedmelluq.discord.lavaplayer.track.playback.MutableAudioFrame;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * GaplessAudioPlayer 테스트 클래스
+ *
+ * 테스트 대상:
+ * - prefetch(): standby 플레이어에서 복제본을 일시정지 상태로 재생
+ * - startTrack(): 미리 불러온 트랙이면 플레이어를 맞바꿈, 아니면 active 에 위임
+ * - 이벤트 전달: active 플레이어 이벤트만 전달
+ * - 전환 공백 기록
+ */
+@ExtendWith(MockitoExtension.class)
+class GaplessAudioPlayerTest {
+
+    @Mock
+    private AudioPlayer first;
+
+    @Mock
+    private AudioPlayer second;
+
+    @Mock
+    private AudioTrack current;
+
+    @Mock
+    private AudioTrack next;
+
+    @Mock
+    private AudioTrack nextClone;
+
+    private GaplessAudioPlayer player;
+    private AudioEventListener forwarder;
+    private final List<AudioEvent> received = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        player = new GaplessAudioPlayer(first, second);
+        ArgumentCaptor<AudioEventListener> captor = ArgumentCaptor.forClass(AudioEventListener.class);
+        verify(first).addListener(captor.capture());
+        forwarder = captor.getValue();
+        player.addListener(received::add);
+    }
+
+    private void prefetchNext() {
+        when(next.makeClone()).thenReturn(nextClone);
+        player.prefetch(next);
+        lenient().when(second.getPlayingTrack()).thenReturn(nextClone);
+    }
+
+    @Test
+    @DisplayName("미리 불러오기는 standby 플레이어에서 복제본을 일시정지 상태로 재생한다")
+    void shouldPrefetchCloneOnPausedStandby() {
+        // when
+        prefetchNext();
+
+        // then
+        verify(second, atLeastOnce()).setPaused(true);
+        verify(second).playTrack(nextClone);
+        verify(first, never()).playTrack(any());
+        assertSame(next, player.getPrefetchedTrack());
+    }
+
+    @Test
+    @DisplayName("미리 불러온 트랙을 시작하면 플레이어를 맞바꾸고 시작 이벤트를 보낸다")
+    void shouldSwapPlayersOnPrefetchedStart() {
+        // given
+        prefetchNext();
+
+        // when
+        boolean started = player.startTrack(next, false);
+
+        // then
+        assertTrue(started);
+        verify(first, never()).startTrack(any(), anyBoolean());
+        verify(second).setPaused(false);
+        assertSame(nextClone, player.getPlayingTrack());
+        assertEquals(1, player.getPrefetchHits());
+        assertTrue(received.get(0) instanceof TrackStartEvent);
+        assertSame(nextClone, ((TrackStartEvent) received.get(0)).track);
+    }
+
+    @Test
+    @DisplayName("다른 트랙을 시작하면 미리 불러온 트랙을 정리하고 active 에서 재생한다")
+    void shouldCancelPrefetchOnDifferentTrack() {
+        // given
+        prefetchNext();
+        AudioTrack other = mock(AudioTrack.class);
+        when(first.startTrack(other, false)).thenReturn(true);
+
+        // when
+        player.startTrack(other, false);
+
+        // then
+        verify(second).stopTrack();
+        verify(first).startTrack(other, false);
+        assertNull(player.getPrefetchedTrack());
+        assertEquals(1, player.getPrefetchMisses());
+    }
+
+    @Test
+    @DisplayName("재생 중이고 noInterrupt 이면 시작하지 않는다")
+    void shouldRespectNoInterrupt() {
+        // given
+        when(first.getPlayingTrack()).thenReturn(current);
+
+        // when & then
+        assertFalse(player.startTrack(next, true));
+        verify(first, never()).startTrack(any(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("active 플레이어 이벤트만 리스너에게 전달한다")
+    void shouldForwardOnlyActivePlayerEvents() {
+        // when
+        forwarder.onEvent(new TrackStartEvent(second, nextClone));
+        forwarder.onEvent(new TrackStartEvent(first, current));
+
+        // then
+        assertEquals(1, received.size());
+        assertSame(current, ((TrackStartEvent) received.get(0)).track);
+    }
+
+    @Test
+    @DisplayName("standby 의 미리 불러오기가 끝나버리면 다시 불러올 수 있게 비운다")
+    void shouldForgetPrefetchWhenStandbyTrackEnds() {
+        // given
+        prefetchNext();
+        when(second.getPlayingTrack()).thenReturn(null);
+
+        // when
+        forwarder.onEvent(new TrackEndEvent(second, nextClone, AudioTrackEndReason.CLEANUP));
+
+        // then
+        assertNull(player.getPrefetchedTrack());
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    @DisplayName("곡이 끝난 뒤 다음 곡 첫 프레임까지의 시간을 기록한다")
+    void shouldRecordTransitionGap() {
+        // given
+        MutableAudioFrame frame = new MutableAudioFrame();
+        forwarder.onEvent(new TrackEndEvent(first, current, AudioTrackEndReason.FINISHED));
+        when(first.provide(frame)).thenReturn(false, true);
+
+        // when
+        player.provide(frame);
+        player.provide(frame);
+        player.provide(frame);
+
+        // then
+        assertEquals(1, player.getTransitionGaps().getCount());
+    }
+
+    @Test
+    @DisplayName("중지하면 전환 공백을 기록하지 않는다")
+    void shouldNotRecordGapAfterStop() {
+        // given
+        MutableAudioFrame frame = new MutableAudioFrame();
+        forwarder.onEvent(new TrackEndEvent(first, current, AudioTrackEndReason.FINISHED));
+        player.startTrack(null, false);
+        lenient().when(first.provide(frame)).thenReturn(true);
+
+        // when
+        player.provide(frame);
+
+        // then
+        assertEquals(0, player.getTransitionGaps().getCount());
+    }
+
+    @Test
+    @DisplayName("볼륨은 두 플레이어 모두에 적용하고 일시정지는 active 에만 적용한다")
+    void shouldApplySettingsToBothPlayers() {
+        // when
+        player.setVolume(50);
+        player.setPaused(true);
+
+        // then
+        verify(first).setVolume(50);
+        verify(second).setVolume(50);
+        verify(first).setPaused(true);
+        assertTrue(player.isPaused());
+    }
+}
@@ -0,0 +1,240 @@
+package music.service;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.source.AudioSourceManager;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.track.AudioItem;
+import com.sedmelluq.discord.lavaplayer.track.AudioReference;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * HedgedAudioSourceManager 테스트 클래스
+ *
+ * 지연을 흉내 내는 DelayInjectingSourceManager 를 사용합니다.
+ *
+ * 테스트 대상:
+ * - loadItem(): 첫 번째 클라이언트가 빠르면 헤지하지 않음
+ * - loadItem(): 헤지 시간이 지나면 다음 클라이언트와 경쟁하고 진 쪽은 취소
+ * - loadItem(): 실패하면 바로 다음 클라이언트로 넘어감
+ * - loadItem(): 마감 시간을 넘기면 일시적 실패로 처리
+ * - loadItem(): 다른 소스의 식별자나 null 결과는 지연 시간/승리로 기록하지 않음
+ * - hedgeDelayMillis(): 기록이 쌓이면 백분위수 사용
+ * - 이긴 클라이언트의 트랙을 재생용 소스 매니저로 다시 묶고, 디코딩은 재생용에 맡김
+ */
+class HedgedAudioSourceManagerTest {
+
+    private static final AudioReference REFERENCE = new AudioReference("ytsearch:song", null);
+
+    private final AudioPlayerManager playerManager = mock(AudioPlayerManager.class);
+    private final AudioItem primaryItem = mock(AudioItem.class);
+    private final AudioItem secondaryItem = mock(AudioItem.class);
+    private AudioSourceManager playback;
+    private HedgedAudioSourceManager hedged;
+
+    @AfterEach
+    void tearDown() {
+        if (hedged != null) {
+            hedged.shutdown();
+        }
+    }
+
+    private HedgedAudioSourceManager create(AudioSourceManager primary, AudioSourceManager secondary,
+                                            long deadlineMillis, long defaultHedgeDelayMillis) {
+        Map<String, AudioSourceManager> clients = new LinkedHashMap<>();
+        clients.put("primary", primary);
+        clients.put("secondary", secondary);
+        hedged = new HedgedAudioSourceManager(clients, identifier -> identifier.startsWith("ytsearch:"), playback, deadlineMillis, 0.95, defaultHedgeDelayMillis, 10, 5, 4);
+        return hedged;
+    }
+
+    @Test
+    @DisplayName("첫 번째 클라이언트가 헤지 시간 안에 답하면 다음 클라이언트를 요청하지 않는다")
+    void shouldNotHedgeWhenPrimaryIsFast() {
+        // given
+        DelayInjectingSourceManager primary = new DelayInjectingSourceManager("youtube", 0, primaryItem);
+        DelayInjectingSourceManager secondary = new DelayInjectingSourceManager("youtube", 0, secondaryItem);
+        create(primary, secondary, 2_000, 500);
+
+        // when
+        AudioItem result = hedged.loadItem(playerManager, REFERENCE);
+
+        // then
+        assertSame(primaryItem, result);
+        assertEquals(0, secondary.calls.get());
+        assertEquals(1, hedged.stats().get("primary").getWins());
+        assertEquals(1, hedged.stats().get("primary").getLatency().getCount());
+    }
+
+    @Test
+    @DisplayName("첫 번째 클라이언트가 느리면 다음 클라이언트와 경쟁하고 진 요청은 취소한다")
+    void shouldHedgeAndCancelLoser() throws Exception {
+        // given
+        DelayInjectingSourceManager primary = new DelayInjectingSourceManager("youtube", 5_000, primaryItem);
+        DelayInjectingSourceManager secondary = new DelayInjectingSourceManager("youtube", 0, secondaryItem);
+        create(primary, secondary, 3_000, 50);
+
+        // when
+        long startedAt = System.nanoTime();
+        AudioItem result = hedged.loadItem(playerManager, REFERENCE);
+        long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+
+        // then
+        assertSame(secondaryItem, result);
+        assertTrue(elapsedMillis < 2_000, "took " + elapsedMillis + "ms");
+        assertEquals(1, hedged.stats().get("secondary").getHedged());
+        assertEquals(1, hedged.stats().get("secondary").getWins());
+        assertEquals(1, hedged.stats().get("primary").getCancelled());
+
+        for (int i = 0; i < 50 && primary.interrupted.get() == 0; i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(1, primary.interrupted.get());
+    }
+
+    @Test
+    @DisplayName("첫 번째 클라이언트가 실패하면 헤지 시간을 기다리지 않고 다음 클라이언트로 넘어간다")
+    void shouldFallBackImmediatelyOnFailure() {
+        // given
+        DelayInjectingSourceManager primary = new DelayInjectingSourceManager("youtube", 0, null)
+                .failingWith(new FriendlyException("blocked", FriendlyException.Severity.COMMON, null));
+        DelayInjectingSourceManager secondary = new DelayInjectingSourceManager("youtube", 0, secondaryItem);
+        create(primary, secondary, 3_000, 2_000);
+
+        // when
+        long startedAt = System.nanoTime();
+        AudioItem result = hedged.loadItem(playerManager, REFERENCE);
+        long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+
+        // then
+        assertSame(secondaryItem, result);
+        assertTrue(elapsedMillis < 1_000, "took " + elapsedMillis + "ms");
+        assertEquals(1, hedged.stats().get("primary").getFailures());
+    }
+
+    @Test
+    @DisplayName("모든 클라이언트가 실패하면 첫 번째 실패를 그대로 던진다")
+    void shouldRethrowFirstFailureWhenAllFail() {
+        // given
+        FriendlyException blocked = new FriendlyException("blocked", FriendlyException.Severity.COMMON, null);
+        DelayInjectingSourceManager primary = new DelayInjectingSourceManager("youtube", 0, null)
+                .failingWith(blocked);
+        DelayInjectingSourceManager secondary = new DelayInjectingSourceManager("youtube", 20, null)
+                .failingWith(new FriendlyException("other", FriendlyException.Severity.COMMON, null));
+        create(primary, secondary, 3_000, 500);
+
+        // when & then
+        FriendlyException thrown = assertThrows(FriendlyException.class,
+                () -> hedged.loadItem(playerManager, REFERENCE));
+        assertSame(blocked, thrown);
+    }
+
+    @Test
+    @DisplayName("마감 시간을 넘기면 일시적 실패로 처리하고 모든 요청을 취소한다")
+    void shouldTimeOutAtDeadline() {
+        // given
+        DelayInjectingSourceManager primary = new DelayInjectingSourceManager("youtube", 5_000, primaryItem);
+        DelayInjectingSourceManager secondary = new DelayInjectingSourceManager("youtube", 5_000, secondaryItem);
+        create(primary, secondary, 200, 50);
+
+        // when & then
+        FriendlyException thrown = assertThrows(FriendlyException.class,
+                () -> hedged.loadItem(playerManager, REFERENCE));
+        assertEquals(FriendlyException.Severity.SUSPICIOUS, thrown.severity);
+        assertEquals(1, hedged.getTimeouts());
+        assertEquals(1, hedged.stats().get("primary").getCancelled());
+        assertEquals(1, hedged.stats().get("secondary").getCancelled());
+    }
+
+    @Test
+    @DisplayName("다른 소스의 식별자는 클라이언트에 요청하지 않는다")
+    void shouldSkipForeignReferences() {
+        // given
+        DelayInjectingSourceManager primary = new DelayInjectingSourceManager("youtube", 0, primaryItem);
+        DelayInjectingSourceManager secondary = new DelayInjectingSourceManager("youtube", 0, secondaryItem);
+        create(primary, secondary, 2_000, 500);
+
+        // when
+        AudioItem result = hedged.loadItem(playerManager, new AudioReference("uploads/user#0.mp3", null));
+
+        // then
+        assertNull(result);
+        assertEquals(0, primary.calls.get());
+        assertEquals(0, hedged.stats().get("primary").getRequests());
+    }
+
+    @Test
+    @DisplayName("클라이언트가 null 을 돌려주면 지연 시간과 승리로 기록하지 않고 null 을 반환한다")
+    void shouldNotRecordNullResult() {
+        // given
+        DelayInjectingSourceManager primary = new DelayInjectingSourceManager("youtube", 0, null);
+        DelayInjectingSourceManager secondary = new DelayInjectingSourceManager("youtube", 0, secondaryItem);
+        create(primary, secondary, 2_000, 500);
+
+        // when
+        AudioItem result = hedged.loadItem(playerManager, REFERENCE);
+
+        // then
+        assertNull(result);
+        assertEquals(0, secondary.calls.get());
+        assertEquals(0, hedged.stats().get("primary").getWins());
+        assertEquals(0, hedged.stats().get("primary").getLatency().getCount());
+    }
+
+    @Test
+    @DisplayName("기록이 충분하면 지연 시간 백분위수를 헤지 시간으로 사용한다")
+    void shouldUsePercentileBudgetAfterWarmup() {
+        // given
+        DelayInjectingSourceManager primary = new DelayInjectingSourceManager("youtube", 30, primaryItem);
+        DelayInjectingSourceManager secondary = new DelayInjectingSourceManager("youtube", 0, secondaryItem);
+        create(primary, secondary, 5_000, 1_000);
+        HedgedAudioSourceManager.Candidate candidate =
+                (HedgedAudioSourceManager.Candidate) hedged.stats().get("primary");
+        assertEquals(1_000, hedged.hedgeDelayMillis(candidate));
+
+        // when
+        for (int i = 0; i < 5; i++) {
+            hedged.loadItem(playerManager, REFERENCE);
+        }
+
+        // then: 약 30ms 근처로 줄어듦
+        long budget = hedged.hedgeDelayMillis(candidate);
+        assertTrue(budget >= 10 && budget < 1_000, "budget " + budget);
+        assertEquals("youtube", hedged.getSourceName());
+    }
+
+    @Test
+    @DisplayName("이긴 클라이언트의 트랙은 재생용 소스 매니저의 트랙으로 바꿔 돌려준다")
+    void shouldRebindWinningTrackToPlaybackManager() throws Exception {
+        // given
+        playback = mock(AudioSourceManager.class);
+        AudioTrack loaded = mock(AudioTrack.class);
+        AudioTrack bound = mock(AudioTrack.class);
+        AudioTrackInfo info = new AudioTrackInfo("title", "author", 1_000, "id", false, "uri");
+        DelayInjectingSourceManager primary = new DelayInjectingSourceManager("youtube", 0, loaded);
+        DelayInjectingSourceManager secondary = new DelayInjectingSourceManager("youtube", 0, secondaryItem);
+        when(loaded.getSourceManager()).thenReturn(primary);
+        when(loaded.getInfo()).thenReturn(info);
+        when(playback.decodeTrack(eq(info), any())).thenReturn(bound);
+        create(primary, secondary, 2_000, 500);
+
+        // when
+        AudioItem result = hedged.loadItem(playerManager, REFERENCE);
+
+        // then
+        assertSame(bound, result);
+        assertSame(bound, hedged.decodeTrack(info, null));
+    }
+}
@@ -0,0 +1,156 @@
+package music.service;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * IdleGuildReaper 테스트 클래스
+ *
+ * 테스트 대상:
+ * - reap(): 유휴 시간이 지난 서버 정리
+ * - reap(): 재생 중인 서버는 유지
+ * - reap(): 최대 유휴 서버 수를 넘으면 LRU 순으로 정리
+ * - reap(): 힙 사용률이 높아도 방금 사용한 서버는 유지
+ */
+class IdleGuildReaperTest {
+
+    private static final long IDLE_TIMEOUT = 60_000L;
+
+    private ConcurrentMap<Long, ServerMusicManager> musicByGuild;
+
+    // ServerMusicManager 가 재생에 쓰는(GaplessAudioPlayer 의 active) 플레이어 mock
+    private final Map<ServerMusicManager, AudioPlayer> players = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        musicByGuild = new ConcurrentHashMap<>();
+    }
+
+    private ServerMusicManager addGuild(long guildId, long lastActiveAt) {
+        AudioPlayerManager manager = mock(AudioPlayerManager.class);
+        AudioPlayer active = mock(AudioPlayer.class);
+        when(manager.createPlayer()).thenReturn(active, mock(AudioPlayer.class));
+        ServerMusicManager music = new ServerMusicManager(manager);
+        players.put(music, active);
+        music.touch(lastActiveAt);
+        musicByGuild.put(guildId, music);
+        return music;
+    }
+
+    @Test
+    @DisplayName("유휴 시간이 지난 서버를 제거하고 플레이어를 정리한다")
+    void shouldEvictExpiredGuild() {
+        // given
+        ServerMusicManager music = addGuild(1L, 0L);
+        IdleGuildReaper reaper = new IdleGuildReaper(musicByGuild, IDLE_TIMEOUT, 100, 0, 0);
+
+        // when
+        int removed = reaper.reap(IDLE_TIMEOUT);
+
+        // then
+        assertEquals(1, removed);
+        assertFalse(musicByGuild.containsKey(1L));
+        verify(players.get(music)).destroy();
+    }
+
+    @Test
+    @DisplayName("최근에 사용한 서버는 유지한다")
+    void shouldKeepRecentlyActiveGuild() {
+        // given
+        addGuild(1L, 10_000L);
+        IdleGuildReaper reaper = new IdleGuildReaper(musicByGuild, IDLE_TIMEOUT, 100, 0, 0);
+
+        // when
+        int removed = reaper.reap(20_000L);
+
+        // then
+        assertEquals(0, removed);
+        assertTrue(musicByGuild.containsKey(1L));
+    }
+
+    @Test
+    @DisplayName("재생 중인 서버는 오래되어도 유지하고 사용 시각을 갱신한다")
+    void shouldKeepPlayingGuild() {
+        // given
+        ServerMusicManager music = addGuild(1L, 0L);
+        when(players.get(music).getPlayingTrack()).thenReturn(mock(AudioTrack.class));
+        IdleGuildReaper reaper = new IdleGuildReaper(musicByGuild, IDLE_TIMEOUT, 100, 0, 0);
+
+        // when
+        int removed = reaper.reap(10 * IDLE_TIMEOUT);
+
+        // then
+        assertEquals(0, removed);
+        assertSame(music, musicByGuild.get(1L));
+        assertEquals(10 * IDLE_TIMEOUT, music.getLastActiveAt());
+        verify(players.get(music), never()).destroy();
+    }
+
+    @Test
+    @DisplayName("유휴 서버 수가 한도를 넘으면 가장 오래된 서버부터 정리한다")
+    void shouldEvictLeastRecentlyUsedOverLimit() {
+        // given
+        addGuild(1L, 1_000L);
+        addGuild(2L, 3_000L);
+        addGuild(3L, 2_000L);
+        IdleGuildReaper reaper = new IdleGuildReaper(musicByGuild, IDLE_TIMEOUT, 1, 0, 0);
+
+        // when
+        int removed = reaper.reap(5_000L);
+
+        // then
+        assertEquals(2, removed);
+        assertEquals(1, musicByGuild.size());
+        assertTrue(musicByGuild.containsKey(2L));
+    }
+
+    @Test
+    @DisplayName("후보로 고른 뒤 다시 사용된 서버는 정리하지 않는다")
+    void shouldNotEvictGuildTouchedAfterSelection() {
+        // given
+        ServerMusicManager music = addGuild(1L, 0L);
+        IdleGuildReaper reaper = new IdleGuildReaper(musicByGuild, IDLE_TIMEOUT, 0, 0, 0);
+        AtomicLong clock = new AtomicLong();
+        when(players.get(music).getPlayingTrack()).thenAnswer(invocation -> {
+            // 확인할 때마다 다른 스레드가 MusicManager.of()로 사용한 상황
+            music.touch(clock.incrementAndGet());
+            return null;
+        });
+
+        // when
+        reaper.reap(30_000L);
+
+        // then
+        assertSame(music, musicByGuild.get(1L));
+    }
+
+    @Test
+    @DisplayName("힙 사용률이 높아도 최소 유휴 시간이 지나지 않은 서버는 정리하지 않는다")
+    void shouldKeepJustUsedGuildUnderHeapPressure() {
+        // given: 힙 사용률 기준을 아주 낮게 잡아 항상 압박 상태
+        addGuild(1L, 1_000L);
+        addGuild(2L, 9_990L);
+        IdleGuildReaper reaper = new IdleGuildReaper(musicByGuild, IDLE_TIMEOUT, 100, 1e-9, 5_000L);
+
+        // when
+        int removed = reaper.reap(10_000L);
+
+        // then
+        assertEquals(1, removed);
+        assertFalse(musicByGuild.containsKey(1L));
+        assertTrue(musicByGuild.containsKey(2L));
+    }
+}
@@ -0,0 +1,146 @@
+package music.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LoadLanes 테스트 클래스
+ *
+ * 테스트 대상:
+ * - submit(): 같은 서버, 같은 레인의 작업은 순서대로 하나씩 실행
+ * - submit(): 느린 레인이 다른 레인을 막지 않음
+ * - stats(): 레인별 대기 통계
+ */
+class LoadLanesTest {
+
+    private final List<CountDownLatch> releases = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        releases.forEach(CountDownLatch::countDown);
+    }
+
+    private CountDownLatch blocker() {
+        CountDownLatch latch = new CountDownLatch(1);
+        releases.add(latch);
+        return latch;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    @DisplayName("같은 서버의 작업은 요청 순서대로 하나씩 실행한다")
+    void shouldRunSameGuildTasksSerially() throws Exception {
+        // given
+        LoadLanes lanes = LoadLanes.withThreadPools(Map.of(LoadPriority.TRACK, 4));
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch release = blocker();
+        CountDownLatch done = new CountDownLatch(3);
+
+        // when
+        lanes.submit("guild", LoadPriority.TRACK, () -> {
+            await(release);
+            order.add(1);
+            done.countDown();
+        });
+        lanes.submit("guild", LoadPriority.TRACK, () -> {
+            order.add(2);
+            done.countDown();
+        });
+        lanes.submit("guild", LoadPriority.TRACK, () -> {
+            order.add(3);
+            done.countDown();
+        });
+
+        // then: 첫 작업이 끝나기 전에는 뒤 작업이 시작되지 않음
+        Thread.sleep(50);
+        assertTrue(order.isEmpty());
+        assertEquals(2, lanes.stats(LoadPriority.TRACK).getWaiting());
+
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(1, 2, 3), order);
+    }
+
+    @Test
+    @DisplayName("느린 서버가 같은 레인의 다른 서버를 막지 않는다")
+    void shouldIsolateGuildsWithinLane() throws Exception {
+        // given
+        LoadLanes lanes = LoadLanes.withThreadPools(Map.of(LoadPriority.PLAYLIST, 2));
+        CountDownLatch release = blocker();
+        CountDownLatch other = new CountDownLatch(1);
+
+        // when: 느린 서버가 작업을 여러 개 쌓아도 스레드는 하나만 차지
+        for (int i = 0; i < 5; i++) {
+            lanes.submit("slow", LoadPriority.PLAYLIST, () -> await(release));
+        }
+        lanes.submit("fast", LoadPriority.PLAYLIST, other::countDown);
+
+        // then
+        assertTrue(other.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("재생목록 레인이 막혀도 입장곡 레인은 바로 실행한다")
+    void shouldIsolateLanes() throws Exception {
+        // given
+        LoadLanes lanes = LoadLanes.withThreadPools(Map.of(
+                LoadPriority.ENTRY_SONG, 1,
+                LoadPriority.PLAYLIST, 1));
+        CountDownLatch release = blocker();
+        CountDownLatch entry = new CountDownLatch(1);
+
+        // when
+        lanes.submit("a", LoadPriority.PLAYLIST, () -> await(release));
+        lanes.submit("b", LoadPriority.PLAYLIST, () -> await(release));
+        lanes.submit("a", LoadPriority.ENTRY_SONG, entry::countDown);
+
+        // then
+        assertTrue(entry.await(5, TimeUnit.SECONDS));
+        // 재생목록 레인의 첫 작업이 아직 스레드에 올라가기 전일 수 있음
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (lanes.stats(LoadPriority.PLAYLIST).getStarted() < 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, lanes.stats(LoadPriority.PLAYLIST).getWaiting());
+        assertEquals(0, lanes.stats(LoadPriority.ENTRY_SONG).getWaiting());
+    }
+
+    @Test
+    @DisplayName("작업이 실패해도 다음 작업을 실행하고 대기 시간을 기록한다")
+    void shouldContinueAfterFailureAndRecordWait() {
+        // given
+        LoadLanes lanes = new LoadLanes(priority -> Runnable::run);
+        List<String> ran = new ArrayList<>();
+
+        // when
+        lanes.submit("guild", LoadPriority.TRACK, () -> {
+            throw new IllegalStateException("boom");
+        });
+        lanes.submit("guild", LoadPriority.TRACK, () -> ran.add("next"));
+
+        // then
+        assertEquals(List.of("next"), ran);
+        LoadLanes.LaneStats stats = lanes.stats(LoadPriority.TRACK);
+        assertEquals(2, stats.getSubmitted());
+        assertEquals(2, stats.getStarted());
+        assertEquals(0, stats.getWaiting());
+        assertTrue(stats.getAverageWaitMillis() >= 0);
+    }
+}
@@ -174,9 +174,12 @@ class MusicManagerTest {
         // then
         assertNotNull(sourceManagers);
         assertFalse(sourceManagers.isEmpty());
-        // youtube-source가 등록되어 있는지 확인
+        // youtube-source가 직접 또는 헤지 로드용 HedgedAudioSourceManager 로 감싸져 등록되어 있는지 확인
         boolean hasYoutubeSource = sourceManagers.stream()
-                .anyMatch(manager -> manager.getClass().getName().contains("lavalink.youtube.YoutubeAudioSourceManager"));
+                .anyMatch(manager -> manager.getClass().getName().contains("lavalink.youtube.YoutubeAudioSourceManager")
+                        || (manager instanceof HedgedAudioSourceManager hedged
+                            && "youtube".equals(hedged.getSourceName())
+                            && hedged.stats().keySet().containsAll(java.util.List.of("web", "android", "web-embedded"))));
         assertTrue(hasYoutubeSource, "youtube-source가 AudioPlayerManager에 등록되어 있지 않습니다.");
     }
 }
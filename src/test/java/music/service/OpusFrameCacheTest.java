@@ -0,0 +1,192 @@
+package music.service;
+
+import com.sedmelluq.discord.lavaplayer.format.StandardAudioDataFormats;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
+import com.sedmelluq.discord.lavaplayer.player.DefaultAudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
+import com.sedmelluq.discord.lavaplayer.track.playback.AudioFrame;
+import com.sedmelluq.discord.lavaplayer.track.playback.MutableAudioFrame;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * OpusFrameCache 테스트 클래스
+ *
+ * 테스트 대상:
+ * - put()/get(): 바이트 예산 기준 LRU 제거, 적중률
+ * - wrap(): 캐시에 있으면 저장된 프레임으로 재생하는 트랙 반환
+ * - Recorder: 처음부터 끝까지 이어진 프레임만 저장
+ * - CachedOpusAudioTrack: 실제 플레이어에서 저장된 프레임을 그대로 내보냄
+ */
+class OpusFrameCacheTest {
+
+    private static final long MINUTE = 60_000L;
+
+    private OpusFrameCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new OpusFrameCache(800, 10 * MINUTE);
+    }
+
+    private static OpusClip clipOf(int frames, int frameBytes) {
+        return new OpusClip(Collections.nCopies(frames, new byte[frameBytes]));
+    }
+
+    private static AudioTrack track(String id, long length) {
+        AudioTrack track = mock(AudioTrack.class);
+        lenient().when(track.getIdentifier()).thenReturn(id);
+        lenient().when(track.getInfo()).thenReturn(new AudioTrackInfo("t", "a", length, id, false, "uri"));
+        return track;
+    }
+
+    private static MutableAudioFrame frame(long timecode, byte... data) {
+        MutableAudioFrame frame = new MutableAudioFrame();
+        frame.setBuffer(ByteBuffer.allocate(64));
+        frame.setFormat(StandardAudioDataFormats.DISCORD_OPUS);
+        frame.setTimecode(timecode);
+        frame.store(data, 0, data.length);
+        return frame;
+    }
+
+    @Test
+    @DisplayName("예산을 넘으면 가장 오래 안 쓴 곡부터 지운다")
+    void shouldEvictLeastRecentlyUsedByBytes() {
+        // given: 한 곡 100 byte, 8곡이면 예산(800)이 참
+        for (char id = 'a'; id <= 'h'; id++) {
+            cache.put(String.valueOf(id), clipOf(10, 10));
+        }
+        cache.get("a");
+
+        // when
+        cache.put("i", clipOf(10, 10));
+
+        // then
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("i"));
+        assertEquals(800, cache.getUsedBytes());
+        assertEquals(8, cache.size());
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    @DisplayName("예산의 1/8 을 넘는 곡은 저장하지 않는다")
+    void shouldSkipOversizedEntry() {
+        cache.put("big", clipOf(11, 10));
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("캐시에 있는 곡은 저장된 프레임으로 재생하는 트랙으로 바꾸고 적중률을 기록한다")
+    void shouldWrapCachedTrackAndCountHits() {
+        // given
+        AudioTrack cachedSource = track("hit", MINUTE);
+        AudioTrack other = track("miss", MINUTE);
+        cache.put("hit", clipOf(3, 10));
+
+        // when
+        AudioTrack wrapped = cache.wrap(cachedSource);
+
+        // then
+        assertInstanceOf(CachedOpusAudioTrack.class, wrapped);
+        assertEquals("hit", wrapped.getIdentifier());
+        assertNull(cache.wrap(other));
+        assertNull(cache.wrap(wrapped));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.5, cache.hitRate());
+    }
+
+    @Test
+    @DisplayName("처음부터 끝까지 이어진 프레임을 모아 곡이 끝나면 저장한다")
+    void shouldRecordFullPlayback() {
+        // given
+        AudioTrack song = track("song", 60);
+        OpusFrameCache.Recorder recorder = cache.newRecorder();
+
+        // when
+        recorder.onFrame(song, frame(0, (byte) 1), true);
+        recorder.onFrame(song, frame(20, (byte) 2), true);
+        recorder.onFrame(song, frame(40, (byte) 3), true);
+        recorder.onEnd(song, true);
+
+        // then
+        OpusClip stored = cache.get("song");
+        assertNotNull(stored);
+        assertEquals(3, stored.frameCount());
+        assertArrayEquals(new byte[]{2}, stored.frame(1));
+    }
+
+    @Test
+    @DisplayName("중간부터 재생하거나, 탐색하거나, 필터가 걸리거나, 끝까지 안 가면 저장하지 않는다")
+    void shouldNotRecordIncompletePlayback() {
+        OpusFrameCache.Recorder recorder = cache.newRecorder();
+
+        AudioTrack resumed = track("resumed", 60);
+        recorder.onFrame(resumed, frame(5_000, (byte) 1), true);
+        recorder.onEnd(resumed, true);
+
+        AudioTrack seeked = track("seeked", 60);
+        recorder.onFrame(seeked, frame(0, (byte) 1), true);
+        recorder.onFrame(seeked, frame(1_000, (byte) 2), true);
+        recorder.onEnd(seeked, true);
+
+        AudioTrack filtered = track("filtered", 40);
+        recorder.onFrame(filtered, frame(0, (byte) 1), true);
+        recorder.onFrame(filtered, frame(20, (byte) 2), false);
+        recorder.onEnd(filtered, true);
+
+        AudioTrack skipped = track("skipped", 40);
+        recorder.onFrame(skipped, frame(0, (byte) 1), true);
+        recorder.onFrame(skipped, frame(20, (byte) 2), true);
+        recorder.onEnd(skipped, false);
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("저장된 프레임을 실제 플레이어에서 그대로 내보낸다")
+    void shouldPlayCachedFramesThroughRealPlayer() throws Exception {
+        // given: 0xFC = CELT 20ms 스테레오 한 프레임
+        List<byte[]> frames = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            frames.add(new byte[]{(byte) 0xFC, (byte) i, (byte) (i * 2)});
+        }
+        DefaultAudioPlayerManager manager = new DefaultAudioPlayerManager();
+        AudioPlayer player = manager.createPlayer();
+        AudioTrack source = track("real", 100);
+        CachedOpusAudioTrack cached = new CachedOpusAudioTrack(new OpusClip(frames), source);
+
+        try {
+            // when
+            player.startTrack(cached, false);
+            List<byte[]> provided = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                AudioFrame frame = player.provide(5, TimeUnit.SECONDS);
+                assertNotNull(frame);
+                provided.add(frame.getData());
+            }
+
+            // then
+            for (int i = 0; i < 5; i++) {
+                assertArrayEquals(frames.get(i), provided.get(i));
+            }
+        } finally {
+            player.destroy();
+            manager.shutdown();
+        }
+    }
+}
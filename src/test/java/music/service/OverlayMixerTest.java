@@ -0,0 +1,235 @@
+package music.service;
+
+import com.sedmelluq.discord.lavaplayer.format.AudioDataFormat;
+import com.sedmelluq.discord.lavaplayer.format.StandardAudioDataFormats;
+import com.sedmelluq.discord.lavaplayer.player.AudioConfiguration;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.playback.MutableAudioFrame;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * OverlayMixer 테스트 클래스
+ *
+ * 네이티브 Opus 없이 검증하도록 메인 형식도 PCM 으로 둡니다.
+ *
+ * 테스트 대상:
+ * - provide(): 클립이 없으면 메인 프레임을 그대로 전달
+ * - provide(): 클립이 나오는 동안 메인 볼륨을 낮춰 더하기, 범위 밖 값은 잘라냄
+ * - isActive(): 클립이 끝난 뒤 볼륨을 모두 되돌릴 때까지 유지
+ * - play(OpusClip): 메인 곡이 없으면 프레임 그대로 전달, 있으면 섞기
+ */
+@ExtendWith(MockitoExtension.class)
+class OverlayMixerTest {
+
+    private static final AudioDataFormat PCM = StandardAudioDataFormats.DISCORD_PCM_S16_BE;
+    private static final int SAMPLES = PCM.totalSampleCount();
+
+    @Mock
+    private AudioPlayer main;
+
+    @Mock
+    private AudioPlayer overlay;
+
+    private final ByteBuffer out = ByteBuffer.allocate(PCM.maximumChunkSize());
+
+    private OverlayMixer mixer;
+
+    @BeforeEach
+    void setUp() {
+        // 한 프레임(20ms)에 0.5 까지 낮추고, 한 프레임에 되돌림
+        mixer = new OverlayMixer(overlay, PCM, PCM, new AudioConfiguration(), 0.5, 20);
+    }
+
+    private static byte[] constant(short value) {
+        ByteBuffer bytes = ByteBuffer.allocate(SAMPLES * 2);
+        for (int i = 0; i < SAMPLES; i++) {
+            bytes.putShort(value);
+        }
+        return bytes.array();
+    }
+
+    private static void stubFrame(AudioPlayer player, byte[] data) {
+        when(player.provide(any(MutableAudioFrame.class))).thenAnswer(invocation -> {
+            MutableAudioFrame frame = invocation.getArgument(0);
+            frame.store(data, 0, data.length);
+            return true;
+        });
+    }
+
+    private short[] sent() {
+        ByteBuffer frame = out.duplicate().flip();
+        short[] samples = new short[frame.remaining() / 2];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = frame.getShort();
+        }
+        return samples;
+    }
+
+    @Test
+    @DisplayName("클립이 없으면 메인 프레임을 그대로 전달한다")
+    void shouldPassThroughWithoutClip() {
+        // given
+        byte[] data = {1, 2, 3, 4, 5};
+        stubFrame(main, data);
+
+        // when
+        boolean provided = mixer.provide(main, out);
+
+        // then
+        assertTrue(provided);
+        ByteBuffer frame = out.duplicate().flip();
+        byte[] actual = new byte[frame.remaining()];
+        frame.get(actual);
+        assertArrayEquals(data, actual);
+        assertFalse(mixer.isActive());
+        // 클립이 없으면 overlay 프레임(과 섞기용 버퍼)을 쓰지 않음
+        verify(overlay, never()).provide(any(MutableAudioFrame.class));
+    }
+
+    @Test
+    @DisplayName("클립이 나오는 동안 메인 볼륨을 낮춰 클립과 더한다")
+    void shouldDuckMainAndAddClip() {
+        // given
+        when(overlay.getPlayingTrack()).thenReturn(mock(AudioTrack.class));
+        stubFrame(main, constant((short) 1000));
+        stubFrame(overlay, constant((short) 300));
+
+        // when: 첫 프레임은 1 -> 0.5 로 낮아지는 중
+        mixer.provide(main, out);
+        short[] first = sent();
+        mixer.provide(main, out);
+        short[] second = sent();
+
+        // then
+        assertEquals(SAMPLES, first.length);
+        assertEquals(1300, first[0]);
+        assertTrue(first[SAMPLES - 1] < 900);
+        for (short sample : second) {
+            assertEquals(800, sample);
+        }
+        assertEquals(0.5f, mixer.currentGain());
+        assertTrue(mixer.isActive());
+    }
+
+    @Test
+    @DisplayName("더한 값이 16bit 범위를 넘으면 잘라낸다")
+    void shouldClipOverflow() {
+        // given
+        when(overlay.getPlayingTrack()).thenReturn(mock(AudioTrack.class));
+        stubFrame(main, constant(Short.MAX_VALUE));
+        stubFrame(overlay, constant(Short.MAX_VALUE));
+
+        // when
+        mixer.provide(main, out);
+
+        // then
+        for (short sample : sent()) {
+            assertEquals(Short.MAX_VALUE, sample);
+        }
+    }
+
+    @Test
+    @DisplayName("메인 곡이 없어도 클립만 내보낸다")
+    void shouldSendClipWithoutMain() {
+        // given
+        when(overlay.getPlayingTrack()).thenReturn(mock(AudioTrack.class));
+        when(main.provide(any(MutableAudioFrame.class))).thenReturn(false);
+        stubFrame(overlay, constant((short) 300));
+
+        // when
+        boolean provided = mixer.provide(main, out);
+
+        // then
+        assertTrue(provided);
+        assertEquals(300, sent()[0]);
+    }
+
+    @Test
+    @DisplayName("클립이 끝나면 볼륨을 되돌린 뒤 통과 상태로 돌아간다")
+    void shouldRestoreGainAfterClipEnds() {
+        // given
+        AudioTrack clip = mock(AudioTrack.class);
+        when(overlay.getPlayingTrack()).thenReturn(clip);
+        stubFrame(main, constant((short) 1000));
+        stubFrame(overlay, constant((short) 0));
+        mixer.provide(main, out);
+        assertTrue(mixer.isActive());
+
+        // when: 클립 종료 (재생 중인 클립이 없으면 overlay 플레이어에서 프레임을 받지 않음)
+        when(overlay.getPlayingTrack()).thenReturn(null);
+        mixer.provide(main, out);
+
+        // then
+        short[] ramp = sent();
+        assertTrue(ramp[0] < 600);
+        assertEquals(1000, ramp[SAMPLES - 1], 1);
+        assertFalse(mixer.isActive());
+    }
+
+    @Test
+    @DisplayName("형식이 다르면 만들 수 없다")
+    void shouldRejectMismatchedFormats() {
+        assertThrows(IllegalArgumentException.class, () -> new OverlayMixer(
+                overlay, PCM, StandardAudioDataFormats.COMMON_PCM_S16_BE, new AudioConfiguration(), 0.5, 20));
+    }
+
+    @Test
+    @DisplayName("클립 재생은 overlay 플레이어로 바꿔 재생한다")
+    void shouldPlayClipOnOverlayPlayer() {
+        // given
+        AudioTrack clip = mock(AudioTrack.class);
+        when(overlay.startTrack(clip, false)).thenReturn(true);
+
+        // when & then
+        assertTrue(mixer.play(clip));
+        verify(main, never()).startTrack(any(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("메인 곡이 없으면 미리 인코딩한 클립 프레임을 그대로 보낸다")
+    void shouldSendPrerenderedFramesAsIs() {
+        // given
+        when(main.provide(any(MutableAudioFrame.class))).thenReturn(false);
+        mixer.play(new OpusClip(List.of(new byte[]{1, 2}, new byte[]{3})));
+
+        // when & then
+        assertTrue(mixer.provide(main, out));
+        assertArrayEquals(new byte[]{1, 2}, Arrays.copyOf(out.array(), out.position()));
+        assertTrue(mixer.provide(main, out));
+        assertArrayEquals(new byte[]{3}, Arrays.copyOf(out.array(), out.position()));
+        assertFalse(mixer.provide(main, out));
+        assertFalse(mixer.isActive());
+        verify(overlay).stopTrack();
+    }
+
+    @Test
+    @DisplayName("메인 곡이 있으면 미리 인코딩한 클립을 디코딩해 섞는다")
+    void shouldMixPrerenderedClipWithMain() {
+        // given
+        stubFrame(main, constant((short) 1000));
+        mixer.play(new OpusClip(List.of(constant((short) 300), constant((short) 300))));
+
+        // when
+        mixer.provide(main, out);
+        mixer.provide(main, out);
+
+        // then
+        for (short sample : sent()) {
+            assertEquals(800, sample);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package music.service;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.tools.io.MessageInput;
+import com.sedmelluq.discord.lavaplayer.tools.io.MessageOutput;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.DecodedTrackHolder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.*;
+
+/**
+ * PlaybackSnapshotter 테스트 클래스
+ *
+ * 테스트 대상:
+ * - snapshot(): 재생 중인 서버의 상태 저장, 바뀐 서버만 다시 저장
+ * - snapshot(): 위치만 바뀌면 일정 이상 움직였을 때 위치 파일에만 저장
+ * - snapshot(): 재생이 끝난 서버의 저장 파일 삭제
+ * - restore(): 저장된 위치부터 재생하고 대기열 복원
+ */
+class PlaybackSnapshotterTest {
+
+    private static final long GUILD_ID = 1L;
+    private static final long CHANNEL_ID = 100L;
+    private static final long POSITION_STEP = 5_000L;
+
+    @TempDir
+    Path tempDir;
+
+    private PlaybackStateStore store;
+    private AudioPlayerManager codec;
+    private ConcurrentMap<Long, ServerMusicManager> musicByGuild;
+    private PlaybackSnapshotter snapshotter;
+
+    private final Map<String, AudioTrack> tracksById = new HashMap<>();
+    private AudioPlayer active;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        store = new PlaybackStateStore(tempDir);
+        musicByGuild = new ConcurrentHashMap<>();
+
+        // 트랙 ID 만 기록하는 인코딩
+        codec = mock(AudioPlayerManager.class);
+        doAnswer(invocation -> {
+            MessageOutput output = invocation.getArgument(0);
+            AudioTrack track = invocation.getArgument(1);
+            DataOutput data = output.startMessage();
+            data.writeUTF(track.getIdentifier());
+            output.commitMessage();
+            return null;
+        }).when(codec).encodeTrack(any(MessageOutput.class), any(AudioTrack.class));
+        when(codec.decodeTrack(any(MessageInput.class))).thenAnswer(invocation -> {
+            MessageInput input = invocation.getArgument(0);
+            DataInput data = input.nextMessage();
+            return new DecodedTrackHolder(tracksById.get(data.readUTF()));
+        });
+
+        snapshotter = new PlaybackSnapshotter(musicByGuild, codec, store, guildId -> CHANNEL_ID, POSITION_STEP);
+    }
+
+    private AudioTrack track(String id) {
+        AudioTrack track = mock(AudioTrack.class);
+        lenient().when(track.getIdentifier()).thenReturn(id);
+        tracksById.put(id, track);
+        return track;
+    }
+
+    /**
+     * playing 을 재생 중이고 queued 가 대기열에 있는 서버를 만듭니다.
+     */
+    private ServerMusicManager addGuild(AudioTrack playing, AudioTrack... queued) {
+        AudioPlayerManager manager = mock(AudioPlayerManager.class);
+        active = mock(AudioPlayer.class);
+        when(manager.createPlayer()).thenReturn(active, mock(AudioPlayer.class));
+        ServerMusicManager music = new ServerMusicManager(manager);
+        when(active.getPlayingTrack()).thenReturn(playing);
+        for (AudioTrack track : queued) {
+            music.scheduler.queue(track);
+        }
+        musicByGuild.put(GUILD_ID, music);
+        return music;
+    }
+
+    @Test
+    @DisplayName("재생 중인 곡, 위치, 대기열을 저장한다")
+    void shouldSaveQueueAndPosition() {
+        // given
+        AudioTrack playing = track("a");
+        when(playing.getPosition()).thenReturn(42_000L);
+        addGuild(playing, track("b"), track("c"));
+
+        // when
+        int written = snapshotter.snapshot(1_000L);
+
+        // then
+        assertEquals(1, written);
+        List<PlaybackState> states = store.readAll();
+        assertEquals(1, states.size());
+        PlaybackState state = states.get(0);
+        assertEquals(GUILD_ID, state.guildId);
+        assertEquals(CHANNEL_ID, state.voiceChannelId);
+        assertEquals(42_000L, state.position);
+        assertSame(playing, TrackCodec.decodeBytes(codec, state.playingTrack));
+        assertEquals(2, state.queuedTracks.size());
+        assertSame(tracksById.get("c"), TrackCodec.decodeBytes(codec, state.queuedTracks.get(1)));
+        assertEquals(1_000L, state.savedAt);
+    }
+
+    @Test
+    @DisplayName("바뀐 게 없으면 다시 저장하지 않고, 위치만 바뀌면 대기열 파일을 다시 쓰지 않는다")
+    void shouldSkipUnchangedAndKeepQueueFileOnPositionChange() throws Exception {
+        // given
+        AudioTrack playing = track("a");
+        when(playing.getPosition()).thenReturn(1_000L);
+        addGuild(playing, track("b"), track("c"));
+        snapshotter.snapshot(1_000L);
+        Path queueFile = tempDir.resolve(GUILD_ID + ".bin");
+        FileTime queueWritten = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(queueFile, queueWritten);
+
+        // when & then
+        assertEquals(0, snapshotter.snapshot(2_000L));
+
+        // 저장한 위치에서 POSITION_STEP 만큼 움직이지 않았으면 건너뜀
+        when(playing.getPosition()).thenReturn(4_000L);
+        assertEquals(0, snapshotter.snapshot(3_000L));
+        assertEquals(1_000L, store.readAll().get(0).position);
+
+        when(playing.getPosition()).thenReturn(6_000L);
+        assertEquals(1, snapshotter.snapshot(4_000L));
+        PlaybackState state = store.readAll().get(0);
+        assertEquals(6_000L, state.position);
+        assertEquals(2, state.queuedTracks.size());
+        assertEquals(queueWritten, Files.getLastModifiedTime(queueFile));
+        // 처음 저장할 때 3곡만 인코딩
+        verify(codec, times(3)).encodeTrack(any(MessageOutput.class), any(AudioTrack.class));
+    }
+
+    @Test
+    @DisplayName("대기열이 바뀌면 새 곡만 인코딩해서 다시 저장한다")
+    void shouldEncodeOnlyNewTracksWhenQueueChanges() throws Exception {
+        // given
+        AudioTrack playing = track("a");
+        ServerMusicManager music = addGuild(playing, track("b"));
+        snapshotter.snapshot(1_000L);
+
+        // when
+        music.scheduler.queue(track("c"));
+        int written = snapshotter.snapshot(2_000L);
+
+        // then
+        assertEquals(1, written);
+        assertEquals(2, store.readAll().get(0).queuedTracks.size());
+        verify(codec, times(3)).encodeTrack(any(MessageOutput.class), any(AudioTrack.class));
+    }
+
+    @Test
+    @DisplayName("재생도 대기열도 없어지면 저장 파일을 지운다")
+    void shouldDeleteWhenGuildStopsPlaying() {
+        // given
+        AudioTrack playing = track("a");
+        ServerMusicManager music = addGuild(playing, track("b"));
+        snapshotter.snapshot(1_000L);
+
+        // when
+        when(active.getPlayingTrack()).thenReturn(null);
+        music.scheduler.stop();
+        snapshotter.snapshot(2_000L);
+
+        // then
+        assertTrue(store.readAll().isEmpty());
+    }
+
+    @Test
+    @DisplayName("보이스 채널을 아직 모르면 처음 저장은 미룬다")
+    void shouldWaitForVoiceChannel() {
+        // given
+        PlaybackSnapshotter noChannel = new PlaybackSnapshotter(musicByGuild, codec, store, guildId -> 0, POSITION_STEP);
+        addGuild(track("a"));
+
+        // when
+        int written = noChannel.snapshot(1_000L);
+
+        // then
+        assertEquals(0, written);
+        assertTrue(store.readAll().isEmpty());
+    }
+
+    @Test
+    @DisplayName("저장된 위치부터 재생하고 대기열을 순서대로 되돌린다")
+    void shouldRestoreFromSavedState() {
+        // given
+        AudioTrack playing = track("a");
+        when(playing.getPosition()).thenReturn(30_000L);
+        addGuild(playing, track("b"), track("c"));
+        snapshotter.snapshot(1_000L);
+        PlaybackState state = store.readAll().get(0);
+
+        // 재시작 후: 다시 디코딩하면 새 트랙 객체가 나옴
+        AudioTrack restoredA = track("a");
+        when(restoredA.isSeekable()).thenReturn(true);
+        AudioTrack restoredB = track("b");
+        AudioTrack restoredC = track("c");
+
+        AudioPlayerManager manager = mock(AudioPlayerManager.class);
+        AudioPlayer player = mock(AudioPlayer.class);
+        when(manager.createPlayer()).thenReturn(player, mock(AudioPlayer.class));
+        when(player.startTrack(any(), anyBoolean())).thenReturn(true);
+        ServerMusicManager fresh = new ServerMusicManager(manager);
+
+        // when
+        int count = PlaybackSnapshotter.restore(codec, fresh, state);
+
+        // then
+        assertEquals(3, count);
+        verify(restoredA).setPosition(30_000L);
+        verify(player).startTrack(restoredA, true);
+        assertEquals(List.of(restoredB, restoredC), List.copyOf(fresh.scheduler.getQueue()));
+    }
+}
@@ -0,0 +1,130 @@
+package music.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PlaybackStateStore 테스트 클래스
+ *
+ * 테스트 대상:
+ * - write()/readAll(): 바이너리 저장과 복원
+ * - writePosition(): 같은 대기열 파일에 대한 위치만 반영
+ * - delete(): 저장된 상태 삭제
+ * - readAll(): 깨진 파일은 건너뜀
+ */
+class PlaybackStateStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private PlaybackStateStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new PlaybackStateStore(tempDir);
+    }
+
+    private static PlaybackState state(long guildId, byte[] playing, byte[]... queued) {
+        return new PlaybackState(guildId, 100L, playing, 12_345L, List.of(queued), 999L);
+    }
+
+    @Test
+    @DisplayName("저장한 상태를 그대로 읽어온다")
+    void shouldRoundTrip() throws Exception {
+        // given
+        store.write(state(1L, new byte[]{1, 2, 3}, new byte[]{4}, new byte[]{5, 6}));
+
+        // when
+        List<PlaybackState> states = store.readAll();
+
+        // then
+        assertEquals(1, states.size());
+        PlaybackState state = states.get(0);
+        assertEquals(1L, state.guildId);
+        assertEquals(100L, state.voiceChannelId);
+        assertEquals(12_345L, state.position);
+        assertEquals(999L, state.savedAt);
+        assertArrayEquals(new byte[]{1, 2, 3}, state.playingTrack);
+        assertEquals(2, state.queuedTracks.size());
+        assertArrayEquals(new byte[]{5, 6}, state.queuedTracks.get(1));
+    }
+
+    @Test
+    @DisplayName("재생 중인 곡이 없어도 대기열만 저장할 수 있다")
+    void shouldSaveQueueWithoutPlayingTrack() throws Exception {
+        // given
+        store.write(state(2L, null, new byte[]{7}));
+
+        // when
+        PlaybackState state = store.readAll().get(0);
+
+        // then
+        assertNull(state.playingTrack);
+        assertEquals(1, state.queuedTracks.size());
+    }
+
+    @Test
+    @DisplayName("같은 서버는 덮어쓰고, 지우면 더 이상 읽히지 않는다")
+    void shouldOverwriteAndDelete() throws Exception {
+        // given
+        store.write(state(1L, new byte[]{1}));
+        store.write(state(1L, new byte[]{2}));
+        store.write(state(2L, new byte[]{3}));
+
+        // when
+        store.delete(2L);
+
+        // then
+        List<PlaybackState> states = store.readAll();
+        assertEquals(1, states.size());
+        assertArrayEquals(new byte[]{2}, states.get(0).playingTrack);
+    }
+
+    @Test
+    @DisplayName("위치 파일은 같은 대기열 파일에 대한 것만 반영한다")
+    void shouldApplyPositionOfSameQueueFile() throws Exception {
+        // given
+        store.write(state(1L, new byte[]{1}));
+        store.writePosition(1L, 999L, 50_000L);
+
+        // when & then
+        assertEquals(50_000L, store.readAll().get(0).position);
+
+        // 대기열 파일을 새로 쓰면 이전 위치 레코드는 무시
+        store.write(new PlaybackState(1L, 100L, new byte[]{2}, 7_000L, List.of(), 2_000L));
+        assertEquals(7_000L, store.readAll().get(0).position);
+
+        // 깨진 위치 레코드도 무시
+        store.writePosition(1L, 2_000L, 9_000L);
+        byte[] record = Files.readAllBytes(tempDir.resolve("1.pos"));
+        record[27] ^= 1;
+        Files.write(tempDir.resolve("1.pos"), record);
+        assertEquals(7_000L, store.readAll().get(0).position);
+
+        store.delete(1L);
+        assertFalse(Files.exists(tempDir.resolve("1.pos")));
+    }
+
+    @Test
+    @DisplayName("깨진 파일은 건너뛴다")
+    void shouldSkipCorruptFile() throws Exception {
+        // given
+        store.write(state(1L, new byte[]{1}));
+        Files.write(tempDir.resolve("2.bin"), new byte[]{0x1f, (byte) 0x8b, 0, 1, 2});
+
+        // when
+        List<PlaybackState> states = store.readAll();
+
+        // then
+        assertEquals(1, states.size());
+        assertEquals(1L, states.get(0).guildId);
+    }
+}
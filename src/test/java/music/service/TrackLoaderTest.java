@@ -0,0 +1,286 @@
+package music.service;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioLoadResultHandler;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.tools.io.MessageInput;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.DecodedTrackHolder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * TrackLoader 테스트 클래스
+ *
+ * 테스트 대상:
+ * - load(): 캐시에 없으면 Lavaplayer 로 불러오고 결과를 저장
+ * - load(): 캐시에 있으면 Lavaplayer 를 거치지 않고 전달
+ * - load(): 캐시 대상이 아닌 경로는 그대로 전달
+ * - load(): 같은 서버의 앞선 로드가 남아 있으면 캐시된 결과도 그 뒤에 전달
+ * - load(): 동시에 들어온 같은 요청은 한 번만 해석하고 복제본을 나눠줌
+ * - load(): 다른 서버의 레인에서 아직 기다리는 요청에는 합류하지 않음
+ */
+@ExtendWith(MockitoExtension.class)
+class TrackLoaderTest {
+
+    private static final String URL = "https://www.youtube.com/watch?v=abc";
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private AudioPlayerManager playerManager;
+
+    @Mock
+    private AudioLoadResultHandler handler;
+
+    @Mock
+    private AudioTrack track;
+
+    private TrackResolutionCache cache;
+    private TrackLoader loader;
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<ExecutorService> executors = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        cache = new TrackResolutionCache(tempDir, 100, 60_000L, 60_000L, 1_000, 1 << 20);
+        loader = new TrackLoader(playerManager, cache, new LoadLanes(priority -> Runnable::run));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        release.countDown();
+        for (ExecutorService executor : executors) {
+            executor.shutdown();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        // 임시 디렉터리를 지우기 전에 캐시의 디스크 기록을 마침
+        cache.close();
+    }
+
+    private void answerWith(String query, Consumer<AudioLoadResultHandler> result) {
+        doAnswer(invocation -> {
+            result.accept(invocation.getArgument(1));
+            return null;
+        }).when(playerManager).loadItemSync(eq(query), any(AudioLoadResultHandler.class));
+    }
+
+    @Test
+    @DisplayName("처음 불러오면 Lavaplayer 결과를 그대로 전달한다")
+    void shouldDelegateToLavaplayerOnMiss() {
+        // when
+        answerWith(URL, h -> h.trackLoaded(track));
+        loader.load(this, URL, handler);
+
+        // then
+        verify(handler).trackLoaded(track);
+        assertEquals(1, loader.cache().getMisses());
+    }
+
+    @Test
+    @DisplayName("같은 URL을 다시 불러오면 캐시에서 복원한다")
+    void shouldServeSecondLoadFromCache() throws Exception {
+        // given
+        AudioTrack decoded = mock(AudioTrack.class);
+        when(playerManager.decodeTrack(any(MessageInput.class))).thenReturn(new DecodedTrackHolder(decoded));
+        answerWith(URL, h -> h.trackLoaded(track));
+        loader.load(this, URL, handler);
+
+        // when: 파라미터만 다른 같은 영상
+        AudioLoadResultHandler second = mock(AudioLoadResultHandler.class);
+        loader.load(this, "https://youtu.be/abc?si=zz", second);
+
+        // then
+        verify(second).trackLoaded(decoded);
+        verify(playerManager, times(1)).loadItemSync(anyString(), any(AudioLoadResultHandler.class));
+        assertEquals(1, loader.cache().getMemoryHits());
+    }
+
+    @Test
+    @DisplayName("검색 결과 없음도 캐시한다")
+    void shouldCacheNoMatches() {
+        // given
+        answerWith("ytsearch:nothing", AudioLoadResultHandler::noMatches);
+        loader.load(this, "ytsearch:nothing", handler);
+
+        // when
+        AudioLoadResultHandler second = mock(AudioLoadResultHandler.class);
+        loader.load(this, "ytsearch:Nothing", second);
+
+        // then
+        verify(second).noMatches();
+        assertEquals(1, loader.cache().getNegativeHits());
+    }
+
+    @Test
+    @DisplayName("일시적인 로드 실패는 캐시하지 않는다")
+    void shouldNotCacheTransientFailure() {
+        // given
+        answerWith(URL, h -> h.loadFailed(
+                new FriendlyException("timeout", FriendlyException.Severity.SUSPICIOUS, null)));
+        loader.load(this, URL, handler);
+
+        // when
+        loader.load(this, URL, mock(AudioLoadResultHandler.class));
+
+        // then
+        verify(playerManager, times(2)).loadItemSync(eq(URL), any(AudioLoadResultHandler.class));
+    }
+
+    @Test
+    @DisplayName("로컬 파일 경로는 캐시 없이 Lavaplayer로 불러온다")
+    void shouldPassThroughLocalPaths() {
+        // when
+        answerWith("uploads/user#0.mp3", h -> h.trackLoaded(track));
+        loader.load(this, "uploads/user#0.mp3", handler);
+
+        // then
+        verify(handler).trackLoaded(track);
+        assertEquals(0, loader.cache().getMisses());
+    }
+
+    @Test
+    @DisplayName("같은 서버의 앞선 로드가 남아 있으면 캐시된 결과도 그 뒤에 전달한다")
+    void shouldKeepRequestOrderForCachedResult() {
+        // given: 레인 작업을 직접 실행하는 로더, 두 번째 검색어는 캐시에 있음
+        List<Runnable> queued = new ArrayList<>();
+        TrackLoader ordered = new TrackLoader(playerManager, cache, new LoadLanes(priority -> queued::add));
+        cache.put(TrackResolutionCache.normalize("ytsearch:cached"),
+                CachedResolution.noMatches(cache.negativeExpiry(System.currentTimeMillis())));
+        answerWith("ytsearch:slow", h -> h.trackLoaded(track));
+        AudioLoadResultHandler second = mock(AudioLoadResultHandler.class);
+
+        // when
+        ordered.load("guild-1", "ytsearch:slow", handler);
+        ordered.load("guild-1", "ytsearch:cached", second);
+
+        // then: 앞선 로드가 끝나기 전에는 전달하지 않음
+        verifyNoInteractions(second);
+        while (!queued.isEmpty()) {
+            queued.remove(0).run();
+        }
+        InOrder inOrder = inOrder(handler, second);
+        inOrder.verify(handler).trackLoaded(track);
+        inOrder.verify(second).noMatches();
+    }
+
+    @Test
+    @DisplayName("진행 중인 같은 요청에 합류하고 각자 다른 트랙 인스턴스를 받는다")
+    void shouldCoalesceConcurrentIdenticalLoads() throws Exception {
+        // given: 첫 요청의 해석이 끝나지 않고 멈춰 있음
+        TrackLoader threaded = threadedLoader();
+        AudioTrack clone = mock(AudioTrack.class);
+        when(track.makeClone()).thenReturn(clone);
+        AudioLoadResultHandler other = mock(AudioLoadResultHandler.class);
+        CountDownLatch started = new CountDownLatch(1);
+        answerWith(URL, h -> {
+            started.countDown();
+            await(release);
+            h.trackLoaded(track);
+        });
+
+        // when: 첫 요청이 끝나기 전에 다른 서버가 같은 영상을 요청
+        threaded.load("guild-1", URL, handler);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        threaded.load("guild-2", "https://youtu.be/abc", other);
+        awaitCoalesced(threaded, 1);
+        release.countDown();
+
+        // then
+        verify(handler, timeout(5000)).trackLoaded(track);
+        verify(other, timeout(5000)).trackLoaded(clone);
+        verify(playerManager, times(1)).loadItemSync(anyString(), any(AudioLoadResultHandler.class));
+    }
+
+    @Test
+    @DisplayName("한 핸들러가 실패해도 다른 요청에는 결과가 전달된다")
+    void shouldDeliverToOtherWaitersWhenOneHandlerThrows() throws Exception {
+        // given
+        TrackLoader threaded = threadedLoader();
+        AudioLoadResultHandler other = mock(AudioLoadResultHandler.class);
+        doThrow(new IllegalStateException("boom")).when(handler).noMatches();
+        CountDownLatch started = new CountDownLatch(1);
+        answerWith("ytsearch:song", h -> {
+            started.countDown();
+            await(release);
+            h.noMatches();
+        });
+
+        // when
+        threaded.load("guild-1", "ytsearch:song", handler);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        threaded.load("guild-2", "ytsearch:song", other);
+        awaitCoalesced(threaded, 1);
+        release.countDown();
+
+        // then
+        verify(handler, timeout(5000)).noMatches();
+        verify(other, timeout(5000)).noMatches();
+    }
+
+    @Test
+    @DisplayName("다른 서버의 레인에서 아직 기다리는 요청에는 합류하지 않는다")
+    void shouldNotJoinLoadQueuedInAnotherGuildLane() {
+        // given: guild-1 은 느린 로드 뒤에 같은 파일을 기다리고 있음
+        List<Runnable> queued = new ArrayList<>();
+        TrackLoader manual = new TrackLoader(playerManager, cache, new LoadLanes(priority -> queued::add));
+        answerWith("uploads/song.mp3", h -> h.trackLoaded(track));
+        AudioLoadResultHandler other = mock(AudioLoadResultHandler.class);
+        manual.load("guild-1", "uploads/slow.mp3", mock(AudioLoadResultHandler.class));
+        manual.load("guild-1", "uploads/song.mp3", handler);
+
+        // when: guild-2 의 작업만 실행
+        manual.load("guild-2", "uploads/song.mp3", other);
+        queued.remove(1).run();
+
+        // then: guild-1 의 밀린 요청을 기다리지 않고 바로 받음
+        verify(other).trackLoaded(track);
+        verifyNoInteractions(handler);
+        assertEquals(0, manual.getCoalescedLoads());
+    }
+
+    private TrackLoader threadedLoader() {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        executors.add(executor);
+        return new TrackLoader(playerManager, cache, new LoadLanes(priority -> executor));
+    }
+
+    private static void awaitCoalesced(TrackLoader loader, long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (loader.getCoalescedLoads() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, loader.getCoalescedLoads());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
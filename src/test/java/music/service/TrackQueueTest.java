@@ -0,0 +1,228 @@
+package music.service;
+
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * TrackQueue 테스트 클래스
+ *
+ * 테스트 대상:
+ * - offer()/poll()/peek(): 큐 동작
+ * - get()/remove()/add()/move(): 위치 기반 조작
+ * - shuffle()/slice(): 섞기와 페이지 조회
+ * - getTotalDuration(): 재생 시간 합계 유지
+ * - snapshot(): 읽기 전용 복사본
+ */
+class TrackQueueTest {
+
+    private static AudioTrack track(long duration) {
+        AudioTrack track = mock(AudioTrack.class);
+        when(track.getDuration()).thenReturn(duration);
+        return track;
+    }
+
+    private static List<AudioTrack> tracks(int count) {
+        List<AudioTrack> tracks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tracks.add(track(1_000L * (i + 1)));
+        }
+        return tracks;
+    }
+
+    private static long sum(List<AudioTrack> tracks) {
+        return tracks.stream().mapToLong(AudioTrack::getDuration).sum();
+    }
+
+    @Test
+    @DisplayName("넣은 순서대로 꺼낸다")
+    void shouldPollInInsertionOrder() {
+        // given
+        TrackQueue queue = new TrackQueue();
+        List<AudioTrack> tracks = tracks(5);
+        tracks.forEach(queue::offer);
+
+        // then
+        assertEquals(5, queue.size());
+        assertSame(tracks.get(0), queue.peek());
+        for (AudioTrack expected : tracks) {
+            assertSame(expected, queue.poll());
+        }
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    @DisplayName("위치 기반 조작 결과가 리스트와 같고 합계를 유지한다")
+    void shouldMatchListUnderRandomOperations() {
+        // given
+        Random random = new Random(42);
+        TrackQueue queue = new TrackQueue();
+        List<AudioTrack> expected = new ArrayList<>();
+
+        // when
+        for (int step = 0; step < 2_000; step++) {
+            int op = random.nextInt(6);
+            if (op <= 1 || expected.isEmpty()) {
+                AudioTrack t = track(random.nextInt(600_000));
+                queue.offer(t);
+                expected.add(t);
+            } else if (op == 2) {
+                int index = random.nextInt(expected.size());
+                assertSame(expected.remove(index), queue.remove(index));
+            } else if (op == 3) {
+                int from = random.nextInt(expected.size());
+                int to = random.nextInt(expected.size());
+                queue.move(from, to);
+                expected.add(to, expected.remove(from));
+            } else if (op == 4) {
+                int index = random.nextInt(expected.size() + 1);
+                AudioTrack t = track(random.nextInt(600_000));
+                queue.add(index, t);
+                expected.add(index, t);
+            } else {
+                assertSame(expected.remove(0), queue.poll());
+            }
+
+            // then
+            assertEquals(expected.size(), queue.size());
+            assertEquals(sum(expected), queue.getTotalDuration());
+        }
+        assertEquals(expected, new ArrayList<>(queue));
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.get(i), queue.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("여러 곡을 한 번에 추가해도 순서와 합계가 맞다")
+    void shouldAddAllInOrder() {
+        // given
+        TrackQueue queue = new TrackQueue();
+        List<AudioTrack> first = tracks(3);
+        List<AudioTrack> second = tracks(1_000);
+
+        // when
+        queue.addAll(first);
+        queue.addAll(second);
+
+        // then
+        List<AudioTrack> expected = new ArrayList<>(first);
+        expected.addAll(second);
+        assertEquals(expected, new ArrayList<>(queue));
+        assertEquals(sum(expected), queue.getTotalDuration());
+    }
+
+    @Test
+    @DisplayName("페이지 조회는 해당 범위만 반환한다")
+    void shouldSlicePage() {
+        // given
+        TrackQueue queue = new TrackQueue();
+        List<AudioTrack> tracks = tracks(25);
+        queue.addAll(tracks);
+
+        // then
+        assertEquals(tracks.subList(10, 20), queue.slice(10, 10));
+        assertEquals(tracks.subList(20, 25), queue.slice(20, 10));
+        assertTrue(queue.slice(30, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("섞어도 같은 곡들과 합계를 유지한다")
+    void shouldKeepTracksOnShuffle() {
+        // given
+        TrackQueue queue = new TrackQueue();
+        List<AudioTrack> tracks = tracks(100);
+        queue.addAll(tracks);
+
+        // when
+        queue.shuffle(new Random(1));
+
+        // then
+        List<AudioTrack> shuffled = new ArrayList<>(queue);
+        assertNotEquals(tracks, shuffled);
+        assertEquals(100, shuffled.size());
+        assertTrue(shuffled.containsAll(tracks));
+        assertEquals(sum(tracks), queue.getTotalDuration());
+    }
+
+    @Test
+    @DisplayName("길이를 모르는 트랙은 합계에서 제외한다")
+    void shouldIgnoreUnknownDuration() {
+        // given
+        TrackQueue queue = new TrackQueue();
+        queue.offer(track(Long.MAX_VALUE));
+        queue.offer(track(3_000L));
+
+        // then
+        assertEquals(3_000L, queue.getTotalDuration());
+    }
+
+    @Test
+    @DisplayName("반복자로 곡을 뺄 수 있다")
+    void shouldRemoveThroughIterator() {
+        // given
+        TrackQueue queue = new TrackQueue();
+        List<AudioTrack> tracks = tracks(6);
+        queue.addAll(tracks);
+
+        // when: 짝수 번째 곡만 뺌
+        Iterator<AudioTrack> it = queue.iterator();
+        int i = 0;
+        while (it.hasNext()) {
+            it.next();
+            if (i++ % 2 == 0) {
+                it.remove();
+            }
+        }
+
+        // then
+        assertEquals(List.of(tracks.get(1), tracks.get(3), tracks.get(5)), new ArrayList<>(queue));
+    }
+
+    @Test
+    @DisplayName("범위를 벗어난 위치는 예외를 던진다")
+    void shouldRejectOutOfRangeIndex() {
+        TrackQueue queue = new TrackQueue();
+        queue.offer(track(1L));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> queue.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> queue.remove(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> queue.move(0, 1));
+    }
+
+    @Test
+    @DisplayName("스냅샷은 이후 변경에 영향을 받지 않고 바꿀 수 없다")
+    void shouldKeepSnapshotUnchanged() {
+        // given
+        TrackQueue queue = new TrackQueue();
+        List<AudioTrack> tracks = tracks(10);
+        queue.addAll(tracks);
+
+        // when
+        TrackQueue snapshot = queue.snapshot();
+        queue.remove(3);
+        queue.move(0, 5);
+        queue.offer(track(1L));
+        queue.shuffle(new Random(7));
+
+        // then
+        assertEquals(tracks, new ArrayList<>(snapshot));
+        assertEquals(sum(tracks), snapshot.getTotalDuration());
+        assertThrows(UnsupportedOperationException.class, snapshot::poll);
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.offer(track(1L)));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.remove(0));
+        Iterator<AudioTrack> it = snapshot.iterator();
+        it.next();
+        assertThrows(UnsupportedOperationException.class, it::remove);
+    }
+}
@@ -0,0 +1,223 @@
+package music.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TrackResolutionCache 테스트 클래스
+ *
+ * 테스트 대상:
+ * - normalize(): 검색어/URL 정규화
+ * - get()/put(): 메모리/디스크 2단계 조회
+ * - TTL 만료와 실패 결과 캐시
+ * - 디스크 항목 수 상한과 만료 파일 정리
+ * - 적중/실패 카운터
+ */
+class TrackResolutionCacheTest {
+
+    private static final long TTL = 60_000L;
+    private static final long NEGATIVE_TTL = 5_000L;
+
+    @TempDir
+    Path tempDir;
+
+    private TrackResolutionCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new TrackResolutionCache(tempDir, 2, TTL, NEGATIVE_TTL, 100, 1 << 20);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        // 임시 디렉터리를 지우기 전에 디스크 기록을 마침
+        cache.close();
+    }
+
+    private static CachedResolution track(String encoded, long expiresAt) {
+        return new CachedResolution(CachedResolution.Kind.TRACK, List.of(encoded), null, -1, false, null, expiresAt);
+    }
+
+    private static void awaitDiskWrite(Path dir, int expectedFiles) throws Exception {
+        for (int i = 0; i < 100; i++) {
+            try (var files = java.nio.file.Files.list(dir)) {
+                if (files.filter(p -> p.toString().endsWith(".json")).count() >= expectedFiles) {
+                    return;
+                }
+            }
+            Thread.sleep(20);
+        }
+        fail("디스크 기록이 완료되지 않았습니다.");
+    }
+
+    @Test
+    @DisplayName("YouTube URL 변형을 같은 키로 정규화한다")
+    void shouldNormalizeYoutubeUrlVariants() {
+        String expected = "https://www.youtube.com/watch?v=dQw4w9WgXcQ";
+
+        assertEquals(expected, TrackResolutionCache.normalize("https://www.youtube.com/watch?v=dQw4w9WgXcQ&si=abc"));
+        assertEquals(expected, TrackResolutionCache.normalize("https://youtu.be/dQw4w9WgXcQ?si=xyz"));
+        assertEquals(expected, TrackResolutionCache.normalize("  https://music.youtube.com/watch?v=dQw4w9WgXcQ&feature=share "));
+        assertEquals(expected, TrackResolutionCache.normalize("https://m.youtube.com/watch?v=dQw4w9WgXcQ"));
+    }
+
+    @Test
+    @DisplayName("재생목록 파라미터는 키에 유지한다")
+    void shouldKeepPlaylistParameter() {
+        assertEquals("https://www.youtube.com/playlist?list=PL123",
+                TrackResolutionCache.normalize("https://www.youtube.com/playlist?list=PL123&si=a"));
+        assertEquals("https://www.youtube.com/watch?v=abc&list=PL123",
+                TrackResolutionCache.normalize("https://youtube.com/watch?list=PL123&v=abc"));
+    }
+
+    @Test
+    @DisplayName("검색어는 대소문자와 공백을 정리한다")
+    void shouldNormalizeSearchTerms() {
+        assertEquals("ytsearch:never gonna give you up",
+                TrackResolutionCache.normalize("ytsearch:  Never   Gonna Give You Up "));
+    }
+
+    @Test
+    @DisplayName("로컬 파일 경로는 캐시하지 않는다")
+    void shouldNotCacheLocalPaths() {
+        assertFalse(TrackResolutionCache.isCacheable("uploads/user#0.mp3"));
+        assertFalse(TrackResolutionCache.isCacheable("ytsearch:   "));
+        assertTrue(TrackResolutionCache.isCacheable("https://soundcloud.com/a/b"));
+    }
+
+    @Test
+    @DisplayName("메모리에서 결과를 조회하고 적중 수를 센다")
+    void shouldHitMemoryTier() {
+        // given
+        cache.put("k", track("enc", TTL));
+
+        // when
+        CachedResolution result = cache.get("k", 0L);
+
+        // then
+        assertNotNull(result);
+        assertEquals(List.of("enc"), result.encodedTracks);
+        assertEquals(1, cache.getMemoryHits());
+        assertEquals(0, cache.getMisses());
+    }
+
+    @Test
+    @DisplayName("재시작 후에도 디스크에서 결과를 조회한다")
+    void shouldHitDiskTierAfterRestart() throws Exception {
+        // given
+        cache.put("k", track("enc", TTL));
+        awaitDiskWrite(tempDir, 1);
+        TrackResolutionCache restarted = new TrackResolutionCache(tempDir, 2, TTL, NEGATIVE_TTL, 100, 1 << 20);
+
+        // when
+        CachedResolution first = restarted.get("k", 0L);
+        CachedResolution second = restarted.get("k", 0L);
+
+        // then
+        assertNotNull(first);
+        assertEquals(List.of("enc"), first.encodedTracks);
+        assertNotNull(second);
+        assertEquals(1, restarted.getDiskHits());
+        assertEquals(1, restarted.getMemoryHits());
+    }
+
+    @Test
+    @DisplayName("메모리 용량을 넘으면 가장 오래 안 쓴 항목부터 밀어낸다")
+    void shouldEvictLeastRecentlyUsedFromMemory() throws Exception {
+        // given
+        cache.put("a", track("A", TTL));
+        cache.put("b", track("B", TTL));
+        cache.get("a", 0L);
+        cache.put("c", track("C", TTL));
+        awaitDiskWrite(tempDir, 3);
+
+        // when
+        cache.get("b", 0L);
+
+        // then: b 는 메모리에서 밀려났지만 디스크에서 찾음
+        assertEquals(1, cache.getDiskHits());
+    }
+
+    @Test
+    @DisplayName("만료된 결과는 반환하지 않는다")
+    void shouldNotReturnExpiredEntry() {
+        // given
+        cache.put("k", track("enc", 1_000L));
+
+        // when
+        CachedResolution result = cache.get("k", 2_000L);
+
+        // then
+        assertNull(result);
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    @DisplayName("실패 결과도 캐시하고 별도로 센다")
+    void shouldCacheNegativeResults() {
+        // given
+        cache.put("k", CachedResolution.noMatches(cache.negativeExpiry(0L)));
+
+        // when
+        CachedResolution result = cache.get("k", NEGATIVE_TTL - 1);
+        CachedResolution expired = cache.get("k", NEGATIVE_TTL);
+
+        // then
+        assertNotNull(result);
+        assertTrue(result.isNegative());
+        assertEquals(1, cache.getNegativeHits());
+        assertNull(expired);
+    }
+
+    @Test
+    @DisplayName("디스크 항목 수가 상한을 넘으면 먼저 만료될 항목부터 지운다")
+    void shouldCapDiskEntries() throws Exception {
+        // given
+        cache.close();
+        cache = new TrackResolutionCache(tempDir, 2, TTL, NEGATIVE_TTL, 10, 1 << 20);
+
+        // when
+        for (int i = 0; i < 11; i++) {
+            cache.put("k" + i, track("enc", TTL + i));
+        }
+        cache.close();
+
+        // then: 상한의 90% 까지 줄이고, 가장 먼저 만료될 k0, k1 이 지워짐
+        assertEquals(9, cache.getDiskEntries());
+        try (var files = java.nio.file.Files.list(tempDir)) {
+            assertEquals(9, files.count());
+        }
+        TrackResolutionCache restarted = new TrackResolutionCache(tempDir, 2, TTL, NEGATIVE_TTL, 10, 1 << 20);
+        assertNull(restarted.get("k0", 0L));
+        assertNotNull(restarted.get("k10", 0L));
+        restarted.close();
+    }
+
+    @Test
+    @DisplayName("정리 작업은 만료된 디스크 파일을 지우고 없는 키는 디스크를 보지 않는다")
+    void shouldSweepExpiredDiskEntries() throws Exception {
+        // given
+        cache.put("old", track("A", 1_000L));
+        cache.put("new", track("B", TTL));
+        awaitDiskWrite(tempDir, 2);
+
+        // when
+        cache.sweepDisk(2_000L);
+
+        // then
+        assertEquals(1, cache.getDiskEntries());
+        try (var files = java.nio.file.Files.list(tempDir)) {
+            assertEquals(1, files.count());
+        }
+        assertNull(cache.get("missing", 0L));
+        assertEquals(1, cache.getMisses());
+    }
+}
@@ -0,0 +1,251 @@
+package music.service;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackEndReason;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.*;
+
+/**
+ * TrackScheduler 동시성 스트레스 테스트
+ *
+ * 여러 스레드가 동시에 추가/스킵/곡 종료/정지를 보내고, 조회 스레드가 스냅샷을 읽는 동안
+ * - 플레이어를 동시에 두 스레드가 건드리지 않는지 (단일 작성자)
+ * - 곡이 중복 재생되거나 사라지지 않는지
+ * - 스냅샷의 곡 수와 재생 시간 합계가 항상 맞는지
+ * 확인합니다.
+ */
+class TrackSchedulerConcurrencyTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int TRACKS_PER_PRODUCER = 500;
+    private static final int END_EVENTS = 1_500;
+
+    private AudioPlayer player;
+    private TrackScheduler scheduler;
+
+    private final AtomicReference<AudioTrack> playing = new AtomicReference<>();
+    private final Queue<AudioTrack> started = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inPlayer = new AtomicInteger();
+    private final AtomicBoolean overlapped = new AtomicBoolean();
+
+    @BeforeEach
+    void setUp() {
+        // 재생 상태만 흉내 내는 플레이어, 두 스레드가 동시에 들어오면 기록
+        // (호출이 아주 많아 호출 기록을 남기지 않는 stubOnly 목 사용)
+        player = mock(AudioPlayer.class, withSettings().stubOnly());
+        when(player.startTrack(any(), anyBoolean())).thenAnswer(invocation -> {
+            enter();
+            try {
+                AudioTrack track = invocation.getArgument(0);
+                boolean noInterrupt = invocation.getArgument(1);
+                if (noInterrupt && playing.get() != null) {
+                    return false;
+                }
+                playing.set(track);
+                if (track != null) {
+                    started.add(track);
+                }
+                return true;
+            } finally {
+                inPlayer.decrementAndGet();
+            }
+        });
+        doAnswer(invocation -> {
+            enter();
+            playing.set(null);
+            inPlayer.decrementAndGet();
+            return null;
+        }).when(player).stopTrack();
+        scheduler = new TrackScheduler(player);
+    }
+
+    private void enter() {
+        if (inPlayer.incrementAndGet() > 1) {
+            overlapped.set(true);
+        }
+    }
+
+    private static List<List<AudioTrack>> tracks() {
+        List<List<AudioTrack>> perProducer = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            List<AudioTrack> list = new ArrayList<>();
+            for (int i = 0; i < TRACKS_PER_PRODUCER; i++) {
+                AudioTrack track = mock(AudioTrack.class, withSettings().stubOnly());
+                when(track.getDuration()).thenReturn(1_000L + i);
+                list.add(track);
+            }
+            perProducer.add(list);
+        }
+        return perProducer;
+    }
+
+    /**
+     * 생산자 스레드와 곡 종료 스레드, 조회 스레드를 함께 돌립니다.
+     */
+    private void run(List<List<AudioTrack>> perProducer, Runnable extra, List<Throwable> errors) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean producing = new AtomicBoolean(true);
+        AtomicInteger writersLeft = new AtomicInteger(PRODUCERS + 1);
+        List<Thread> threads = new ArrayList<>();
+
+        for (List<AudioTrack> list : perProducer) {
+            threads.add(new Thread(() -> {
+                try {
+                    await(start);
+                    for (int i = 0; i < list.size(); i++) {
+                        if (i % 10 == 0) {
+                            scheduler.queueAll(list.subList(i, Math.min(i + 5, list.size())));
+                            i += 4;
+                        } else {
+                            scheduler.queue(list.get(i));
+                        }
+                    }
+                } finally {
+                    if (writersLeft.decrementAndGet() == 0) {
+                        producing.set(false);
+                    }
+                }
+            }));
+        }
+        // Lavaplayer 재생 스레드처럼 곡 종료 이벤트와 스킵을 보냄
+        threads.add(new Thread(() -> {
+            try {
+                await(start);
+                for (int n = 0; n < END_EVENTS; n++) {
+                    AudioTrack current = playing.get();
+                    if (n % 3 == 0) {
+                        scheduler.nextTrack();
+                    } else if (current != null) {
+                        scheduler.onTrackEnd(player, current, AudioTrackEndReason.FINISHED);
+                    }
+                    extra.run();
+                }
+            } finally {
+                if (writersLeft.decrementAndGet() == 0) {
+                    producing.set(false);
+                }
+            }
+        }));
+        for (int r = 0; r < 2; r++) {
+            threads.add(new Thread(() -> {
+                await(start);
+                while (producing.get()) {
+                    Queue<AudioTrack> snapshot = scheduler.getQueue();
+                    int count = 0;
+                    long duration = 0;
+                    for (AudioTrack track : snapshot) {
+                        count++;
+                        duration += track.getDuration();
+                    }
+                    if (count != snapshot.size() || duration != ((TrackQueue) snapshot).getTotalDuration()) {
+                        errors.add(new AssertionError("inconsistent snapshot: " + count + "/" + snapshot.size()));
+                    }
+                }
+            }));
+        }
+
+        for (Thread t : threads) {
+            t.setUncaughtExceptionHandler((th, e) -> errors.add(e));
+            t.start();
+        }
+        start.countDown();
+        for (Thread t : threads) {
+            t.join(30_000);
+        }
+        producing.set(false);
+        for (Thread t : threads) {
+            assertFalse(t.isAlive(), "thread did not finish");
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    @DisplayName("동시에 추가/스킵/곡 종료를 보내도 곡이 중복되거나 사라지지 않는다")
+    void shouldNotLoseOrDuplicateTracks() throws InterruptedException {
+        // given
+        List<List<AudioTrack>> perProducer = tracks();
+        List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+
+        // when
+        run(perProducer, () -> { }, errors);
+
+        // then
+        assertTrue(errors.isEmpty(), () -> errors.toString());
+        assertFalse(overlapped.get(), "player was entered by two threads at once");
+
+        List<AudioTrack> startedList = new ArrayList<>(started);
+        Set<AudioTrack> seen = new HashSet<>(startedList);
+        assertEquals(startedList.size(), seen.size(), "a track was started twice");
+
+        List<AudioTrack> remaining = List.copyOf(scheduler.getQueue());
+        for (AudioTrack track : remaining) {
+            assertTrue(seen.add(track), "queued track was already started");
+        }
+        assertEquals(PRODUCERS * TRACKS_PER_PRODUCER, startedList.size() + remaining.size());
+
+        // 생산자별로는 넣은 순서대로 재생/대기해야 함
+        List<AudioTrack> order = new ArrayList<>(startedList);
+        order.addAll(remaining);
+        for (List<AudioTrack> list : perProducer) {
+            int last = -1;
+            for (AudioTrack track : list) {
+                int index = order.indexOf(track);
+                assertTrue(index > last, "producer order was not kept");
+                last = index;
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("정지가 섞여도 플레이어는 한 스레드만 건드리고 스냅샷은 일관된다")
+    void shouldStaySingleWriterWithStops() throws InterruptedException {
+        // given
+        List<List<AudioTrack>> perProducer = tracks();
+        List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger calls = new AtomicInteger();
+
+        // when
+        run(perProducer, () -> {
+            if (calls.incrementAndGet() % 50 == 0) {
+                scheduler.stop();
+            }
+        }, errors);
+        scheduler.stop();
+
+        // then
+        assertTrue(errors.isEmpty(), () -> errors.toString());
+        assertFalse(overlapped.get(), "player was entered by two threads at once");
+        assertEquals(0, scheduler.size());
+        assertEquals(0, scheduler.getTotalDuration());
+        assertNull(playing.get());
+
+        List<AudioTrack> startedList = new ArrayList<>(started);
+        assertEquals(startedList.size(), new HashSet<>(startedList).size(), "a track was started twice");
+    }
+}
@@ -3,17 +3,24 @@ package music.service;
 import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrackEndReason;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
+import com.sedmelluq.discord.lavaplayer.track.TrackMarker;
+import com.sedmelluq.discord.lavaplayer.track.TrackMarkerHandler;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.CompletionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -22,9 +29,13 @@ import static org.mockito.Mockito.*;
  * 
  * 테스트 대상:
  * - queue(): 트랙을 큐에 추가하거나 바로 재생
+ * - queueAll(): 여러 트랙을 한 번에 추가하고 최대 한 곡만 재생
+ * - remove()/move()/shuffle()/slice(): 대기열 편집과 페이지 조회
  * - nextTrack(): 다음 트랙으로 넘기기
  * - onTrackEnd(): 트랙 종료 시 자동으로 다음 트랙 재생
  * - getQueue(): 대기열 조회
+ * - 명령이 Error 를 던져도 기다리는 쪽에 전달하고 다음 명령을 계속 실행
+ * - onTrackStart(): 끝나기 전에 다음 곡을 미리 불러오는 마커 설정
  */
 @ExtendWith(MockitoExtension.class)
 class TrackSchedulerTest {
@@ -91,9 +102,7 @@ class TrackSchedulerTest {
         // then
         Queue<AudioTrack> queue = scheduler.getQueue();
         assertEquals(3, queue.size());
-        assertEquals(track1, queue.poll());
-        assertEquals(track2, queue.poll());
-        assertEquals(track3, queue.poll());
+        assertEquals(List.of(track1, track2, track3), List.copyOf(queue));
     }
 
     @Test
@@ -167,7 +176,7 @@ class TrackSchedulerTest {
     }
 
     @Test
-    @DisplayName("큐를 안전하게 반환한다")
+    @DisplayName("큐를 읽기 전용 스냅샷으로 반환한다")
     void shouldReturnQueueSafely() {
         // given
         when(player.startTrack(any(AudioTrack.class), eq(true))).thenReturn(false);
@@ -180,9 +189,12 @@ class TrackSchedulerTest {
         // then
         assertNotNull(queue);
         assertEquals(2, queue.size());
-        // 원본 큐를 반환하므로 수정 가능해야 함
-        queue.clear();
+        // 스냅샷은 바꿀 수 없고, 이후 변경에도 그대로 남음
+        assertThrows(UnsupportedOperationException.class, queue::clear);
+        scheduler.stop();
+        assertEquals(2, queue.size());
         assertTrue(scheduler.getQueue().isEmpty());
+        verify(player).stopTrack();
     }
 
     @Test
@@ -211,5 +223,156 @@ class TrackSchedulerTest {
         // then
         assertEquals(20, scheduler.getQueue().size());
     }
-}
 
+    @Test
+    @DisplayName("곡이 끝나기 전에 대기열 맨 앞 곡을 미리 불러오는 마커를 건다")
+    void shouldPrefetchQueueHeadBeforeTrackEnds() {
+        // given
+        GaplessAudioPlayer gapless = mock(GaplessAudioPlayer.class);
+        TrackScheduler prefetching = new TrackScheduler(gapless, 10_000);
+        when(gapless.startQueued(any(AudioTrack.class), eq(true))).thenReturn(false);
+        prefetching.queue(track2);
+        when(track1.getDuration()).thenReturn(180_000L);
+        when(track1.getInfo()).thenReturn(new AudioTrackInfo("t", "a", 180_000L, "id", false, "uri"));
+
+        // when
+        prefetching.onTrackStart(gapless, track1);
+
+        // then
+        ArgumentCaptor<TrackMarker> captor = ArgumentCaptor.forClass(TrackMarker.class);
+        verify(track1).addMarker(captor.capture());
+        assertEquals(170_000L, captor.getValue().timecode);
+
+        captor.getValue().handler.handle(TrackMarkerHandler.MarkerState.REACHED);
+        verify(gapless).prefetch(track2);
+    }
+
+    @Test
+    @DisplayName("명령이 Error 를 던져도 결과를 기다리는 쪽에 전달하고 다음 명령을 실행한다")
+    void shouldSurviveErrorsThrownByCommands() {
+        // given
+        GaplessAudioPlayer gapless = mock(GaplessAudioPlayer.class);
+        TrackScheduler failing = new TrackScheduler(gapless, 10_000);
+        when(gapless.startQueued(track1, true)).thenThrow(new AssertionError("boom"));
+        when(gapless.startQueued(track2, true)).thenReturn(false);
+        when(gapless.getPrefetchedTrack()).thenThrow(new AssertionError("prefetch"));
+
+        // when: 결과가 없는 명령은 로그만 남기고 넘어감
+        failing.queue(track1);
+        failing.queue(track2);
+        assertEquals(List.of(track2), List.copyOf(failing.getQueue()));
+
+        // then: 결과를 기다리는 명령은 예외로 끝남
+        CompletionException e = assertThrows(CompletionException.class, () -> failing.remove(0));
+        assertInstanceOf(AssertionError.class, e.getCause());
+    }
+
+    @Test
+    @DisplayName("라이브 스트림이나 일반 플레이어에서는 마커를 걸지 않는다")
+    void shouldNotPrefetchForStreamsOrPlainPlayer() {
+        // given
+        GaplessAudioPlayer gapless = mock(GaplessAudioPlayer.class);
+        when(track1.getDuration()).thenReturn(Long.MAX_VALUE);
+
+        // when
+        new TrackScheduler(gapless, 10_000).onTrackStart(gapless, track1);
+        new TrackScheduler(player, 10_000).onTrackStart(player, track2);
+
+        // then
+        verify(track1, never()).addMarker(any());
+        verify(track2, never()).addMarker(any());
+    }
+
+    @Test
+    @DisplayName("여러 트랙을 넣으면 첫 곡만 재생하고 나머지는 큐에 추가한다")
+    void shouldStartFirstAndQueueRestOnQueueAll() {
+        // given
+        when(player.startTrack(track1, true)).thenReturn(true);
+
+        // when
+        int count = scheduler.queueAll(List.of(track1, track2, track3));
+
+        // then
+        assertEquals(3, count);
+        verify(player, times(1)).startTrack(any(AudioTrack.class), anyBoolean());
+        assertEquals(List.of(track2, track3), List.copyOf(scheduler.getQueue()));
+    }
+
+    @Test
+    @DisplayName("이미 재생 중이면 모든 트랙을 순서대로 큐에 추가한다")
+    void shouldQueueAllWhenAlreadyPlaying() {
+        // given
+        when(player.startTrack(track1, true)).thenReturn(false);
+
+        // when
+        int count = scheduler.queueAll(List.of(track1, track2, track3));
+
+        // then
+        assertEquals(3, count);
+        assertEquals(List.of(track1, track2, track3), List.copyOf(scheduler.getQueue()));
+    }
+
+    @Test
+    @DisplayName("빈 목록이면 아무것도 하지 않는다")
+    void shouldIgnoreEmptyQueueAll() {
+        // when
+        int count = scheduler.queueAll(List.of());
+
+        // then
+        assertEquals(0, count);
+        verifyNoInteractions(player);
+    }
+
+    @Test
+    @DisplayName("대기열의 곡을 빼고 옮긴다")
+    void shouldRemoveAndMoveQueuedTracks() {
+        // given
+        when(player.startTrack(any(AudioTrack.class), eq(true))).thenReturn(false);
+        scheduler.queueAll(List.of(track1, track2, track3));
+
+        // when
+        boolean moved = scheduler.move(2, 0);
+        AudioTrack removed = scheduler.remove(1);
+
+        // then
+        assertTrue(moved);
+        assertSame(track1, removed);
+        assertEquals(List.of(track3, track2), scheduler.slice(0, 10));
+        assertNull(scheduler.remove(5));
+        assertFalse(scheduler.move(0, 5));
+    }
+
+    @Test
+    @DisplayName("대기열 곡 수와 전체 재생 시간을 반환한다")
+    void shouldReportRunningTotals() {
+        // given
+        when(player.startTrack(any(AudioTrack.class), eq(true))).thenReturn(false);
+        when(track1.getDuration()).thenReturn(60_000L);
+        when(track2.getDuration()).thenReturn(90_000L);
+        scheduler.queueAll(List.of(track1, track2));
+
+        // when
+        scheduler.nextTrack();
+
+        // then
+        assertEquals(1, scheduler.size());
+        assertEquals(90_000L, scheduler.getTotalDuration());
+    }
+
+    @Test
+    @DisplayName("대기열 맨 앞이 바뀌면 미리 불러온 곡도 바꾼다")
+    void shouldRefreshPrefetchWhenHeadChanges() {
+        // given
+        GaplessAudioPlayer gapless = mock(GaplessAudioPlayer.class);
+        TrackScheduler prefetching = new TrackScheduler(gapless, 10_000);
+        when(gapless.startQueued(any(AudioTrack.class), eq(true))).thenReturn(false);
+        prefetching.queueAll(List.of(track1, track2));
+        when(gapless.getPrefetchedTrack()).thenReturn(track1);
+
+        // when
+        prefetching.remove(0);
+
+        // then
+        verify(gapless).prefetch(track2);
+    }
+}
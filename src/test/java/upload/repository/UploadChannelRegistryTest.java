@@ -13,6 +13,7 @@ import static org.junit.jupiter.api.Assertions.*;
  * - setUploadChannel(): 서버별 업로드 채널 설정
  * - getUploadChannel(): 서버별 업로드 채널 조회
  * - removeUploadChannel(): 서버별 업로드 채널 제거
+ * - isUploadChannel(): 메시지 필터용 비교
  */
 class UploadChannelRegistryTest {
 
@@ -116,5 +117,19 @@ class UploadChannelRegistryTest {
         assertDoesNotThrow(() -> UploadChannelRegistry.removeUploadChannel(guildId));
         assertNull(UploadChannelRegistry.getUploadChannel(guildId));
     }
-}
 
+    @Test
+    @DisplayName("설정한 채널에서 온 메시지만 업로드 채널로 판단한다")
+    void shouldMatchOnlyUploadChannel() {
+        // given
+        long guildId = 123456789L;
+        long channelId = 987654321L;
+        UploadChannelRegistry.setUploadChannel(guildId, channelId);
+
+        // when & then
+        assertTrue(UploadChannelRegistry.isUploadChannel(guildId, channelId));
+        assertFalse(UploadChannelRegistry.isUploadChannel(guildId, 111111111L));
+        assertFalse(UploadChannelRegistry.isUploadChannel(555555555L, channelId));
+        assertEquals(UploadChannelRegistry.NONE, UploadChannelRegistry.getUploadChannelId(555555555L));
+    }
+}
@@ -0,0 +1,141 @@
+package upload.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * UploadIndex 테스트 클래스
+ *
+ * 테스트 대상:
+ * - start(): 기존 파일 목록과 크기/수정 시각 인덱싱
+ * - refresh(): 저장/삭제를 바로 반영
+ * - WatchService: 디렉터리 변경 반영
+ * - rescan(): 인덱스를 디렉터리와 맞춤
+ */
+class UploadIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path dir;
+    private UploadIndex index;
+
+    @BeforeEach
+    void setUp() {
+        dir = tempDir.resolve("uploads");
+        index = new UploadIndex(dir);
+    }
+
+    @AfterEach
+    void tearDown() {
+        index.stop();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        // WatchService 는 구현에 따라 폴링하므로 (macOS 등) 넉넉히 기다림
+        long deadline = System.currentTimeMillis() + 15_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @Test
+    @DisplayName("시작할 때 디렉터리의 파일을 크기/수정 시각과 함께 인덱싱한다")
+    void shouldIndexExistingFiles() throws Exception {
+        // given
+        Files.createDirectories(dir.resolve("nested"));
+        Files.write(dir.resolve("user#0001.mp3"), new byte[]{1, 2, 3});
+        Files.setLastModifiedTime(dir.resolve("user#0001.mp3"), FileTime.fromMillis(1_000_000));
+
+        // when
+        index.start();
+
+        // then
+        UploadIndex.Entry entry = index.find("user#0001.mp3");
+        assertNotNull(entry);
+        assertEquals(3, entry.size);
+        assertEquals(1_000_000, entry.lastModifiedMillis);
+        assertFalse(index.exists("nested"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    @DisplayName("디렉터리가 없으면 만들고 빈 인덱스로 시작한다")
+    void shouldCreateMissingDirectory() throws Exception {
+        // when
+        index.start();
+
+        // then
+        assertTrue(Files.isDirectory(dir));
+        assertEquals(0, index.size());
+        assertNull(index.find("user#0001.mp3"));
+    }
+
+    @Test
+    @DisplayName("refresh() 는 감시 이벤트 없이 저장/삭제를 바로 반영한다")
+    void shouldReflectRefreshImmediately() throws Exception {
+        // given: 감시를 시작하지 않음
+        Files.createDirectories(dir);
+        Files.write(dir.resolve("user#0001.mp3"), new byte[]{1});
+
+        // when & then
+        index.refresh("user#0001.mp3");
+        assertEquals(1, index.find("user#0001.mp3").size);
+
+        Files.write(dir.resolve("user#0001.mp3"), new byte[]{1, 2});
+        index.refresh("user#0001.mp3");
+        assertEquals(2, index.find("user#0001.mp3").size);
+
+        Files.delete(dir.resolve("user#0001.mp3"));
+        index.refresh("user#0001.mp3");
+        assertFalse(index.exists("user#0001.mp3"));
+    }
+
+    @Test
+    @DisplayName("감시 중에 생기거나 지워진 파일을 반영한다")
+    void shouldFollowDirectoryChanges() throws Exception {
+        // given
+        index.start();
+
+        // when: 생성
+        Files.write(dir.resolve("user#0002.mp3"), new byte[]{1, 2, 3, 4});
+
+        // then
+        awaitTrue(() -> index.find("user#0002.mp3") != null && index.find("user#0002.mp3").size == 4);
+
+        // when: 삭제
+        Files.delete(dir.resolve("user#0002.mp3"));
+
+        // then
+        awaitTrue(() -> !index.exists("user#0002.mp3"));
+    }
+
+    @Test
+    @DisplayName("rescan() 은 없어진 파일을 지우고 새 파일을 추가한다")
+    void shouldSyncOnRescan() throws Exception {
+        // given
+        Files.createDirectories(dir);
+        Files.write(dir.resolve("old.mp3"), new byte[]{1});
+        index.rescan();
+        Files.delete(dir.resolve("old.mp3"));
+        Files.write(dir.resolve("new.mp3"), new byte[]{1});
+
+        // when
+        index.rescan();
+
+        // then
+        assertFalse(index.exists("old.mp3"));
+        assertTrue(index.exists("new.mp3"));
+    }
+}
@@ -0,0 +1,107 @@
+package upload.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Mp3Probe 테스트 클래스
+ *
+ * 테스트 대상:
+ * - feed(): 프레임 헤더로 시작하는 파일, ID3v2 태그 뒤의 프레임 헤더
+ * - feed(): 조각으로 나눠 들어와도 같은 결과
+ * - feed()/finish(): MP3 가 아닌 내용은 INVALID
+ */
+class Mp3ProbeTest {
+
+    // MPEG-1 Layer III, 128kbps, 44.1kHz
+    static final byte[] FRAME_HEADER = {(byte) 0xff, (byte) 0xfb, (byte) 0x90, 0x64};
+
+    static byte[] id3Tag(int bodySize) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(new byte[]{'I', 'D', '3', 4, 0, 0,
+                (byte) (bodySize >> 21 & 0x7f), (byte) (bodySize >> 14 & 0x7f),
+                (byte) (bodySize >> 7 & 0x7f), (byte) (bodySize & 0x7f)});
+        // 태그 안에 프레임 헤더처럼 보이는 바이트가 있어도 건너뛰어야 함
+        byte[] body = new byte[bodySize];
+        for (int i = 0; i < body.length; i++) {
+            body[i] = (byte) 0xff;
+        }
+        out.writeBytes(body);
+        return out.toByteArray();
+    }
+
+    @Test
+    @DisplayName("프레임 헤더로 시작하면 VALID")
+    void shouldAcceptBareFrame() {
+        // given
+        Mp3Probe probe = new Mp3Probe();
+        byte[] data = new byte[64];
+        System.arraycopy(FRAME_HEADER, 0, data, 0, 4);
+
+        // when & then
+        assertEquals(Mp3Probe.Result.VALID, probe.feed(data, 0, data.length));
+    }
+
+    @Test
+    @DisplayName("ID3v2 태그를 건너뛰고 프레임 헤더를 찾는다 (한 바이트씩 들어와도)")
+    void shouldSkipId3TagAcrossChunks() {
+        // given
+        Mp3Probe probe = new Mp3Probe();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(id3Tag(300_000));
+        out.writeBytes(FRAME_HEADER);
+        byte[] data = out.toByteArray();
+
+        // when
+        Mp3Probe.Result result = Mp3Probe.Result.NEED_MORE;
+        for (int i = 0; i < data.length - 1; i++) {
+            result = probe.feed(data, i, 1);
+            assertEquals(Mp3Probe.Result.NEED_MORE, result, "at " + i);
+        }
+        result = probe.feed(data, data.length - 1, 1);
+
+        // then
+        assertEquals(Mp3Probe.Result.VALID, result);
+    }
+
+    @Test
+    @DisplayName("MP3 가 아닌 내용은 INVALID")
+    void shouldRejectOtherContent() {
+        // given: 프레임 헤더가 없는 긴 내용
+        Mp3Probe probe = new Mp3Probe();
+        byte[] data = new byte[Mp3Probe.MAX_SYNC_SEARCH + 16];
+
+        // when & then
+        assertEquals(Mp3Probe.Result.INVALID, probe.feed(data, 0, data.length));
+    }
+
+    @Test
+    @DisplayName("프레임 헤더를 찾기 전에 끝나면 INVALID")
+    void shouldRejectShortContent() {
+        // given
+        Mp3Probe probe = new Mp3Probe();
+        byte[] data = "hello".getBytes();
+
+        // when
+        assertEquals(Mp3Probe.Result.NEED_MORE, probe.feed(data, 0, data.length));
+
+        // then
+        assertEquals(Mp3Probe.Result.INVALID, probe.finish());
+    }
+
+    @Test
+    @DisplayName("예약 값이 들어간 헤더는 프레임 헤더로 보지 않는다")
+    void shouldRejectReservedHeaderFields() {
+        assertTrue(Mp3Probe.isFrameHeader(0xfffb9064));
+        // Layer I
+        assertFalse(Mp3Probe.isFrameHeader(0xffff9064));
+        // 비트레이트 1111
+        assertFalse(Mp3Probe.isFrameHeader(0xfffbf064));
+        // 샘플레이트 11
+        assertFalse(Mp3Probe.isFrameHeader(0xfffb9c64));
+    }
+}
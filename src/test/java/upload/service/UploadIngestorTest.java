@@ -0,0 +1,155 @@
+package upload.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * UploadIngestor 테스트 클래스
+ *
+ * 테스트 대상:
+ * - submit(): 받은 mp3 를 임시 파일을 거쳐 원래 이름으로 교체
+ * - 크기 제한/MP3 가 아닌 파일은 거절하고 기존 파일과 임시 파일을 남기지 않음
+ * - 스레드와 대기열이 다 차면 거절
+ */
+class UploadIngestorTest {
+
+    @TempDir
+    Path dir;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = UploadIngestor.newExecutor(1, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static byte[] mp3(int size) {
+        byte[] data = new byte[size];
+        System.arraycopy(Mp3ProbeTest.FRAME_HEADER, 0, data, 0, 4);
+        return data;
+    }
+
+    private static CompletableFuture<InputStream> body(byte[] data) {
+        return CompletableFuture.completedFuture(new ByteArrayInputStream(data));
+    }
+
+    private static Throwable failure(CompletableFuture<Path> future) throws InterruptedException {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        return e.getCause();
+    }
+
+    private long partFiles() throws IOException {
+        try (var files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(".part")).count();
+        }
+    }
+
+    @Test
+    @DisplayName("받은 mp3 로 기존 파일을 교체한다")
+    void shouldReplaceExistingFile() throws Exception {
+        // given
+        UploadIngestor ingestor = new UploadIngestor(dir, 1 << 20, 5_000, executor);
+        Files.write(dir.resolve("user#0000.mp3"), new byte[]{1, 2, 3});
+        byte[] data = mp3(200_000);
+
+        // when
+        Path saved = ingestor.submit("user#0000.mp3", data.length, () -> body(data)).get(5, TimeUnit.SECONDS);
+
+        // then
+        assertEquals(dir.resolve("user#0000.mp3"), saved);
+        assertArrayEquals(data, Files.readAllBytes(saved));
+        assertEquals(0, partFiles());
+    }
+
+    @Test
+    @DisplayName("크기 제한을 넘으면 받는 도중 중단하고 기존 파일을 그대로 둔다")
+    void shouldRejectOversizedStream() throws Exception {
+        // given: 표시된 크기는 모르는 경우
+        UploadIngestor ingestor = new UploadIngestor(dir, 100_000, 5_000, executor);
+        Files.write(dir.resolve("user#0000.mp3"), new byte[]{1, 2, 3});
+
+        // when
+        Throwable cause = failure(ingestor.submit("user#0000.mp3", -1, () -> body(mp3(200_000))));
+
+        // then
+        assertInstanceOf(UploadIngestor.RejectedUploadException.class, cause);
+        assertArrayEquals(new byte[]{1, 2, 3}, Files.readAllBytes(dir.resolve("user#0000.mp3")));
+        assertEquals(0, partFiles());
+    }
+
+    @Test
+    @DisplayName("표시된 크기가 제한을 넘으면 받지 않는다")
+    void shouldRejectDeclaredSizeWithoutDownloading() throws Exception {
+        // given
+        UploadIngestor ingestor = new UploadIngestor(dir, 100_000, 5_000, executor);
+
+        // when
+        Throwable cause = failure(ingestor.submit("user#0000.mp3", 200_000, () -> {
+            throw new AssertionError("should not download");
+        }));
+
+        // then
+        assertInstanceOf(UploadIngestor.RejectedUploadException.class, cause);
+    }
+
+    @Test
+    @DisplayName("MP3 가 아니면 저장하지 않는다")
+    void shouldRejectNonMp3() throws Exception {
+        // given
+        UploadIngestor ingestor = new UploadIngestor(dir, 1 << 20, 5_000, executor);
+
+        // when
+        Throwable cause = failure(ingestor.submit("user#0000.mp3", -1,
+                () -> body("<html>not found</html>".getBytes())));
+
+        // then
+        assertInstanceOf(UploadIngestor.RejectedUploadException.class, cause);
+        assertFalse(Files.exists(dir.resolve("user#0000.mp3")));
+        assertEquals(0, partFiles());
+    }
+
+    @Test
+    @DisplayName("스레드와 대기열이 다 차면 거절한다")
+    void shouldRejectWhenSaturated() throws Exception {
+        // given: 스레드 1개는 응답을 기다리고, 대기열 1칸도 참
+        UploadIngestor ingestor = new UploadIngestor(dir, 1 << 20, 5_000, executor);
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<InputStream> pending = new CompletableFuture<>();
+        CompletableFuture<Path> first = ingestor.submit("a.mp3", -1, () -> {
+            started.countDown();
+            return pending;
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Path> queued = ingestor.submit("b.mp3", -1, () -> body(mp3(1_000)));
+
+        // when
+        Throwable cause = failure(ingestor.submit("c.mp3", -1, () -> body(mp3(1_000))));
+
+        // then
+        assertInstanceOf(UploadIngestor.RejectedUploadException.class, cause);
+        pending.complete(new ByteArrayInputStream(mp3(1_000)));
+        assertEquals(dir.resolve("a.mp3"), first.get(5, TimeUnit.SECONDS));
+        assertEquals(dir.resolve("b.mp3"), queued.get(5, TimeUnit.SECONDS));
+    }
+}